@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compute the delay before the next status poll of a command.
+ * <p>
+ * The delay depends on the last seen status of the command:
+ * <ul>
+ * <li>{@code RECEIVED}: the command waits in the adapter queue, the delay grows up to the expected queue delay
+ * <li>{@code PROCESSING}: the transaction is sent, it should be mined within one or two blocks
+ * <li>unknown: the status could not be fetched, the delay grows up to a few base periods
+ * </ul>
+ * Successive delays follow an exponential backoff with decorrelated jitter, each delay is picked at random
+ * between the base delay and three times the previous delay, then capped.
+ * Waits started together thus quickly stop polling in sync.
+ * When the adapter does not publish {@link PollingHints}, the block time is assumed to be the base period.
+ * <p>
+ * Delays are not bounded by the total timeout of the wait, the {@link CommandStatusPoller} enforces it as a deadline.
+ */
+class AdaptivePollingPolicy {
+
+    static final Duration MIN_DELAY = Duration.ofMillis(10);
+    static final int UNKNOWN_STATUS_MAX_FACTOR = 4;
+    static final int PROCESSING_MAX_BLOCKS = 2;
+
+    private final Duration period;
+
+    /**
+     * @param period base delay between two status polls when no hint is available
+     */
+    AdaptivePollingPolicy(Duration period) {
+        this.period = period;
+    }
+
+    /**
+     * Compute the delay before the next poll.
+     *
+     * @param status        last seen status, null if it could not be fetched
+     * @param hints         hints published by the adapter, null if not available
+     * @param previousDelay delay used before the last poll, null if the status changed since
+     * @return the delay to wait before the next poll
+     */
+    Duration nextDelay(CommandStatus status, PollingHints hints, Duration previousDelay) {
+        final long periodMs = Math.max(MIN_DELAY.toMillis(), period.toMillis());
+        final long blockTimeMs = hints != null && hints.blockTimeMs() > 0 ? hints.blockTimeMs() : periodMs;
+        final long baseMs;
+        final long capMs;
+        if (status == CommandStatus.RECEIVED) {
+            baseMs = blockTimeMs;
+            capMs = Math.max(blockTimeMs, getExpectedQueueDelayMs(hints, blockTimeMs));
+        } else if (status == CommandStatus.PROCESSING) {
+            baseMs = blockTimeMs;
+            capMs = PROCESSING_MAX_BLOCKS * blockTimeMs;
+        } else {
+            baseMs = periodMs;
+            capMs = UNKNOWN_STATUS_MAX_FACTOR * periodMs;
+        }
+        if (previousDelay == null) {
+            return Duration.ofMillis(baseMs);
+        }
+        final long upperMs = Math.max(baseMs, Math.min(capMs, 3 * previousDelay.toMillis()));
+        return Duration.ofMillis(upperMs > baseMs ? ThreadLocalRandom.current().nextLong(baseMs, upperMs + 1) : baseMs);
+    }
+
+    /**
+     * Expected delay before a newly received command is sent on-chain,
+     * when the whole queue is processed at {@code maxAllowedTxPerBlock} transactions per block.
+     * <p>
+     * The queue size is the total queue depth, higher priority or other requesters' commands included:
+     * this is an upper bound of the delay of the polled command.
+     */
+    private long getExpectedQueueDelayMs(PollingHints hints, long blockTimeMs) {
+        if (hints == null || hints.maxAllowedTxPerBlock() <= 0) {
+            return blockTimeMs;
+        }
+        final long blocks = (hints.queueSize() + hints.maxAllowedTxPerBlock() - 1L) / hints.maxAllowedTxPerBlock();
+        return blocks * blockTimeMs;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2022-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,9 @@ import com.iexec.common.chain.adapter.args.TaskFinalizeArgs;
 import feign.Param;
 import feign.RequestLine;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Interface allowing to instantiate a Feign client targeting Blockchain adapter API REST endpoints.
  * <p>
@@ -34,19 +37,75 @@ public interface BlockchainAdapterApiClient {
     @RequestLine("GET /metrics")
     String getMetrics();
 
+    @RequestLine("GET /v1/tasks/polling-hints")
+    PollingHints getPollingHints();
+
     @RequestLine("POST /v1/tasks/initialize?chainDealId={chainDealId}&taskIndex={taskIndex}")
     String requestInitializeTask(@Param("chainDealId") String chainDealId,
                                  @Param("taskIndex") int taskIndex);
 
+    @RequestLine("POST /v1/tasks/initialize?chainDealId={chainDealId}&taskIndex={taskIndex}&callbackUrl={callbackUrl}")
+    String requestInitializeTask(@Param("chainDealId") String chainDealId,
+                                 @Param("taskIndex") int taskIndex,
+                                 @Param("callbackUrl") String callbackUrl);
+
     @RequestLine("GET /v1/tasks/initialize/{chainTaskId}/status")
     CommandStatus getStatusForInitializeTaskRequest(@Param("chainTaskId") String chainTaskId);
 
+    @RequestLine("POST /v1/tasks/initialize/status/batch")
+    Map<String, CommandStatus> getStatusForInitializeTaskRequests(List<String> chainTaskIds);
+
     @RequestLine("POST /v1/tasks/finalize/{chainTaskId}")
     String requestFinalizeTask(@Param("chainTaskId") String chainTaskId, TaskFinalizeArgs taskFinalizeArgs);
 
+    @RequestLine("POST /v1/tasks/finalize/{chainTaskId}?callbackUrl={callbackUrl}")
+    String requestFinalizeTask(@Param("chainTaskId") String chainTaskId, TaskFinalizeArgs taskFinalizeArgs,
+                               @Param("callbackUrl") String callbackUrl);
+
     @RequestLine("GET /v1/tasks/finalize/{chainTaskId}/status")
     CommandStatus getStatusForFinalizeTaskRequest(@Param("chainTaskId") String chainTaskId);
 
+    @RequestLine("POST /v1/tasks/finalize/status/batch")
+    Map<String, CommandStatus> getStatusForFinalizeTaskRequests(List<String> chainTaskIds);
+
+    @RequestLine("POST /v1/tasks/contribute/{chainTaskId}")
+    String requestContributeTask(@Param("chainTaskId") String chainTaskId, TaskContributeRequest taskContributeRequest);
+
+    @RequestLine("POST /v1/tasks/contribute/{chainTaskId}?callbackUrl={callbackUrl}")
+    String requestContributeTask(@Param("chainTaskId") String chainTaskId, TaskContributeRequest taskContributeRequest,
+                                 @Param("callbackUrl") String callbackUrl);
+
+    @RequestLine("GET /v1/tasks/contribute/{chainTaskId}/status")
+    CommandStatus getStatusForContributeTaskRequest(@Param("chainTaskId") String chainTaskId);
+
+    @RequestLine("POST /v1/tasks/contribute/status/batch")
+    Map<String, CommandStatus> getStatusForContributeTaskRequests(List<String> chainTaskIds);
+
+    @RequestLine("POST /v1/tasks/reveal/{chainTaskId}")
+    String requestRevealTask(@Param("chainTaskId") String chainTaskId, TaskRevealRequest taskRevealRequest);
+
+    @RequestLine("POST /v1/tasks/reveal/{chainTaskId}?callbackUrl={callbackUrl}")
+    String requestRevealTask(@Param("chainTaskId") String chainTaskId, TaskRevealRequest taskRevealRequest,
+                             @Param("callbackUrl") String callbackUrl);
+
+    @RequestLine("GET /v1/tasks/reveal/{chainTaskId}/status")
+    CommandStatus getStatusForRevealTaskRequest(@Param("chainTaskId") String chainTaskId);
+
+    @RequestLine("POST /v1/tasks/reveal/status/batch")
+    Map<String, CommandStatus> getStatusForRevealTaskRequests(List<String> chainTaskIds);
+
+    @RequestLine("POST /v1/tasks/claim/{chainTaskId}")
+    String requestClaimTask(@Param("chainTaskId") String chainTaskId);
+
+    @RequestLine("POST /v1/tasks/claim/{chainTaskId}?callbackUrl={callbackUrl}")
+    String requestClaimTask(@Param("chainTaskId") String chainTaskId, @Param("callbackUrl") String callbackUrl);
+
+    @RequestLine("GET /v1/tasks/claim/{chainTaskId}/status")
+    CommandStatus getStatusForClaimTaskRequest(@Param("chainTaskId") String chainTaskId);
+
+    @RequestLine("POST /v1/tasks/claim/status/batch")
+    Map<String, CommandStatus> getStatusForClaimTaskRequests(List<String> chainTaskIds);
+
     // endregion
 
 }
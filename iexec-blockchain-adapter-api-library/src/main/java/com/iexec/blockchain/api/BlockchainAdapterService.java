@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2023 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,24 +17,78 @@
 package com.iexec.blockchain.api;
 
 import com.iexec.common.chain.adapter.args.TaskFinalizeArgs;
+import feign.FeignException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+/**
+ * Request blockchain commands to the Blockchain Adapter API and wait for their completion.
+ * <p>
+ * Waiting for a command completion does not block any thread.
+ * Pending waits on commands of the same kind are polled together by a {@link CommandStatusPoller},
+ * with a single bulk status request per tick whatever the number of pending waits.
+ * The delay between two polls of a command adapts to its status and to the {@link PollingHints}
+ * published by the adapter, see {@link AdaptivePollingPolicy}. Hints are refreshed at most once per period.
+ * All pollers of all {@code BlockchainAdapterService} instances run by default on
+ * a single shared scheduler with a few daemon threads.
+ * The synchronous {@code isInitialized}, {@code isContributed}, {@code isRevealed}, {@code isFinalized}
+ * and {@code isClaimed} methods are wrappers blocking on the asynchronous ones.
+ */
 @Slf4j
 public class BlockchainAdapterService {
 
     private final BlockchainAdapterApiClient apiClient;
     private final Duration period;
     private final int maxAttempts;
+    private final ScheduledExecutorService scheduler;
+    private final CommandStatusPoller initializePoller;
+    private final CommandStatusPoller contributePoller;
+    private final CommandStatusPoller revealPoller;
+    private final CommandStatusPoller finalizePoller;
+    private final CommandStatusPoller claimPoller;
+    private volatile boolean pollingHintsSupported = true;
+    private volatile PollingHints pollingHints;
+    private volatile long pollingHintsNanos;
 
     public BlockchainAdapterService(BlockchainAdapterApiClient apiClient, Duration period, int maxAttempts) {
+        this(apiClient, period, maxAttempts, SharedScheduler.INSTANCE);
+    }
+
+    /**
+     * Create a service polling command statuses on the provided scheduler.
+     *
+     * @param apiClient   client of the Blockchain Adapter API
+     * @param period      base delay between two status polls of a command
+     * @param maxAttempts maximum number of status polls before giving up
+     * @param scheduler   scheduler running the status polls, its lifecycle is managed by the caller
+     */
+    public BlockchainAdapterService(BlockchainAdapterApiClient apiClient, Duration period, int maxAttempts,
+                                    ScheduledExecutorService scheduler) {
         this.apiClient = apiClient;
         this.period = period;
         this.maxAttempts = maxAttempts;
+        this.scheduler = scheduler;
+        this.initializePoller = new CommandStatusPoller("TASK_INITIALIZE",
+                apiClient::getStatusForInitializeTaskRequest, apiClient::getStatusForInitializeTaskRequests,
+                this::getPollingHints, scheduler, period);
+        this.contributePoller = new CommandStatusPoller("TASK_CONTRIBUTE",
+                apiClient::getStatusForContributeTaskRequest, apiClient::getStatusForContributeTaskRequests,
+                this::getPollingHints, scheduler, period);
+        this.revealPoller = new CommandStatusPoller("TASK_REVEAL",
+                apiClient::getStatusForRevealTaskRequest, apiClient::getStatusForRevealTaskRequests,
+                this::getPollingHints, scheduler, period);
+        this.finalizePoller = new CommandStatusPoller("TASK_FINALIZE",
+                apiClient::getStatusForFinalizeTaskRequest, apiClient::getStatusForFinalizeTaskRequests,
+                this::getPollingHints, scheduler, period);
+        this.claimPoller = new CommandStatusPoller("TASK_CLAIM",
+                apiClient::getStatusForClaimTaskRequest, apiClient::getStatusForClaimTaskRequests,
+                this::getPollingHints, scheduler, period);
     }
 
     // region initialize
@@ -47,8 +101,22 @@ public class BlockchainAdapterService {
      * @return chain task ID is initialization is properly requested
      */
     public Optional<String> requestInitialize(String chainDealId, int taskIndex) {
+        return requestInitialize(chainDealId, taskIndex, null);
+    }
+
+    /**
+     * Request on-chain initialization of the task and register a callback URL notified on completion.
+     *
+     * @param chainDealId ID of the deal
+     * @param taskIndex   index of the task in the deal
+     * @param callbackUrl URL receiving a {@link CommandNotification} when the command is completed, ignored if null
+     * @return chain task ID is initialization is properly requested
+     */
+    public Optional<String> requestInitialize(String chainDealId, int taskIndex, String callbackUrl) {
         try {
-            String chainTaskId = apiClient.requestInitializeTask(chainDealId, taskIndex);
+            String chainTaskId = callbackUrl == null
+                    ? apiClient.requestInitializeTask(chainDealId, taskIndex)
+                    : apiClient.requestInitializeTask(chainDealId, taskIndex, callbackUrl);
             if (!StringUtils.isEmpty(chainTaskId)) {
                 log.info("Requested initialize [chainTaskId:{}, chainDealId:{}, taskIndex:{}]",
                         chainTaskId, chainDealId, taskIndex);
@@ -73,8 +141,168 @@ public class BlockchainAdapterService {
      * </ul>
      */
     public Optional<Boolean> isInitialized(String chainTaskId) {
-        return isCommandCompleted(apiClient::getStatusForInitializeTaskRequest,
-                chainTaskId, maxAttempts);
+        return waitCompletion(awaitInitialized(chainTaskId), chainTaskId);
+    }
+
+    /**
+     * Wait asynchronously for the initialize task command to be completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return a future completed with true if the tx is mined, false if reverted.
+     * The future is completed exceptionally with a {@link TimeoutException} when max attempts are reached.
+     * Cancelling the future stops polling.
+     */
+    public CompletableFuture<Boolean> awaitInitialized(String chainTaskId) {
+        return initializePoller.await(chainTaskId, maxAttempts);
+    }
+
+    // endregion
+
+    // region contribute
+
+    /**
+     * Request on-chain contribution to the task with the adapter wallet.
+     *
+     * @param chainTaskId         ID of the task
+     * @param resultDigest        digest of the result computed for the task
+     * @param workerpoolSignature signature of the workerpool authorizing the adapter wallet on the task
+     * @param enclaveChallenge    address of the enclave challenge, the zero address for standard tasks
+     * @param enclaveSignature    signature of the enclave
+     * @return chain task ID if contribution is properly requested
+     */
+    public Optional<String> requestContribute(String chainTaskId,
+                                              String resultDigest,
+                                              String workerpoolSignature,
+                                              String enclaveChallenge,
+                                              String enclaveSignature) {
+        return requestContribute(chainTaskId, resultDigest, workerpoolSignature, enclaveChallenge, enclaveSignature, null);
+    }
+
+    /**
+     * Request on-chain contribution to the task with the adapter wallet and register a callback URL notified on completion.
+     *
+     * @param chainTaskId         ID of the task
+     * @param resultDigest        digest of the result computed for the task
+     * @param workerpoolSignature signature of the workerpool authorizing the adapter wallet on the task
+     * @param enclaveChallenge    address of the enclave challenge, the zero address for standard tasks
+     * @param enclaveSignature    signature of the enclave
+     * @param callbackUrl         URL receiving a {@link CommandNotification} when the command is completed, ignored if null
+     * @return chain task ID if contribution is properly requested
+     */
+    public Optional<String> requestContribute(String chainTaskId,
+                                              String resultDigest,
+                                              String workerpoolSignature,
+                                              String enclaveChallenge,
+                                              String enclaveSignature,
+                                              String callbackUrl) {
+        try {
+            final TaskContributeRequest request = new TaskContributeRequest(
+                    resultDigest, workerpoolSignature, enclaveChallenge, enclaveSignature);
+            String contributeResponse = callbackUrl == null
+                    ? apiClient.requestContributeTask(chainTaskId, request)
+                    : apiClient.requestContributeTask(chainTaskId, request, callbackUrl);
+            if (!StringUtils.isEmpty(contributeResponse)) {
+                log.info("Requested contribute [chainTaskId:{}, resultDigest:{}]", chainTaskId, resultDigest);
+                return Optional.of(chainTaskId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to requestContribute [chainTaskId:{}, resultDigest:{}]", chainTaskId, resultDigest, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Verify if the contribute task command is completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return an optional which will be
+     * <ul>
+     * <li>true if the tx is mined
+     * <li>false if reverted
+     * <li>empty for other cases (max attempts reached while still in RECEIVED or PROCESSING state, adapter error)
+     * </ul>
+     */
+    public Optional<Boolean> isContributed(String chainTaskId) {
+        return waitCompletion(awaitContributed(chainTaskId), chainTaskId);
+    }
+
+    /**
+     * Wait asynchronously for the contribute task command to be completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return a future completed with true if the tx is mined, false if reverted.
+     * The future is completed exceptionally with a {@link TimeoutException} when max attempts are reached.
+     * Cancelling the future stops polling.
+     */
+    public CompletableFuture<Boolean> awaitContributed(String chainTaskId) {
+        return contributePoller.await(chainTaskId, maxAttempts);
+    }
+
+    // endregion
+
+    // region reveal
+
+    /**
+     * Request on-chain reveal of the contribution of the adapter wallet to the task.
+     *
+     * @param chainTaskId  ID of the task
+     * @param resultDigest digest of the contributed result
+     * @return chain task ID if reveal is properly requested
+     */
+    public Optional<String> requestReveal(String chainTaskId, String resultDigest) {
+        return requestReveal(chainTaskId, resultDigest, null);
+    }
+
+    /**
+     * Request on-chain reveal of the contribution of the adapter wallet to the task
+     * and register a callback URL notified on completion.
+     *
+     * @param chainTaskId  ID of the task
+     * @param resultDigest digest of the contributed result
+     * @param callbackUrl  URL receiving a {@link CommandNotification} when the command is completed, ignored if null
+     * @return chain task ID if reveal is properly requested
+     */
+    public Optional<String> requestReveal(String chainTaskId, String resultDigest, String callbackUrl) {
+        try {
+            final TaskRevealRequest request = new TaskRevealRequest(resultDigest);
+            String revealResponse = callbackUrl == null
+                    ? apiClient.requestRevealTask(chainTaskId, request)
+                    : apiClient.requestRevealTask(chainTaskId, request, callbackUrl);
+            if (!StringUtils.isEmpty(revealResponse)) {
+                log.info("Requested reveal [chainTaskId:{}, resultDigest:{}]", chainTaskId, resultDigest);
+                return Optional.of(chainTaskId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to requestReveal [chainTaskId:{}, resultDigest:{}]", chainTaskId, resultDigest, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Verify if the reveal task command is completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return an optional which will be
+     * <ul>
+     * <li>true if the tx is mined
+     * <li>false if reverted
+     * <li>empty for other cases (max attempts reached while still in RECEIVED or PROCESSING state, adapter error)
+     * </ul>
+     */
+    public Optional<Boolean> isRevealed(String chainTaskId) {
+        return waitCompletion(awaitRevealed(chainTaskId), chainTaskId);
+    }
+
+    /**
+     * Wait asynchronously for the reveal task command to be completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return a future completed with true if the tx is mined, false if reverted.
+     * The future is completed exceptionally with a {@link TimeoutException} when max attempts are reached.
+     * Cancelling the future stops polling.
+     */
+    public CompletableFuture<Boolean> awaitRevealed(String chainTaskId) {
+        return revealPoller.await(chainTaskId, maxAttempts);
     }
 
     // endregion
@@ -92,9 +320,27 @@ public class BlockchainAdapterService {
     public Optional<String> requestFinalize(String chainTaskId,
                                             String resultLink,
                                             String callbackData) {
+        return requestFinalize(chainTaskId, resultLink, callbackData, null);
+    }
+
+    /**
+     * Request on-chain finalization of the task and register a callback URL notified on completion.
+     *
+     * @param chainTaskId  ID of the deal
+     * @param resultLink   link of the result to be published on-chain
+     * @param callbackData optional data for on-chain callback
+     * @param callbackUrl  URL receiving a {@link CommandNotification} when the command is completed, ignored if null
+     * @return chain task ID is initialization is properly requested
+     */
+    public Optional<String> requestFinalize(String chainTaskId,
+                                            String resultLink,
+                                            String callbackData,
+                                            String callbackUrl) {
         try {
-            String finalizeResponse = apiClient.requestFinalizeTask(chainTaskId,
-                    new TaskFinalizeArgs(resultLink, callbackData));
+            final TaskFinalizeArgs args = new TaskFinalizeArgs(resultLink, callbackData);
+            String finalizeResponse = callbackUrl == null
+                    ? apiClient.requestFinalizeTask(chainTaskId, args)
+                    : apiClient.requestFinalizeTask(chainTaskId, args, callbackUrl);
             if (!StringUtils.isEmpty(finalizeResponse)) {
                 log.info("Requested finalize [chainTaskId:{}, resultLink:{}, callbackData:{}]",
                         chainTaskId, resultLink, callbackData);
@@ -119,8 +365,82 @@ public class BlockchainAdapterService {
      * </ul>
      */
     public Optional<Boolean> isFinalized(String chainTaskId) {
-        return isCommandCompleted(apiClient::getStatusForFinalizeTaskRequest,
-                chainTaskId, maxAttempts);
+        return waitCompletion(awaitFinalized(chainTaskId), chainTaskId);
+    }
+
+    /**
+     * Wait asynchronously for the finalize task command to be completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return a future completed with true if the tx is mined, false if reverted.
+     * The future is completed exceptionally with a {@link TimeoutException} when max attempts are reached.
+     * Cancelling the future stops polling.
+     */
+    public CompletableFuture<Boolean> awaitFinalized(String chainTaskId) {
+        return finalizePoller.await(chainTaskId, maxAttempts);
+    }
+
+    // endregion
+
+    // region claim
+
+    /**
+     * Request on-chain claim of the task, once its final deadline is reached.
+     *
+     * @param chainTaskId ID of the task
+     * @return chain task ID if claim is properly requested
+     */
+    public Optional<String> requestClaim(String chainTaskId) {
+        return requestClaim(chainTaskId, null);
+    }
+
+    /**
+     * Request on-chain claim of the task and register a callback URL notified on completion.
+     *
+     * @param chainTaskId ID of the task
+     * @param callbackUrl URL receiving a {@link CommandNotification} when the command is completed, ignored if null
+     * @return chain task ID if claim is properly requested
+     */
+    public Optional<String> requestClaim(String chainTaskId, String callbackUrl) {
+        try {
+            String claimResponse = callbackUrl == null
+                    ? apiClient.requestClaimTask(chainTaskId)
+                    : apiClient.requestClaimTask(chainTaskId, callbackUrl);
+            if (!StringUtils.isEmpty(claimResponse)) {
+                log.info("Requested claim [chainTaskId:{}]", chainTaskId);
+                return Optional.of(chainTaskId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to requestClaim [chainTaskId:{}]", chainTaskId, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Verify if the claim task command is completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return an optional which will be
+     * <ul>
+     * <li>true if the tx is mined
+     * <li>false if reverted
+     * <li>empty for other cases (max attempts reached while still in RECEIVED or PROCESSING state, adapter error)
+     * </ul>
+     */
+    public Optional<Boolean> isClaimed(String chainTaskId) {
+        return waitCompletion(awaitClaimed(chainTaskId), chainTaskId);
+    }
+
+    /**
+     * Wait asynchronously for the claim task command to be completed on-chain.
+     *
+     * @param chainTaskId ID of the task
+     * @return a future completed with true if the tx is mined, false if reverted.
+     * The future is completed exceptionally with a {@link TimeoutException} when max attempts are reached.
+     * Cancelling the future stops polling.
+     */
+    public CompletableFuture<Boolean> awaitClaimed(String chainTaskId) {
+        return claimPoller.await(chainTaskId, maxAttempts);
     }
 
     // endregion
@@ -141,30 +461,79 @@ public class BlockchainAdapterService {
     Optional<Boolean> isCommandCompleted(
             Function<String, CommandStatus> getCommandStatusFunction,
             String chainTaskId, int maxAttempts) {
-        for (int attempt = 0; attempt < maxAttempts; attempt++) {
-            try {
-                CommandStatus status = getCommandStatusFunction.apply(chainTaskId);
-                if (CommandStatus.SUCCESS == status || CommandStatus.FAILURE == status) {
-                    return Optional.of(CommandStatus.SUCCESS == status);
-                }
-                // RECEIVED, PROCESSING
-                log.warn("Waiting command completion [chainTaskId:{}, status:{}, period:{}ms, attempt:{}, maxAttempts:{}]",
-                        chainTaskId, status, period, attempt, maxAttempts);
-            } catch (Exception e) {
-                log.error("Unexpected error while waiting command completion [chainTaskId:{}, period:{}ms, attempt:{}, maxAttempts:{}]",
-                        chainTaskId, period, attempt, maxAttempts, e);
-            }
+        return waitCompletion(awaitCommandCompleted(getCommandStatusFunction, chainTaskId, maxAttempts), chainTaskId);
+    }
 
-            try {
-                Thread.sleep(period.toMillis());
-            } catch (InterruptedException e) {
-                log.error("Polling on blockchain command was interrupted", e);
-                Thread.currentThread().interrupt();
-                return Optional.empty();
-            }
+    /**
+     * Wait asynchronously for a command sent to the adapter to be completed on-chain.
+     * <p>
+     * The command status is fetched with one request per poll, this wait is not coalesced with other ones.
+     *
+     * @param getCommandStatusFunction method for fetching the current command status from the adapter
+     * @param chainTaskId              ID of the task
+     * @param maxAttempts              maximum number of attempts
+     * @return a future completed with true if the tx is mined, false if reverted,
+     * or completed exceptionally with a {@link TimeoutException} if max attempts are reached
+     * while still in RECEIVED or PROCESSING state
+     */
+    CompletableFuture<Boolean> awaitCommandCompleted(
+            Function<String, CommandStatus> getCommandStatusFunction,
+            String chainTaskId, int maxAttempts) {
+        return new CommandStatusPoller("command", getCommandStatusFunction, null, this::getPollingHints, scheduler, period)
+                .await(chainTaskId, maxAttempts);
+    }
+
+    /**
+     * Get polling hints published by the adapter, refreshed at most once per period.
+     *
+     * @return the latest hints, null if the adapter does not publish them or if they could not be fetched yet
+     */
+    PollingHints getPollingHints() {
+        if (!pollingHintsSupported || (pollingHints != null && System.nanoTime() - pollingHintsNanos < period.toNanos())) {
+            return pollingHints;
+        }
+        try {
+            pollingHints = apiClient.getPollingHints();
+            pollingHintsNanos = System.nanoTime();
+        } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+            log.warn("Polling hints not published by the adapter, falling back to fixed base period");
+            pollingHintsSupported = false;
+        } catch (Exception e) {
+            log.warn("Failed to fetch polling hints, keeping previous ones [hints:{}]", pollingHints, e);
+        }
+        return pollingHints;
+    }
+
+    private Optional<Boolean> waitCompletion(CompletableFuture<Boolean> future, String chainTaskId) {
+        try {
+            return Optional.of(future.get());
+        } catch (InterruptedException e) {
+            log.error("Polling on blockchain command was interrupted", e);
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            log.debug("Command completion not reached [chainTaskId:{}]", chainTaskId, e);
         }
-        log.error("Reached max retry while waiting command completion [chainTaskId:{}, maxAttempts:{}]",
-                chainTaskId, maxAttempts);
         return Optional.empty();
     }
+
+    /**
+     * Scheduler shared by all {@code BlockchainAdapterService} instances, lazily created on first use.
+     */
+    private static final class SharedScheduler {
+        private static final int THREAD_COUNT = 2;
+        private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+        private static final ScheduledExecutorService INSTANCE = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(THREAD_COUNT, runnable -> {
+                final Thread thread = new Thread(runnable, "blockchain-adapter-poll-" + THREAD_INDEX.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // cancelled waits must not stay in the work queue until their next poll
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
 }
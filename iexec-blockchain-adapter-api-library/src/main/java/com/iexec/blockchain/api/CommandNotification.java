@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+/**
+ * Completion notification posted by the adapter to registered callback URLs.
+ * <p>
+ * Notifications are delivered in batches, the body of a callback request is a JSON array of notifications.
+ *
+ * @param chainObjectId on-chain object ID, the task ID for task commands
+ * @param commandName   name of the completed command, such as {@code TASK_INITIALIZE} or {@code TASK_REVEAL}
+ * @param status        final status of the command
+ */
+public record CommandNotification(String chainObjectId, String commandName, CommandStatus status) {
+}
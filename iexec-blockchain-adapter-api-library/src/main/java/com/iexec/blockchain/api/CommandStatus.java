@@ -1,5 +1,5 @@
 /*
- * Copyright 2022-2023 IEXEC BLOCKCHAIN TECH
+ * Copyright 2022-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,36 @@
 
 package com.iexec.blockchain.api;
 
+import com.fasterxml.jackson.annotation.JsonEnumDefaultValue;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Status of a blockchain command.
+ * <p>
+ * Statuses added by newer versions of the API are read as {@link #UNKNOWN} by older clients.
+ */
+@JsonFormat(with = JsonFormat.Feature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE)
 public enum CommandStatus {
     RECEIVED,
     PROCESSING,
     SUCCESS,
     FAILURE,
+    /**
+     * The command has been dropped without sending its transaction, its on-chain deadline was reached.
+     */
+    EXPIRED,
+    /**
+     * Status not known by this version of the client, it is never returned by the API.
+     */
+    @JsonEnumDefaultValue
+    UNKNOWN;
+
+    /**
+     * Whether the status of a command will not change anymore.
+     *
+     * @return true for SUCCESS, FAILURE and EXPIRED statuses
+     */
+    public boolean isFinal() {
+        return this == SUCCESS || this == FAILURE || this == EXPIRED;
+    }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Poll statuses of all pending waits on commands of the same kind.
+ * <p>
+ * Each wait has its own next poll date computed by an {@link AdaptivePollingPolicy}
+ * from the last seen status of the command and the {@link PollingHints} published by the adapter.
+ * A single tick is scheduled at the earliest next poll date of all pending waits.
+ * Each tick collects the IDs of all waits due for a poll and fetches their statuses with a single bulk request,
+ * statuses are then dispatched to the futures of the individual waits.
+ * Waits due shortly after the tick are polled with it to keep requests coalesced.
+ * When the adapter does not expose the bulk endpoint, the poller falls back to one request per due wait.
+ * <p>
+ * Adaptive delays may be longer than the base period, a wait thus also has a hard deadline of {@code maxAttempts}
+ * base periods: the last poll happens at the deadline at the latest, whatever the number of attempts.
+ * <p>
+ * SUCCESS, FAILURE and EXPIRED statuses are final, the results of the most recently completed commands are memoized
+ * and a new wait on one of them is completed immediately without any request.
+ * <p>
+ * Futures are completed on a scheduler thread, callers should use async variants of
+ * {@link CompletableFuture} methods for long-running continuations.
+ */
+@Slf4j
+class CommandStatusPoller {
+
+    static final int MAX_BULK_SIZE = 1000;
+    static final int MAX_MEMOIZED_RESULTS = 10_000;
+
+    private final String commandName;
+    private final Function<String, CommandStatus> getStatusFunction;
+    private final Function<List<String>, Map<String, CommandStatus>> getStatusesFunction;
+    private final Supplier<PollingHints> pollingHintsSupplier;
+    private final ScheduledExecutorService scheduler;
+    private final AdaptivePollingPolicy pollingPolicy;
+    private final long periodNanos;
+    private final long coalescingWindowNanos;
+    private final Set<CommandCompletionWait> waits = ConcurrentHashMap.newKeySet();
+    private final Map<String, Boolean> completedResults = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_MEMOIZED_RESULTS;
+                }
+            });
+    private volatile boolean bulkSupported;
+    private ScheduledFuture<?> tick;
+    private long tickDueNanos;
+    private boolean polling;
+
+    /**
+     * @param commandName          name of the polled command kind, for logging purpose
+     * @param getStatusFunction    method fetching the status of a single command
+     * @param getStatusesFunction  method fetching statuses of several commands, null to always poll commands one by one
+     * @param pollingHintsSupplier method providing the adapter polling hints, may return null
+     * @param scheduler            scheduler running the ticks
+     * @param period               base delay between two polls of a command
+     */
+    CommandStatusPoller(String commandName,
+                        Function<String, CommandStatus> getStatusFunction,
+                        Function<List<String>, Map<String, CommandStatus>> getStatusesFunction,
+                        Supplier<PollingHints> pollingHintsSupplier,
+                        ScheduledExecutorService scheduler,
+                        Duration period) {
+        this.commandName = commandName;
+        this.getStatusFunction = getStatusFunction;
+        this.getStatusesFunction = getStatusesFunction;
+        this.pollingHintsSupplier = pollingHintsSupplier;
+        this.scheduler = scheduler;
+        this.pollingPolicy = new AdaptivePollingPolicy(period);
+        this.periodNanos = period.toNanos();
+        this.coalescingWindowNanos = period.toNanos() / 4;
+        this.bulkSupported = getStatusesFunction != null;
+    }
+
+    /**
+     * Register a wait on a command completion, the first poll happens immediately.
+     * A wait on a command whose completion has already been seen is completed without any poll.
+     *
+     * @param chainTaskId ID of the task
+     * @param maxAttempts maximum number of polls, the wait times out after {@code maxAttempts} base periods
+     * @return a future completed with true if the tx is mined, false if reverted,
+     * or completed exceptionally with a {@link TimeoutException} if max attempts or the deadline are reached
+     */
+    CompletableFuture<Boolean> await(String chainTaskId, int maxAttempts) {
+        final Boolean completedResult = completedResults.get(chainTaskId);
+        if (completedResult != null) {
+            return CompletableFuture.completedFuture(completedResult);
+        }
+        final long nowNanos = System.nanoTime();
+        final CommandCompletionWait wait = new CommandCompletionWait(chainTaskId, maxAttempts, nowNanos,
+                nowNanos + maxAttempts * periodNanos);
+        waits.add(wait);
+        wait.future.whenComplete((result, throwable) -> waits.remove(wait));
+        scheduleTick(wait.nextPollNanos);
+        return wait.future;
+    }
+
+    /**
+     * Schedule the next tick at the given date, unless an earlier tick is already scheduled or a tick is running.
+     * A running tick schedules the next one when it ends.
+     */
+    private synchronized void scheduleTick(long dueNanos) {
+        if (polling || (tick != null && tickDueNanos <= dueNanos)) {
+            return;
+        }
+        if (tick != null) {
+            tick.cancel(false);
+        }
+        try {
+            tickDueNanos = dueNanos;
+            tick = scheduler.schedule(this::poll, Math.max(0L, dueNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            tick = null;
+            waits.forEach(wait -> wait.future.completeExceptionally(e));
+        }
+    }
+
+    private synchronized boolean startPolling() {
+        if (polling) {
+            return false;
+        }
+        polling = true;
+        tick = null;
+        return true;
+    }
+
+    private synchronized void stopPolling() {
+        polling = false;
+    }
+
+    int getPendingWaitCount() {
+        return waits.size();
+    }
+
+    private void poll() {
+        if (!startPolling()) {
+            return;
+        }
+        try {
+            final long pollNanos = System.nanoTime();
+            final List<CommandCompletionWait> dueWaits = waits.stream()
+                    .filter(wait -> !wait.future.isDone() && wait.nextPollNanos - pollNanos <= coalescingWindowNanos)
+                    .toList();
+            if (!dueWaits.isEmpty()) {
+                final List<String> chainTaskIds = dueWaits.stream()
+                        .map(wait -> wait.chainTaskId)
+                        .distinct()
+                        .toList();
+                final Map<String, CommandStatus> statuses = fetchStatuses(chainTaskIds);
+                final PollingHints hints = pollingHintsSupplier.get();
+                dueWaits.forEach(wait -> wait.onStatus(statuses.get(wait.chainTaskId), hints));
+            }
+        } catch (Exception e) {
+            // an exception would prevent scheduling further ticks
+            log.error("Unexpected error while polling command statuses [commandName:{}]", commandName, e);
+        } finally {
+            stopPolling();
+        }
+        waits.stream()
+                .filter(wait -> !wait.future.isDone())
+                .mapToLong(wait -> wait.nextPollNanos)
+                .reduce((a, b) -> a - b < 0 ? a : b)
+                .ifPresent(this::scheduleTick);
+    }
+    private Map<String, CommandStatus> fetchStatuses(List<String> chainTaskIds) {
+        if (bulkSupported) {
+            try {
+                final Map<String, CommandStatus> statuses = new HashMap<>();
+                for (int i = 0; i < chainTaskIds.size(); i += MAX_BULK_SIZE) {
+                    final List<String> chunk = chainTaskIds.subList(i, Math.min(i + MAX_BULK_SIZE, chainTaskIds.size()));
+                    statuses.putAll(getStatusesFunction.apply(chunk));
+                }
+                return statuses;
+            } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+                log.warn("Bulk status endpoint not available, falling back to one request per command [commandName:{}]",
+                        commandName);
+                bulkSupported = false;
+            } catch (Exception e) {
+                log.error("Unexpected error while fetching command statuses [commandName:{}, count:{}]",
+                        commandName, chainTaskIds.size(), e);
+                return Map.of();
+            }
+        }
+        final Map<String, CommandStatus> statuses = new HashMap<>();
+        for (String chainTaskId : chainTaskIds) {
+            try {
+                statuses.put(chainTaskId, getStatusFunction.apply(chainTaskId));
+            } catch (Exception e) {
+                log.error("Unexpected error while fetching command status [commandName:{}, chainTaskId:{}]",
+                        commandName, chainTaskId, e);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Pending wait on a command completion, its state is only updated from ticks which never overlap.
+     */
+    private class CommandCompletionWait {
+        private final String chainTaskId;
+        private final int maxAttempts;
+        private final long deadlineNanos;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private int attempt = 0;
+        private CommandStatus lastStatus;
+        private Duration lastDelay;
+        private volatile long nextPollNanos;
+
+        private CommandCompletionWait(String chainTaskId, int maxAttempts, long nextPollNanos, long deadlineNanos) {
+            this.chainTaskId = chainTaskId;
+            this.maxAttempts = maxAttempts;
+            this.nextPollNanos = nextPollNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Complete the future on a final status, or count one more attempt and compute the next poll date.
+         *
+         * @param status polled status, null if it could not be fetched
+         * @param hints  hints published by the adapter, null if not available
+         */
+        private void onStatus(CommandStatus status, PollingHints hints) {
+            attempt++;
+            if (status != null && status.isFinal()) {
+                log.debug("Command completed [commandName:{}, chainTaskId:{}, status:{}, attempts:{}]",
+                        commandName, chainTaskId, status, attempt);
+                completedResults.put(chainTaskId, CommandStatus.SUCCESS == status);
+                future.complete(CommandStatus.SUCCESS == status);
+                return;
+            }
+            // RECEIVED, PROCESSING or unknown
+            final long nowNanos = System.nanoTime();
+            if (attempt >= maxAttempts || nowNanos - deadlineNanos >= 0) {
+                log.error("Reached max retry while waiting command completion [commandName:{}, chainTaskId:{}, attempts:{}, maxAttempts:{}]",
+                        commandName, chainTaskId, attempt, maxAttempts);
+                future.completeExceptionally(new TimeoutException("Command not completed after " + attempt + " attempts"));
+                return;
+            }
+            final Duration policyDelay = pollingPolicy.nextDelay(status, hints, status == lastStatus ? lastDelay : null);
+            // the last poll happens at the deadline
+            final Duration delay = Duration.ofNanos(Math.min(policyDelay.toNanos(), deadlineNanos - nowNanos));
+            log.warn("Waiting command completion [commandName:{}, chainTaskId:{}, status:{}, delay:{}ms, attempt:{}, maxAttempts:{}]",
+                    commandName, chainTaskId, status, delay.toMillis(), attempt, maxAttempts);
+            lastStatus = status;
+            lastDelay = policyDelay;
+            nextPollNanos = nowNanos + delay.toNanos();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+/**
+ * Hints published by the adapter to let clients tune the polling of command statuses.
+ *
+ * @param blockTimeMs          duration between consecutive blocks on the blockchain network, in milliseconds
+ * @param queueSize            total number of commands waiting for a slot to be sent on-chain, all priorities and
+ *                             requesters included: a newly received command may be sent before most of them
+ * @param maxAllowedTxPerBlock maximum number of transactions sent by the adapter per block
+ */
+public record PollingHints(long blockTimeMs, int queueSize, int maxAllowedTxPerBlock) {
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+/**
+ * Body of a contribute request, the task ID is given in the request path.
+ *
+ * @param resultDigest        digest of the result computed for the task
+ * @param workerpoolSignature signature of the workerpool authorizing the adapter wallet on the task
+ * @param enclaveChallenge    address of the enclave challenge, the zero address for standard tasks
+ * @param enclaveSignature    signature of the enclave
+ */
+public record TaskContributeRequest(String resultDigest,
+                                    String workerpoolSignature,
+                                    String enclaveChallenge,
+                                    String enclaveSignature) {
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePollingPolicyTests {
+
+    static final Duration PERIOD = Duration.ofSeconds(1);
+    static final PollingHints HINTS = new PollingHints(5000L, 40, 2);
+
+    private final AdaptivePollingPolicy pollingPolicy = new AdaptivePollingPolicy(PERIOD);
+
+    @Test
+    void shouldUseBlockTimeAfterStatusChange() {
+        assertEquals(Duration.ofSeconds(5), pollingPolicy.nextDelay(CommandStatus.RECEIVED, HINTS, null));
+        assertEquals(Duration.ofSeconds(5), pollingPolicy.nextDelay(CommandStatus.PROCESSING, HINTS, null));
+    }
+
+    @Test
+    void shouldUsePeriodWithoutHints() {
+        assertEquals(PERIOD, pollingPolicy.nextDelay(CommandStatus.RECEIVED, null, null));
+        assertEquals(PERIOD, pollingPolicy.nextDelay(CommandStatus.PROCESSING, null, null));
+    }
+
+    @Test
+    void shouldUsePeriodWhenStatusUnknown() {
+        assertEquals(PERIOD, pollingPolicy.nextDelay(null, HINTS, null));
+    }
+
+    @RepeatedTest(20)
+    void shouldBackOffUpToExpectedQueueDelayWhenReceived() {
+        // 40 queued commands at 2 tx per block of 5s
+        final Duration expectedQueueDelay = Duration.ofSeconds(100);
+        Duration delay = pollingPolicy.nextDelay(CommandStatus.RECEIVED, HINTS, null);
+        for (int i = 0; i < 10; i++) {
+            final Duration previousDelay = delay;
+            delay = pollingPolicy.nextDelay(CommandStatus.RECEIVED, HINTS, previousDelay);
+            assertTrue(delay.compareTo(Duration.ofSeconds(5)) >= 0);
+            assertTrue(delay.compareTo(previousDelay.multipliedBy(3)) <= 0);
+            assertTrue(delay.compareTo(expectedQueueDelay) <= 0);
+        }
+    }
+
+    @RepeatedTest(20)
+    void shouldStayWithinTwoBlocksWhenProcessing() {
+        Duration delay = pollingPolicy.nextDelay(CommandStatus.PROCESSING, HINTS, null);
+        for (int i = 0; i < 10; i++) {
+            delay = pollingPolicy.nextDelay(CommandStatus.PROCESSING, HINTS, delay);
+            assertTrue(delay.compareTo(Duration.ofSeconds(5)) >= 0);
+            assertTrue(delay.compareTo(Duration.ofSeconds(10)) <= 0);
+        }
+    }
+
+    @RepeatedTest(20)
+    void shouldBackOffUpToFourPeriodsWhenStatusUnknown() {
+        Duration delay = pollingPolicy.nextDelay(null, HINTS, null);
+        for (int i = 0; i < 10; i++) {
+            delay = pollingPolicy.nextDelay(null, HINTS, delay);
+            assertTrue(delay.compareTo(PERIOD) >= 0);
+            assertTrue(delay.compareTo(PERIOD.multipliedBy(4)) <= 0);
+        }
+    }
+
+    @Test
+    void shouldDecorrelateDelaysOfWaitsStartedTogether() {
+        final long distinctDelays = IntStream.range(0, 100)
+                .mapToObj(i -> pollingPolicy.nextDelay(CommandStatus.RECEIVED, HINTS, Duration.ofSeconds(5)))
+                .distinct()
+                .count();
+        assertTrue(distinctDelays > 1);
+    }
+}
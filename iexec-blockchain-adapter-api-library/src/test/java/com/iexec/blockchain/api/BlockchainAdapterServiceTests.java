@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2023 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,22 +24,29 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class BlockchainAdapterServiceTests {
 
     static final String CHAIN_DEAL_ID = "CHAIN_DEAL_ID";
     static final int TASK_INDEX = 0;
     static final String CHAIN_TASK_ID = "CHAIN_TASK_ID";
+    static final String RESULT_DIGEST = "RESULT_DIGEST";
+    static final String WORKERPOOL_SIGNATURE = "WORKERPOOL_SIGNATURE";
+    static final String ENCLAVE_CHALLENGE = "ENCLAVE_CHALLENGE";
+    static final String ENCLAVE_SIGNATURE = "ENCLAVE_SIGNATURE";
     static final String LINK = "link";
     static final String CALLBACK = "callback";
+    static final String CALLBACK_URL = "http://localhost:8080/notifications";
     static final Duration PERIOD = Duration.ofMillis(10);
     static final int MAX_ATTEMPTS = 3;
 
@@ -62,6 +69,14 @@ class BlockchainAdapterServiceTests {
         assertTrue(blockchainAdapterService.requestInitialize(CHAIN_DEAL_ID, TASK_INDEX).isPresent());
     }
 
+    @Test
+    void requestInitializeWithCallbackUrl() {
+        when(blockchainAdapterClient.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX, CALLBACK_URL))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID),
+                blockchainAdapterService.requestInitialize(CHAIN_DEAL_ID, TASK_INDEX, CALLBACK_URL));
+    }
+
     @Test
     void requestInitializeFailedSinceException() {
         when(blockchainAdapterClient.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX))
@@ -85,9 +100,114 @@ class BlockchainAdapterServiceTests {
 
     @Test
     void isInitialized() {
-        when(blockchainAdapterClient.getStatusForInitializeTaskRequest(CHAIN_TASK_ID))
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertEquals(Optional.of(true), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+    }
+
+    @Test
+    void isInitializedWithoutBulkStatusEndpoint() {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenThrow(FeignException.NotFound.class);
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequest(anyString()))
                 .thenReturn(CommandStatus.SUCCESS);
         assertEquals(Optional.of(true), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+        assertEquals(Optional.of(true), blockchainAdapterService.isInitialized(CHAIN_TASK_ID + 1));
+        // bulk endpoint is not requested anymore once detected as missing
+        verify(blockchainAdapterClient).getStatusForInitializeTaskRequests(anyList());
+        verify(blockchainAdapterClient).getStatusForInitializeTaskRequest(CHAIN_TASK_ID + 1);
+    }
+
+    @Test
+    void isInitializedMemoizedWhenCompleted() {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.FAILURE));
+        assertEquals(Optional.of(false), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+        assertTrue(blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID).isDone());
+        assertEquals(Optional.of(false), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+        verify(blockchainAdapterClient).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+    }
+
+    @Test
+    void isInitializedNotMemoizedWhenNotCompleted() {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING));
+        assertEquals(Optional.empty(), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+        assertEquals(Optional.empty(), blockchainAdapterService.isInitialized(CHAIN_TASK_ID));
+        verify(blockchainAdapterClient, times(2 * MAX_ATTEMPTS)).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+    }
+
+    // endregion
+
+    // region contribute
+
+    @Test
+    void requestContribute() {
+        when(blockchainAdapterClient.requestContributeTask(CHAIN_TASK_ID, createContributeRequest()))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID), blockchainAdapterService.requestContribute(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, ENCLAVE_CHALLENGE, ENCLAVE_SIGNATURE));
+    }
+
+    @Test
+    void requestContributeWithCallbackUrl() {
+        when(blockchainAdapterClient.requestContributeTask(CHAIN_TASK_ID, createContributeRequest(), CALLBACK_URL))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID), blockchainAdapterService.requestContribute(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, ENCLAVE_CHALLENGE, ENCLAVE_SIGNATURE, CALLBACK_URL));
+    }
+
+    @Test
+    void requestContributeFailedSinceNot200() {
+        when(blockchainAdapterClient.requestContributeTask(CHAIN_TASK_ID, createContributeRequest()))
+                .thenThrow(FeignException.BadRequest.class);
+        assertTrue(blockchainAdapterService.requestContribute(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, ENCLAVE_CHALLENGE, ENCLAVE_SIGNATURE).isEmpty());
+    }
+
+    @Test
+    void isContributed() {
+        when(blockchainAdapterClient.getStatusForContributeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertEquals(Optional.of(true), blockchainAdapterService.isContributed(CHAIN_TASK_ID));
+    }
+
+    private TaskContributeRequest createContributeRequest() {
+        return new TaskContributeRequest(RESULT_DIGEST, WORKERPOOL_SIGNATURE, ENCLAVE_CHALLENGE, ENCLAVE_SIGNATURE);
+    }
+
+    // endregion
+
+    // region reveal
+
+    @Test
+    void requestReveal() {
+        when(blockchainAdapterClient.requestRevealTask(CHAIN_TASK_ID, new TaskRevealRequest(RESULT_DIGEST)))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID), blockchainAdapterService.requestReveal(CHAIN_TASK_ID, RESULT_DIGEST));
+    }
+
+    @Test
+    void requestRevealWithCallbackUrl() {
+        when(blockchainAdapterClient.requestRevealTask(CHAIN_TASK_ID, new TaskRevealRequest(RESULT_DIGEST), CALLBACK_URL))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID),
+                blockchainAdapterService.requestReveal(CHAIN_TASK_ID, RESULT_DIGEST, CALLBACK_URL));
+    }
+
+    @Test
+    void requestRevealFailedSinceNoBody() {
+        when(blockchainAdapterClient.requestRevealTask(CHAIN_TASK_ID, new TaskRevealRequest(RESULT_DIGEST)))
+                .thenReturn("");
+        assertTrue(blockchainAdapterService.requestReveal(CHAIN_TASK_ID, RESULT_DIGEST).isEmpty());
+    }
+
+    @Test
+    void awaitRevealedCompletedWhenFailure() throws Exception {
+        when(blockchainAdapterClient.getStatusForRevealTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.FAILURE));
+        assertFalse(blockchainAdapterService.awaitRevealed(CHAIN_TASK_ID).get(1, TimeUnit.SECONDS));
     }
 
     // endregion
@@ -102,6 +222,14 @@ class BlockchainAdapterServiceTests {
         assertTrue(blockchainAdapterService.requestFinalize(CHAIN_TASK_ID, LINK, CALLBACK).isPresent());
     }
 
+    @Test
+    void requestFinalizeWithCallbackUrl() {
+        when(blockchainAdapterClient.requestFinalizeTask(CHAIN_TASK_ID, new TaskFinalizeArgs(LINK, CALLBACK), CALLBACK_URL))
+                .thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID),
+                blockchainAdapterService.requestFinalize(CHAIN_TASK_ID, LINK, CALLBACK, CALLBACK_URL));
+    }
+
     @Test
     void requestFinalizeFailedSinceNot200() {
         when(blockchainAdapterClient.requestFinalizeTask(CHAIN_TASK_ID, new TaskFinalizeArgs(LINK, CALLBACK)))
@@ -118,13 +246,81 @@ class BlockchainAdapterServiceTests {
 
     @Test
     void isFinalized() {
-        when(blockchainAdapterClient.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID))
-                .thenReturn(CommandStatus.SUCCESS);
+        when(blockchainAdapterClient.getStatusForFinalizeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
         assertEquals(Optional.of(true), blockchainAdapterService.isFinalized(CHAIN_TASK_ID));
     }
 
     // endregion
 
+    // region claim
+
+    @Test
+    void requestClaim() {
+        when(blockchainAdapterClient.requestClaimTask(CHAIN_TASK_ID)).thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID), blockchainAdapterService.requestClaim(CHAIN_TASK_ID));
+    }
+
+    @Test
+    void requestClaimWithCallbackUrl() {
+        when(blockchainAdapterClient.requestClaimTask(CHAIN_TASK_ID, CALLBACK_URL)).thenReturn(CHAIN_TASK_ID);
+        assertEquals(Optional.of(CHAIN_TASK_ID), blockchainAdapterService.requestClaim(CHAIN_TASK_ID, CALLBACK_URL));
+    }
+
+    @Test
+    void requestClaimFailedSinceNot200() {
+        when(blockchainAdapterClient.requestClaimTask(CHAIN_TASK_ID)).thenThrow(FeignException.BadRequest.class);
+        assertTrue(blockchainAdapterService.requestClaim(CHAIN_TASK_ID).isEmpty());
+    }
+
+    @Test
+    void isClaimed() {
+        when(blockchainAdapterClient.getStatusForClaimTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertEquals(Optional.of(true), blockchainAdapterService.isClaimed(CHAIN_TASK_ID));
+    }
+
+    // endregion
+
+    // region pollingHints
+
+    @Test
+    void shouldCachePollingHintsDuringPeriod() {
+        blockchainAdapterService = new BlockchainAdapterService(blockchainAdapterClient, Duration.ofMinutes(1), MAX_ATTEMPTS);
+        final PollingHints hints = new PollingHints(5000L, 0, 2);
+        when(blockchainAdapterClient.getPollingHints()).thenReturn(hints);
+        assertEquals(hints, blockchainAdapterService.getPollingHints());
+        assertEquals(hints, blockchainAdapterService.getPollingHints());
+        verify(blockchainAdapterClient).getPollingHints();
+    }
+
+    @Test
+    void shouldStopFetchingPollingHintsWhenNotPublished() {
+        when(blockchainAdapterClient.getPollingHints()).thenThrow(FeignException.NotFound.class);
+        assertNull(blockchainAdapterService.getPollingHints());
+        assertNull(blockchainAdapterService.getPollingHints());
+        verify(blockchainAdapterClient).getPollingHints();
+    }
+
+    @Test
+    void shouldPollProcessingCommandOncePerBlock() throws Exception {
+        // 1s total timeout, longer than a block
+        blockchainAdapterService = new BlockchainAdapterService(blockchainAdapterClient, PERIOD, 100);
+        when(blockchainAdapterClient.getPollingHints()).thenReturn(new PollingHints(200L, 0, 2));
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        final CompletableFuture<Boolean> future = blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID);
+        // with a 10ms period, the 2nd poll would happen before 100ms without hints
+        Thread.sleep(100L);
+        verify(blockchainAdapterClient).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+        assertTrue(future.get(1, TimeUnit.SECONDS));
+        verify(blockchainAdapterClient, times(2)).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+    }
+
+    // endregion
+
     // region isCommandCompleted
 
     @Test
@@ -185,4 +381,86 @@ class BlockchainAdapterServiceTests {
     }
 
     // endregion
+
+    // region awaitCommandCompleted
+
+    @Test
+    void awaitInitializedCompletedWhenSuccess() throws Exception {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.RECEIVED))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertTrue(blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitFinalizedCompletedWhenFailure() throws Exception {
+        when(blockchainAdapterClient.getStatusForFinalizeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.FAILURE));
+        assertFalse(blockchainAdapterService.awaitFinalized(CHAIN_TASK_ID).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitInitializedCompletedWhenExpired() throws Exception {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.RECEIVED))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.EXPIRED));
+        assertFalse(blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void awaitCommandCompletedTimeoutWhenMaxAttempts() {
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING));
+        CompletableFuture<Boolean> future = blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        verify(blockchainAdapterClient, times(MAX_ATTEMPTS)).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+    }
+
+    @Test
+    void awaitCommandCompletedTimeoutAtDeadlineWhenQueueIsLong() {
+        when(blockchainAdapterClient.getPollingHints()).thenReturn(new PollingHints(200L, 1000, 1));
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.RECEIVED));
+        CompletableFuture<Boolean> future = blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID);
+        // without deadline, the 2nd poll would only happen after a 200ms block
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(150, TimeUnit.MILLISECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void awaitCommandCompletedStopsPollingWhenCancelled() throws InterruptedException {
+        blockchainAdapterService = new BlockchainAdapterService(blockchainAdapterClient, Duration.ofMillis(100), 100);
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID)))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING));
+        CompletableFuture<Boolean> future = blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID);
+        verify(blockchainAdapterClient, timeout(1000)).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+        future.cancel(true);
+        Thread.sleep(300L);
+        verify(blockchainAdapterClient, atMost(2)).getStatusForInitializeTaskRequests(List.of(CHAIN_TASK_ID));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void awaitCommandCompletedCoalescesWaitsInBulkRequests() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        blockchainAdapterService = new BlockchainAdapterService(blockchainAdapterClient, Duration.ofMillis(100), MAX_ATTEMPTS, scheduler);
+        when(blockchainAdapterClient.getStatusForInitializeTaskRequests(anyList()))
+                .thenAnswer(invocation -> {
+                    List<String> chainTaskIds = invocation.getArgument(0);
+                    return chainTaskIds.stream().collect(Collectors.toMap(Function.identity(), id -> CommandStatus.SUCCESS));
+                });
+        List<CompletableFuture<Boolean>> futures = IntStream.range(0, 5000)
+                .mapToObj(i -> blockchainAdapterService.awaitInitialized(CHAIN_TASK_ID + i))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertTrue(futures.stream().allMatch(CompletableFuture::join));
+        // 5000 waits are resolved in a few ticks with chunks of at most 1000 IDs per request
+        verify(blockchainAdapterClient, atMost(15)).getStatusForInitializeTaskRequests(anyList());
+        verify(blockchainAdapterClient, never()).getStatusForInitializeTaskRequest(anyString());
+        scheduler.shutdown();
+    }
+
+    // endregion
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CommandStatusTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldReadKnownStatus() throws JsonProcessingException {
+        assertEquals(CommandStatus.EXPIRED, objectMapper.readValue("\"EXPIRED\"", CommandStatus.class));
+    }
+
+    @Test
+    void shouldReadStatusAddedByNewerVersionAsUnknown() throws JsonProcessingException {
+        final CommandStatus status = objectMapper.readValue("\"CANCELLED\"", CommandStatus.class);
+        assertEquals(CommandStatus.UNKNOWN, status);
+        assertFalse(status.isFinal());
+    }
+}
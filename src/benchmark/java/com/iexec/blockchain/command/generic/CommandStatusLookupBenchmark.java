@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Projections.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare status lookups loading whole {@link Command} documents with {@link CommandStatusView} lookups,
+ * storage sizes of full transaction receipts and {@link ReceiptSummary}s,
+ * and sizes of key indexes with hex string and binary on-chain object IDs.
+ * <p>
+ * Run with {@code ./gradlew benchmark}, results are logged.
+ */
+@Slf4j
+@DataMongoTest
+@Testcontainers
+class CommandStatusLookupBenchmark {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final int COMMAND_COUNT = 1000;
+    private static final int LOGS_PER_RECEIPT = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private List<String> chainTaskIds;
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        chainTaskIds = IntStream.range(0, COMMAND_COUNT)
+                .mapToObj(i -> ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, i))
+                .toList();
+        mongoTemplate.insertAll(chainTaskIds.stream().map(this::createCommand).toList());
+    }
+
+    @Test
+    void compareStatusLookups() {
+        final MongoCollection<RawBsonDocument> collection = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(Command.class)).withDocumentClass(RawBsonDocument.class);
+        final Bson statusProjection = fields(include("chainObjectId", "commandName", "status"), excludeId());
+
+        final long documentBytes = chainTaskIds.stream()
+                .mapToLong(id -> collection.find(getFilter(id)).first().getByteBuffer().remaining())
+                .sum();
+        final long viewBytes = chainTaskIds.stream()
+                .mapToLong(id -> collection.find(getFilter(id)).projection(statusProjection)
+                        .hintString(Command.KEY_INDEX_NAME).first().getByteBuffer().remaining())
+                .sum();
+
+        final long documentNanos = measure(id -> mongoTemplate.findOne(
+                Query.query(getCriteria(id)), Command.class).getStatus());
+        final long viewNanos = measure(id -> mongoTemplate.findOne(
+                CommandStatusView.query(getCriteria(id)), CommandStatusView.class,
+                mongoTemplate.getCollectionName(Command.class)).status());
+
+        final Document explain = collection.find(getFilter(chainTaskIds.get(0)))
+                .projection(statusProjection)
+                .hintString(Command.KEY_INDEX_NAME)
+                .explain(ExplainVerbosity.EXECUTION_STATS);
+        final int docsExamined = explain.get("executionStats", Document.class).getInteger("totalDocsExamined");
+
+        log.info("Status lookup benchmark [commands:{}, logsPerReceipt:{}]", COMMAND_COUNT, LOGS_PER_RECEIPT);
+        log.info("Whole document [bytesPerLookup:{}, nanosPerLookup:{}]",
+                documentBytes / COMMAND_COUNT, documentNanos / COMMAND_COUNT);
+        log.info("Status view [bytesPerLookup:{}, nanosPerLookup:{}, docsExamined:{}]",
+                viewBytes / COMMAND_COUNT, viewNanos / COMMAND_COUNT, docsExamined);
+
+        assertThat(docsExamined).isOne();
+        assertThat(viewBytes).isLessThan(documentBytes / 2);
+    }
+
+    @Test
+    void compareReceiptStorage() {
+        final TransactionReceipt receipt = createReceipt(chainTaskIds.get(0));
+        final long receiptBytes = getBsonSize(receipt);
+        final long summaryBytes = getBsonSize(ReceiptSummary.of(receipt));
+        log.info("Receipt storage [fullReceiptBytes:{}, receiptSummaryBytes:{}]", receiptBytes, summaryBytes);
+        assertThat(summaryBytes).isLessThan(receiptBytes / 5);
+    }
+
+    @Test
+    void compareKeyIndexSizes() {
+        final String legacyCollectionName = "legacyCommand";
+        mongoTemplate.dropCollection(legacyCollectionName);
+        mongoTemplate.insert(chainTaskIds.stream()
+                .map(id -> new Document("chainObjectId", id).append("commandName", CommandName.TASK_INITIALIZE.name()))
+                .toList(), legacyCollectionName);
+        mongoTemplate.getCollection(legacyCollectionName).createIndex(
+                new Document("chainObjectId", 1).append("commandName", 1), new IndexOptions().name(Command.KEY_INDEX_NAME));
+        final long legacyIndexBytes = getIndexSize(legacyCollectionName);
+        final long compactIndexBytes = getIndexSize(mongoTemplate.getCollectionName(Command.class));
+        log.info("Key index size [commands:{}, hexStringKeyBytes:{}, binaryKeyBytes:{}]",
+                COMMAND_COUNT, legacyIndexBytes, compactIndexBytes);
+        assertThat(compactIndexBytes).isLessThan(legacyIndexBytes);
+    }
+
+    private long getIndexSize(String collectionName) {
+        final Document stats = mongoTemplate.executeCommand(new Document("collStats", collectionName));
+        return stats.get("indexSizes", Document.class).get(Command.KEY_INDEX_NAME, Number.class).longValue();
+    }
+
+    private long getBsonSize(Object value) {
+        final Document document = (Document) mongoTemplate.getConverter().convertToMongoType(value);
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    /**
+     * Run lookups on all commands, return the best total duration of the measured rounds.
+     */
+    private long measure(Function<String, CommandStatus> lookup) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            final long start = System.nanoTime();
+            chainTaskIds.forEach(id -> assertThat(lookup.apply(id)).isEqualTo(CommandStatus.SUCCESS));
+            final long duration = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, duration);
+            }
+        }
+        return best;
+    }
+
+    private Criteria getCriteria(String chainTaskId) {
+        return Criteria.where("chainObjectId").is(chainTaskId)
+                .and("commandName").is(CommandName.TASK_INITIALIZE);
+    }
+
+    private Bson getFilter(String chainTaskId) {
+        return and(eq("chainObjectId", ChainObjectIdConverter.toBinary(chainTaskId)),
+                eq("commandName", CommandName.TASK_INITIALIZE.getCode()));
+    }
+
+    private Command createCommand(String chainTaskId) {
+        final Command command = new Command();
+        command.setChainObjectId(chainTaskId);
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(CommandStatus.SUCCESS);
+        command.setCreationDate(Instant.now());
+        command.setFinalDate(Instant.now());
+        command.setReceiptSummary(ReceiptSummary.of(createReceipt(chainTaskId)));
+        return command;
+    }
+
+    private TransactionReceipt createReceipt(String chainTaskId) {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        receipt.setTransactionHash("0x" + "ab".repeat(32));
+        receipt.setBlockHash("0x" + "cd".repeat(32));
+        receipt.setBlockNumber("0x1000");
+        receipt.setGasUsed("0x30000");
+        receipt.setEffectiveGasPrice("0x51f4d5c00");
+        receipt.setLogsBloom("0x" + "00ff".repeat(128));
+        receipt.setLogs(IntStream.range(0, LOGS_PER_RECEIPT).mapToObj(i -> {
+            final Log receiptLog = new Log();
+            receiptLog.setAddress("0x3eca1B216A7DF1C7689aEb259fFB83ADFB894E7f");
+            receiptLog.setTopics(List.of("0x" + "11".repeat(32), chainTaskId));
+            receiptLog.setData("0x" + "22".repeat(64));
+            return receiptLog;
+        }).toList());
+        receipt.getLogs().get(0).setTopics(List.of(Hash.sha3String("TaskInitialize(bytes32,address)"),
+                chainTaskId, "0x0000000000000000000000003eca1b216a7df1c7689aeb259ffb83adfb894e7f"));
+        return receipt;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import com.iexec.commons.poco.chain.ChainUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compare latencies of command lifecycles (received, processing and final writes)
+ * with the MongoDB and the journal {@link CommandStore}s.
+ * <p>
+ * Run with {@code ./gradlew benchmark}, results are logged.
+ */
+@Slf4j
+@DataMongoTest
+@Testcontainers
+class CommandStoreBenchmark {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final int COMMAND_COUNT = 1000;
+    private static final int CONCURRENT_COMMANDS = 50;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @TempDir
+    private Path directory;
+
+    @Test
+    void compareLifecycleLatencies() throws IOException {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        final CommandWriteBatcher commandWriteBatcher = new CommandWriteBatcher(mongoTemplate, Duration.ofMillis(5), 100);
+        final JournalCommandStore journalCommandStore = new JournalCommandStore(
+                mongoTemplate.getConverter(), directory, DataSize.ofMegabytes(64), Duration.ofMillis(2));
+        try {
+            final long mongoNanos = measure(new MongoCommandStore(mongoTemplate, commandWriteBatcher));
+            final long journalNanos = measure(journalCommandStore);
+            log.info("Command lifecycle benchmark [commands:{}, concurrentCommands:{}]", COMMAND_COUNT, CONCURRENT_COMMANDS);
+            log.info("MongoDB store [microsPerLifecycle:{}]", mongoNanos / COMMAND_COUNT / 1000);
+            log.info("Journal store [microsPerLifecycle:{}]", journalNanos / COMMAND_COUNT / 1000);
+        } finally {
+            commandWriteBatcher.shutdown();
+            journalCommandStore.shutdown();
+        }
+    }
+
+    /**
+     * Run lifecycles of all commands, {@value #CONCURRENT_COMMANDS} commands at a time.
+     */
+    private long measure(CommandStore commandStore) {
+        final long start = System.nanoTime();
+        for (int first = 0; first < COMMAND_COUNT; first += CONCURRENT_COMMANDS) {
+            final List<CompletableFuture<Boolean>> lifecycles = IntStream.range(first, first + CONCURRENT_COMMANDS)
+                    .mapToObj(i -> runLifecycle(commandStore, i))
+                    .toList();
+            lifecycles.forEach(lifecycle -> assertThat(lifecycle.join()).isTrue());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private CompletableFuture<Boolean> runLifecycle(CommandStore commandStore, int taskIndex) {
+        final String chainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex);
+        final Command command = new Command();
+        command.setChainObjectId(chainTaskId);
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(CommandStatus.RECEIVED);
+        command.setCreationDate(Instant.now());
+        command.setArgs(new TaskInitializeArgs(chainTaskId, CHAIN_DEAL_ID, taskIndex));
+        return commandStore.insert(command)
+                .thenCompose(inserted -> transition(commandStore, chainTaskId,
+                        CommandStatus.RECEIVED, CommandStatus.PROCESSING, "processingDate"))
+                .thenCompose(processing -> transition(commandStore, chainTaskId,
+                        CommandStatus.PROCESSING, CommandStatus.SUCCESS, "finalDate"));
+    }
+
+    private CompletableFuture<Boolean> transition(CommandStore commandStore, String chainTaskId,
+                                                  CommandStatus expectedStatus, CommandStatus status,
+                                                  String dateFieldName) {
+        final Instant date = Instant.now();
+        final Update update = new Update().set("status", status).set(dateFieldName, date);
+        return commandStore.update(chainTaskId, CommandName.TASK_INITIALIZE, expectedStatus, update, dateFieldName, date);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.commons.poco.chain.ChainUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compare throughput, p99 latencies, peak thread count and peak heap usage of the {@link TaskController}
+ * initialize and status endpoints, when requests are served by the Tomcat platform thread pool
+ * or on virtual threads with Spring Boot {@value #VIRTUAL_THREADS_PROPERTY}.
+ * <p>
+ * The chain is replaced by a stand-in {@link IexecHubService} answering each on-chain check after
+ * {@link #PRECHECK_LATENCY}, commands are stored in a MongoDB container.
+ * Clients run in the same JVM on virtual threads, they do not add platform threads.
+ * <p>
+ * Run with {@code ./gradlew benchmark}, results are logged.
+ */
+@Slf4j
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class TaskControllerLoadBenchmark {
+
+    private static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+    private static final int CONCURRENT_CLIENTS = 500;
+    private static final int WARMUP_REQUESTS = 200;
+    private static final int MEASURED_REQUESTS = 2000;
+    private static final Duration PRECHECK_LATENCY = Duration.ofMillis(50);
+    private static final Duration TX_LATENCY = Duration.ofMillis(100);
+    private static final Map<String, LoadResult> RESULTS = new ConcurrentHashMap<>();
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @TestPropertySource(properties = VIRTUAL_THREADS_PROPERTY + "=false")
+    static class PlatformThreadsBenchmark extends TaskControllerLoadBenchmark {
+    }
+
+    @TestPropertySource(properties = VIRTUAL_THREADS_PROPERTY + "=true")
+    static class VirtualThreadsBenchmark extends TaskControllerLoadBenchmark {
+    }
+
+    record LoadResult(double requestsPerSecond, long initializeP99Millis, long statusP99Millis,
+                      int peakThreadCount, long peakHeapMegabytes) {
+    }
+
+    @MockitoBean
+    private IexecHubService iexecHubService;
+    @LocalServerPort
+    private int port;
+    @Value("${spring.security.user.name}")
+    private String username;
+    @Value("${spring.security.user.password}")
+    private String password;
+    @Value("${" + VIRTUAL_THREADS_PROPERTY + "}")
+    private boolean virtualThreads;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @BeforeEach
+    void init() throws Exception {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.isTaskInUnsetStatusOnChain(any())).thenAnswer(invocation -> {
+            Thread.sleep(PRECHECK_LATENCY);
+            return true;
+        });
+        // far deadline, commands are never rejected by the admission control
+        when(iexecHubService.getContributionDeadline(any())).thenAnswer(invocation -> {
+            Thread.sleep(PRECHECK_LATENCY);
+            return Optional.of(Instant.now().plus(Duration.ofDays(30)));
+        });
+        when(iexecHubService.initializeTask(any(), anyInt(), any())).thenAnswer(invocation -> {
+            Thread.sleep(TX_LATENCY);
+            return new TransactionReceipt();
+        });
+    }
+
+    @Test
+    void runLoad() throws Exception {
+        final String model = virtualThreads ? "virtual" : "platform";
+        load(WARMUP_REQUESTS);
+
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        threadMXBean.resetPeakThreadCount();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final long start = System.nanoTime();
+        final LoadLatencies latencies = load(MEASURED_REQUESTS);
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+        final LoadResult result = new LoadResult(
+                MEASURED_REQUESTS * 2 * 1000.0 / duration.toMillis(),
+                getP99Millis(latencies.initialize()),
+                getP99Millis(latencies.status()),
+                threadMXBean.getPeakThreadCount(),
+                heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / (1024 * 1024));
+        RESULTS.put(model, result);
+        log.info("TaskController load benchmark [model:{}, clients:{}, requests:{}, precheckLatency:{}]",
+                model, CONCURRENT_CLIENTS, MEASURED_REQUESTS * 2, PRECHECK_LATENCY);
+        log.info("TaskController load result [model:{}, requestsPerSecond:{}, initializeP99Millis:{}, " +
+                        "statusP99Millis:{}, peakThreadCount:{}, peakHeapMegabytes:{}]",
+                model, Math.round(result.requestsPerSecond()), result.initializeP99Millis(),
+                result.statusP99Millis(), result.peakThreadCount(), result.peakHeapMegabytes());
+
+        assertThat(latencies.failures()).hasValue(0);
+        if (RESULTS.size() == 2) {
+            final LoadResult platform = RESULTS.get("platform");
+            final LoadResult virtual = RESULTS.get("virtual");
+            log.info("TaskController load comparison [throughputRatio:{}, initializeP99Ratio:{}, threadRatio:{}]",
+                    String.format("%.2f", virtual.requestsPerSecond() / platform.requestsPerSecond()),
+                    String.format("%.2f", (double) virtual.initializeP99Millis() / platform.initializeP99Millis()),
+                    String.format("%.2f", (double) virtual.peakThreadCount() / platform.peakThreadCount()));
+            assertThat(virtual.peakThreadCount()).isLessThan(platform.peakThreadCount());
+        }
+    }
+
+    private record LoadLatencies(ConcurrentLinkedQueue<Long> initialize,
+                                 ConcurrentLinkedQueue<Long> status,
+                                 AtomicInteger failures) {
+    }
+
+    /**
+     * Send initialize requests followed by a status request for the same task, from concurrent clients.
+     *
+     * @param requestCount number of initialize requests
+     * @return latencies in nanoseconds of both endpoints and number of unexpected responses
+     */
+    private LoadLatencies load(final int requestCount) {
+        final String chainDealId = Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(System.nanoTime()), 64);
+        final LoadLatencies latencies = new LoadLatencies(
+                new ConcurrentLinkedQueue<>(), new ConcurrentLinkedQueue<>(), new AtomicInteger());
+        final AtomicInteger nextTaskIndex = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, CONCURRENT_CLIENTS).forEach(client -> clients.submit(() -> {
+                for (int taskIndex = nextTaskIndex.getAndIncrement(); taskIndex < requestCount;
+                     taskIndex = nextTaskIndex.getAndIncrement()) {
+                    final String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, taskIndex);
+                    send(HttpRequest.newBuilder(getUri("/v1/tasks/initialize?chainDealId=" + chainDealId
+                                    + "&taskIndex=" + taskIndex))
+                                    .POST(HttpRequest.BodyPublishers.noBody()),
+                            latencies.initialize(), latencies.failures());
+                    send(HttpRequest.newBuilder(getUri("/v1/tasks/initialize/" + chainTaskId + "/status")).GET(),
+                            latencies.status(), latencies.failures());
+                }
+            }));
+        }
+        return latencies;
+    }
+
+    private void send(final HttpRequest.Builder request,
+                      final ConcurrentLinkedQueue<Long> latencies,
+                      final AtomicInteger failures) {
+        final String credentials = Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        final long start = System.nanoTime();
+        try {
+            final HttpResponse<Void> response = httpClient.send(
+                    request.header("Authorization", "Basic " + credentials).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                failures.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("Request failed [uri:{}]", request.build().uri(), e);
+            failures.incrementAndGet();
+        }
+        latencies.add(System.nanoTime() - start);
+    }
+
+    private URI getUri(final String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private long getP99Millis(final ConcurrentLinkedQueue<Long> latencies) {
+        final List<Long> sorted = latencies.stream().sorted().toList();
+        return Duration.ofNanos(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1)).toMillis();
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,10 @@ public class ChainConfig {
     @ValidNonZeroEthereumAddress(message = "Hub address must be a valid non zero Ethereum address")
     String hubAddress;
 
+    // optional, claims are sent one task per transaction without multicall when the hub has no claimArray
+    @Pattern(regexp = "^(0x[0-9a-fA-F]{40})?$", message = "Multicall address must be a valid Ethereum address")
+    String multicallAddress;
+
     @DurationMin(millis = 100, message = "Block time must be greater than 100ms")
     @DurationMax(seconds = 20, message = "Block time must be less than 20s")
     @NotNull(message = "Block time must not be null")
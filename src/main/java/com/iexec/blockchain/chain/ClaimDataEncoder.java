@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.DynamicStruct;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.utils.Numeric;
+
+import java.util.List;
+
+/**
+ * Encode transaction data of task claims, not provided by the PoCo data encoder.
+ * <p>
+ * Several claims are sent in a single transaction with {@code claimArray(bytes32[])} when the hub supports it,
+ * or with {@code aggregate3((address,bool,bytes)[])} of a Multicall3 contract otherwise.
+ * {@code claim(bytes32)} can be called by anyone once the final deadline of a task is reached,
+ * the multicall contract being the sender of the claims does not matter.
+ */
+public final class ClaimDataEncoder {
+
+    private ClaimDataEncoder() {
+    }
+
+    public static String encodeClaim(final String chainTaskId) {
+        return FunctionEncoder.encode(new Function("claim", List.of(toBytes32(chainTaskId)), List.of()));
+    }
+
+    public static String encodeClaimArray(final List<String> chainTaskIds) {
+        final List<Bytes32> taskIds = chainTaskIds.stream().map(ClaimDataEncoder::toBytes32).toList();
+        return FunctionEncoder.encode(new Function("claimArray",
+                List.of(new DynamicArray<>(Bytes32.class, taskIds)), List.of()));
+    }
+
+    /**
+     * Encode claims of several tasks in a single Multicall3 call.
+     * <p>
+     * Failures are not allowed, the whole call reverts if a single claim reverts, as {@code claimArray} does.
+     *
+     * @param hubAddress   address of the hub receiving the claims
+     * @param chainTaskIds blockchain IDs of the tasks to claim
+     * @return the transaction data to send to the multicall contract
+     */
+    public static String encodeMulticallClaims(final String hubAddress, final List<String> chainTaskIds) {
+        final List<Call3> calls = chainTaskIds.stream()
+                .map(chainTaskId -> new Call3(hubAddress, encodeClaim(chainTaskId)))
+                .toList();
+        return FunctionEncoder.encode(new Function("aggregate3",
+                List.of(new DynamicArray<>(Call3.class, calls)), List.of()));
+    }
+
+    private static Bytes32 toBytes32(final String chainTaskId) {
+        return new Bytes32(Numeric.hexStringToByteArray(chainTaskId));
+    }
+
+    /**
+     * {@code Call3} struct of Multicall3, a call to a target contract which is not allowed to fail.
+     */
+    public static class Call3 extends DynamicStruct {
+        public Call3(final String target, final String callData) {
+            super(new Address(target), new Bool(false), new DynamicBytes(Numeric.hexStringToByteArray(callData)));
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.iexec.blockchain.chain;
 
+import com.iexec.blockchain.chain.TransactionErrorClass.RecoveryAction;
 import com.iexec.blockchain.command.generic.SubmittedTx;
 import com.iexec.commons.poco.chain.*;
 import com.iexec.commons.poco.encoding.PoCoDataEncoder;
@@ -23,16 +24,24 @@ import com.iexec.commons.poco.utils.BytesUtils;
 import com.iexec.commons.poco.utils.HashUtils;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static com.iexec.commons.poco.utils.BytesUtils.stringToBytes;
 
@@ -40,11 +49,18 @@ import static com.iexec.commons.poco.utils.BytesUtils.stringToBytes;
 @Service
 public class IexecHubService extends IexecHubAbstractService {
 
+    static final int MAX_FEE_BUMPS = 8;
+
     private final ChainConfig chainConfig;
     private final SignerService signerService;
     private final Web3jService web3jService;
     private final Counter failureCounter = Metrics.counter("iexec.poco.transaction", "status", "failure");
     private final Counter successCounter = Metrics.counter("iexec.poco.transaction", "status", "success");
+    private final AtomicInteger feeBumps = new AtomicInteger();
+    private final ReentrantLock submitLock = new ReentrantLock();
+    // null until probed, see isClaimArraySupported()
+    private volatile Boolean claimArraySupported;
+    private volatile boolean multicallDeployed;
 
     public IexecHubService(final SignerService signerService,
                            final Web3jService web3jService,
@@ -66,6 +82,21 @@ public class IexecHubService extends IexecHubAbstractService {
 
     public TransactionReceipt initializeTask(final String chainDealId,
                                              final int taskIndex) throws IOException, TransactionException {
+        return initializeTask(chainDealId, taskIndex, txHash -> {
+        });
+    }
+
+    /**
+     * Initialize a task on-chain.
+     *
+     * @param chainDealId    blockchain ID of the deal
+     * @param taskIndex      index of the task in the deal
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt, an empty receipt if the task is already initialized
+     */
+    public TransactionReceipt initializeTask(final String chainDealId,
+                                             final int taskIndex,
+                                             final Consumer<String> txHashListener) throws IOException, TransactionException {
         final String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, taskIndex);
         if (!isTaskInUnsetStatusOnChain(chainTaskId)) {
             log.warn("task is already initialized [chainTaskId:{}]", chainTaskId);
@@ -73,6 +104,7 @@ public class IexecHubService extends IexecHubAbstractService {
         }
         final String txData = PoCoDataEncoder.encodeInitialize(chainDealId, taskIndex);
         final SubmittedTx submittedTx = submit("initialize", txData);
+        txHashListener.accept(submittedTx.hash());
         return waitForTxMined(submittedTx);
     }
 
@@ -81,26 +113,80 @@ public class IexecHubService extends IexecHubAbstractService {
                                          final String workerpoolSignature,
                                          final String enclaveChallenge,
                                          final String enclaveSignature) throws IOException, TransactionException {
+        return contribute(chainTaskId, resultDigest, workerpoolSignature, enclaveChallenge, enclaveSignature, txHash -> {
+        });
+    }
+
+    /**
+     * Contribute to a task on-chain with the adapter wallet.
+     *
+     * @param chainTaskId         blockchain ID of the task
+     * @param resultDigest        digest of the result computed for the task
+     * @param workerpoolSignature signature of the workerpool authorizing the adapter wallet on the task
+     * @param enclaveChallenge    address of the enclave challenge, the zero address for standard tasks
+     * @param enclaveSignature    signature of the enclave
+     * @param txHashListener      notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt
+     */
+    public TransactionReceipt contribute(final String chainTaskId,
+                                         final String resultDigest,
+                                         final String workerpoolSignature,
+                                         final String enclaveChallenge,
+                                         final String enclaveSignature,
+                                         final Consumer<String> txHashListener) throws IOException, TransactionException {
         final String resultHash = HashUtils.concatenateAndHash(chainTaskId, resultDigest);
         final String resultSeal = HashUtils.concatenateAndHash(credentials.getAddress(), chainTaskId, resultDigest);
 
         final String txData = PoCoDataEncoder.encodeContribute(
                 chainTaskId, resultHash, resultSeal, enclaveChallenge, enclaveSignature, workerpoolSignature);
         final SubmittedTx submittedTx = submit("contribute", txData);
+        txHashListener.accept(submittedTx.hash());
         return waitForTxMined(submittedTx);
     }
 
-
     public TransactionReceipt reveal(final String chainTaskId,
                                      final String resultDigest) throws IOException, TransactionException {
+        return reveal(chainTaskId, resultDigest, txHash -> {
+        });
+    }
+
+    /**
+     * Reveal the result digest of a contribution of the adapter wallet on-chain.
+     *
+     * @param chainTaskId    blockchain ID of the task
+     * @param resultDigest   digest of the contributed result
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt
+     */
+    public TransactionReceipt reveal(final String chainTaskId,
+                                     final String resultDigest,
+                                     final Consumer<String> txHashListener) throws IOException, TransactionException {
         final String txData = PoCoDataEncoder.encodeReveal(chainTaskId, resultDigest);
         final SubmittedTx submittedTx = submit("reveal", txData);
+        txHashListener.accept(submittedTx.hash());
         return waitForTxMined(submittedTx);
     }
 
     public TransactionReceipt finalizeTask(final String chainTaskId,
                                            final String resultLink,
                                            final String callbackData) throws IOException, TransactionException {
+        return finalizeTask(chainTaskId, resultLink, callbackData, txHash -> {
+        });
+    }
+
+    /**
+     * Finalize a task on-chain.
+     *
+     * @param chainTaskId    blockchain ID of the task
+     * @param resultLink     link to the result of the task
+     * @param callbackData   optional callback data of the task
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt
+     */
+    public TransactionReceipt finalizeTask(final String chainTaskId,
+                                           final String resultLink,
+                                           final String callbackData,
+                                           final Consumer<String> txHashListener) throws IOException, TransactionException {
         final byte[] results = StringUtils.isNotEmpty(resultLink) ?
                 resultLink.getBytes(StandardCharsets.UTF_8) : new byte[0];
         final byte[] resultsCallback = StringUtils.isNotEmpty(callbackData) ?
@@ -108,28 +194,176 @@ public class IexecHubService extends IexecHubAbstractService {
 
         final String txData = PoCoDataEncoder.encodeFinalize(chainTaskId, results, resultsCallback);
         final SubmittedTx submittedTx = submit("finalize", txData);
+        txHashListener.accept(submittedTx.hash());
+        return waitForTxMined(submittedTx);
+    }
+
+    /**
+     * Estimate the gas used by the claim of a single task.
+     *
+     * @param chainTaskId blockchain ID of a claimable task
+     * @return the estimated gas
+     */
+    public BigInteger estimateClaimGas(final String chainTaskId) throws IOException {
+        return signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaim(chainTaskId));
+    }
+
+    /**
+     * Whether several tasks can be claimed in a single transaction,
+     * with {@code claimArray} on the hub or with the configured multicall contract if it is deployed.
+     *
+     * @return true if claims can be batched
+     */
+    public boolean canClaimInBatch() {
+        return isClaimArraySupported() || multicallDeployed;
+    }
+
+    /**
+     * Claim several tasks in a single transaction.
+     * <p>
+     * Tasks are claimed with {@code claimArray} when the hub supports it, with the multicall contract otherwise.
+     * The transaction reverts if a single claim reverts.
+     *
+     * @param chainTaskIds   blockchain IDs of the tasks, all of them must be claimable
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt
+     */
+    public TransactionReceipt claimTasks(final List<String> chainTaskIds,
+                                         final Consumer<String> txHashListener) throws IOException, TransactionException {
+        final SubmittedTx submittedTx;
+        if (chainTaskIds.size() == 1) {
+            submittedTx = submit("claim", chainConfig.getHubAddress(),
+                    ClaimDataEncoder.encodeClaim(chainTaskIds.get(0)));
+        } else if (isClaimArraySupported()) {
+            submittedTx = submit("claimArray", chainConfig.getHubAddress(),
+                    ClaimDataEncoder.encodeClaimArray(chainTaskIds));
+        } else if (multicallDeployed) {
+            submittedTx = submit("aggregate3", chainConfig.getMulticallAddress(),
+                    ClaimDataEncoder.encodeMulticallClaims(chainConfig.getHubAddress(), chainTaskIds));
+        } else {
+            throw new IllegalStateException("Tasks cannot be claimed in a single transaction");
+        }
+        txHashListener.accept(submittedTx.hash());
         return waitForTxMined(submittedTx);
     }
 
+    /**
+     * Check once at startup that the configured multicall contract is deployed.
+     * <p>
+     * A call to an address without code succeeds without doing anything, claims sent to it would look successful.
+     * Claims are sent one by one if the address is not set or has no code.
+     */
+    @PostConstruct
+    void checkMulticallContract() {
+        final String multicallAddress = chainConfig.getMulticallAddress();
+        if (StringUtils.isEmpty(multicallAddress)) {
+            log.info("No multicall contract configured");
+            return;
+        }
+        try {
+            final String code = web3jService.getWeb3j()
+                    .ethGetCode(multicallAddress, DefaultBlockParameterName.LATEST).send().getCode();
+            multicallDeployed = StringUtils.isNotEmpty(code) && !"0x".equals(code);
+        } catch (Exception e) {
+            log.warn("Failed to read multicall contract code [address:{}]", multicallAddress, e);
+        }
+        if (multicallDeployed) {
+            log.info("Multicall contract deployed [address:{}]", multicallAddress);
+        } else {
+            log.error("No multicall contract deployed, it will not be used [address:{}]", multicallAddress);
+        }
+    }
+
+    /**
+     * Check once whether the hub exposes {@code claimArray}, by estimating the gas of a claim of no task.
+     * <p>
+     * A revert means the function is unknown to the hub, the result is then kept.
+     * Other errors are not conclusive, the check is performed again on next call.
+     *
+     * @return true if {@code claimArray} can be called on the hub
+     */
+    boolean isClaimArraySupported() {
+        if (claimArraySupported == null) {
+            try {
+                signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of()));
+                claimArraySupported = true;
+            } catch (Exception e) {
+                if (TransactionErrorClassifier.classify(e) != TransactionErrorClass.REVERTED) {
+                    log.warn("Cannot check claimArray support of the hub", e);
+                    return false;
+                }
+                claimArraySupported = false;
+            }
+            log.info("Checked claimArray support of the hub [supported:{}]", claimArraySupported);
+        }
+        return claimArraySupported;
+    }
+
     /**
      * Submits the transaction to the blockchain network mem-pool.
      * <p>
-     * This method can be {@code synchronized} as there is only a single {@code IexecHubService} instance.
+     * Submissions are serialized with a lock as there is only a single {@code IexecHubService} instance.
      * When a first transaction will be emitted, it will be emitted and registered on the pending block.
      * After a latency, a second transaction can be sent on the pending block and the nonce will be computed successfully.
      * With a correct nonce, it becomes possible to perform several transactions from the same wallet in the same block.
+     * <p>
+     * A {@link ReentrantLock} is used instead of {@code synchronized}, a virtual thread waiting for the node
+     * while holding the lock does not pin its carrier thread.
+     * <p>
+     * When the node rejects a transaction as underpriced, the gas price of next transactions is bumped,
+     * see {@link #getGasPrice()}. Each successful submission removes one bump.
+     */
+    private SubmittedTx submit(final String function, final String txData) throws IOException {
+        return submit(function, chainConfig.getHubAddress(), txData);
+    }
+
+    private SubmittedTx submit(final String function, final String to, final String txData) throws IOException {
+        submitLock.lock();
+        try {
+            final BigInteger nonce = signerService.getNonce();
+            final BigInteger gasLimit = switch (function) {
+                case "initialize", "claim", "claimArray", "aggregate3" -> signerService.estimateGas(to, txData);
+                case "finalize" -> signerService.estimateGas(to, txData).add(getCallbackGas());
+                default -> PoCoDataEncoder.getGasLimitForFunction(function);
+            };
+            final BigInteger gasPrice = getGasPrice();
+            final String txHash;
+            try {
+                txHash = signerService.signAndSendTransaction(nonce, gasPrice, gasLimit, to, txData);
+            } catch (IOException | RuntimeException e) {
+                if (TransactionErrorClassifier.classify(e).getAction() == RecoveryAction.BUMP_FEE) {
+                    log.warn("Transaction underpriced, bumping next gas prices [nonce:{}, gasPrice:{}, feeBumps:{}]",
+                            nonce, gasPrice, feeBumps.updateAndGet(bumps -> Math.min(bumps + 1, MAX_FEE_BUMPS)));
+                }
+                throw e;
+            }
+            feeBumps.updateAndGet(bumps -> Math.max(bumps - 1, 0));
+            log.info("Transaction submitted [nonce:{}, hash:{}]", nonce, txHash);
+            return new SubmittedTx(nonce, gasLimit, txData, txHash);
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * Get the gas price of the next transaction, the user gas price raised by 12.5% for each fee bump.
+     * 12.5% is above the 10% minimum required by nodes to replace a pending transaction.
+     * The bumped gas price never exceeds the configured gas price cap.
+     *
+     * @return the gas price in Wei
      */
-    private synchronized SubmittedTx submit(final String function, final String txData) throws IOException {
-        final BigInteger nonce = signerService.getNonce();
-        final BigInteger gasLimit = switch (function) {
-            case "initialize" -> signerService.estimateGas(chainConfig.getHubAddress(), txData);
-            case "finalize" -> signerService.estimateGas(chainConfig.getHubAddress(), txData).add(getCallbackGas());
-            default -> PoCoDataEncoder.getGasLimitForFunction(function);
-        };
-        final String txHash = signerService.signAndSendTransaction(
-                nonce, web3jService.getUserGasPrice(), gasLimit, chainConfig.getHubAddress(), txData);
-        log.info("Transaction submitted [nonce:{}, hash:{}]", nonce, txHash);
-        return new SubmittedTx(nonce, gasLimit, txData, txHash);
+    BigInteger getGasPrice() {
+        final BigInteger userGasPrice = web3jService.getUserGasPrice();
+        final int bumps = feeBumps.get();
+        if (bumps == 0 || userGasPrice == null) {
+            return userGasPrice;
+        }
+        BigInteger gasPrice = userGasPrice;
+        for (int i = 0; i < bumps; i++) {
+            gasPrice = gasPrice.multiply(BigInteger.valueOf(9)).divide(BigInteger.valueOf(8));
+        }
+        return chainConfig.getGasPriceCap() > 0 ?
+                gasPrice.min(BigInteger.valueOf(chainConfig.getGasPriceCap())) : gasPrice;
     }
 
     public TransactionReceipt waitForTxMined(final SubmittedTx submittedTx) throws IOException, TransactionException {
@@ -144,6 +378,34 @@ public class IexecHubService extends IexecHubAbstractService {
         return receipt;
     }
 
+    /**
+     * Look for the receipt of a transaction submitted earlier, for instance before a restart.
+     * <p>
+     * A single {@code eth_getTransactionReceipt} call is performed, without waiting for the transaction to be mined.
+     * The transaction is not counted in the mined or failed transactions metrics, it was counted when sent.
+     *
+     * @param txHash hash of the transaction
+     * @return the receipt, empty if the transaction is not mined yet, has been dropped or the call failed
+     */
+    public Optional<TransactionReceipt> findTransactionReceipt(final String txHash) {
+        try {
+            return web3jService.getWeb3j().ethGetTransactionReceipt(txHash).send().getTransactionReceipt();
+        } catch (IOException e) {
+            log.warn("Failed to read transaction receipt [hash:{}]", txHash, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Read the contribution of the adapter wallet to a task.
+     *
+     * @param chainTaskId blockchain ID of the task
+     * @return the contribution, empty if it cannot be read
+     */
+    public Optional<ChainContribution> getWalletContribution(final String chainTaskId) {
+        return getChainContribution(chainTaskId, credentials.getAddress());
+    }
+
     /**
      * Check if the task is defined on-chain and has the {@link ChainTaskStatus#UNSET} status.
      *
@@ -155,6 +417,18 @@ public class IexecHubService extends IexecHubAbstractService {
         return chainTask == null || chainTask.getStatus() == ChainTaskStatus.UNSET;
     }
 
+    /**
+     * Get the contribution deadline of a deal.
+     *
+     * @param chainDealId blockchain ID of the deal
+     * @return the deadline, empty if the deal cannot be read
+     */
+    public Optional<Instant> getContributionDeadline(final String chainDealId) {
+        return getChainDeal(chainDealId)
+                .map(this::getContributionDeadline)
+                .map(Date::toInstant);
+    }
+
     /**
      * Check if a deal's contribution deadline
      * is still not reached.
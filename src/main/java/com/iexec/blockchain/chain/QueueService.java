@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,16 @@
 
 package com.iexec.blockchain.chain;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.constraints.NotNull;
 import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.concurrent.*;
 
 /**
@@ -32,15 +37,46 @@ import java.util.concurrent.*;
  * <p>
  * The {@link TaskWithPriority} is a {@link java.lang.Comparable} with a deferred call to {@link BlockchainAction#compareTo(BlockchainAction)}.
  * This enables the thread pool to retrieve tasks from the queue depending on the implemented priority rule.
- * The priority rule is a simple {@code boolean} flag in {@link BlockchainAction}.
- * Tasks with a priority flag defined as {@literal true}, then a lower creation timestamp are sorted first.
+ * The priority rule is a {@code boolean} flag in {@link BlockchainAction}, then an optional deadline.
+ * Tasks with a priority flag defined as {@literal true}, then an earlier deadline, then a lower creation timestamp
+ * are sorted first. Tasks without deadline are sorted after tasks with a deadline.
+ * <p>
+ * With virtual threads enabled, each task runs on its own virtual thread instead of a pooled platform thread.
+ * Concurrency is then limited by a {@link Semaphore} of {@code maxConcurrency} permits:
+ * a dispatcher takes the first task of the priority queue only once a permit is available,
+ * so the priority order is kept whatever the number of running tasks.
+ * The dispatcher is started once the bean is initialized and stopped when the application context is closed.
  */
+@Slf4j
 @Service
 public class QueueService {
     private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
     private final ThreadPoolExecutor executorService;
+    private final Semaphore permits;
+    private Thread dispatcher;
+
+    public QueueService(int threadCount) {
+        this(threadCount, false, threadCount);
+    }
 
-    public QueueService(@Value("${chain.max-allowed-tx-per-block}") int threadCount) {
+    /**
+     * Create the service with a platform thread pool, or with virtual threads.
+     *
+     * @param threadCount    size of the platform thread pool
+     * @param virtualThreads whether tasks run on virtual threads
+     * @param maxConcurrency maximum number of tasks running at the same time on virtual threads
+     */
+    @Autowired
+    public QueueService(@Value("${chain.max-allowed-tx-per-block}") int threadCount,
+                        @Value("${command.queue.executor.virtual-threads}") boolean virtualThreads,
+                        @Value("${command.queue.executor.max-concurrency}") int maxConcurrency) {
+        if (virtualThreads) {
+            log.info("Running queued tasks on virtual threads [maxConcurrency:{}]", maxConcurrency);
+            executorService = null;
+            permits = new Semaphore(maxConcurrency);
+            return;
+        }
+        permits = null;
         executorService = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, queue) {
             @Override
             protected <T> RunnableFuture<T> newTaskFor(@NotNull Runnable runnable, T value) {
@@ -49,6 +85,63 @@ public class QueueService {
         };
     }
 
+    /**
+     * Start the dispatcher of queued tasks when running on virtual threads.
+     */
+    @PostConstruct
+    void start() {
+        if (permits != null && dispatcher == null) {
+            dispatcher = Thread.ofVirtual().name("queue-dispatcher").start(this::dispatch);
+        }
+    }
+
+    /**
+     * Stop the dispatcher, tasks already running are left to complete and queued tasks are not started anymore.
+     */
+    @PreDestroy
+    void shutdown() {
+        if (dispatcher == null) {
+            return;
+        }
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the queue dispatcher to stop");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start the first task of the queue on a new virtual thread each time a permit is available.
+     * The permit is released when the task completes.
+     */
+    private void dispatch() {
+        final Thread.Builder taskThreadBuilder = Thread.ofVirtual().name("queue-task-", 0);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                permits.acquire();
+                final Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    permits.release();
+                    throw e;
+                }
+                taskThreadBuilder.start(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            log.warn("Queue dispatcher interrupted");
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Submit a {@link Runnable} to the thread pool.
      *
@@ -57,22 +150,56 @@ public class QueueService {
      * @return A Future representing pending completion of the runnable.
      */
     public Future<Void> addExecutionToQueue(Runnable runnable, boolean priority) {
-        return executorService.submit(new BlockchainAction(runnable, priority), null);
+        return addExecutionToQueue(runnable, priority, null);
+    }
+
+    /**
+     * Submit a {@link Runnable} to the thread pool, runnables with the same priority are executed
+     * earliest deadline first.
+     *
+     * @param runnable {@link Runnable} to submit to the queue.
+     * @param priority Whether this {@link Runnable} has a high ({@literal true}) or low ({@literal false}) priority.
+     * @param deadline Date before which the {@link Runnable} should be executed, null if none.
+     * @return A Future representing pending completion of the runnable.
+     */
+    public Future<Void> addExecutionToQueue(Runnable runnable, boolean priority, Instant deadline) {
+        final BlockchainAction action = new BlockchainAction(runnable, priority, deadline);
+        if (executorService != null) {
+            return executorService.submit(action, null);
+        }
+        final TaskWithPriority<Void> task = new TaskWithPriority<>(action);
+        queue.add(task);
+        return task;
+    }
+
+    /**
+     * Get the number of {@link Runnable}s waiting for a thread of the pool.
+     *
+     * @return The size of the queue, running tasks excluded.
+     */
+    public int getQueueSize() {
+        return queue.size();
     }
 
     /**
      * Represent an action submitted to the {@link java.util.concurrent.PriorityBlockingQueue}.
-     * It contains its timestamp creation, its priority and its {@link Runnable}.
+     * It contains its timestamp creation, its priority, its deadline and its {@link Runnable}.
      */
     @EqualsAndHashCode
     static class BlockchainAction implements Comparable<BlockchainAction>, Runnable {
         private final Runnable runnable;
         private final boolean priority;
+        private final long deadline;
         private final long time;
 
         public BlockchainAction(Runnable runnable, boolean priority) {
+            this(runnable, priority, null);
+        }
+
+        public BlockchainAction(Runnable runnable, boolean priority, Instant deadline) {
             this.runnable = runnable;
             this.priority = priority;
+            this.deadline = deadline != null ? deadline.toEpochMilli() : Long.MAX_VALUE;
             this.time = System.nanoTime();
         }
 
@@ -89,6 +216,9 @@ public class QueueService {
             if (!this.priority && other.priority) {
                 return 1;
             }
+            if (this.deadline != other.deadline) {
+                return Long.compare(this.deadline, other.deadline);
+            }
             return Long.compare(this.time, other.time);
         }
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Classes of errors returned by the blockchain node or the transport when a transaction is sent,
+ * see {@link TransactionErrorClassifier}.
+ */
+@Getter
+@AllArgsConstructor
+public enum TransactionErrorClass {
+
+    /**
+     * The nonce has already been used by a mined or pending transaction.
+     */
+    NONCE_TOO_LOW(RecoveryAction.RESYNC_NONCE),
+    /**
+     * The same signed transaction is already in the mempool of the node, it has been submitted by a previous attempt.
+     */
+    ALREADY_KNOWN(RecoveryAction.AWAIT_SUBMITTED),
+    /**
+     * The gas price is below the minimum accepted by the node or below the one of a pending transaction.
+     */
+    UNDERPRICED(RecoveryAction.BUMP_FEE),
+    /**
+     * The wallet cannot pay for the transaction.
+     */
+    INSUFFICIENT_FUNDS(RecoveryAction.FAIL_FAST),
+    /**
+     * The transaction reverts deterministically.
+     */
+    REVERTED(RecoveryAction.FAIL_FAST),
+    /**
+     * The node is unreachable, rate limited, out of sync or failed internally.
+     */
+    NODE_UNAVAILABLE(RecoveryAction.RETRY_WITH_BACKOFF),
+    UNKNOWN(RecoveryAction.RETRY_WITH_BACKOFF);
+
+    private final RecoveryAction action;
+
+    public enum RecoveryAction {
+        /**
+         * Retry at once, the nonce is read again from the pending transaction count of the wallet.
+         */
+        RESYNC_NONCE,
+        /**
+         * Do not send again, the transaction is treated as submitted.
+         * The command is completed once its effect is visible on-chain, it is sent again only if it is not.
+         */
+        AWAIT_SUBMITTED,
+        /**
+         * Retry at once, with a gas price bumped by {@link IexecHubService}.
+         */
+        BUMP_FEE,
+        /**
+         * Do not retry, the command fails.
+         */
+        FAIL_FAST,
+        /**
+         * Retry after an exponential backoff.
+         * The adapter is connected to a single node, the same node is queried again once the backoff has elapsed.
+         */
+        RETRY_WITH_BACKOFF
+    }
+
+}
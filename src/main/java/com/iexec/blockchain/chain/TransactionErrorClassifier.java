@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.exceptions.JsonRpcError;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Classify errors thrown while sending a transaction, from web3j transport exceptions
+ * or JSON-RPC error payloads of geth, OpenEthereum, Nethermind and Besu nodes.
+ * <p>
+ * Node error messages are not standardized, they are matched case-insensitively against known fragments.
+ * The whole cause chain is inspected, as JSON-RPC errors may be wrapped in other exceptions.
+ */
+public final class TransactionErrorClassifier {
+
+    public static final String ERROR_METRIC_NAME = "iexec.poco.transaction.error";
+
+    private static final int MAX_CAUSE_DEPTH = 10;
+    /**
+     * JSON-RPC error codes of rate limited requests and node internal errors.
+     */
+    private static final Set<Integer> NODE_UNAVAILABLE_CODES = Set.of(-32005, -32603);
+    /**
+     * Message fragments by error class, in matching order.
+     */
+    private static final List<Map.Entry<TransactionErrorClass, List<String>>> MESSAGE_FRAGMENTS = List.of(
+            Map.entry(TransactionErrorClass.NONCE_TOO_LOW, List.of(
+                    "nonce too low", "nonce is too low", "oldnonce", "nonce has already been used")),
+            Map.entry(TransactionErrorClass.ALREADY_KNOWN, List.of(
+                    "already known", "alreadyknown", "already imported", "known transaction")),
+            Map.entry(TransactionErrorClass.UNDERPRICED, List.of(
+                    "underpriced", "gas price is too low", "gas price too low", "fee too low", "feetoolow",
+                    "less than block base fee", "below configured minimum gas price")),
+            Map.entry(TransactionErrorClass.INSUFFICIENT_FUNDS, List.of(
+                    "insufficient funds", "insufficientfunds", "upfront cost exceeds account balance")),
+            Map.entry(TransactionErrorClass.REVERTED, List.of(
+                    "revert", "vm execution error", "out of gas", "gas required exceeds allowance",
+                    "invalid opcode", "bad instruction")),
+            Map.entry(TransactionErrorClass.NODE_UNAVAILABLE, List.of(
+                    "rate limit", "too many requests", "request count exceeded", "header not found",
+                    "missing trie node", "service unavailable", "bad gateway", "timeout", "timed out"))
+    );
+
+    private TransactionErrorClassifier() {
+    }
+
+    /**
+     * Classify an error thrown while sending a transaction.
+     *
+     * @param throwable error to classify
+     * @return the class of the error, {@link TransactionErrorClass#UNKNOWN} if it cannot be recognized
+     */
+    public static TransactionErrorClass classify(final Throwable throwable) {
+        Throwable cause = throwable;
+        for (int depth = 0; cause != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            final String message = getMessage(cause);
+            for (final Map.Entry<TransactionErrorClass, List<String>> entry : MESSAGE_FRAGMENTS) {
+                if (entry.getValue().stream().anyMatch(message::contains)) {
+                    return entry.getKey();
+                }
+            }
+            if (isNodeUnavailable(cause)) {
+                return TransactionErrorClass.NODE_UNAVAILABLE;
+            }
+            cause = cause.getCause() != cause ? cause.getCause() : null;
+        }
+        return TransactionErrorClass.UNKNOWN;
+    }
+
+    private static String getMessage(final Throwable throwable) {
+        String message = Objects.toString(throwable.getMessage(), "");
+        if (throwable instanceof JsonRpcError jsonRpcError && jsonRpcError.getData() != null) {
+            message += " " + jsonRpcError.getData();
+        }
+        return message.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isNodeUnavailable(final Throwable throwable) {
+        if (throwable instanceof JsonRpcError jsonRpcError) {
+            return NODE_UNAVAILABLE_CODES.contains(jsonRpcError.getCode());
+        }
+        return throwable instanceof SocketException
+                || throwable instanceof SocketTimeoutException
+                || throwable instanceof UnknownHostException
+                || throwable instanceof ClientConnectionException;
+    }
+
+}
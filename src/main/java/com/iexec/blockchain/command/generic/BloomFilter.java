@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings, answering whether a value has possibly been added.
+ * <p>
+ * A value which has been added is always reported as possibly present, a value which has never been added
+ * is reported as possibly present with the configured false positive probability,
+ * as long as no more than {@code expectedInsertions} values have been added.
+ * Bits are set with lock-free compare-and-set operations, values cannot be removed.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter parameters [expectedInsertions:"
+                    + expectedInsertions + ", falsePositiveProbability:" + falsePositiveProbability + "]");
+        }
+        final double ln2 = Math.log(2);
+        final long optimalBitCount = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        this.bits = new AtomicLongArray(Math.toIntExact((optimalBitCount + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+
+    /**
+     * Add a value to the filter.
+     *
+     * @param value value to add
+     */
+    void put(final String value) {
+        final long hash1 = hash(value);
+        final long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+    }
+
+    /**
+     * Check whether a value has possibly been added to the filter.
+     *
+     * @param value value to look for
+     * @return false if the value has never been added, true if it has possibly been added
+     */
+    boolean mightContain(final String value) {
+        final long hash1 = hash(value);
+        final long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            final long index = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    long getBitCount() {
+        return bitCount;
+    }
+
+    private void setBit(final long index) {
+        final int word = (int) (index >>> 6);
+        final long mask = 1L << index;
+        long current = bits.get(word);
+        while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+            current = bits.get(word);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes of a value.
+     */
+    private static long hash(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading all bits of the input over the output.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53e1a85L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import org.bson.types.Binary;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import org.web3j.utils.Numeric;
+
+import java.util.regex.Pattern;
+
+/**
+ * Store 32-byte on-chain object IDs as {@code BinData} instead of 66-character hex strings.
+ * <p>
+ * IDs are hex strings in the application and in the API, they are only converted when written to or read from MongoDB.
+ * Criteria on a converted property are converted as well.
+ * IDs stored as hex strings by older versions are still read until they are migrated by {@link CommandKeyMigration}.
+ */
+class ChainObjectIdConverter implements MongoValueConverter<String, Object> {
+
+    private static final Pattern BYTES32_HEX_PATTERN = Pattern.compile("^0x[0-9a-fA-F]{64}$");
+
+    @Override
+    public String read(final Object value, final MongoConversionContext context) {
+        return toHex(value);
+    }
+
+    @Override
+    public Object write(final String value, final MongoConversionContext context) {
+        return toBinary(value);
+    }
+
+    static boolean isValid(final String chainObjectId) {
+        return chainObjectId != null && BYTES32_HEX_PATTERN.matcher(chainObjectId).matches();
+    }
+
+    static Binary toBinary(final String chainObjectId) {
+        if (!isValid(chainObjectId)) {
+            throw new IllegalArgumentException("On-chain object ID is not a 32-byte hex string: " + chainObjectId);
+        }
+        return new Binary(Numeric.hexStringToByteArray(chainObjectId));
+    }
+
+    static String toHex(final Object storedValue) {
+        if (storedValue instanceof Binary binary) {
+            return Numeric.toHexString(binary.getData());
+        }
+        if (storedValue instanceof String legacyValue) {
+            return legacyValue;
+        }
+        throw new IllegalArgumentException("Unexpected stored on-chain object ID type: " + storedValue.getClass());
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,10 +21,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 import java.time.Instant;
 
@@ -41,23 +42,43 @@ import java.time.Instant;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@CompoundIndex(name = "command_task_idx",
-        def = "{'chainObjectId': 1, 'commandName': 1}",
-        unique = true)
+@CompoundIndexes({
+        // also serves status lookups, see CommandStatusView
+        @CompoundIndex(name = Command.KEY_INDEX_NAME,
+                def = "{'chainObjectId': 1, 'commandName': 1}",
+                unique = true),
+        // finds completed commands to archive, see CommandArchiver
+        @CompoundIndex(name = "command_final_idx",
+                def = "{'status': 1, 'finalDate': 1}")
+})
 public class Command {
 
+    static final String KEY_INDEX_NAME = "command_task_idx";
+
     @Id
     private String id;
     @Version
     private Long version;
 
+    @ValueConverter(ChainObjectIdConverter.class)
     private String chainObjectId;
+    @ValueConverter(CommandNameConverter.class)
     private CommandName commandName;
     private CommandStatus status;
     private Instant creationDate;
     private Instant processingDate;
     private Instant finalDate;
-    private TransactionReceipt transactionReceipt;
+    private String txHash;
+    private Instant txDate;
+    private ReceiptSummary receiptSummary;
+    /**
+     * Number of failed attempts to send the transaction of the command.
+     */
+    private int attempts;
+    /**
+     * Earliest date of the next attempt to send the transaction, after a failed attempt.
+     */
+    private Instant nextAttemptDate;
 
     private CommandArgs args;
 
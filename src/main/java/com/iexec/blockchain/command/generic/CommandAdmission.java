@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.chain.ChainConfig;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Admission control of new low priority commands, applying backpressure on clients
+ * instead of accepting bursts the chain cannot absorb.
+ * <p>
+ * The throughput is an exponentially weighted moving average of commands reaching a final status per second,
+ * sampled while the queue is busy. Completions are counted from final dates in the {@link CommandStore},
+ * commands completed by all application instances sharing the store are accounted. It starts at the nominal throughput of {@code maxAllowedTxPerBlock}
+ * transactions per block and never drops below one command per sampling interval.
+ * <p>
+ * A command is rejected when the queue holds {@code maxQueueSize} commands or more, the client may retry later.
+ * <p>
+ * A command is also rejected when its on-chain deadline would be reached before the end of its projected wait.
+ * The projected wait only counts the backlog claimed before the command, see {@link CommandQueue#getBacklogAhead}:
+ * high priority commands are drained at the observed throughput, then commands of its tenant at the share
+ * of the throughput granted to the tenant. The client may retry once the projected wait has shrunk
+ * by the overrun of the deadline.
+ */
+@Slf4j
+@Component
+public class CommandAdmission {
+
+    static final String REJECTED_METRIC_NAME = "iexec.command.admission.rejected";
+    static final String THROUGHPUT_METRIC_NAME = "iexec.command.admission.throughput";
+    static final double SMOOTHING_FACTOR = 0.2;
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final CommandQueue commandQueue;
+    private final CommandStore commandStore;
+    private final long maxQueueSize;
+    private final double minThroughput;
+    private volatile double throughput;
+    private Instant lastSampleDate = Instant.now();
+
+    public CommandAdmission(final CommandQueue commandQueue,
+                            final CommandStore commandStore,
+                            final ChainConfig chainConfig,
+                            @Value("${command.admission.max-queue-size}") final long maxQueueSize,
+                            @Value("${command.admission.sampling-interval}") final Duration samplingInterval) {
+        this.commandQueue = commandQueue;
+        this.commandStore = commandStore;
+        this.maxQueueSize = maxQueueSize;
+        this.minThroughput = 1000.0 / samplingInterval.toMillis();
+        this.throughput = Math.max(minThroughput,
+                chainConfig.getMaxAllowedTxPerBlock() * 1000.0 / chainConfig.getBlockTime().toMillis());
+        Metrics.gauge(THROUGHPUT_METRIC_NAME, this, CommandAdmission::getThroughput);
+    }
+
+    /**
+     * Get the estimated number of commands leaving the queue per second.
+     *
+     * @return observed throughput
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Update the observed throughput with commands which have reached a final status since the previous sample.
+     * <p>
+     * An idle queue carries no information on the chain capacity, the throughput is left unchanged.
+     */
+    @Scheduled(fixedDelayString = "${command.admission.sampling-interval}")
+    synchronized void sampleThroughput() {
+        final Instant now = Instant.now();
+        final double elapsedSeconds = Duration.between(lastSampleDate, now).toNanos() / 1_000_000_000.0;
+        final long completed = commandStore.countFinal(lastSampleDate, now);
+        lastSampleDate = now;
+        if (elapsedSeconds <= 0 || (completed == 0 && commandQueue.size() == 0)) {
+            return;
+        }
+        final double observed = completed / elapsedSeconds;
+        throughput = Math.max(minThroughput, SMOOTHING_FACTOR * observed + (1 - SMOOTHING_FACTOR) * throughput);
+        log.debug("Sampled command throughput [observed:{}, smoothed:{}]", observed, throughput);
+    }
+
+    /**
+     * Check the queue can accept a new command, before any on-chain check.
+     *
+     * @return empty if admitted, the delay after which the client should retry otherwise
+     */
+    public Optional<Duration> checkCapacity() {
+        final long depth = commandQueue.size();
+        if (depth < maxQueueSize) {
+            return Optional.empty();
+        }
+        final Duration retryAfter = toRetryAfter(depth - maxQueueSize + 1);
+        log.warn("Rejecting command, queue is full [depth:{}, maxQueueSize:{}, retryAfter:{}]",
+                depth, maxQueueSize, retryAfter);
+        Metrics.counter(REJECTED_METRIC_NAME, "reason", "queue-full").increment();
+        return Optional.of(retryAfter);
+    }
+
+    /**
+     * Check a new low priority command would leave the queue before its on-chain deadline.
+     *
+     * @param args     input arguments for the new blockchain command
+     * @param deadline on-chain deadline after which the command would revert
+     * @return empty if admitted, the delay after which the client should retry otherwise
+     */
+    public Optional<Duration> checkDeadline(final CommandArgs args, final Instant deadline) {
+        final CommandQueue.BacklogAhead backlog = commandQueue.getBacklogAhead(args, deadline);
+        final double projectedWaitSeconds = backlog.priorityCommands() / throughput
+                + backlog.tenantCommands() / (throughput * backlog.tenantShare());
+        final Duration projectedWait = Duration.ofMillis((long) (projectedWaitSeconds * 1000));
+        final Instant projectedEnd = Instant.now().plus(projectedWait);
+        if (!projectedEnd.isAfter(deadline)) {
+            return Optional.empty();
+        }
+        final Duration retryAfter = toRetryAfter(Duration.between(deadline, projectedEnd));
+        log.warn("Rejecting command, deadline before end of projected wait " +
+                        "[chainObjectId:{}, backlog:{}, deadline:{}, projectedWait:{}, retryAfter:{}]",
+                args.getChainObjectId(), backlog, deadline, projectedWait, retryAfter);
+        Metrics.counter(REJECTED_METRIC_NAME, "reason", "deadline").increment();
+        return Optional.of(retryAfter);
+    }
+
+    /**
+     * Time needed to drain a number of commands at the observed throughput, rounded up to the second.
+     */
+    private Duration toRetryAfter(final long commands) {
+        return toRetryAfter(Duration.ofMillis((long) Math.ceil(commands / throughput * 1000)));
+    }
+
+    /**
+     * Delay rounded up to the second, at least {@code MIN_RETRY_AFTER}.
+     */
+    private static Duration toRetryAfter(final Duration delay) {
+        final Duration retryAfter = Duration.ofSeconds((delay.toMillis() + 999) / 1000);
+        return retryAfter.compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER : retryAfter;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Move completed commands out of the {@link CommandStore} of live commands.
+ * <p>
+ * Commands which have reached a final status for more than {@code minAge} are moved to monthly archive collections,
+ * partitioned on their final date. Commands are archived in batches of at most {@code batchSize} documents,
+ * a single batch is archived every {@code command.archive.batch-interval}, which bounds the load on MongoDB.
+ * <p>
+ * Documents are upserted by {@code _id} in the archive before being removed from the live store,
+ * an interrupted batch is archived again on the next run. The key of each archived command is recorded
+ * in the {@code <collection>_archived_keys} collection: a command is only archived if its key is not held
+ * by a distinct archived command. Archived keys are loaded in the {@link CommandDeduplicator} at startup,
+ * a new command received for an archived key is answered as a duplicate.
+ * <p>
+ * Status lookups missing in the live store fall back to the archive. The partition holding each archived command
+ * is recorded with its key, only the partitions of the requested commands are queried. Keys recorded
+ * by older versions have no partition, their commands are looked up in all partitions, most recent first.
+ */
+@Slf4j
+@Component
+public class CommandArchiver {
+
+    static final String ARCHIVED_METRIC_NAME = "iexec.command.archive.archived";
+    private static final String COMMAND_ID_FIELD = "commandId";
+    private static final String PARTITION_FIELD = "partition";
+    private static final DateTimeFormatter PARTITION_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy_MM").withZone(ZoneOffset.UTC);
+
+    private final MongoTemplate mongoTemplate;
+    private final CommandStore commandStore;
+    private final Duration minAge;
+    private final int batchSize;
+    private final String partitionPrefix;
+    private final String keysCollectionName;
+    // partitions known to have an index, most recent first
+    private final NavigableSet<String> partitions = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+    private volatile boolean partitionsLoaded;
+    private final Counter archivedCounter;
+
+    public CommandArchiver(final MongoTemplate mongoTemplate,
+                           final CommandStore commandStore,
+                           @Value("${command.archive.min-age}") final Duration minAge,
+                           @Value("${command.archive.batch-size}") final int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandStore = commandStore;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.partitionPrefix = mongoTemplate.getCollectionName(Command.class) + "_archive_";
+        this.keysCollectionName = mongoTemplate.getCollectionName(Command.class) + "_archived_keys";
+        this.archivedCounter = Metrics.counter(ARCHIVED_METRIC_NAME);
+    }
+
+    /**
+     * Archive a single batch of commands completed for more than {@code minAge}.
+     *
+     * @return the number of archived commands
+     */
+    @Scheduled(fixedDelayString = "${command.archive.batch-interval}")
+    int archiveBatch() {
+        final List<Command> commands = commandStore.findFinal(Instant.now().minus(minAge), batchSize);
+        if (commands.isEmpty()) {
+            return 0;
+        }
+        final Map<String, List<Command>> commandsByPartition = claimKeys(commands).stream()
+                .collect(Collectors.groupingBy(command -> getPartitionName(command.getFinalDate())));
+        final List<Command> archivedCommands = new ArrayList<>();
+        commandsByPartition.forEach((partitionName, partitionCommands) ->
+                archivedCommands.addAll(upsertInPartition(partitionName, partitionCommands)));
+        if (archivedCommands.isEmpty()) {
+            return 0;
+        }
+        commandStore.removeFinal(archivedCommands).join();
+        archivedCounter.increment(archivedCommands.size());
+        log.info("Archived completed commands [count:{}, partitions:{}]",
+                archivedCommands.size(), commandsByPartition.keySet());
+        return archivedCommands.size();
+    }
+
+    /**
+     * Record the keys of commands to archive.
+     *
+     * @return commands whose key is not held by a distinct archived command
+     */
+    private List<Command> claimKeys(final List<Command> commands) {
+        final BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, keysCollectionName);
+        commands.forEach(command -> operations.upsert(
+                Query.query(Criteria.where("_id").is(getKey(command.getChainObjectId(), command.getCommandName()))),
+                new Update()
+                        .setOnInsert(COMMAND_ID_FIELD, command.getId())
+                        .setOnInsert(PARTITION_FIELD, getPartitionName(command.getFinalDate()))));
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            // keys concurrently recorded by another instance
+            if (!isOnlyDuplicates(e)) {
+                throw e;
+            }
+        }
+        final List<String> keys = commands.stream()
+                .map(command -> getKey(command.getChainObjectId(), command.getCommandName()))
+                .toList();
+        final Map<String, String> commandIds = new HashMap<>();
+        mongoTemplate.find(Query.query(Criteria.where("_id").in(keys)), Document.class, keysCollectionName)
+                .forEach(key -> commandIds.put(key.getString("_id"), key.getString(COMMAND_ID_FIELD)));
+        final List<Command> claimedCommands = new ArrayList<>();
+        for (final Command command : commands) {
+            final String archivedCommandId = commandIds.get(getKey(command.getChainObjectId(), command.getCommandName()));
+            if (Objects.equals(command.getId(), archivedCommandId)) {
+                claimedCommands.add(command);
+            } else {
+                log.error("Not archiving command, a distinct command with the same key is archived " +
+                                "[chainObjectId:{}, commandName:{}, commandId:{}, archivedCommandId:{}]",
+                        command.getChainObjectId(), command.getCommandName(), command.getId(), archivedCommandId);
+            }
+        }
+        return claimedCommands;
+    }
+
+    /**
+     * Upsert commands in an archive partition.
+     *
+     * @return commands present in the partition after the upsert
+     */
+    private List<Command> upsertInPartition(final String partitionName, final List<Command> commands) {
+        if (!partitions.contains(partitionName)) {
+            // same key index as the live collection, unique to reject distinct commands with the same key
+            mongoTemplate.indexOps(partitionName).ensureIndex(new Index()
+                    .on("chainObjectId", Sort.Direction.ASC)
+                    .on("commandName", Sort.Direction.ASC)
+                    .named(Command.KEY_INDEX_NAME)
+                    .unique());
+            partitions.add(partitionName);
+        }
+        final BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, partitionName);
+        commands.forEach(command -> {
+            final Document document = toDocument(command);
+            operations.replaceOne(Query.query(Criteria.where("_id").is(document.get("_id"))), document,
+                    FindAndReplaceOptions.options().upsert());
+        });
+        try {
+            operations.execute();
+            return commands;
+        } catch (BulkOperationException e) {
+            // distinct commands with the same key archived before their key was recorded
+            if (!isOnlyDuplicates(e)) {
+                throw e;
+            }
+            final Set<Integer> conflicts = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+            final List<Command> archivedCommands = new ArrayList<>();
+            for (int i = 0; i < commands.size(); i++) {
+                final Command command = commands.get(i);
+                if (conflicts.contains(i)) {
+                    log.error("Not archiving command, a distinct command with the same key is archived " +
+                                    "[chainObjectId:{}, commandName:{}, commandId:{}, partition:{}]",
+                            command.getChainObjectId(), command.getCommandName(), command.getId(), partitionName);
+                } else {
+                    archivedCommands.add(command);
+                }
+            }
+            return archivedCommands;
+        }
+    }
+
+    private static boolean isOnlyDuplicates(final BulkOperationException e) {
+        return e.getErrors().stream()
+                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+
+    private static String getKey(final String chainObjectId, final CommandName commandName) {
+        return commandName + ":" + chainObjectId;
+    }
+
+    private Document toDocument(final Command command) {
+        final Document document = new Document();
+        mongoTemplate.getConverter().write(command, document);
+        return document;
+    }
+
+    String getPartitionName(final Instant finalDate) {
+        return partitionPrefix + PARTITION_FORMATTER.format(finalDate);
+    }
+
+    /**
+     * Check whether a command has been archived.
+     *
+     * @param chainObjectId on-chain object ID
+     * @param commandName   command applied to the on-chain object
+     * @return {@literal true} if a command with this key is archived
+     */
+    public boolean isArchived(final String chainObjectId, final CommandName commandName) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(getKey(chainObjectId, commandName))),
+                keysCollectionName);
+    }
+
+    /**
+     * Call a consumer with the key of each archived command.
+     *
+     * @param consumer consumer of on-chain object IDs and command names
+     */
+    void forEachArchivedKey(final BiConsumer<String, CommandName> consumer) {
+        final Query query = new Query();
+        query.fields().include("_id");
+        try (Stream<Document> keys = mongoTemplate.stream(query, Document.class, keysCollectionName)) {
+            keys.forEach(key -> {
+                final String id = key.getString("_id");
+                final int separator = id.indexOf(':');
+                consumer.accept(id.substring(separator + 1), CommandName.valueOf(id.substring(0, separator)));
+            });
+        }
+    }
+
+    /**
+     * Get the status of an archived command.
+     *
+     * @param chainObjectId on-chain object ID
+     * @param commandName   command applied to the on-chain object
+     * @return the status, empty if the command is not archived
+     */
+    public Optional<CommandStatus> getStatusForCommand(final String chainObjectId, final CommandName commandName) {
+        return Optional.ofNullable(getStatusesForCommands(List.of(chainObjectId), commandName).get(chainObjectId));
+    }
+
+    /**
+     * Get statuses of several archived commands of the same kind.
+     *
+     * @param chainObjectIds on-chain object IDs
+     * @param commandName    command applied to the on-chain objects
+     * @return statuses by on-chain object ID, commands which are not archived are absent from the result
+     */
+    public Map<String, CommandStatus> getStatusesForCommands(final Collection<String> chainObjectIds,
+                                                             final CommandName commandName) {
+        final Map<String, String> chainObjectIdsByKey = new HashMap<>();
+        chainObjectIds.forEach(chainObjectId -> chainObjectIdsByKey.put(getKey(chainObjectId, commandName), chainObjectId));
+        final Map<String, List<String>> chainObjectIdsByPartition = new HashMap<>();
+        final Set<String> unpartitionedChainObjectIds = new HashSet<>();
+        final Query keysQuery = Query.query(Criteria.where("_id").in(chainObjectIdsByKey.keySet()));
+        keysQuery.fields().include(PARTITION_FIELD);
+        mongoTemplate.find(keysQuery, Document.class, keysCollectionName).forEach(key -> {
+            final String chainObjectId = chainObjectIdsByKey.get(key.getString("_id"));
+            final String partitionName = key.getString(PARTITION_FIELD);
+            if (partitionName == null) {
+                unpartitionedChainObjectIds.add(chainObjectId);
+            } else {
+                chainObjectIdsByPartition.computeIfAbsent(partitionName, name -> new ArrayList<>()).add(chainObjectId);
+            }
+        });
+        final Map<String, CommandStatus> statuses = new HashMap<>();
+        chainObjectIdsByPartition.forEach((partitionName, partitionChainObjectIds) ->
+                findStatuses(partitionName, partitionChainObjectIds, commandName)
+                        .forEach(view -> statuses.put(view.chainObjectId(), view.status())));
+        for (final String partitionName : getPartitions()) {
+            if (unpartitionedChainObjectIds.isEmpty()) {
+                break;
+            }
+            findStatuses(partitionName, unpartitionedChainObjectIds, commandName).forEach(view -> {
+                statuses.put(view.chainObjectId(), view.status());
+                unpartitionedChainObjectIds.remove(view.chainObjectId());
+            });
+        }
+        return statuses;
+    }
+
+    private List<CommandStatusView> findStatuses(final String partitionName,
+                                                 final Collection<String> chainObjectIds,
+                                                 final CommandName commandName) {
+        final Criteria criteria = Criteria.where("chainObjectId").in(chainObjectIds)
+                .and("commandName").is(commandName);
+        return mongoTemplate.find(CommandStatusView.query(criteria), CommandStatusView.class, partitionName);
+    }
+
+    /**
+     * Partitions which may hold commands whose key has no recorded partition, they are all created
+     * before the first start of this version and listed once.
+     */
+    private Set<String> getPartitions() {
+        if (!partitionsLoaded) {
+            mongoTemplate.getCollectionNames().stream()
+                    .filter(name -> name.startsWith(partitionPrefix))
+                    .forEach(partitions::add);
+            partitionsLoaded = true;
+        }
+        return partitions;
+    }
+}
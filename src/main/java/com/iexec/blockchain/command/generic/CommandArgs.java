@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,10 +18,36 @@ package com.iexec.blockchain.command.generic;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.util.Locale;
+
 public interface CommandArgs {
     @JsonIgnore
     CommandName getCommandName();
 
     @JsonIgnore
     String getChainObjectId();
+
+    /**
+     * Get the ID of the tenant on behalf of which the command is performed,
+     * tenants are served fairly by the {@link CommandQueue}.
+     *
+     * @return the tenant ID, commands share the same tenant by default
+     */
+    @JsonIgnore
+    default String getTenantId() {
+        return getCommandName().name();
+    }
+
+    /**
+     * Normalize an on-chain object ID received from a caller.
+     * <p>
+     * IDs are stored as bytes and read back in lowercase hexadecimal, they must be built, keyed and compared
+     * in lowercase everywhere else.
+     *
+     * @param chainObjectId on-chain object ID in any case
+     * @return the lowercase on-chain object ID, {@literal null} if the ID is {@literal null}
+     */
+    static String normalizeChainObjectId(final String chainObjectId) {
+        return chainObjectId == null ? null : chainObjectId.toLowerCase(Locale.ROOT);
+    }
 }
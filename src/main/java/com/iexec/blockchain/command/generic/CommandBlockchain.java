@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,9 +21,16 @@ import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CommandBlockchain<A extends CommandArgs> {
 
+    /**
+     * Deadline of commands which can be sent at any time, they are only scheduled by the queue max wait.
+     */
+    Instant NO_DEADLINE = Instant.MAX;
 
     /**
      * Check if a blockchain command can be made. It mostly makes business
@@ -34,15 +41,37 @@ public interface CommandBlockchain<A extends CommandArgs> {
      * successful.
      *
      * @param args input arguments for the blockchain command
+     * @return the on-chain deadline after which the command would revert, read during the checks,
+     * {@link #NO_DEADLINE} if there is none, empty if the blockchain command cannot succeed
+     */
+    Optional<Instant> checkBlockchainCommand(A args);
+
+    /**
+     * Check if a blockchain command can be made, see {@link #checkBlockchainCommand(CommandArgs)}.
+     *
+     * @param args input arguments for the blockchain command
      * @return true if blockchain command could succeed
      */
-    boolean canSendBlockchainCommand(A args);
+    default boolean canSendBlockchainCommand(A args) {
+        return checkBlockchainCommand(args).isPresent();
+    }
 
     /**
      * Synchronously perform a blockchain command.
      *
-     * @param args input arguments for the blockchain command
+     * @param args           input arguments for the blockchain command
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
      * @return transaction receipt
      */
-    TransactionReceipt sendBlockchainCommand(A args) throws IOException, TransactionException;
+    TransactionReceipt sendBlockchainCommand(A args, Consumer<String> txHashListener) throws IOException, TransactionException;
+
+    /**
+     * Check if the effect of a blockchain command is already visible on-chain.
+     * <p>
+     * This is used to reconcile commands whose processing has been interrupted, by a restart for instance.
+     *
+     * @param args input arguments for the blockchain command
+     * @return true if the command does not need to be sent again
+     */
+    boolean isCommandAppliedOnChain(A args);
 }
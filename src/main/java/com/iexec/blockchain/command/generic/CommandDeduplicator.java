@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Answer duplicate start requests of a command before any on-chain check or database write.
+ * <p>
+ * Concurrent starts of the same command share the outcome of the first one, registered in an in-flight map.
+ * Once started, commands are recorded in a {@link BloomFilter} of known commands. A command absent from the filter
+ * is new and goes through the start workflow without any lookup. A command possibly present in the filter
+ * is looked up in the {@link CommandStorage}, the start request is answered without side effect if it is found.
+ * <p>
+ * The filter is loaded with commands of the live MongoDB collection and keys of archived commands at startup,
+ * a duplicate of an archived command is found by the archive fallback of the status lookup.
+ * Commands started by other application instances are not recorded, their duplicates are rejected by the store.
+ */
+@Slf4j
+@Component
+public class CommandDeduplicator {
+
+    static final String DUPLICATE_METRIC_NAME = "iexec.command.dedup.duplicate";
+    static final String FALSE_POSITIVE_METRIC_NAME = "iexec.command.dedup.false-positive";
+
+    private final MongoTemplate mongoTemplate;
+    private final CommandStorage commandStorage;
+    private final CommandArchiver commandArchiver;
+    private final BloomFilter knownCommands;
+    private final Map<String, CompletableFuture<String>> inFlightStarts = new ConcurrentHashMap<>();
+    private final Counter inFlightCounter;
+    private final Counter knownCounter;
+    private final Counter falsePositiveCounter;
+
+    public CommandDeduplicator(final MongoTemplate mongoTemplate,
+                               final CommandStorage commandStorage,
+                               final CommandArchiver commandArchiver,
+                               @Value("${command.deduplication.expected-commands}") final long expectedCommands,
+                               @Value("${command.deduplication.false-positive-probability}") final double falsePositiveProbability) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandStorage = commandStorage;
+        this.commandArchiver = commandArchiver;
+        this.knownCommands = new BloomFilter(expectedCommands, falsePositiveProbability);
+        this.inFlightCounter = Metrics.counter(DUPLICATE_METRIC_NAME, "source", "in-flight");
+        this.knownCounter = Metrics.counter(DUPLICATE_METRIC_NAME, "source", "known");
+        this.falsePositiveCounter = Metrics.counter(FALSE_POSITIVE_METRIC_NAME);
+    }
+
+    /**
+     * Record commands of the live collection and archived commands in the filter of known commands.
+     * Commands are only loaded from MongoDB, the filter starts empty with other backends.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        final Query query = new Query();
+        query.fields().include("chainObjectId", "commandName");
+        long count = 0;
+        try (Stream<Command> commands = mongoTemplate.stream(query, Command.class)) {
+            for (final Command command : (Iterable<Command>) commands::iterator) {
+                knownCommands.put(getKey(command.getChainObjectId(), command.getCommandName()));
+                count++;
+            }
+        }
+        final AtomicLong archivedCount = new AtomicLong();
+        commandArchiver.forEachArchivedKey((chainObjectId, commandName) -> {
+            knownCommands.put(getKey(chainObjectId, commandName));
+            archivedCount.incrementAndGet();
+        });
+        log.info("Loaded known commands filter [count:{}, archivedCount:{}, bits:{}, hashes:{}]",
+                count, archivedCount.get(), knownCommands.getBitCount(), knownCommands.getHashCount());
+    }
+
+    /**
+     * Start a command, unless it is already being started or already known.
+     * <p>
+     * Duplicates get the same answer as the original request, the on-chain object ID of the command.
+     *
+     * @param args  input arguments for the blockchain command
+     * @param start start workflow of the command, returning the on-chain object ID if successful
+     * @return the on-chain object ID if the command has been started now or before, an empty string otherwise
+     */
+    public String start(final CommandArgs args, final Supplier<String> start) {
+        final String key = getKey(args.getChainObjectId(), args.getCommandName());
+        final CompletableFuture<String> outcome = new CompletableFuture<>();
+        final CompletableFuture<String> inFlightOutcome = inFlightStarts.putIfAbsent(key, outcome);
+        if (inFlightOutcome != null) {
+            inFlightCounter.increment();
+            log.info("Duplicate of a command being started [chainObjectId:{}, commandName:{}]",
+                    args.getChainObjectId(), args.getCommandName());
+            return join(inFlightOutcome);
+        }
+        try {
+            final Optional<CommandStatus> knownStatus = getKnownStatus(key, args);
+            if (knownStatus.isPresent()) {
+                knownCounter.increment();
+                log.info("Duplicate of a known command [chainObjectId:{}, commandName:{}, status:{}]",
+                        args.getChainObjectId(), args.getCommandName(), knownStatus.get());
+                outcome.complete(args.getChainObjectId());
+                return args.getChainObjectId();
+            }
+            final String chainObjectId = start.get();
+            if (!chainObjectId.isEmpty()) {
+                knownCommands.put(key);
+            }
+            outcome.complete(chainObjectId);
+            return chainObjectId;
+        } catch (RuntimeException e) {
+            outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightStarts.remove(key, outcome);
+        }
+    }
+
+    private Optional<CommandStatus> getKnownStatus(final String key, final CommandArgs args) {
+        if (!knownCommands.mightContain(key)) {
+            return Optional.empty();
+        }
+        final Optional<CommandStatus> status =
+                commandStorage.getStatusForCommand(args.getChainObjectId(), args.getCommandName());
+        if (status.isEmpty()) {
+            falsePositiveCounter.increment();
+        }
+        return status;
+    }
+
+    private static String join(final CompletableFuture<String> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String getKey(final String chainObjectId, final CommandName commandName) {
+        return chainObjectId.toLowerCase(Locale.ROOT) + ":" + commandName.getCode();
+    }
+}
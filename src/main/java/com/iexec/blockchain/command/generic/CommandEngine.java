@@ -17,46 +17,102 @@
 package com.iexec.blockchain.command.generic;
 
 import com.iexec.blockchain.api.CommandStatus;
-import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.chain.TransactionErrorClass;
+import com.iexec.blockchain.chain.TransactionErrorClass.RecoveryAction;
+import com.iexec.blockchain.chain.TransactionErrorClassifier;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class CommandEngine<A extends CommandArgs> {
 
-    private static final int MAX_ATTEMPTS = 5;
+    public static final int MAX_ATTEMPTS = 5;
 
     private final CommandBlockchain<A> blockchainService;
     private final CommandStorage updaterService;
-    private final QueueService queueService;
+    private final CommandQueue commandQueue;
+    private final CommandAdmission commandAdmission;
+    private final CommandDeduplicator commandDeduplicator;
     private final Duration backoffDelay;
 
     protected CommandEngine(final CommandBlockchain<A> blockchainService,
                             final CommandStorage updaterService,
-                            final QueueService queueService,
+                            final CommandQueue commandQueue,
+                            final CommandAdmission commandAdmission,
+                            final CommandDeduplicator commandDeduplicator,
                             final Duration backoffDelay) {
         this.blockchainService = blockchainService;
         this.updaterService = updaterService;
-        this.queueService = queueService;
+        this.commandQueue = commandQueue;
+        this.commandAdmission = commandAdmission;
+        this.commandDeduplicator = commandDeduplicator;
         this.backoffDelay = backoffDelay;
     }
 
+    /**
+     * Get the command performed by this engine.
+     *
+     * @return the command name
+     */
+    public abstract CommandName getCommandName();
+
+    /**
+     * Whether commands of this engine are executed before low priority ones.
+     *
+     * @return true for high priority commands
+     */
+    public abstract boolean isPriority();
+
     /**
      * Start blockchain command. Request is synchronously updated to
-     * received, then rest of the workflow is done asynchronously.
+     * received and stored in the {@link CommandQueue}, then rest of the workflow is done asynchronously.
+     * <p>
+     * The on-chain deadline read during the checks is stored with the queued command,
+     * commands are executed earliest deadline first.
+     * <p>
+     * Low priority commands go through the {@link CommandAdmission} first, high priority commands are claimed
+     * before them and are always admitted.
+     * <p>
+     * Duplicates of a command being started or already known are answered by the {@link CommandDeduplicator},
+     * without any on-chain check.
      *
      * @param args input arguments for the blockchain command
      * @return blockchain object ID if successful
+     * @throws CommandRejectedException if the queue cannot accept the command for now
      */
-    public String startBlockchainCommand(final A args, final boolean isPriority) {
+    public String startBlockchainCommand(final A args) {
+        return commandDeduplicator.start(args, () -> startNewBlockchainCommand(args));
+    }
+
+    private String startNewBlockchainCommand(final A args) {
         final String messageDetails = String.format("chainObjectId:%s, commandArgs:%s", args.getChainObjectId(), args);
-        if (!blockchainService.canSendBlockchainCommand(args)) {
+        if (!isPriority()) {
+            commandAdmission.checkCapacity().ifPresent(retryAfter -> {
+                throw new CommandRejectedException("Command queue is full", retryAfter);
+            });
+        }
+        final Optional<Instant> deadline = blockchainService.checkBlockchainCommand(args);
+        if (deadline.isEmpty()) {
             log.error("Starting blockchain command failed (failing on-chain checks) [{}]", messageDetails);
             return "";
         }
+        final Instant onChainDeadline = CommandBlockchain.NO_DEADLINE.equals(deadline.get()) ? null : deadline.get();
+        if (!isPriority() && onChainDeadline != null) {
+            commandAdmission.checkDeadline(args, onChainDeadline).ifPresent(retryAfter -> {
+                throw new CommandRejectedException("Command deadline before end of projected queue wait", retryAfter);
+            });
+        }
 
         if (!updaterService.updateToReceived(args)) {
             log.error("Starting blockchain command failed (failing update to received) [{}]", messageDetails);
@@ -64,12 +120,86 @@ public abstract class CommandEngine<A extends CommandArgs> {
         }
         log.info("Received command {}", messageDetails);
 
-        final Runnable runnable = () -> triggerBlockchainCommand(args);
-        queueService.addExecutionToQueue(runnable, isPriority);
+        commandQueue.enqueue(args, isPriority(), onChainDeadline, QueuedCommand.Step.TRIGGER);
 
         return args.getChainObjectId();
     }
 
+    /**
+     * Queue again a command left in RECEIVED status, by a restart for instance.
+     * <p>
+     * A command still queued is left untouched, it may be leased by a running instance.
+     *
+     * @param args input arguments for the blockchain command
+     */
+    public void requeueBlockchainCommand(final A args) {
+        if (commandQueue.enqueueIfAbsent(args, isPriority(), null, QueuedCommand.Step.TRIGGER)) {
+            log.info("Requeued received command [chainObjectId:{}, commandArgs:{}]", args.getChainObjectId(), args);
+        }
+    }
+
+    /**
+     * Reconcile a command left in PROCESSING status, by a restart for instance.
+     * <p>
+     * The command is completed with the receipt of its transaction if it has been mined.
+     * Otherwise, it is completed if its effect is visible on-chain, or it is sent again if it is not queued anymore.
+     *
+     * @param args    input arguments for the blockchain command
+     * @param receipt receipt of the transaction submitted before the interruption, null if unknown or not mined
+     */
+    public void reconcileBlockchainCommand(final A args, final TransactionReceipt receipt) {
+        if (receipt != null) {
+            log.info("Reconciled processing command with its transaction receipt [chainObjectId:{}]",
+                    args.getChainObjectId());
+            updaterService.updateToFinal(args, receipt);
+        } else if (blockchainService.isCommandAppliedOnChain(args)) {
+            log.info("Reconciled processing command with on-chain state [chainObjectId:{}]", args.getChainObjectId());
+            updaterService.updateToFinal(args, CommandStatus.SUCCESS, null);
+        } else if (commandQueue.enqueueIfAbsent(args, isPriority(), null, QueuedCommand.Step.SEND)) {
+            log.info("Sending again processing command [chainObjectId:{}]", args.getChainObjectId());
+        }
+    }
+
+    /**
+     * Reconcile a command left in PROCESSING status whose transaction has been submitted but whose receipt is unknown.
+     * <p>
+     * The transaction may still be pending, it is not sent again: the command is completed if its effect is visible
+     * on-chain, otherwise a confirmation is scheduled, see {@link #confirmBlockchainCommand(CommandArgs, int)}.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param attempts number of previous attempts, the one of the submitted transaction included
+     */
+    public void reconcileSubmittedBlockchainCommand(final A args, final int attempts) {
+        if (blockchainService.isCommandAppliedOnChain(args)) {
+            log.info("Reconciled processing command with on-chain state [chainObjectId:{}]", args.getChainObjectId());
+            updaterService.updateToFinal(args, CommandStatus.SUCCESS, null);
+        } else {
+            scheduleConfirmation(args, attempts);
+        }
+    }
+
+    /**
+     * Drop a queued command whose on-chain deadline has been reached, its transaction would only revert.
+     * <p>
+     * A PROCESSING command may have sent a transaction already, it is completed instead of expired
+     * if its effect is visible on-chain.
+     *
+     * @param args          input arguments for the blockchain command
+     * @param currentStatus status of the command, RECEIVED or PROCESSING
+     */
+    public void expireBlockchainCommand(final A args, final CommandStatus currentStatus) {
+        if (currentStatus == CommandStatus.PROCESSING && blockchainService.isCommandAppliedOnChain(args)) {
+            log.info("Completed command applied on-chain before its deadline [chainObjectId:{}]", args.getChainObjectId());
+            updaterService.updateToFinal(args, CommandStatus.SUCCESS, null);
+            return;
+        }
+        log.warn("Dropping expired command [chainObjectId:{}, commandArgs:{}]", args.getChainObjectId(), args);
+        if (!updaterService.updateToExpired(args, currentStatus)) {
+            log.error("Expiring blockchain command failed (failing update to expired) [chainObjectId:{}, status:{}]",
+                    args.getChainObjectId(), currentStatus);
+        }
+    }
+
     /**
      * Trigger blockchain command process by :
      * - firing the corresponding blockchain transaction
@@ -83,35 +213,162 @@ public abstract class CommandEngine<A extends CommandArgs> {
             log.error("Triggering blockchain command failed (failing update to processing) [{}]", messageDetails);
             return;
         }
-        int attempt = 0;
-        log.info("Processing command [{}]", messageDetails);
+        sendBlockchainCommand(args, 0);
+    }
+
+    /**
+     * Send the blockchain transaction of a command in PROCESSING status and store its outcome.
+     * <p>
+     * A failed attempt is not retried in place, the worker thread moves on to the next command.
+     * The attempt count and next attempt date are stored in the command, which is kept in the {@link CommandQueue}
+     * until its next attempt.
+     * The error is classified by the {@link TransactionErrorClassifier} to choose the next attempt date:
+     * <ul>
+     * <li>a nonce too low or an underpriced transaction is retried at once, with a fresh nonce or a bumped fee
+     * <li>a transaction already known by the node is not sent again, its effect is checked on-chain after a backoff
+     * <li>a reverted transaction or insufficient funds fail the command at once, retrying would only waste gas
+     * <li>other errors are retried after an exponential backoff with jitter
+     * </ul>
+     * The command fails once {@value #MAX_ATTEMPTS} attempts have failed.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param attempts number of previously failed attempts
+     */
+    public void sendBlockchainCommand(final A args, final int attempts) {
+        final String messageDetails = String.format("chainObjectId:%s, commandArgs:%s", args.getChainObjectId(), args);
+        final int attempt = attempts + 1;
+        log.info("Processing command [{}, attempt:{}]", messageDetails, attempt);
         TransactionReceipt receipt = null;
-        while (attempt < MAX_ATTEMPTS && receipt == null) {
-            if (attempt != 0) {
-                try {
-                    log.warn("Backoff delay before retrying tx");
-                    Thread.sleep(backoffDelay.toMillis());
-                } catch (InterruptedException e) {
-                    log.warn("Thread has been interrupted", e);
-                    Thread.currentThread().interrupt();
-                }
-            }
-            attempt++;
-            try {
-                receipt = blockchainService.sendBlockchainCommand(args);
-            } catch (Exception e) {
-                log.error("Something wrong happened while triggering command [{}, attempt:{}]",
-                        messageDetails, attempt, e);
-            }
+        TransactionErrorClass errorClass = TransactionErrorClass.UNKNOWN;
+        try {
+            receipt = blockchainService.sendBlockchainCommand(args,
+                    txHash -> updaterService.updateTxHashAsync(args, txHash));
+        } catch (Exception e) {
+            errorClass = classifyError(e);
+            log.error("Something wrong happened while triggering command [{}, attempt:{}, errorClass:{}]",
+                    messageDetails, attempt, errorClass, e);
+        }
+        completeAttempt(args, attempt, receipt, errorClass);
+    }
+
+    /**
+     * Classify a transaction error and count it by error class.
+     *
+     * @param e error raised while sending a transaction
+     * @return the error class
+     */
+    protected TransactionErrorClass classifyError(final Exception e) {
+        final TransactionErrorClass errorClass = TransactionErrorClassifier.classify(e);
+        Metrics.counter(TransactionErrorClassifier.ERROR_METRIC_NAME,
+                "class", errorClass.name().toLowerCase(Locale.ROOT)).increment();
+        return errorClass;
+    }
+
+    /**
+     * Store the outcome of an attempt, the command is completed with its receipt or scheduled for a retry.
+     *
+     * @param args       input arguments for the blockchain command
+     * @param attempt    number of the attempt, starting at 1
+     * @param receipt    receipt of the transaction, null if the attempt failed
+     * @param errorClass class of the error of a failed attempt, choosing between retry and failure
+     */
+    protected void completeAttempt(final A args, final int attempt, final TransactionReceipt receipt,
+                                   final TransactionErrorClass errorClass) {
+        final RecoveryAction action = errorClass.getAction();
+        if (receipt == null && action == RecoveryAction.AWAIT_SUBMITTED) {
+            scheduleConfirmation(args, attempt);
+            return;
+        }
+        if (receipt == null && action != RecoveryAction.FAIL_FAST && attempt < MAX_ATTEMPTS) {
+            scheduleRetry(args, attempt, action);
+            return;
         }
         if (receipt == null) {
             log.error("Triggering blockchain command failed " +
-                            "(received null receipt after blockchain send) [{}, attempt:{}]",
-                    messageDetails, attempt);
+                            "(received null receipt after blockchain send) [chainObjectId:{}, attempt:{}, errorClass:{}]",
+                    args.getChainObjectId(), attempt, errorClass);
         }
         updaterService.updateToFinal(args, receipt);
     }
 
+    private void scheduleRetry(final A args, final int attempts, final RecoveryAction action) {
+        final Instant nextAttemptDate = action == RecoveryAction.RETRY_WITH_BACKOFF ?
+                Instant.now().plus(getRetryDelay(attempts)) : Instant.now();
+        if (!updaterService.updateNextAttempt(args, attempts, nextAttemptDate)) {
+            log.error("Scheduling retry of blockchain command failed (failing update of next attempt) " +
+                    "[chainObjectId:{}, attempts:{}]", args.getChainObjectId(), attempts);
+            return;
+        }
+        log.warn("Scheduled retry of blockchain command [chainObjectId:{}, attempts:{}, action:{}, nextAttemptDate:{}]",
+                args.getChainObjectId(), attempts, action, nextAttemptDate);
+        commandQueue.scheduleRetry(args, isPriority(), attempts, nextAttemptDate);
+    }
+
+    private void scheduleConfirmation(final A args, final int attempts) {
+        final Instant nextAttemptDate = Instant.now().plus(getRetryDelay(attempts));
+        if (!updaterService.updateNextAttempt(args, attempts, nextAttemptDate)) {
+            log.error("Scheduling confirmation of blockchain command failed (failing update of next attempt) " +
+                    "[chainObjectId:{}, attempts:{}]", args.getChainObjectId(), attempts);
+            return;
+        }
+        log.warn("Transaction submitted but not mined yet, scheduled confirmation of blockchain command " +
+                "[chainObjectId:{}, attempts:{}, nextAttemptDate:{}]", args.getChainObjectId(), attempts, nextAttemptDate);
+        commandQueue.scheduleConfirmation(args, isPriority(), attempts, nextAttemptDate);
+    }
+
+    /**
+     * Check the effect of a command whose transaction was already known by the node when it was sent,
+     * or was submitted before a restart without any receipt found since.
+     * <p>
+     * The transaction is treated as submitted, the command is completed if its effect is visible on-chain.
+     * Otherwise, the known transaction has been dropped or is still pending, the command is sent again.
+     * If it is still pending, the node answers again that it is known and a new confirmation is scheduled.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param attempts number of previous attempts, the one of the known transaction included
+     */
+    public void confirmBlockchainCommand(final A args, final int attempts) {
+        if (blockchainService.isCommandAppliedOnChain(args)) {
+            log.info("Confirmed command with on-chain state [chainObjectId:{}, attempts:{}]",
+                    args.getChainObjectId(), attempts);
+            updaterService.updateToFinal(args, CommandStatus.SUCCESS, null);
+        } else if (attempts < MAX_ATTEMPTS) {
+            sendBlockchainCommand(args, attempts);
+        } else {
+            log.error("Triggering blockchain command failed (known transaction not applied on-chain) " +
+                    "[chainObjectId:{}, attempts:{}]", args.getChainObjectId(), attempts);
+            updaterService.updateToFinal(args, null);
+        }
+    }
+
+    /**
+     * Take over the acknowledgement of a queued command whose step has just been executed.
+     * <p>
+     * By default, a step is completed once executed and the {@link CommandQueueDispatcher} acknowledges
+     * the queued command. Engines completing steps asynchronously acknowledge queued commands themselves,
+     * their leases are renewed meanwhile.
+     *
+     * @param queuedCommand queued command whose step has been executed
+     * @return {@literal true} if the engine acknowledges the queued command itself
+     */
+    public boolean deferAcknowledgement(final QueuedCommand queuedCommand) {
+        return false;
+    }
+
+    /**
+     * Get the delay before the next attempt, {@code backoffDelay} doubled after each failed attempt.
+     * Half of the delay is randomized so that commands failing together are not retried together.
+     *
+     * @param attempts number of failed attempts, at least 1
+     * @return a delay between half and the whole exponential backoff
+     */
+    Duration getRetryDelay(final int attempts) {
+        final long backoffMillis = backoffDelay.toMillis() << Math.min(attempts - 1, MAX_ATTEMPTS);
+        final long halfBackoffMillis = backoffMillis / 2;
+        return Duration.ofMillis(backoffMillis - halfBackoffMillis
+                + ThreadLocalRandom.current().nextLong(halfBackoffMillis + 1));
+    }
+
     /**
      * Get current status for the async blockchain command.
      *
@@ -120,7 +377,29 @@ public abstract class CommandEngine<A extends CommandArgs> {
      * @return status
      */
     public Optional<CommandStatus> getStatusForCommand(final String chainObjectId, final CommandName commandName) {
-        return updaterService.getStatusForCommand(chainObjectId, commandName);
+        return updaterService.getStatusForCommand(CommandArgs.normalizeChainObjectId(chainObjectId), commandName);
+    }
+
+    /**
+     * Get current statuses for several async blockchain commands.
+     *
+     * @param chainObjectIds on-chain object IDs
+     * @param commandName    command applied to the on-chain objects
+     * @return statuses by on-chain object ID as provided by the caller, unknown commands are absent from the result
+     */
+    public Map<String, CommandStatus> getStatusesForCommands(final Collection<String> chainObjectIds,
+                                                             final CommandName commandName) {
+        final Map<String, CommandStatus> statuses = updaterService.getStatusesForCommands(
+                chainObjectIds.stream().map(CommandArgs::normalizeChainObjectId).collect(Collectors.toSet()),
+                commandName);
+        final Map<String, CommandStatus> statusesByRequestedId = new HashMap<>();
+        for (final String chainObjectId : chainObjectIds) {
+            final CommandStatus status = statuses.get(CommandArgs.normalizeChainObjectId(chainObjectId));
+            if (status != null) {
+                statusesByRequestedId.put(chainObjectId, status);
+            }
+        }
+        return statusesByRequestedId;
     }
 
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+
+/**
+ * Published once a command reaches a final status in the local storage.
+ *
+ * @param chainObjectId on-chain object ID
+ * @param commandName   command applied to the on-chain object
+ * @param status        final status of the command
+ */
+public record CommandFinalEvent(String chainObjectId, CommandName commandName, CommandStatus status) {
+}
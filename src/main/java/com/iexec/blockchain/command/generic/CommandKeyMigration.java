@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Convert keys of commands and receipts stored by older versions to their compact form.
+ * <p>
+ * On-chain object IDs stored as hex strings are converted to {@code BinData}
+ * and command names are replaced by their code, see {@link ChainObjectIdConverter} and {@link CommandNameConverter}.
+ * Documents are migrated in batches at startup, IDs which are not 32-byte hex strings are left untouched.
+ * <p>
+ * Queries only match the compact form, the migration completes while the application context is created,
+ * before the web server accepts requests and before scheduled tasks dispatch queued commands.
+ * A legacy document whose compact key is already stored is a duplicate of the compact document, it is deleted.
+ * <p>
+ * The {@code command_status_idx} index created by older versions duplicates the key index, it is dropped.
+ */
+@Slf4j
+@Component
+public class CommandKeyMigration {
+
+    static final int BATCH_SIZE = 500;
+    static final String LEGACY_STATUS_INDEX_NAME = "command_status_idx";
+    private static final int BSON_STRING_TYPE = 2;
+
+    private final MongoTemplate mongoTemplate;
+
+    public CommandKeyMigration(final MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void migrate() {
+        migrate(mongoTemplate.getCollectionName(Command.class));
+        migrate(mongoTemplate.getCollectionName(CommandReceipt.class));
+        dropLegacyStatusIndex();
+    }
+
+    private void dropLegacyStatusIndex() {
+        final IndexOperations indexOperations = mongoTemplate.indexOps(Command.class);
+        final boolean exists = indexOperations.getIndexInfo().stream()
+                .anyMatch(index -> LEGACY_STATUS_INDEX_NAME.equals(index.getName()));
+        if (exists) {
+            indexOperations.dropIndex(LEGACY_STATUS_INDEX_NAME);
+            log.info("Dropped legacy command index [index:{}]", LEGACY_STATUS_INDEX_NAME);
+        }
+    }
+
+    private void migrate(final String collectionName) {
+        final Criteria legacyCriteria = new Criteria().orOperator(
+                Criteria.where("chainObjectId").type(BSON_STRING_TYPE),
+                Criteria.where("commandName").type(BSON_STRING_TYPE));
+        int migrated = 0;
+        Object lastId = null;
+        List<Document> documents;
+        do {
+            final Criteria criteria = lastId == null
+                    ? legacyCriteria
+                    : new Criteria().andOperator(legacyCriteria, Criteria.where("_id").gt(lastId));
+            final Query query = Query.query(criteria).with(Sort.by("_id")).limit(BATCH_SIZE);
+            query.fields().include("chainObjectId", "commandName");
+            documents = mongoTemplate.find(query, Document.class, collectionName);
+            if (!documents.isEmpty()) {
+                migrated += migrateBatch(collectionName, documents);
+                lastId = documents.get(documents.size() - 1).get("_id");
+            }
+        } while (documents.size() == BATCH_SIZE);
+        if (migrated > 0) {
+            log.info("Migrated command keys to compact form [collection:{}, count:{}]", collectionName, migrated);
+        }
+    }
+
+    private int migrateBatch(final String collectionName, final List<Document> documents) {
+        final BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+        final List<Object> updatedIds = new ArrayList<>();
+        int count = 0;
+        for (final Document document : documents) {
+            final Update update = new Update();
+            final Object chainObjectId = document.get("chainObjectId");
+            if (chainObjectId instanceof String hexChainObjectId) {
+                if (!ChainObjectIdConverter.isValid(hexChainObjectId)) {
+                    log.warn("Cannot migrate on-chain object ID, not a 32-byte hex string [collection:{}, id:{}, chainObjectId:{}]",
+                            collectionName, document.get("_id"), hexChainObjectId);
+                    continue;
+                }
+                update.set("chainObjectId", ChainObjectIdConverter.toBinary(hexChainObjectId));
+            }
+            final Object commandName = document.get("commandName");
+            if (commandName instanceof String) {
+                update.set("commandName", CommandNameConverter.toCommandName(commandName).getCode());
+            }
+            operations.updateOne(Query.query(Criteria.where("_id").is(document.get("_id"))), update);
+            updatedIds.add(document.get("_id"));
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            final List<Object> duplicateIds = new ArrayList<>();
+            for (final BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    duplicateIds.add(updatedIds.get(error.getIndex()));
+                }
+            }
+            deleteDuplicates(collectionName, duplicateIds);
+            log.warn("Failed to migrate some command keys [collection:{}, failed:{}, duplicates:{}]",
+                    collectionName, e.getErrors().size(), duplicateIds.size());
+            count -= e.getErrors().size();
+        }
+        return count;
+    }
+
+    /**
+     * Delete legacy documents whose compact key is already stored by another document.
+     * <p>
+     * The compact document has been written by a newer version which did not see the legacy one,
+     * it holds the state of the command as currently processed.
+     */
+    private void deleteDuplicates(final String collectionName, final List<Object> duplicateIds) {
+        if (duplicateIds.isEmpty()) {
+            return;
+        }
+        final long deleted = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").in(duplicateIds)), collectionName).getDeletedCount();
+        log.info("Deleted legacy duplicates of migrated command keys [collection:{}, count:{}]",
+                collectionName, deleted);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2025-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,41 @@
 
 package com.iexec.blockchain.command.generic;
 
+import java.util.Arrays;
+
+/**
+ * Commands applied to on-chain objects.
+ * <p>
+ * Commands are stored with their compact {@code code}, codes must never be changed or reused.
+ */
 public enum CommandName {
-    TASK_INITIALIZE,
-    TASK_FINALIZE;
+    TASK_INITIALIZE(1),
+    TASK_FINALIZE(2),
+    TASK_CONTRIBUTE(3),
+    TASK_REVEAL(4),
+    TASK_CLAIM(5);
+
+    private final int code;
+
+    CommandName(final int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Get the command matching a stored code.
+     *
+     * @param code stored code of the command
+     * @return the command
+     * @throws IllegalArgumentException if no command matches the code
+     */
+    public static CommandName fromCode(final int code) {
+        return Arrays.stream(values())
+                .filter(commandName -> commandName.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown command code " + code));
+    }
 }
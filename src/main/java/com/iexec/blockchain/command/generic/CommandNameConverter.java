@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+/**
+ * Store {@link CommandName}s with their compact code instead of their name.
+ * <p>
+ * Names stored by older versions are still read until they are migrated by {@link CommandKeyMigration}.
+ */
+class CommandNameConverter implements MongoValueConverter<CommandName, Object> {
+
+    @Override
+    public CommandName read(final Object value, final MongoConversionContext context) {
+        return toCommandName(value);
+    }
+
+    @Override
+    public Object write(final CommandName value, final MongoConversionContext context) {
+        return value.getCode();
+    }
+
+    static CommandName toCommandName(final Object storedValue) {
+        if (storedValue instanceof Number code) {
+            return CommandName.fromCode(code.intValue());
+        }
+        if (storedValue instanceof String legacyValue) {
+            return CommandName.valueOf(legacyValue);
+        }
+        throw new IllegalArgumentException("Unexpected stored command name type: " + storedValue.getClass());
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent queue of commands waiting for execution, which survives restarts and crashes.
+ * <p>
+ * Queued commands are claimed with an atomic {@code findAndModify} granting a lease of {@code leaseDuration}
+ * to a single owner. High priority commands are claimed first.
+ * <p>
+ * Within a priority class, tenants are served by a {@link DeficitRoundRobin} with weights of the
+ * {@link FairQueuingConfig}, so that a tenant with a large backlog does not starve other tenants.
+ * Commands of a tenant are claimed earliest scheduling deadline first, then oldest commands first.
+ * The scheduling deadline is the on-chain deadline of the command, capped to {@code maxWait} after its enqueue date
+ * so that commands with a far or unknown deadline are not starved by a steady flow of urgent commands.
+ * <p>
+ * Round robin states are local to an application instance, fairness is approximate when several instances
+ * claim commands from the same queue.
+ * <p>
+ * Backlogs of claimable commands are aggregated at most once per {@code pollInterval}, they are shared by claims
+ * and by the admission of new commands during a dispatch tick.
+ * A command is removed from the queue once executed, a command whose lease has expired is claimed again.
+ * A command whose transaction has failed is kept in the queue until the date of its next attempt.
+ */
+@Slf4j
+@Component
+public class CommandQueue {
+
+    static final String DEPTH_METRIC_NAME = "iexec.command.queue.tenant.depth";
+    static final String OLDEST_WAIT_METRIC_NAME = "iexec.command.queue.tenant.oldest-wait";
+    private static final String PRIORITY_FIELD_NAME = "priority";
+    private static final String TENANT_ID_FIELD_NAME = "tenantId";
+    private static final String ENQUEUE_DATE_FIELD_NAME = "enqueueDate";
+    private static final String SCHEDULING_DEADLINE_FIELD_NAME = "schedulingDeadline";
+    private static final String STEP_FIELD_NAME = "step";
+    private static final String ATTEMPTS_FIELD_NAME = "attempts";
+    private static final String NOT_BEFORE_FIELD_NAME = "notBefore";
+    private static final String LEASE_OWNER_FIELD_NAME = "leaseOwner";
+    private static final String LEASE_ID_FIELD_NAME = "leaseId";
+    private static final String LEASE_EXPIRY_FIELD_NAME = "leaseExpiry";
+    private static final Sort CLAIM_ORDER = Sort.by(Sort.Order.asc(SCHEDULING_DEADLINE_FIELD_NAME),
+            Sort.Order.asc(ENQUEUE_DATE_FIELD_NAME), Sort.Order.asc("_id"));
+
+    private final MongoTemplate mongoTemplate;
+    private final FairQueuingConfig fairQueuingConfig;
+    private final Duration leaseDuration;
+    private final Duration maxWait;
+    private final Duration backlogCacheDuration;
+    private final Map<Boolean, DeficitRoundRobin> rounds;
+    private final MultiGauge depthGauge;
+    private final MultiGauge oldestWaitGauge;
+    private volatile BacklogSnapshot backlogSnapshot;
+
+    public CommandQueue(final MongoTemplate mongoTemplate,
+                        final FairQueuingConfig fairQueuingConfig,
+                        @Value("${command.queue.lease-duration}") final Duration leaseDuration,
+                        @Value("${command.queue.max-wait}") final Duration maxWait,
+                        @Value("${command.queue.poll-interval}") final Duration backlogCacheDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.fairQueuingConfig = fairQueuingConfig;
+        this.leaseDuration = leaseDuration;
+        this.maxWait = maxWait;
+        this.backlogCacheDuration = backlogCacheDuration;
+        this.rounds = Map.of(
+                true, new DeficitRoundRobin(fairQueuingConfig::getQuantum),
+                false, new DeficitRoundRobin(fairQueuingConfig::getQuantum));
+        this.depthGauge = MultiGauge.builder(DEPTH_METRIC_NAME).register(Metrics.globalRegistry);
+        this.oldestWaitGauge = MultiGauge.builder(OLDEST_WAIT_METRIC_NAME)
+                .baseUnit("seconds")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Queue a command for execution.
+     * <p>
+     * A command is queued at most once. If it is already queued, the step to execute is replaced
+     * and its lease is released so that it can be claimed again.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param priority whether the command is executed before low priority ones
+     * @param deadline on-chain deadline after which the command would revert, null if unknown
+     * @param step     step of the command workflow to execute
+     */
+    public void enqueue(final CommandArgs args, final boolean priority, final Instant deadline,
+                        final QueuedCommand.Step step) {
+        try {
+            mongoTemplate.insert(createQueuedCommand(args, priority, deadline, step));
+        } catch (DuplicateKeyException e) {
+            log.info("Command already queued, replacing step [chainObjectId:{}, commandName:{}, step:{}]",
+                    args.getChainObjectId(), args.getCommandName(), step);
+            final Update update = new Update()
+                    .set(STEP_FIELD_NAME, step)
+                    .unset(NOT_BEFORE_FIELD_NAME)
+                    .unset(LEASE_OWNER_FIELD_NAME)
+                    .unset(LEASE_ID_FIELD_NAME)
+                    .unset(LEASE_EXPIRY_FIELD_NAME);
+            mongoTemplate.updateFirst(getKeyQuery(args), update, QueuedCommand.class);
+        }
+    }
+
+    /**
+     * Queue a command for execution, unless it is already queued.
+     * <p>
+     * An already queued command is left untouched, with its step, its retry date and its lease,
+     * it may be executed by another application instance at the same time.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param priority whether the command is executed before low priority ones
+     * @param deadline on-chain deadline after which the command would revert, null if unknown
+     * @param step     step of the command workflow to execute
+     * @return true if the command has been queued, false if it was already queued
+     */
+    public boolean enqueueIfAbsent(final CommandArgs args, final boolean priority, final Instant deadline,
+                                   final QueuedCommand.Step step) {
+        try {
+            mongoTemplate.insert(createQueuedCommand(args, priority, deadline, step));
+            return true;
+        } catch (DuplicateKeyException e) {
+            log.debug("Command already queued, left untouched [chainObjectId:{}, commandName:{}]",
+                    args.getChainObjectId(), args.getCommandName());
+            return false;
+        }
+    }
+
+    /**
+     * Check whether a command is queued, leased or not.
+     *
+     * @param args input arguments for the blockchain command
+     * @return true if the command is queued
+     */
+    public boolean contains(final CommandArgs args) {
+        return mongoTemplate.exists(getKeyQuery(args), QueuedCommand.class);
+    }
+
+    /**
+     * Keep a command whose transaction has failed in the queue, to send it again at a later date.
+     * <p>
+     * The lease of the command is released, it is not removed when acknowledged by the failed execution.
+     * Deadlines and enqueue date of the command are kept, it is queued again if it is not found.
+     *
+     * @param args      input arguments for the blockchain command
+     * @param priority  whether the command is executed before low priority ones
+     * @param attempts  number of failed attempts
+     * @param notBefore date before which the command cannot be claimed
+     */
+    public void scheduleRetry(final CommandArgs args, final boolean priority, final int attempts,
+                              final Instant notBefore) {
+        schedule(args, priority, attempts, notBefore, QueuedCommand.Step.SEND);
+    }
+
+    /**
+     * Keep a command whose transaction is already known by the node in the queue,
+     * to check its effect on-chain at a later date instead of sending it again.
+     *
+     * @param args      input arguments for the blockchain command
+     * @param priority  whether the command is executed before low priority ones
+     * @param attempts  number of attempts, the known transaction included
+     * @param notBefore date before which the command cannot be claimed
+     * @see #scheduleRetry(CommandArgs, boolean, int, Instant)
+     */
+    public void scheduleConfirmation(final CommandArgs args, final boolean priority, final int attempts,
+                                     final Instant notBefore) {
+        schedule(args, priority, attempts, notBefore, QueuedCommand.Step.CONFIRM);
+    }
+
+    private void schedule(final CommandArgs args, final boolean priority, final int attempts,
+                          final Instant notBefore, final QueuedCommand.Step step) {
+        final Update update = new Update()
+                .set(STEP_FIELD_NAME, step)
+                .set(ATTEMPTS_FIELD_NAME, attempts)
+                .set(NOT_BEFORE_FIELD_NAME, notBefore)
+                .unset(LEASE_OWNER_FIELD_NAME)
+                .unset(LEASE_ID_FIELD_NAME)
+                .unset(LEASE_EXPIRY_FIELD_NAME);
+        if (mongoTemplate.updateFirst(getKeyQuery(args), update, QueuedCommand.class).getMatchedCount() > 0) {
+            return;
+        }
+        log.warn("Retried command not found in queue, queuing again [chainObjectId:{}, commandName:{}, step:{}]",
+                args.getChainObjectId(), args.getCommandName(), step);
+        final QueuedCommand queuedCommand = createQueuedCommand(args, priority, null, step);
+        queuedCommand.setAttempts(attempts);
+        queuedCommand.setNotBefore(notBefore);
+        mongoTemplate.insert(queuedCommand);
+    }
+
+    private QueuedCommand createQueuedCommand(final CommandArgs args, final boolean priority, final Instant deadline,
+                                              final QueuedCommand.Step step) {
+        final Instant now = Instant.now();
+        final QueuedCommand queuedCommand = new QueuedCommand();
+        queuedCommand.setChainObjectId(args.getChainObjectId());
+        queuedCommand.setCommandName(args.getCommandName());
+        queuedCommand.setTenantId(args.getTenantId());
+        queuedCommand.setPriority(priority);
+        queuedCommand.setEnqueueDate(now);
+        queuedCommand.setDeadline(deadline);
+        queuedCommand.setSchedulingDeadline(getSchedulingDeadline(deadline, now));
+        queuedCommand.setStep(step);
+        queuedCommand.setArgs(args);
+        return queuedCommand;
+    }
+
+    private Instant getSchedulingDeadline(final Instant deadline, final Instant enqueueDate) {
+        final Instant maxWaitDeadline = enqueueDate.plus(maxWait);
+        return deadline != null && deadline.isBefore(maxWaitDeadline) ? deadline : maxWaitDeadline;
+    }
+
+    /**
+     * Count queued commands which would be claimed before a new low priority command.
+     * <p>
+     * High priority commands are all claimed first. Commands of the same tenant are claimed before the new command
+     * when their scheduling deadline is not later. Commands of other tenants do not delay the new command
+     * beyond the share of its tenant in the deficit round robin, computed from the weights of tenants with claimable
+     * low priority commands.
+     * <p>
+     * High priority commands and tenants are read from the backlogs of the current dispatch tick,
+     * only commands of the tenant are counted for each new command.
+     *
+     * @param args     input arguments for the new blockchain command
+     * @param deadline on-chain deadline of the new command, null if unknown
+     * @return the backlog ahead of the new command
+     */
+    public BacklogAhead getBacklogAhead(final CommandArgs args, final Instant deadline) {
+        final Map<Boolean, List<TenantBacklog>> backlogs = getBacklogs(Instant.now());
+        final long priorityCommands = backlogs.get(true).stream().mapToLong(TenantBacklog::depth).sum();
+        final long tenantCommands = mongoTemplate.count(Query.query(Criteria.where(PRIORITY_FIELD_NAME).is(false)
+                        .and(TENANT_ID_FIELD_NAME).is(args.getTenantId())
+                        .and(SCHEDULING_DEADLINE_FIELD_NAME).lte(getSchedulingDeadline(deadline, Instant.now()))),
+                QueuedCommand.class);
+        final Set<String> tenantIds = backlogs.get(false).stream()
+                .map(TenantBacklog::tenantId)
+                .collect(Collectors.toCollection(HashSet::new));
+        tenantIds.add(args.getTenantId());
+        final int totalQuantum = tenantIds.stream().mapToInt(fairQueuingConfig::getQuantum).sum();
+        return new BacklogAhead(priorityCommands, tenantCommands,
+                (double) fairQueuingConfig.getQuantum(args.getTenantId()) / totalQuantum);
+    }
+
+    private Query getKeyQuery(final CommandArgs args) {
+        return Query.query(Criteria.where("chainObjectId").is(args.getChainObjectId())
+                .and("commandName").is(args.getCommandName()));
+    }
+
+    /**
+     * Claim the next queued commands which are not leased, or whose lease has expired.
+     * <p>
+     * Per tenant queue depth and waiting time metrics are refreshed with the backlog read at each claim.
+     *
+     * @param owner       identifier of the claiming application instance
+     * @param maxCommands maximum number of commands to claim
+     * @return claimed commands, in execution order
+     */
+    public List<QueuedCommand> claim(final String owner, final int maxCommands) {
+        final List<QueuedCommand> claimed = new ArrayList<>(maxCommands);
+        final List<MultiGauge.Row<?>> depthRows = new ArrayList<>();
+        final List<MultiGauge.Row<?>> oldestWaitRows = new ArrayList<>();
+        final Instant now = Instant.now();
+        final Map<Boolean, List<TenantBacklog>> tenantBacklogs = getBacklogs(now);
+        for (final boolean priority : List.of(true, false)) {
+            final Map<String, Long> backlogs = new LinkedHashMap<>();
+            for (final TenantBacklog backlog : tenantBacklogs.get(priority)) {
+                backlogs.put(backlog.tenantId(), backlog.depth());
+                final Tags tags = Tags.of("tenant", String.valueOf(backlog.tenantId()),
+                        "priority", String.valueOf(priority));
+                depthRows.add(MultiGauge.Row.of(tags, backlog.depth()));
+                oldestWaitRows.add(MultiGauge.Row.of(tags,
+                        Duration.between(backlog.oldestEnqueueDate(), now).toMillis() / 1000.0));
+            }
+            final int available = maxCommands - claimed.size();
+            if (available > 0 && !backlogs.isEmpty()) {
+                for (final String tenantId : rounds.get(priority).schedule(backlogs, available)) {
+                    final QueuedCommand queuedCommand = claim(owner, priority, tenantId);
+                    if (queuedCommand != null) {
+                        claimed.add(queuedCommand);
+                    }
+                }
+            }
+        }
+        depthGauge.register(depthRows, true);
+        oldestWaitGauge.register(oldestWaitRows, true);
+        return claimed;
+    }
+
+    /**
+     * Count claimable commands by priority class and tenant, reusing counts of the current dispatch tick.
+     *
+     * @return backlogs of tenants by priority class, oldest commands first
+     */
+    private Map<Boolean, List<TenantBacklog>> getBacklogs(final Instant now) {
+        final BacklogSnapshot snapshot = backlogSnapshot;
+        if (snapshot != null && snapshot.date().plus(backlogCacheDuration).isAfter(now)) {
+            return snapshot.backlogs();
+        }
+        final Map<Boolean, List<TenantBacklog>> backlogs = Map.of(
+                true, getBacklogs(true, now),
+                false, getBacklogs(false, now));
+        backlogSnapshot = new BacklogSnapshot(now, backlogs);
+        return backlogs;
+    }
+
+    private List<TenantBacklog> getBacklogs(final boolean priority, final Instant now) {
+        final Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(getClaimableCriteria(priority, now)),
+                Aggregation.group(TENANT_ID_FIELD_NAME)
+                        .count().as("depth")
+                        .min(ENQUEUE_DATE_FIELD_NAME).as("oldestEnqueueDate"),
+                Aggregation.sort(Sort.by("oldestEnqueueDate")));
+        return mongoTemplate.aggregate(aggregation, QueuedCommand.class, TenantBacklog.class).getMappedResults();
+    }
+
+    private QueuedCommand claim(final String owner, final boolean priority, final String tenantId) {
+        final Instant now = Instant.now();
+        final Query query = Query.query(getClaimableCriteria(priority, now)
+                        .and(TENANT_ID_FIELD_NAME).is(tenantId))
+                .with(CLAIM_ORDER);
+        final Update update = new Update()
+                .set(LEASE_OWNER_FIELD_NAME, owner)
+                .set(LEASE_ID_FIELD_NAME, UUID.randomUUID().toString())
+                .set(LEASE_EXPIRY_FIELD_NAME, now.plus(leaseDuration));
+        return mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), QueuedCommand.class);
+    }
+
+    private Criteria getClaimableCriteria(final boolean priority, final Instant now) {
+        return Criteria.where(PRIORITY_FIELD_NAME).is(priority).andOperator(
+                new Criteria().orOperator(
+                        Criteria.where(LEASE_EXPIRY_FIELD_NAME).is(null),
+                        Criteria.where(LEASE_EXPIRY_FIELD_NAME).lt(now)),
+                new Criteria().orOperator(
+                        Criteria.where(NOT_BEFORE_FIELD_NAME).is(null),
+                        Criteria.where(NOT_BEFORE_FIELD_NAME).lte(now)));
+    }
+
+    /**
+     * Extend leases of all commands claimed by an owner.
+     *
+     * @param owner identifier of the application instance
+     * @return number of renewed leases
+     */
+    public long renewLeases(final String owner) {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where(LEASE_OWNER_FIELD_NAME).is(owner)),
+                        Update.update(LEASE_EXPIRY_FIELD_NAME, Instant.now().plus(leaseDuration)),
+                        QueuedCommand.class)
+                .getModifiedCount();
+    }
+
+    /**
+     * Release leases so that commands can be claimed again immediately.
+     *
+     * @param leaseIds IDs of the leases to release
+     * @return number of released leases
+     */
+    public long release(final Collection<String> leaseIds) {
+        if (leaseIds.isEmpty()) {
+            return 0;
+        }
+        final Update update = new Update()
+                .unset(LEASE_OWNER_FIELD_NAME)
+                .unset(LEASE_ID_FIELD_NAME)
+                .unset(LEASE_EXPIRY_FIELD_NAME);
+        return mongoTemplate.updateMulti(Query.query(Criteria.where(LEASE_ID_FIELD_NAME).in(leaseIds)),
+                        update, QueuedCommand.class)
+                .getModifiedCount();
+    }
+
+    /**
+     * Remove an executed command from the queue.
+     * <p>
+     * The command is not removed if it has been claimed again or queued again since, with a new lease.
+     *
+     * @param queuedCommand executed command
+     * @return true if the command has been removed, false otherwise
+     */
+    public boolean acknowledge(final QueuedCommand queuedCommand) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(queuedCommand.getId())
+                                .and(LEASE_ID_FIELD_NAME).is(queuedCommand.getLeaseId())),
+                        QueuedCommand.class)
+                .getDeletedCount() > 0;
+    }
+
+    /**
+     * Get the number of commands in the queue, including claimed commands.
+     *
+     * @return an estimated number of queued commands
+     */
+    public long size() {
+        return mongoTemplate.estimatedCount(QueuedCommand.class);
+    }
+
+    /**
+     * Number of claimable commands of a tenant.
+     *
+     * @param tenantId          ID of the tenant
+     * @param depth             number of claimable commands
+     * @param oldestEnqueueDate enqueue date of the oldest claimable command
+     */
+    record TenantBacklog(@Id String tenantId, long depth, Instant oldestEnqueueDate) {
+    }
+
+    /**
+     * Backlogs of claimable commands read at a given date.
+     *
+     * @param date     date of the aggregation
+     * @param backlogs backlogs of tenants by priority class
+     */
+    private record BacklogSnapshot(Instant date, Map<Boolean, List<TenantBacklog>> backlogs) {
+    }
+
+    /**
+     * Queued commands claimed before a new low priority command.
+     *
+     * @param priorityCommands number of high priority commands
+     * @param tenantCommands   number of low priority commands of the same tenant with an earlier scheduling deadline
+     * @param tenantShare      share of the claims granted to the tenant while other tenants have queued commands
+     */
+    public record BacklogAhead(long priorityCommands, long tenantCommands, double tenantShare) {
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.ChainConfig;
+import com.iexec.blockchain.chain.QueueService;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Execute commands of the {@link CommandQueue} on the {@link QueueService} thread pool.
+ * <p>
+ * Commands are claimed in batches to keep at most {@code prefetch} commands waiting in the in-memory queue,
+ * the bulk of the backlog stays in MongoDB. Leases of claimed commands are renewed while they are waiting
+ * or executed, leases of commands not started yet are released on shutdown.
+ * A command is acknowledged once executed, unless its engine defers the acknowledgement,
+ * see {@link CommandEngine#deferAcknowledgement(QueuedCommand)}.
+ * <p>
+ * When a command starts, the time spent in the queue and the slack left before its on-chain deadline are recorded.
+ * Commands whose on-chain deadline would be reached within a block are pruned with the EXPIRED status
+ * instead of being executed, the deadline cached in the {@link QueuedCommand} is used without any RPC call.
+ * Commands past the TRIGGER step may have sent a transaction already, their effect is checked on-chain first,
+ * see {@link CommandEngine#expireBlockchainCommand(CommandArgs, CommandStatus)}.
+ */
+@Slf4j
+@Component
+public class CommandQueueDispatcher {
+
+    static final String WAIT_METRIC_NAME = "iexec.command.queue.wait";
+    static final String SLACK_METRIC_NAME = "iexec.command.queue.slack";
+    static final String EXPIRED_METRIC_NAME = "iexec.command.queue.expired";
+    private static final String COMMAND_TAG = "command";
+
+    private final CommandQueue commandQueue;
+    private final QueueService queueService;
+    private final Map<CommandName, CommandEngine<CommandArgs>> engines = new EnumMap<>(CommandName.class);
+    private final int prefetch;
+    private final Duration expiryMargin;
+    private final String owner = UUID.randomUUID().toString();
+    // leases of claimed commands waiting in the in-memory queue
+    private final Set<String> pendingLeaseIds = ConcurrentHashMap.newKeySet();
+
+    @SuppressWarnings("unchecked")
+    public CommandQueueDispatcher(final CommandQueue commandQueue,
+                                  final QueueService queueService,
+                                  final List<CommandEngine<?>> engines,
+                                  final ChainConfig chainConfig,
+                                  @Value("${command.queue.prefetch}") final int prefetch) {
+        this.commandQueue = commandQueue;
+        this.queueService = queueService;
+        engines.forEach(engine -> this.engines.put(engine.getCommandName(), (CommandEngine<CommandArgs>) engine));
+        this.prefetch = prefetch;
+        this.expiryMargin = chainConfig.getBlockTime();
+    }
+
+    /**
+     * Claim queued commands and submit them to the thread pool, up to {@code prefetch} waiting commands.
+     *
+     * @return number of submitted commands
+     */
+    @Scheduled(fixedDelayString = "${command.queue.poll-interval}")
+    public int dispatch() {
+        final int available = prefetch - queueService.getQueueSize();
+        if (available <= 0) {
+            return 0;
+        }
+        final List<QueuedCommand> claimed = commandQueue.claim(owner, available);
+        for (final QueuedCommand queuedCommand : claimed) {
+            pendingLeaseIds.add(queuedCommand.getLeaseId());
+            queueService.addExecutionToQueue(() -> execute(queuedCommand),
+                    queuedCommand.isPriority(), queuedCommand.getSchedulingDeadline());
+        }
+        return claimed.size();
+    }
+
+    @Scheduled(fixedDelayString = "${command.queue.lease-renewal-interval}")
+    void renewLeases() {
+        commandQueue.renewLeases(owner);
+    }
+
+    @PreDestroy
+    void releasePendingLeases() {
+        final long released = commandQueue.release(Set.copyOf(pendingLeaseIds));
+        log.info("Released leases of queued commands [released:{}]", released);
+    }
+
+    void execute(final QueuedCommand queuedCommand) {
+        pendingLeaseIds.remove(queuedCommand.getLeaseId());
+        final Instant now = Instant.now();
+        final CommandEngine<CommandArgs> engine = engines.get(queuedCommand.getCommandName());
+        boolean acknowledgementDeferred = false;
+        try {
+            if (engine == null || queuedCommand.getArgs() == null) {
+                log.warn("Cannot execute queued command [chainObjectId:{}, commandName:{}]",
+                        queuedCommand.getChainObjectId(), queuedCommand.getCommandName());
+                return;
+            }
+            final String commandName = queuedCommand.getCommandName().name();
+            if (queuedCommand.getEnqueueDate() != null) {
+                Metrics.timer(WAIT_METRIC_NAME, COMMAND_TAG, commandName)
+                        .record(Duration.between(queuedCommand.getEnqueueDate(), now));
+            }
+            final Instant deadline = queuedCommand.getDeadline();
+            if (deadline != null && !now.plus(expiryMargin).isBefore(deadline)) {
+                // the transaction could not be mined before the deadline, it would only revert
+                Metrics.counter(EXPIRED_METRIC_NAME, COMMAND_TAG, commandName).increment();
+                engine.expireBlockchainCommand(queuedCommand.getArgs(),
+                        queuedCommand.getStep() == QueuedCommand.Step.TRIGGER ? CommandStatus.RECEIVED : CommandStatus.PROCESSING);
+                return;
+            }
+            if (deadline != null) {
+                Metrics.timer(SLACK_METRIC_NAME, COMMAND_TAG, commandName).record(Duration.between(now, deadline));
+            }
+            switch (queuedCommand.getStep()) {
+                case SEND -> engine.sendBlockchainCommand(queuedCommand.getArgs(), queuedCommand.getAttempts());
+                case CONFIRM -> engine.confirmBlockchainCommand(queuedCommand.getArgs(), queuedCommand.getAttempts());
+                default -> engine.triggerBlockchainCommand(queuedCommand.getArgs());
+            }
+            acknowledgementDeferred = engine.deferAcknowledgement(queuedCommand);
+        } finally {
+            if (!acknowledgementDeferred) {
+                commandQueue.acknowledge(queuedCommand);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Full transaction receipt of a completed {@link Command}.
+ * <p>
+ * Commands only store a {@link ReceiptSummary}, full receipts are kept in this separate collection
+ * when {@code command.receipt.keep-full} is enabled. They are never read on status lookups.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@CompoundIndex(name = "command_receipt_idx",
+        def = "{'chainObjectId': 1, 'commandName': 1}",
+        unique = true)
+public class CommandReceipt {
+
+    @Id
+    private String id;
+
+    @ValueConverter(ChainObjectIdConverter.class)
+    private String chainObjectId;
+    @ValueConverter(CommandNameConverter.class)
+    private CommandName commandName;
+    private TransactionReceipt transactionReceipt;
+
+}
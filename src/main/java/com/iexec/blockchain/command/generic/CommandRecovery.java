@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.IexecHubService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Resume commands whose processing has been interrupted by a restart.
+ * <p>
+ * The {@link CommandQueue} is persistent, recovery only deals with commands missing from it, after a crash
+ * between a status update and the matching queue write for instance. Queued commands are never touched,
+ * they may be leased by another application instance or by the dispatcher of this one.
+ * <p>
+ * At startup, commands in RECEIVED status which are not queued are queued again in their creation order.
+ * Commands in PROCESSING status which are not queued are reconciled with the receipt of their stored transaction,
+ * or with the on-chain state when no transaction has been mined, see {@link CommandEngine#reconcileBlockchainCommand}.
+ * A stored transaction without receipt may still be pending, it is confirmed later instead of being sent again,
+ * see {@link CommandEngine#reconcileSubmittedBlockchainCommand}.
+ * PROCESSING commands are reconciled in batches of {@value #BATCH_SIZE} commands, {@code parallelism} batches
+ * at a time.
+ */
+@Slf4j
+@Component
+public class CommandRecovery {
+
+    static final int BATCH_SIZE = 100;
+
+    private final CommandStore commandStore;
+    private final CommandQueue commandQueue;
+    private final IexecHubService iexecHubService;
+    private final Map<CommandName, CommandEngine<CommandArgs>> engines = new EnumMap<>(CommandName.class);
+    private final int parallelism;
+
+    @SuppressWarnings("unchecked")
+    public CommandRecovery(final CommandStore commandStore,
+                           final CommandQueue commandQueue,
+                           final IexecHubService iexecHubService,
+                           final List<CommandEngine<?>> engines,
+                           @Value("${command.recovery.parallelism}") final int parallelism) {
+        this.commandStore = commandStore;
+        this.commandQueue = commandQueue;
+        this.iexecHubService = iexecHubService;
+        engines.forEach(engine -> this.engines.put(engine.getCommandName(), (CommandEngine<CommandArgs>) engine));
+        this.parallelism = parallelism;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void recover() {
+        final long start = System.currentTimeMillis();
+        final int requeued = requeueReceivedCommands();
+        final int reconciled = reconcileProcessingCommands();
+        if (requeued > 0 || reconciled > 0) {
+            log.info("Recovered interrupted commands [requeued:{}, reconciled:{}, durationMs:{}]",
+                    requeued, reconciled, System.currentTimeMillis() - start);
+        }
+    }
+
+    int requeueReceivedCommands() {
+        int requeued = 0;
+        try (Stream<Command> commands = commandStore.streamByStatus(CommandStatus.RECEIVED)) {
+            for (final Command command : (Iterable<Command>) commands::iterator) {
+                final CommandEngine<CommandArgs> engine = getEngine(command);
+                if (engine != null && !commandQueue.contains(command.getArgs())) {
+                    engine.requeueBlockchainCommand(command.getArgs());
+                    requeued++;
+                }
+            }
+        }
+        return requeued;
+    }
+
+    int reconcileProcessingCommands() {
+        final ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+        final List<Future<Integer>> results = new ArrayList<>();
+        try (Stream<Command> commands = commandStore.streamByStatus(CommandStatus.PROCESSING)) {
+            List<Command> batch = new ArrayList<>(BATCH_SIZE);
+            for (final Command command : (Iterable<Command>) commands::iterator) {
+                batch.add(command);
+                if (batch.size() == BATCH_SIZE) {
+                    final List<Command> fullBatch = batch;
+                    results.add(executorService.submit(() -> reconcileBatch(fullBatch)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                final List<Command> lastBatch = batch;
+                results.add(executorService.submit(() -> reconcileBatch(lastBatch)));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        int reconciled = 0;
+        for (final Future<Integer> result : results) {
+            try {
+                reconciled += result.get();
+            } catch (ExecutionException e) {
+                log.error("Failed to reconcile processing commands batch", e);
+            } catch (InterruptedException e) {
+                log.warn("Recovery has been interrupted", e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return reconciled;
+    }
+
+    private int reconcileBatch(final List<Command> batch) {
+        int reconciled = 0;
+        for (final Command command : batch) {
+            final CommandEngine<CommandArgs> engine = getEngine(command);
+            if (engine == null) {
+                continue;
+            }
+            try {
+                if (commandQueue.contains(command.getArgs())) {
+                    // still queued, its execution or retry is already planned
+                    continue;
+                }
+                final TransactionReceipt receipt = command.getTxHash() == null
+                        ? null
+                        : iexecHubService.findTransactionReceipt(command.getTxHash()).orElse(null);
+                if (command.getTxHash() != null && receipt == null) {
+                    engine.reconcileSubmittedBlockchainCommand(command.getArgs(), command.getAttempts() + 1);
+                } else {
+                    engine.reconcileBlockchainCommand(command.getArgs(), receipt);
+                }
+                reconciled++;
+            } catch (Exception e) {
+                log.error("Failed to reconcile processing command [chainObjectId:{}, commandName:{}]",
+                        command.getChainObjectId(), command.getCommandName(), e);
+            }
+        }
+        return reconciled;
+    }
+
+    private CommandEngine<CommandArgs> getEngine(final Command command) {
+        final CommandEngine<CommandArgs> engine = engines.get(command.getCommandName());
+        if (engine == null || command.getArgs() == null) {
+            log.warn("Cannot recover command [chainObjectId:{}, commandName:{}, status:{}]",
+                    command.getChainObjectId(), command.getCommandName(), command.getStatus());
+            return null;
+        }
+        return engine;
+    }
+}
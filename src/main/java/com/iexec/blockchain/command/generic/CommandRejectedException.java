@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a new command is not admitted by the {@link CommandAdmission}.
+ * <p>
+ * The client should retry after the provided delay.
+ */
+@Getter
+public class CommandRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CommandRejectedException(final String message, final Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
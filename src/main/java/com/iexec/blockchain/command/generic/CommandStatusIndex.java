@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory cache of final command statuses, fed by {@link CommandStorage} when a command completes.
+ * <p>
+ * The {@link CommandStore} stays the source of truth, statuses are written to the store first and then to the index.
+ * Any instance may lease and complete a command, so RECEIVED and PROCESSING statuses are never indexed:
+ * they are always read from the store, a status read on an instance cannot be older than an update of another one.
+ * Final statuses never change, an indexed final status is valid on every instance.
+ * Only the {@code maxFinalEntries} most recently completed commands are kept, older ones are evicted
+ * and read again from the store on demand.
+ * <p>
+ * Indexed statuses are periodically compared to the store, mismatches are exposed as a metric and repaired.
+ * Each check samples the next indexed commands of a cursor over the index, successive checks cover the whole index.
+ */
+@Slf4j
+@Component
+public class CommandStatusIndex {
+
+    static final String SIZE_METRIC_NAME = "iexec.command.status-index.size";
+    static final String READ_METRIC_NAME = "iexec.command.status-index.read";
+    static final String MISMATCH_METRIC_NAME = "iexec.command.status-index.mismatch";
+    static final int CONSISTENCY_CHECK_SAMPLE_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CommandStore commandStore;
+    private final int maxFinalEntries;
+    private final Map<CommandKey, CommandStatus> statuses = new ConcurrentHashMap<>();
+    private final Queue<CommandKey> finalKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finalKeyCount = new AtomicInteger();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final AtomicLong mismatchGauge;
+    // weakly consistent, only used by consistency checks
+    private Iterator<CommandKey> consistencyCursor = Collections.emptyIterator();
+
+    public CommandStatusIndex(final MongoTemplate mongoTemplate,
+                              final CommandStore commandStore,
+                              @Value("${command.status-index.max-final-entries}") final int maxFinalEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandStore = commandStore;
+        this.maxFinalEntries = maxFinalEntries;
+        Metrics.gaugeMapSize(SIZE_METRIC_NAME, List.of(), statuses);
+        this.hitCounter = Metrics.counter(READ_METRIC_NAME, "result", "hit");
+        this.missCounter = Metrics.counter(READ_METRIC_NAME, "result", "miss");
+        this.mismatchGauge = Metrics.gauge(MISMATCH_METRIC_NAME, new AtomicLong(0));
+    }
+
+    /**
+     * Load statuses of the most recently completed commands.
+     * Reads are served from the {@link CommandStore} on index misses until the load is done.
+     * Statuses are only loaded from MongoDB, the index starts empty with other backends.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        final Query finalQuery = Query.query(Criteria.where("status").in(CommandStatus.SUCCESS, CommandStatus.FAILURE, CommandStatus.EXPIRED))
+                .with(Sort.by(Sort.Direction.DESC, "finalDate"))
+                .limit(maxFinalEntries);
+        finalQuery.fields().include("chainObjectId", "commandName", "status");
+        final List<Command> commands = new ArrayList<>(mongoTemplate.find(finalQuery, Command.class));
+        // oldest completed commands are evicted first
+        Collections.reverse(commands);
+        commands.forEach(command -> update(command.getChainObjectId(), command.getCommandName(), command.getStatus()));
+        log.info("Loaded command status index [size:{}]", statuses.size());
+    }
+
+    /**
+     * Get the indexed status of a command.
+     *
+     * @param chainObjectId on-chain object ID
+     * @param commandName   command applied to the on-chain object
+     * @return the final status, empty if the command is unknown, not completed or has been evicted
+     */
+    public Optional<CommandStatus> get(final String chainObjectId, final CommandName commandName) {
+        final CommandStatus status = statuses.get(new CommandKey(chainObjectId, commandName));
+        (status != null ? hitCounter : missCounter).increment();
+        return Optional.ofNullable(status);
+    }
+
+    /**
+     * Index a final command status, other statuses are ignored.
+     *
+     * @param chainObjectId on-chain object ID
+     * @param commandName   command applied to the on-chain object
+     * @param status        status of the command as stored in the {@link CommandStore}
+     */
+    public void update(final String chainObjectId, final CommandName commandName, final CommandStatus status) {
+        if (isFinal(status)) {
+            index(new CommandKey(chainObjectId, commandName), status, false);
+        }
+    }
+
+    /**
+     * Index a final command status, the first indexation is detected atomically with the index update
+     * so that a completed command is accounted once in the {@code maxFinalEntries} most recent ones.
+     *
+     * @param force whether the status replaces an indexed status
+     */
+    private void index(final CommandKey key, final CommandStatus status, final boolean force) {
+        final AtomicBoolean completed = new AtomicBoolean();
+        statuses.compute(key, (k, indexed) -> {
+            if (indexed != null && !force) {
+                return indexed;
+            }
+            completed.set(indexed == null);
+            return status;
+        });
+        if (completed.get()) {
+            finalKeys.add(key);
+            if (finalKeyCount.incrementAndGet() > maxFinalEntries) {
+                evictOldestFinalEntry();
+            }
+        }
+    }
+
+    private void evictOldestFinalEntry() {
+        final CommandKey key = finalKeys.poll();
+        if (key != null) {
+            finalKeyCount.decrementAndGet();
+            statuses.remove(key);
+        }
+    }
+
+    /**
+     * Compare a sample of indexed statuses with the {@link CommandStore}.
+     * <p>
+     * A command updated during the check may look inconsistent, mismatched commands are thus checked twice
+     * before being counted and repaired from the store.
+     */
+    @Scheduled(fixedDelayString = "${command.status-index.consistency-check-delay}")
+    void checkConsistency() {
+        final Set<CommandKey> sample = nextSample();
+        Map<CommandKey, CommandStatus> mismatches = findMismatches(sample);
+        if (!mismatches.isEmpty()) {
+            mismatches = findMismatches(mismatches.keySet());
+        }
+        mismatchGauge.set(mismatches.size());
+        if (!mismatches.isEmpty()) {
+            log.warn("Command status index is not consistent with database, repairing [mismatches:{}, sampleSize:{}]",
+                    mismatches.size(), sample.size());
+            mismatches.forEach(this::repair);
+        }
+    }
+
+    /**
+     * Read the next indexed commands of the cursor, starting over from the beginning of the index at most once.
+     */
+    private Set<CommandKey> nextSample() {
+        final Set<CommandKey> sample = new HashSet<>();
+        boolean restarted = false;
+        while (sample.size() < CONSISTENCY_CHECK_SAMPLE_SIZE) {
+            if (!consistencyCursor.hasNext()) {
+                if (restarted) {
+                    break;
+                }
+                consistencyCursor = statuses.keySet().iterator();
+                restarted = true;
+            } else {
+                sample.add(consistencyCursor.next());
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Find indexed commands whose status differs from the {@link CommandStore}.
+     *
+     * @param keys commands to check
+     * @return stored statuses by mismatched command, null values for commands missing in the store
+     */
+    private Map<CommandKey, CommandStatus> findMismatches(final Set<CommandKey> keys) {
+        final Map<CommandName, List<String>> idsByCommandName = keys.stream()
+                .collect(Collectors.groupingBy(CommandKey::commandName,
+                        Collectors.mapping(CommandKey::chainObjectId, Collectors.toList())));
+        final Map<CommandKey, CommandStatus> storedStatuses = new HashMap<>();
+        idsByCommandName.forEach((commandName, chainObjectIds) ->
+                commandStore.findStatuses(chainObjectIds, commandName).forEach((chainObjectId, status) ->
+                        storedStatuses.put(new CommandKey(chainObjectId, commandName), status)));
+        final Map<CommandKey, CommandStatus> mismatches = new HashMap<>();
+        for (final CommandKey key : keys) {
+            final CommandStatus storedStatus = storedStatuses.get(key);
+            final CommandStatus indexedStatus = statuses.get(key);
+            // completed commands missing in the live collection may have been archived
+            final boolean archived = storedStatus == null && isFinal(indexedStatus);
+            if (indexedStatus != null && indexedStatus != storedStatus && !archived) {
+                mismatches.put(key, storedStatus);
+            }
+        }
+        return mismatches;
+    }
+
+    private void repair(final CommandKey key, final CommandStatus storedStatus) {
+        if (!isFinal(storedStatus)) {
+            statuses.remove(key);
+        } else {
+            // the store is the source of truth, its status replaces the indexed one even if less recent
+            index(key, storedStatus, true);
+        }
+    }
+
+    int size() {
+        return statuses.size();
+    }
+
+    private static boolean isFinal(final CommandStatus status) {
+        return status != null && status.isFinal();
+    }
+
+    private record CommandKey(String chainObjectId, CommandName commandName) {
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Status-only projection of a {@link Command}.
+ * <p>
+ * Lookups go through the unique {@code command_task_idx} key index and only the status fields
+ * of the single matching document are returned.
+ *
+ * @param chainObjectId on-chain object ID
+ * @param commandName   command applied to the on-chain object
+ * @param status        status of the command
+ */
+record CommandStatusView(@ValueConverter(ChainObjectIdConverter.class) String chainObjectId,
+                         @ValueConverter(CommandNameConverter.class) CommandName commandName,
+                         CommandStatus status) {
+
+    /**
+     * Create a query projecting matching commands to this view.
+     * <p>
+     * The criteria must filter on {@code chainObjectId}, the key index is hinted
+     * and the {@code _id} field is excluded from the projection.
+     *
+     * @param criteria criteria on command keys, optionally on status
+     * @return the query to run with {@code CommandStatusView} as result type on the {@link Command} collection
+     */
+    static Query query(final Criteria criteria) {
+        final Query query = Query.query(criteria).withHint(Command.KEY_INDEX_NAME);
+        query.fields().include("chainObjectId", "commandName", "status").exclude("_id");
+        return query;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,27 +17,52 @@
 package com.iexec.blockchain.command.generic;
 
 import com.iexec.blockchain.api.CommandStatus;
-import com.mongodb.client.result.UpdateResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.query.Criteria;
-import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class CommandStorage {
 
     private static final String STATUS_FIELD_NAME = "status";
+    private static final String PROCESSING_DATE_FIELD_NAME = "processingDate";
+    private static final String FINAL_DATE_FIELD_NAME = "finalDate";
+    private static final String TX_HASH_FIELD_NAME = "txHash";
+    private static final String TX_DATE_FIELD_NAME = "txDate";
+    private static final String ATTEMPTS_FIELD_NAME = "attempts";
+    private static final String NEXT_ATTEMPT_DATE_FIELD_NAME = "nextAttemptDate";
+    // bound on synchronous waits for a write, a lost write must not block a worker or request thread forever
+    static final Duration WRITE_TIMEOUT = Duration.ofSeconds(30);
     private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final CommandStatusIndex commandStatusIndex;
+    private final CommandStore commandStore;
+    private final CommandArchiver commandArchiver;
+    private final boolean keepFullReceipt;
 
-    public CommandStorage(final MongoTemplate mongoTemplate) {
+    public CommandStorage(final MongoTemplate mongoTemplate,
+                          final ApplicationEventPublisher applicationEventPublisher,
+                          final CommandStatusIndex commandStatusIndex,
+                          final CommandStore commandStore,
+                          final CommandArchiver commandArchiver,
+                          @Value("${command.receipt.keep-full}") final boolean keepFullReceipt) {
         this.mongoTemplate = mongoTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.commandStatusIndex = commandStatusIndex;
+        this.commandStore = commandStore;
+        this.commandArchiver = commandArchiver;
+        this.keepFullReceipt = keepFullReceipt;
     }
 
     /**
@@ -47,21 +72,37 @@ public class CommandStorage {
      * @return true on successful update, false otherwise
      */
     public boolean updateToReceived(final CommandArgs args) {
+        return join(updateToReceivedAsync(args), args);
+    }
+
+    /**
+     * Asynchronous version of {@link #updateToReceived(CommandArgs)}, the insertion is batched with other writes
+     * by the {@link CommandStore}.
+     *
+     * @param args input arguments for the blockchain command
+     * @return a future completed with true on successful update, false otherwise
+     */
+    public CompletableFuture<Boolean> updateToReceivedAsync(final CommandArgs args) {
+        if (!ChainObjectIdConverter.isValid(args.getChainObjectId())) {
+            log.error("Failed to submit command to queue, invalid on-chain object ID [chainObjectId:{}, args:{}]",
+                    args.getChainObjectId(), args);
+            return CompletableFuture.completedFuture(false);
+        }
         final Command command = new Command();
         command.setStatus(CommandStatus.RECEIVED);
         command.setChainObjectId(args.getChainObjectId());
         command.setCommandName(args.getCommandName());
         command.setArgs(args);
         command.setCreationDate(Instant.now());
-
-        try {
-            mongoTemplate.insert(command);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to submit command to queue [chainObjectId:{}, args:{}]",
-                    args.getChainObjectId(), args, e);
-            return false;
-        }
+        return commandStore.insert(command)
+                .thenApply(inserted -> {
+                    if (!inserted) {
+                        log.error("Failed to submit command to queue [chainObjectId:{}, args:{}]",
+                                args.getChainObjectId(), args);
+                        return false;
+                    }
+                    return true;
+                });
     }
 
     /**
@@ -71,59 +112,238 @@ public class CommandStorage {
      * @return true on successful update, false otherwise
      */
     public boolean updateToProcessing(final CommandArgs args) {
-        final Criteria criteria = createUpdateCriteria(args, CommandStatus.RECEIVED);
+        return join(updateToProcessingAsync(args), args);
+    }
+
+    /**
+     * Asynchronous version of {@link #updateToProcessing(CommandArgs)}, the update is batched with other writes.
+     *
+     * @param args Command arguments containing on-chain object ID and command to perform
+     * @return a future completed with true on successful update, false otherwise
+     */
+    public CompletableFuture<Boolean> updateToProcessingAsync(final CommandArgs args) {
+        final Instant processingDate = Instant.now();
         final Update update = new Update();
         update.set(STATUS_FIELD_NAME, CommandStatus.PROCESSING);
-        update.set("processingDate", Instant.now());
-        final UpdateResult result = mongoTemplate.updateFirst(Query.query(criteria), update, Command.class);
-        return result.getModifiedCount() != 0;
+        update.set(PROCESSING_DATE_FIELD_NAME, processingDate);
+        return commandStore.update(args.getChainObjectId(), args.getCommandName(), CommandStatus.RECEIVED,
+                update, PROCESSING_DATE_FIELD_NAME, processingDate);
+    }
+
+    /**
+     * Store the hash of the transaction sent for a command in PROCESSING status.
+     * <p>
+     * The hash is used to reconcile the command if its processing is interrupted before the transaction is mined.
+     *
+     * @param args   Command arguments containing on-chain object ID and command to perform
+     * @param txHash hash of the submitted transaction
+     * @return a future completed with true on successful update, false otherwise
+     */
+    public CompletableFuture<Boolean> updateTxHashAsync(final CommandArgs args, final String txHash) {
+        final Instant txDate = Instant.now();
+        final Update update = new Update();
+        update.set(TX_HASH_FIELD_NAME, txHash);
+        update.set(TX_DATE_FIELD_NAME, txDate);
+        return commandStore.update(args.getChainObjectId(), args.getCommandName(), CommandStatus.PROCESSING,
+                update, TX_DATE_FIELD_NAME, txDate);
+    }
+
+    /**
+     * Store the number of failed attempts of a command in PROCESSING status and the date of its next attempt.
+     *
+     * @param args            Command arguments containing on-chain object ID and command to perform
+     * @param attempts        number of failed attempts
+     * @param nextAttemptDate earliest date of the next attempt
+     * @return true on successful update, false otherwise
+     */
+    public boolean updateNextAttempt(final CommandArgs args, final int attempts, final Instant nextAttemptDate) {
+        final Update update = new Update();
+        update.set(ATTEMPTS_FIELD_NAME, attempts);
+        update.set(NEXT_ATTEMPT_DATE_FIELD_NAME, nextAttemptDate);
+        return join(commandStore.update(args.getChainObjectId(), args.getCommandName(), CommandStatus.PROCESSING,
+                update, NEXT_ATTEMPT_DATE_FIELD_NAME, nextAttemptDate), args);
     }
 
     /**
      * Locally set status both to success or failure, when blockchain command is completed.
+     * <p>
+     * Only a {@link ReceiptSummary} of the receipt is stored in the command,
+     * the full receipt is stored in a separate {@link CommandReceipt} collection if enabled.
+     * A {@link CommandFinalEvent} is published on successful update.
      *
      * @param args    Command arguments containing on-chain object ID and command to perform
      * @param receipt blockchain receipt
      * @return true on successful update, false otherwise
      */
     public boolean updateToFinal(final CommandArgs args, final TransactionReceipt receipt) {
+        return join(updateToFinalAsync(args, receipt), args);
+    }
+
+    /**
+     * Locally set an explicit final status, when the effect of a command is found on-chain
+     * while the receipt of its transaction is unknown for instance.
+     *
+     * @param args        Command arguments containing on-chain object ID and command to perform
+     * @param finalStatus final status of the command
+     * @param receipt     blockchain receipt, null if unknown
+     * @return true on successful update, false otherwise
+     * @see #updateToFinal(CommandArgs, TransactionReceipt)
+     */
+    public boolean updateToFinal(final CommandArgs args, final CommandStatus finalStatus,
+                                 final TransactionReceipt receipt) {
+        return join(updateToFinalAsync(args, finalStatus, receipt), args);
+    }
+
+    /**
+     * Asynchronous version of {@link #updateToFinal(CommandArgs, TransactionReceipt)},
+     * the update is batched with other writes.
+     *
+     * @param args    Command arguments containing on-chain object ID and command to perform
+     * @param receipt blockchain receipt
+     * @return a future completed with true on successful update, false otherwise
+     */
+    public CompletableFuture<Boolean> updateToFinalAsync(final CommandArgs args, final TransactionReceipt receipt) {
         final CommandStatus finalStatus = receipt != null && receipt.isStatusOK() ? CommandStatus.SUCCESS : CommandStatus.FAILURE;
+        return updateToFinalAsync(args, finalStatus, receipt);
+    }
+
+    private CompletableFuture<Boolean> updateToFinalAsync(final CommandArgs args, final CommandStatus finalStatus,
+                                                          final TransactionReceipt receipt) {
         log.info("Command final status with transaction receipt [chainObjectId:{}, command:{}, status:{}, receipt:{}]",
                 args.getChainObjectId(), args.getCommandName().name(), finalStatus, receipt);
-        final Criteria criteria = createUpdateCriteria(args, CommandStatus.PROCESSING);
+        final Instant finalDate = Instant.now();
         final Update update = new Update();
         update.set(STATUS_FIELD_NAME, finalStatus);
-        update.set("transactionReceipt", receipt);
-        update.set("finalDate", Instant.now());
-        final UpdateResult result = mongoTemplate.updateFirst(Query.query(criteria), update, Command.class);
-        return result.getModifiedCount() != 0;
+        update.set("receiptSummary", ReceiptSummary.of(receipt));
+        update.set(FINAL_DATE_FIELD_NAME, finalDate);
+        return commandStore.update(args.getChainObjectId(), args.getCommandName(), CommandStatus.PROCESSING,
+                        update, FINAL_DATE_FIELD_NAME, finalDate)
+                // event listeners write to MongoDB, keep them off the batcher and journal threads
+                .thenApplyAsync(updated -> {
+                    if (!updated) {
+                        return false;
+                    }
+                    if (keepFullReceipt && receipt != null) {
+                        storeFullReceipt(args, receipt);
+                    }
+                    commandStatusIndex.update(args.getChainObjectId(), args.getCommandName(), finalStatus);
+                    applicationEventPublisher.publishEvent(
+                            new CommandFinalEvent(args.getChainObjectId(), args.getCommandName(), finalStatus));
+                    return true;
+                });
     }
 
     /**
-     * Creates a criteria, the rule to lookup for a specific entry in the Mongo collection.
+     * Locally set status to expired, when a command is dropped without sending its transaction
+     * because its on-chain deadline has been reached.
+     * <p>
+     * A {@link CommandFinalEvent} is published on successful update.
      *
-     * @param args   Command arguments containing on-chain object ID and command to perform
-     * @param status Currently expected status for the on-chain object
-     * @return A {@code Criteria} instance to use in {@code MongoTemplate} operations
+     * @param args          Command arguments containing on-chain object ID and command to perform
+     * @param currentStatus status of the command when it is dropped, RECEIVED or PROCESSING
+     * @return true on successful update, false otherwise
      */
-    private Criteria createUpdateCriteria(final CommandArgs args, final CommandStatus status) {
-        return Criteria.where("chainObjectId").is(args.getChainObjectId())
-                .and("commandName").is(args.getCommandName())
-                .and(STATUS_FIELD_NAME).is(status);
+    public boolean updateToExpired(final CommandArgs args, final CommandStatus currentStatus) {
+        final Instant finalDate = Instant.now();
+        final Update update = new Update();
+        update.set(STATUS_FIELD_NAME, CommandStatus.EXPIRED);
+        update.set(FINAL_DATE_FIELD_NAME, finalDate);
+        return join(commandStore.update(args.getChainObjectId(), args.getCommandName(), currentStatus,
+                        update, FINAL_DATE_FIELD_NAME, finalDate)
+                .thenApplyAsync(updated -> {
+                    if (!updated) {
+                        return false;
+                    }
+                    commandStatusIndex.update(args.getChainObjectId(), args.getCommandName(), CommandStatus.EXPIRED);
+                    applicationEventPublisher.publishEvent(
+                            new CommandFinalEvent(args.getChainObjectId(), args.getCommandName(), CommandStatus.EXPIRED));
+                    return true;
+                }), args);
+    }
+
+    private boolean join(final CompletableFuture<Boolean> result, final CommandArgs args) {
+        try {
+            return result.orTimeout(WRITE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (Exception e) {
+            log.error("Failed to write command [chainObjectId:{}, command:{}]",
+                    args.getChainObjectId(), args.getCommandName(), e);
+            return false;
+        }
+    }
+
+    private void storeFullReceipt(final CommandArgs args, final TransactionReceipt receipt) {
+        try {
+            mongoTemplate.insert(new CommandReceipt(null, args.getChainObjectId(), args.getCommandName(), receipt));
+        } catch (Exception e) {
+            log.warn("Failed to store full transaction receipt [chainObjectId:{}, command:{}]",
+                    args.getChainObjectId(), args.getCommandName(), e);
+        }
     }
 
     /**
      * Get status for the initialize task process (which is async)
+     * <p>
+     * Final statuses are read from the {@link CommandStatusIndex}, the {@link CommandStore} is queried on index misses,
+     * hence always for pending commands which may be updated by another instance.
+     * Archived commands are looked up with the {@link CommandArchiver} when missing in the live collection.
      *
      * @param chainObjectId blockchain object ID on which the blockchain command
      *                      is performed
      */
     public Optional<CommandStatus> getStatusForCommand(final String chainObjectId, final CommandName commandName) {
-        final Criteria criteria = Criteria.where("chainObjectId").is(chainObjectId)
-                .and("commandName").is(commandName);
-        final Command command = mongoTemplate.findOne(Query.query(criteria), Command.class);
-        return Optional.ofNullable(command)
-                .map(Command::getStatus);
+        final Optional<CommandStatus> indexedStatus = commandStatusIndex.get(chainObjectId, commandName);
+        if (indexedStatus.isPresent() || !ChainObjectIdConverter.isValid(chainObjectId)) {
+            // IDs which are not 32-byte hex strings are never stored
+            return indexedStatus;
+        }
+        final CommandStatus storedStatus = commandStore.findStatuses(List.of(chainObjectId), commandName)
+                .get(chainObjectId);
+        final Optional<CommandStatus> status = storedStatus != null
+                ? Optional.of(storedStatus)
+                : commandArchiver.getStatusForCommand(chainObjectId, commandName);
+        status.ifPresent(value -> commandStatusIndex.update(chainObjectId, commandName, value));
+        return status;
+    }
+
+    /**
+     * Get statuses for several commands of the same kind.
+     * <p>
+     * Final statuses are read from the {@link CommandStatusIndex}, index misses are read from the {@link CommandStore}
+     * in a single query, then from the {@link CommandArchiver} for commands missing in the live collection.
+     *
+     * @param chainObjectIds blockchain object IDs on which the blockchain command is performed
+     * @param commandName    command applied to the on-chain objects
+     * @return statuses by blockchain object ID, unknown commands are absent from the result
+     */
+    public Map<String, CommandStatus> getStatusesForCommands(final Collection<String> chainObjectIds,
+                                                             final CommandName commandName) {
+        final Map<String, CommandStatus> statuses = new HashMap<>();
+        final List<String> missingChainObjectIds = new ArrayList<>();
+        for (final String chainObjectId : chainObjectIds) {
+            commandStatusIndex.get(chainObjectId, commandName).ifPresentOrElse(
+                    status -> statuses.put(chainObjectId, status),
+                    () -> {
+                        if (ChainObjectIdConverter.isValid(chainObjectId)) {
+                            missingChainObjectIds.add(chainObjectId);
+                        }
+                    });
+        }
+        if (missingChainObjectIds.isEmpty()) {
+            return statuses;
+        }
+        final Map<String, CommandStatus> storedStatuses = new HashMap<>(
+                commandStore.findStatuses(missingChainObjectIds, commandName));
+        if (storedStatuses.size() < missingChainObjectIds.size()) {
+            final List<String> archivedChainObjectIds = missingChainObjectIds.stream()
+                    .filter(chainObjectId -> !storedStatuses.containsKey(chainObjectId))
+                    .toList();
+            storedStatuses.putAll(commandArchiver.getStatusesForCommands(archivedChainObjectIds, commandName));
+        }
+        storedStatuses.forEach((chainObjectId, status) -> {
+            statuses.put(chainObjectId, status);
+            commandStatusIndex.update(chainObjectId, commandName, status);
+        });
+        return statuses;
     }
 
 }
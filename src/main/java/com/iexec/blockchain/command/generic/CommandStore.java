@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend of live {@link Command}s, selected with {@code command.storage.backend}.
+ * <ul>
+ *     <li>{@code mongo}: commands are stored in MongoDB, see {@link MongoCommandStore}</li>
+ *     <li>{@code journal}: commands are stored in an embedded append-only journal, see {@link JournalCommandStore}</li>
+ * </ul>
+ * Commands which have reached a final status are moved out of the store by the {@link CommandArchiver},
+ * the store only grows with the number of commands completed during {@code command.archive.min-age}.
+ */
+public interface CommandStore {
+
+    String BACKEND_PROPERTY = "command.storage.backend";
+
+    /**
+     * Insert a new command.
+     *
+     * @param command command to insert
+     * @return a future completed with {@literal true} if inserted, {@literal false} if the command already exists
+     */
+    CompletableFuture<Boolean> insert(Command command);
+
+    /**
+     * Apply a status transition to an existing command.
+     * <p>
+     * Only {@code $set} operations are supported.
+     *
+     * @param chainObjectId  on-chain object ID
+     * @param commandName    command applied to the on-chain object
+     * @param expectedStatus status the command must have for the transition to be applied
+     * @param update         update to apply, it must set {@code dateFieldName} to {@code date}
+     * @param dateFieldName  name of the date field set by the transition
+     * @param date           value of the date field set by the transition
+     * @return a future completed with {@literal true} if updated, {@literal false} if the command was not found
+     * in the expected status
+     */
+    CompletableFuture<Boolean> update(String chainObjectId, CommandName commandName, CommandStatus expectedStatus,
+                                      Update update, String dateFieldName, Instant date);
+
+    /**
+     * Read statuses of several commands of the same kind.
+     *
+     * @param chainObjectIds on-chain object IDs
+     * @param commandName    command applied to the on-chain objects
+     * @return statuses by on-chain object ID, unknown commands are absent from the result
+     */
+    Map<String, CommandStatus> findStatuses(Collection<String> chainObjectIds, CommandName commandName);
+
+    /**
+     * Read all commands with a given status, oldest first.
+     * <p>
+     * The returned stream must be closed.
+     *
+     * @param status status of the commands
+     * @return commands sorted by creation date
+     */
+    Stream<Command> streamByStatus(CommandStatus status);
+
+    /**
+     * Read commands which have reached a final status before a given date, oldest final date first.
+     *
+     * @param finalBefore exclusive upper bound of the final date of the commands
+     * @param limit       maximum number of commands to read
+     * @return commands sorted by final date
+     */
+    List<Command> findFinal(Instant finalBefore, int limit);
+
+    /**
+     * Count commands which have reached a final status during a time range, whichever instance executed them.
+     *
+     * @param finalFrom   inclusive lower bound of the final date of the commands
+     * @param finalBefore exclusive upper bound of the final date of the commands
+     * @return number of commands
+     */
+    long countFinal(Instant finalFrom, Instant finalBefore);
+
+    /**
+     * Remove commands which have reached a final status, once archived.
+     * <p>
+     * Commands which are not found in a final status are left untouched.
+     *
+     * @param commands commands previously read with {@link #findFinal(Instant, int)}
+     * @return a future completed once the removal is durable
+     */
+    CompletableFuture<Void> removeFinal(Collection<Command> commands);
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesce command lifecycle writes in unordered MongoDB bulk operations.
+ * <p>
+ * Writes are queued and flushed every {@code flushInterval} or as soon as {@code maxBatchSize} writes are pending.
+ * Each write completes a future with {@literal true} if it was applied, {@literal false} if the command
+ * was already present (insert) or was not in the expected status (update).
+ * <p>
+ * Two writes on the same command are never sent in the same batch, the second one is deferred to the next batch
+ * so that the order of writes on a given command is preserved.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = CommandStore.BACKEND_PROPERTY, havingValue = "mongo", matchIfMissing = true)
+public class CommandWriteBatcher {
+
+    static final String BATCH_SIZE_METRIC_NAME = "iexec.command.write-batch.size";
+    static final String FLUSH_METRIC_NAME = "iexec.command.write-batch.flush";
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxBatchSize;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWriteCount = new AtomicInteger();
+    // writes deferred to the next batch, only accessed while holding the flush lock
+    private final Deque<PendingWrite> deferredWrites = new ArrayDeque<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flushExecutor;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    public CommandWriteBatcher(final MongoTemplate mongoTemplate,
+                               @Value("${command.write-batch.flush-interval}") final Duration flushInterval,
+                               @Value("${command.write-batch.max-size}") final int maxBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeSummary = Metrics.summary(BATCH_SIZE_METRIC_NAME);
+        this.flushTimer = Metrics.timer(FLUSH_METRIC_NAME);
+        // a dedicated thread, flushes must not wait behind other scheduled tasks
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "command-write-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long intervalMillis = Math.max(1L, flushInterval.toMillis());
+        flushExecutor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue the insertion of a new command.
+     *
+     * @param command command to insert
+     * @return a future completed with {@literal true} if inserted, {@literal false} if the command already exists
+     */
+    public CompletableFuture<Boolean> insert(final Command command) {
+        return submit(new PendingWrite(command.getChainObjectId(), command.getCommandName(), command,
+                null, null, null, null));
+    }
+
+    /**
+     * Queue a status transition of an existing command.
+     *
+     * @param chainObjectId  on-chain object ID
+     * @param commandName    command applied to the on-chain object
+     * @param expectedStatus status the command must have for the transition to be applied
+     * @param update         update to apply, it must set {@code dateFieldName} to {@code date}
+     * @param dateFieldName  name of the date field set by the transition
+     * @param date           value of the date field set by the transition
+     * @return a future completed with {@literal true} if updated, {@literal false} if the command was not found
+     * in the expected status
+     */
+    public CompletableFuture<Boolean> update(final String chainObjectId,
+                                             final CommandName commandName,
+                                             final CommandStatus expectedStatus,
+                                             final Update update,
+                                             final String dateFieldName,
+                                             final Instant date) {
+        final Query query = Query.query(Criteria.where("chainObjectId").is(chainObjectId)
+                .and("commandName").is(commandName)
+                .and("status").is(expectedStatus));
+        return submit(new PendingWrite(chainObjectId, commandName, null, query, update, dateFieldName, date));
+    }
+
+    private CompletableFuture<Boolean> submit(final PendingWrite write) {
+        pendingWrites.add(write);
+        if (pendingWriteCount.incrementAndGet() >= maxBatchSize) {
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // shutting down, no more scheduled flushes
+                flush();
+            }
+        }
+        return write.future();
+    }
+
+    /**
+     * Flush all pending writes, batch by batch.
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            while (!deferredWrites.isEmpty() || pendingWriteCount.get() > 0) {
+                flushBatch(nextBatch());
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush command writes", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<PendingWrite> nextBatch() {
+        final List<PendingWrite> batch = new ArrayList<>();
+        final Set<CommandKey> batchKeys = new HashSet<>();
+        final Deque<PendingWrite> deferred = new ArrayDeque<>();
+        // deferred writes are older than pending ones and go first
+        PendingWrite write;
+        while (batch.size() < maxBatchSize && (write = nextWrite()) != null) {
+            if (batchKeys.add(write.key())) {
+                batch.add(write);
+            } else {
+                deferred.add(write);
+            }
+        }
+        deferred.descendingIterator().forEachRemaining(deferredWrites::addFirst);
+        return batch;
+    }
+
+    private PendingWrite nextWrite() {
+        if (!deferredWrites.isEmpty()) {
+            return deferredWrites.pollFirst();
+        }
+        final PendingWrite write = pendingWrites.poll();
+        if (write != null) {
+            pendingWriteCount.decrementAndGet();
+        }
+        return write;
+    }
+
+    private void flushBatch(final List<PendingWrite> pendingBatch) {
+        final BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Command.class);
+        final List<PendingWrite> batch = new ArrayList<>();
+        for (final PendingWrite write : pendingBatch) {
+            try {
+                if (write.command() != null) {
+                    bulkOperations.insert(write.command());
+                } else {
+                    bulkOperations.updateOne(write.query(), write.update());
+                }
+                batch.add(write);
+            } catch (Exception e) {
+                // the write cannot be mapped to a MongoDB operation, do not fail the whole batch
+                write.future().completeExceptionally(e);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizeSummary.record(batch.size());
+        final long start = System.nanoTime();
+        BulkWriteResult result;
+        Set<Integer> failedIndexes = Set.of();
+        try {
+            result = bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            // unordered writes: other writes of the batch have been applied
+            result = e.getResult();
+            failedIndexes = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+        } catch (Exception e) {
+            log.error("Failed to execute command writes batch [size:{}]", batch.size(), e);
+            batch.forEach(write -> write.future().completeExceptionally(e));
+            return;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            completeWrites(batch, result, failedIndexes);
+        } catch (Exception e) {
+            // writers must never be left waiting, writes already completed are not affected
+            log.error("Failed to complete command writes batch [size:{}]", batch.size(), e);
+            batch.forEach(write -> write.future().completeExceptionally(e));
+        }
+    }
+
+    private void completeWrites(final List<PendingWrite> batch,
+                                final BulkWriteResult result,
+                                final Set<Integer> failedIndexes) {
+        final List<PendingWrite> updates = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            final PendingWrite write = batch.get(i);
+            if (failedIndexes.contains(i)) {
+                log.warn("Failed to write command [chainObjectId:{}, commandName:{}]",
+                        write.chainObjectId(), write.commandName());
+                write.future().complete(false);
+            } else if (write.command() != null) {
+                write.future().complete(true);
+            } else {
+                updates.add(write);
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        if (result.getModifiedCount() == updates.size()) {
+            updates.forEach(write -> write.future().complete(true));
+            return;
+        }
+        // bulk results are aggregated, find out which updates have been applied
+        final Set<CommandKey> appliedKeys = findAppliedUpdates(updates);
+        updates.forEach(write -> write.future().complete(appliedKeys.contains(write.key())));
+    }
+
+    /**
+     * Find updates which have been applied, an applied update has set its own date on the command.
+     */
+    private Set<CommandKey> findAppliedUpdates(final List<PendingWrite> updates) {
+        final Map<CommandKey, PendingWrite> updatesByKey = updates.stream()
+                .collect(Collectors.toMap(PendingWrite::key, write -> write));
+        final Query query = Query.query(Criteria.where("chainObjectId")
+                .in(updates.stream().map(PendingWrite::chainObjectId).collect(Collectors.toSet())));
+        query.fields().include("chainObjectId", "commandName");
+        updates.stream().map(PendingWrite::dateFieldName).distinct().forEach(query.fields()::include);
+        final Set<CommandKey> appliedKeys = new HashSet<>();
+        for (final Command command : mongoTemplate.find(query, Command.class)) {
+            final CommandKey key = new CommandKey(command.getChainObjectId(), command.getCommandName());
+            final PendingWrite write = updatesByKey.get(key);
+            if (write != null && write.isAppliedOn(command)) {
+                appliedKeys.add(key);
+            }
+        }
+        return appliedKeys;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private record CommandKey(String chainObjectId, CommandName commandName) {
+    }
+
+    private record PendingWrite(String chainObjectId,
+                                CommandName commandName,
+                                Command command,
+                                Query query,
+                                Update update,
+                                String dateFieldName,
+                                Instant date,
+                                CompletableFuture<Boolean> future) {
+
+        PendingWrite(final String chainObjectId,
+                     final CommandName commandName,
+                     final Command command,
+                     final Query query,
+                     final Update update,
+                     final String dateFieldName,
+                     final Instant date) {
+            this(chainObjectId, commandName, command, query, update, dateFieldName, date, new CompletableFuture<>());
+        }
+
+        CommandKey key() {
+            return new CommandKey(chainObjectId, commandName);
+        }
+
+        boolean isAppliedOn(final Command stored) {
+            final Instant storedDate = (Instant) PropertyAccessorFactory.forBeanPropertyAccess(stored)
+                    .getPropertyValue(dateFieldName);
+            // MongoDB stores dates with a millisecond precision
+            return storedDate != null && storedDate.toEpochMilli() == date.toEpochMilli();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deficit round robin over tenants of a {@link CommandQueue} priority class.
+ * <p>
+ * Active tenants are served in turn. At the start of its turn, the deficit of a tenant is credited with its quantum,
+ * the tenant is then served as long as it has a positive deficit and waiting commands.
+ * A turn interrupted because no more commands can be claimed is resumed on the next call without a new credit.
+ * A tenant without waiting commands leaves the round and loses its deficit.
+ * <p>
+ * All commands have a cost of 1, a tenant with a quantum of {@code n} gets {@code n} commands per round.
+ */
+class DeficitRoundRobin {
+
+    private final ToIntFunction<String> quantums;
+    // tenant ID of commands queued before tenants were introduced is null
+    private final Deque<String> activeTenants = new LinkedList<>();
+    private final Map<String, Integer> deficits = new HashMap<>();
+    private boolean turnStarted;
+
+    DeficitRoundRobin(final ToIntFunction<String> quantums) {
+        this.quantums = quantums;
+    }
+
+    /**
+     * Select the tenants of the next commands to claim.
+     *
+     * @param backlogs    number of waiting commands by tenant ID, tenants missing from the map have no waiting command,
+     *                    new tenants join the round in the iteration order of the map
+     * @param maxCommands maximum number of commands to claim
+     * @return tenant IDs, one entry per command to claim, in claim order
+     */
+    synchronized List<String> schedule(final Map<String, Long> backlogs, final int maxCommands) {
+        if (!backlogs.containsKey(activeTenants.peekFirst())) {
+            turnStarted = false;
+        }
+        activeTenants.removeIf(tenantId -> !backlogs.containsKey(tenantId));
+        deficits.keySet().retainAll(backlogs.keySet());
+        backlogs.keySet().stream()
+                .filter(tenantId -> !deficits.containsKey(tenantId))
+                .forEach(tenantId -> {
+                    activeTenants.addLast(tenantId);
+                    deficits.put(tenantId, 0);
+                });
+
+        final Map<String, Long> remaining = new HashMap<>(backlogs);
+        final List<String> scheduled = new ArrayList<>(maxCommands);
+        while (scheduled.size() < maxCommands && !activeTenants.isEmpty()) {
+            final String tenantId = activeTenants.peekFirst();
+            int deficit = deficits.get(tenantId);
+            if (!turnStarted) {
+                deficit += quantums.applyAsInt(tenantId);
+                turnStarted = true;
+            }
+            final long served = Math.min(deficit, Math.min(remaining.get(tenantId), maxCommands - scheduled.size()));
+            for (int i = 0; i < served; i++) {
+                scheduled.add(tenantId);
+            }
+            deficit -= (int) served;
+            final long left = remaining.merge(tenantId, -served, Long::sum);
+            if (left <= 0) {
+                // nothing left to claim for this tenant in the current backlog
+                activeTenants.pollFirst();
+                deficits.remove(tenantId);
+                turnStarted = false;
+            } else if (deficit <= 0) {
+                activeTenants.addLast(activeTenants.pollFirst());
+                deficits.put(tenantId, 0);
+                turnStarted = false;
+            } else {
+                // turn interrupted, resumed on next call
+                deficits.put(tenantId, deficit);
+            }
+        }
+        return scheduled;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Weights of the deficit round robin serving tenants of the {@link CommandQueue}.
+ */
+@Value
+@Builder
+@Validated
+@ConfigurationProperties(prefix = "command.queue.fairness")
+public class FairQueuingConfig {
+
+    /**
+     * Number of commands claimed for a tenant of weight 1 at each round.
+     */
+    @Positive(message = "Fair queuing quantum must be greater than 0")
+    int quantum;
+
+    /**
+     * Weights by tenant ID, tenants which are not listed have a weight of 1.
+     */
+    Map<String, @Positive(message = "Fair queuing weights must be greater than 0") Integer> weights;
+
+    /**
+     * Get the number of commands claimed for a tenant at each round.
+     *
+     * @param tenantId ID of the tenant
+     * @return the quantum multiplied by the weight of the tenant
+     */
+    public int getQuantum(final String tenantId) {
+        final Integer weight = weights != null && tenantId != null ? weights.get(tenantId) : null;
+        return quantum * (weight != null ? weight : 1);
+    }
+}
@@ -0,0 +1,613 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link CommandStore} backed by an embedded append-only journal, for single-node deployments.
+ * <p>
+ * Each write appends the whole new state of a command to the active segment, a memory-mapped file of
+ * {@code segmentSize} bytes. Records are the BSON documents MongoDB would store, prefixed by their length
+ * and a CRC32 checksum. An in-memory index holds the location and the status of the latest record of each command,
+ * it is rebuilt by replaying all segments at startup. A torn record at the end of the journal is discarded.
+ * <p>
+ * Segments are fsynced every {@code groupCommitInterval}, the futures of all writes appended in the meantime
+ * are completed after the fsync: a write is acknowledged only once durable.
+ * Sealed segments mostly holding superseded records are compacted: their live records are appended again
+ * to the active segment, then the segment file is deleted.
+ * <p>
+ * Archived commands are removed by appending a tombstone record, which drops the command from the index on replay.
+ * A tombstone is kept by compactions as long as an older segment may still hold a record of its command.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = CommandStore.BACKEND_PROPERTY, havingValue = "journal")
+public class JournalCommandStore implements CommandStore {
+
+    static final String FSYNC_METRIC_NAME = "iexec.command.journal.fsync";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // record length and CRC32 of the record payload
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final double MIN_LIVE_RATIO = 0.5;
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+    private static final String REMOVED_FIELD = "removed";
+
+    private final MongoConverter mongoConverter;
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<CommandKey, RecordLocation> index = new ConcurrentHashMap<>();
+    // fields below are only accessed while holding the write lock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<CompletableFuture<Boolean>> pendingCommits = new ArrayList<>();
+    private final Set<Segment> dirtySegments = new HashSet<>();
+    private final Map<CommandKey, RecordLocation> tombstones = new HashMap<>();
+    private Segment activeSegment;
+    private final ScheduledExecutorService flushExecutor;
+    private final Timer fsyncTimer;
+
+    public JournalCommandStore(final MongoConverter mongoConverter,
+                               @Value("${command.storage.journal.directory}") final Path directory,
+                               @Value("${command.storage.journal.segment-size}") final DataSize segmentSize,
+                               @Value("${command.storage.journal.group-commit-interval}") final Duration groupCommitInterval) throws IOException {
+        this.mongoConverter = mongoConverter;
+        this.directory = directory;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsyncTimer = Metrics.timer(FSYNC_METRIC_NAME);
+        Files.createDirectories(directory);
+        replay();
+        // a dedicated thread, group commits must not wait behind other scheduled tasks
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "command-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long intervalMicros = Math.max(1L, groupCommitInterval.toNanos() / 1000);
+        flushExecutor.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    // region replay
+    private void replay() throws IOException {
+        final List<Path> segmentPaths;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segmentPaths = paths.filter(path -> getSegmentId(path) >= 0)
+                    .sorted(Comparator.comparingLong(JournalCommandStore::getSegmentId))
+                    .toList();
+        }
+        for (final Path path : segmentPaths) {
+            final Segment segment = Segment.open(getSegmentId(path), path, Files.size(path));
+            segments.put(segment.id, segment);
+            replaySegment(segment);
+        }
+        if (segments.isEmpty()) {
+            activeSegment = createSegment(0);
+        } else {
+            activeSegment = segments.lastEntry().getValue();
+            // erase a torn record so that it is not read again after the next appends
+            final MappedByteBuffer buffer = activeSegment.buffer;
+            for (int offset = activeSegment.position; offset < buffer.capacity(); offset++) {
+                buffer.put(offset, (byte) 0);
+            }
+        }
+        log.info("Replayed command journal [directory:{}, segments:{}, commands:{}]",
+                directory, segments.size(), index.size());
+    }
+
+    private void replaySegment(final Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            final int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            final byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_SIZE, payload);
+            if (buffer.getInt(offset + Integer.BYTES) != checksum(payload)) {
+                log.warn("Discarding torn record of command journal [segment:{}, offset:{}]", segment.id, offset);
+                break;
+            }
+            final Document document = decodeDocument(payload);
+            if (document.getBoolean(REMOVED_FIELD, false)) {
+                indexTombstone(getKey(document), segment, offset);
+            } else {
+                final Command command = mongoConverter.read(Command.class, document);
+                index(new CommandKey(command.getChainObjectId(), command.getCommandName()), command, segment, offset);
+            }
+            segment.records++;
+            offset += HEADER_SIZE + length;
+        }
+        segment.position = offset;
+    }
+
+    private static long getSegmentId(final Path path) {
+        final String fileName = path.getFileName().toString();
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName, SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    // endregion
+
+    // region CommandStore
+    @Override
+    public CompletableFuture<Boolean> insert(final Command command) {
+        final CommandKey key = new CommandKey(command.getChainObjectId(), command.getCommandName());
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        writeLock.lock();
+        try {
+            if (index.containsKey(key)) {
+                future.complete(false);
+            } else {
+                if (command.getId() == null) {
+                    // the ID MongoDB would generate, it identifies the command once archived
+                    command.setId(new ObjectId().toHexString());
+                }
+                append(key, command);
+                pendingCommits.add(future);
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            writeLock.unlock();
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> update(final String chainObjectId,
+                                             final CommandName commandName,
+                                             final CommandStatus expectedStatus,
+                                             final Update update,
+                                             final String dateFieldName,
+                                             final Instant date) {
+        final CommandKey key = new CommandKey(chainObjectId, commandName);
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        writeLock.lock();
+        try {
+            final RecordLocation location = index.get(key);
+            if (location == null || location.status() != expectedStatus) {
+                future.complete(false);
+            } else {
+                final Command command = read(location);
+                apply(command, update);
+                append(key, command);
+                pendingCommits.add(future);
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            writeLock.unlock();
+        }
+        return future;
+    }
+
+    @Override
+    public Map<String, CommandStatus> findStatuses(final Collection<String> chainObjectIds,
+                                                   final CommandName commandName) {
+        final Map<String, CommandStatus> statuses = new HashMap<>();
+        for (final String chainObjectId : chainObjectIds) {
+            final RecordLocation location = index.get(new CommandKey(chainObjectId, commandName));
+            if (location != null) {
+                statuses.put(chainObjectId, location.status());
+            }
+        }
+        return statuses;
+    }
+
+    @Override
+    public Stream<Command> streamByStatus(final CommandStatus status) {
+        final Comparator<RecordLocation> creationOrder = Comparator.comparing(RecordLocation::creationDate,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        return index.entrySet().stream()
+                .filter(entry -> entry.getValue().status() == status)
+                .sorted(Map.Entry.comparingByValue(creationOrder))
+                .map(entry -> read(entry.getKey()))
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public List<Command> findFinal(final Instant finalBefore, final int limit) {
+        return index.entrySet().stream()
+                .filter(entry -> entry.getValue().status().isFinal()
+                        && entry.getValue().finalDate() != null
+                        && entry.getValue().finalDate().isBefore(finalBefore))
+                .sorted(Map.Entry.comparingByValue(Comparator.comparing(RecordLocation::finalDate)))
+                .limit(limit)
+                .map(entry -> read(entry.getKey()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public long countFinal(final Instant finalFrom, final Instant finalBefore) {
+        return index.values().stream()
+                .filter(location -> location.status().isFinal()
+                        && location.finalDate() != null
+                        && !location.finalDate().isBefore(finalFrom)
+                        && location.finalDate().isBefore(finalBefore))
+                .count();
+    }
+
+    @Override
+    public CompletableFuture<Void> removeFinal(final Collection<Command> commands) {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        writeLock.lock();
+        try {
+            for (final Command command : commands) {
+                final CommandKey key = new CommandKey(command.getChainObjectId(), command.getCommandName());
+                final RecordLocation location = index.get(key);
+                if (location != null && location.status().isFinal()) {
+                    appendTombstone(key);
+                }
+            }
+            pendingCommits.add(future);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            writeLock.unlock();
+        }
+        return future.thenApply(removed -> null);
+    }
+    // endregion
+
+    // region records
+    /**
+     * Append the new state of a command to the active segment and index it, the write lock must be held.
+     */
+    private void append(final CommandKey key, final Command command) throws IOException {
+        final int offset = append(encode(command));
+        index(key, command, activeSegment, offset);
+    }
+
+    /**
+     * Append a tombstone of a command to the active segment and drop the command from the index,
+     * the write lock must be held.
+     */
+    private void appendTombstone(final CommandKey key) throws IOException {
+        final Document document = new Document("chainObjectId", key.chainObjectId())
+                .append("commandName", key.commandName().name())
+                .append(REMOVED_FIELD, true);
+        final int offset = append(encode(document));
+        indexTombstone(key, activeSegment, offset);
+    }
+
+    /**
+     * Append a record to the active segment, the write lock must be held.
+     *
+     * @return offset of the record in the active segment
+     */
+    private int append(final byte[] payload) throws IOException {
+        final int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Command record is larger than a journal segment [recordSize:"
+                    + recordSize + ", segmentSize:" + segmentSize + "]");
+        }
+        if (activeSegment.position + recordSize > activeSegment.buffer.capacity()) {
+            dirtySegments.add(activeSegment);
+            activeSegment = createSegment(activeSegment.id + 1);
+        }
+        final MappedByteBuffer buffer = activeSegment.buffer;
+        final int offset = activeSegment.position;
+        buffer.putInt(offset + Integer.BYTES, checksum(payload));
+        buffer.put(offset + HEADER_SIZE, payload);
+        // length is written last, a record is not readable before being complete
+        buffer.putInt(offset, payload.length);
+        activeSegment.position += recordSize;
+        activeSegment.records++;
+        dirtySegments.add(activeSegment);
+        return offset;
+    }
+
+    private void index(final CommandKey key, final Command command, final Segment segment, final int offset) {
+        final RecordLocation previous = index.put(key, new RecordLocation(segment.id, offset,
+                command.getStatus(), command.getCreationDate(), command.getFinalDate()));
+        segment.liveRecords.incrementAndGet();
+        release(previous);
+        // a command inserted again after its removal
+        final RecordLocation tombstone = tombstones.remove(key);
+        if (tombstone != null) {
+            release(tombstone);
+            getSegment(tombstone).ifPresent(tombstoneSegment -> tombstoneSegment.tombstones--);
+        }
+    }
+
+    private void indexTombstone(final CommandKey key, final Segment segment, final int offset) {
+        release(index.remove(key));
+        final RecordLocation previous = tombstones.put(key, new RecordLocation(segment.id, offset, null, null, null));
+        if (previous != null) {
+            release(previous);
+            getSegment(previous).ifPresent(previousSegment -> previousSegment.tombstones--);
+        }
+        segment.liveRecords.incrementAndGet();
+        segment.tombstones++;
+    }
+
+    /**
+     * Account for a superseded record in its segment.
+     */
+    private void release(final RecordLocation location) {
+        if (location != null) {
+            getSegment(location).ifPresent(segment -> segment.liveRecords.decrementAndGet());
+        }
+    }
+
+    private Optional<Segment> getSegment(final RecordLocation location) {
+        return Optional.ofNullable(segments.get(location.segmentId()));
+    }
+
+    /**
+     * Read the latest state of a command, retrying if its record has been moved by a compaction meanwhile.
+     */
+    private Command read(final CommandKey key) {
+        RecordLocation location = index.get(key);
+        while (location != null) {
+            final Segment segment = segments.get(location.segmentId());
+            if (segment != null) {
+                return read(segment, location.offset());
+            }
+            location = index.get(key);
+        }
+        return null;
+    }
+
+    private Command read(final RecordLocation location) {
+        return read(segments.get(location.segmentId()), location.offset());
+    }
+
+    private Command read(final Segment segment, final int offset) {
+        final MappedByteBuffer buffer = segment.buffer;
+        final byte[] payload = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER_SIZE, payload);
+        return decode(payload);
+    }
+
+    private byte[] encode(final Command command) {
+        final Document document = new Document();
+        mongoConverter.write(command, document);
+        return encode(document);
+    }
+
+    private static byte[] encode(final Document document) {
+        final ByteBuf byteBuffer = new RawBsonDocument(document, DOCUMENT_CODEC).getByteBuffer();
+        final byte[] payload = new byte[byteBuffer.remaining()];
+        byteBuffer.get(payload);
+        return payload;
+    }
+
+    private Command decode(final byte[] payload) {
+        return mongoConverter.read(Command.class, decodeDocument(payload));
+    }
+
+    private static Document decodeDocument(final byte[] payload) {
+        return new RawBsonDocument(payload).decode(DOCUMENT_CODEC);
+    }
+
+    private static CommandKey getKey(final Document document) {
+        return new CommandKey(document.getString("chainObjectId"),
+                CommandName.valueOf(document.getString("commandName")));
+    }
+
+    private static void apply(final Command command, final Update update) {
+        final Document updateObject = update.getUpdateObject();
+        final BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(command);
+        updateObject.forEach((operator, fields) -> {
+            if (!"$set".equals(operator)) {
+                throw new IllegalArgumentException("Unsupported update operator [operator:" + operator + "]");
+            }
+            ((Document) fields).forEach(wrapper::setPropertyValue);
+        });
+    }
+
+    private static int checksum(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+    // endregion
+
+    // region segments
+    private Segment createSegment(final long id) throws IOException {
+        final Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        final Segment segment = Segment.open(id, path, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Fsync segments written since the last group commit, then acknowledge the pending writes.
+     */
+    void flush() {
+        final List<CompletableFuture<Boolean>> commits;
+        final List<Segment> segmentsToSync;
+        writeLock.lock();
+        try {
+            if (pendingCommits.isEmpty() && dirtySegments.isEmpty()) {
+                return;
+            }
+            commits = new ArrayList<>(pendingCommits);
+            pendingCommits.clear();
+            segmentsToSync = new ArrayList<>(dirtySegments);
+            dirtySegments.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            fsyncTimer.record(() -> segmentsToSync.forEach(segment -> segment.buffer.force()));
+            commits.forEach(commit -> commit.complete(true));
+        } catch (Exception e) {
+            log.error("Failed to sync command journal [segments:{}, writes:{}]", segmentsToSync.size(), commits.size(), e);
+            commits.forEach(commit -> commit.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Compact sealed segments holding less than half of live records.
+     * <p>
+     * Tombstones are live records, except in the oldest segment: no older record of their command remains.
+     *
+     * @return number of deleted segments
+     */
+    @Scheduled(fixedDelayString = "${command.storage.journal.compaction-interval}")
+    int compact() {
+        int deletedSegments = 0;
+        for (final Segment segment : List.copyOf(segments.values())) {
+            writeLock.lock();
+            try {
+                final boolean oldest = segments.firstKey() == segment.id;
+                final int liveRecords = segment.liveRecords.get() - (oldest ? segment.tombstones : 0);
+                if (segment == activeSegment || liveRecords >= segment.records * MIN_LIVE_RATIO) {
+                    continue;
+                }
+                final List<CommandKey> liveKeys = index.entrySet().stream()
+                        .filter(entry -> entry.getValue().segmentId() == segment.id)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                for (final CommandKey key : liveKeys) {
+                    append(key, read(segment, index.get(key).offset()));
+                }
+                final List<CommandKey> tombstoneKeys = tombstones.entrySet().stream()
+                        .filter(entry -> entry.getValue().segmentId() == segment.id)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                for (final CommandKey key : tombstoneKeys) {
+                    if (oldest) {
+                        tombstones.remove(key);
+                    } else {
+                        appendTombstone(key);
+                    }
+                }
+                // moved records must be durable before their previous copies are deleted
+                dirtySegments.forEach(dirtySegment -> dirtySegment.buffer.force());
+                segments.remove(segment.id);
+                dirtySegments.remove(segment);
+                segment.channel.close();
+                Files.delete(segment.path);
+                deletedSegments++;
+                log.info("Compacted command journal segment [segment:{}, movedRecords:{}, tombstones:{}, records:{}]",
+                        segment.id, liveKeys.size(), tombstoneKeys.size(), segment.records);
+            } catch (IOException e) {
+                log.error("Failed to compact command journal segment [segment:{}]", segment.id, e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return deletedSegments;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Command journal flusher did not stop on time");
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while stopping command journal flusher", e);
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        for (final Segment segment : segments.values()) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close command journal segment [segment:{}]", segment.id, e);
+            }
+        }
+    }
+    // endregion
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger liveRecords = new AtomicInteger();
+        // fields below are only accessed while holding the write lock, or during replay
+        private int position;
+        private int records;
+        private int tombstones;
+
+        private Segment(final long id, final Path path, final FileChannel channel, final MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(final long id, final Path path, final long size) throws IOException {
+            final FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    private record CommandKey(String chainObjectId, CommandName commandName) {
+    }
+
+    private record RecordLocation(long segmentId, int offset, CommandStatus status,
+                                  Instant creationDate, Instant finalDate) {
+    }
+}
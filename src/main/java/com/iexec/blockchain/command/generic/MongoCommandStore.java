@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Default {@link CommandStore}, writes are batched by the {@link CommandWriteBatcher},
+ * statuses are read through the key index as {@link CommandStatusView}s.
+ */
+@Component
+@ConditionalOnProperty(name = CommandStore.BACKEND_PROPERTY, havingValue = "mongo", matchIfMissing = true)
+public class MongoCommandStore implements CommandStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final CommandWriteBatcher commandWriteBatcher;
+
+    public MongoCommandStore(final MongoTemplate mongoTemplate, final CommandWriteBatcher commandWriteBatcher) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandWriteBatcher = commandWriteBatcher;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> insert(final Command command) {
+        return commandWriteBatcher.insert(command);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> update(final String chainObjectId,
+                                             final CommandName commandName,
+                                             final CommandStatus expectedStatus,
+                                             final Update update,
+                                             final String dateFieldName,
+                                             final Instant date) {
+        return commandWriteBatcher.update(chainObjectId, commandName, expectedStatus, update, dateFieldName, date);
+    }
+
+    @Override
+    public Map<String, CommandStatus> findStatuses(final Collection<String> chainObjectIds,
+                                                   final CommandName commandName) {
+        final Criteria criteria = chainObjectIds.size() == 1
+                ? Criteria.where("chainObjectId").is(chainObjectIds.iterator().next())
+                : Criteria.where("chainObjectId").in(chainObjectIds);
+        final Map<String, CommandStatus> statuses = new HashMap<>();
+        mongoTemplate.find(CommandStatusView.query(criteria.and("commandName").is(commandName)),
+                        CommandStatusView.class, mongoTemplate.getCollectionName(Command.class))
+                .forEach(view -> statuses.put(view.chainObjectId(), view.status()));
+        return statuses;
+    }
+
+    @Override
+    public Stream<Command> streamByStatus(final CommandStatus status) {
+        final Query query = Query.query(Criteria.where("status").is(status))
+                .with(Sort.by("creationDate"));
+        return mongoTemplate.stream(query, Command.class);
+    }
+
+    @Override
+    public List<Command> findFinal(final Instant finalBefore, final int limit) {
+        final Query query = Query.query(Criteria.where("status").in(CommandStatus.SUCCESS, CommandStatus.FAILURE, CommandStatus.EXPIRED)
+                        .and("finalDate").lt(finalBefore))
+                .with(Sort.by("finalDate"))
+                .limit(limit);
+        return mongoTemplate.find(query, Command.class);
+    }
+
+    @Override
+    public long countFinal(final Instant finalFrom, final Instant finalBefore) {
+        return mongoTemplate.count(Query.query(Criteria.where("status").in(CommandStatus.SUCCESS, CommandStatus.FAILURE, CommandStatus.EXPIRED)
+                .and("finalDate").gte(finalFrom).lt(finalBefore)), Command.class);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeFinal(final Collection<Command> commands) {
+        final List<String> ids = commands.stream().map(Command::getId).toList();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)
+                .and("status").in(CommandStatus.SUCCESS, CommandStatus.FAILURE, CommandStatus.EXPIRED)), Command.class);
+        return CompletableFuture.completedFuture(null);
+    }
+}
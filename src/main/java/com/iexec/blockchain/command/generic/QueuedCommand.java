@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Pending execution of a command, persisted in the {@link CommandQueue}.
+ * <p>
+ * Tenants of a priority class are served fairly, commands of a tenant are executed earliest
+ * {@code schedulingDeadline} first.
+ * A queued command is claimed by a single application instance for {@code leaseExpiry},
+ * it can be claimed again once its lease has expired. A command retried after a failed attempt
+ * cannot be claimed before {@code notBefore}.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@CompoundIndexes({
+        @CompoundIndex(name = "queued_command_key_idx",
+                def = "{'chainObjectId': 1, 'commandName': 1}",
+                unique = true),
+        // claim order within a tenant: earliest deadline first, then oldest first
+        @CompoundIndex(name = "queued_command_tenant_order_idx",
+                def = "{'priority': -1, 'tenantId': 1, 'schedulingDeadline': 1, 'enqueueDate': 1}")
+})
+public class QueuedCommand {
+
+    /**
+     * Step of the command workflow to execute.
+     */
+    public enum Step {
+        /**
+         * Update the command to PROCESSING then send its transaction,
+         * see {@link CommandEngine#triggerBlockchainCommand(CommandArgs)}.
+         */
+        TRIGGER,
+        /**
+         * Send the transaction of a command already in PROCESSING status,
+         * see {@link CommandEngine#reconcileBlockchainCommand}.
+         */
+        SEND,
+        /**
+         * Check the effect of a transaction already known by the node, or submitted before a restart,
+         * before sending it again, see {@link CommandEngine#confirmBlockchainCommand}.
+         */
+        CONFIRM
+    }
+
+    @Id
+    private String id;
+
+    @ValueConverter(ChainObjectIdConverter.class)
+    private String chainObjectId;
+    @ValueConverter(CommandNameConverter.class)
+    private CommandName commandName;
+    /**
+     * Tenant on behalf of which the command is performed, see {@link CommandArgs#getTenantId()}.
+     */
+    private String tenantId;
+    private boolean priority;
+    private Instant enqueueDate;
+    /**
+     * On-chain deadline after which the command would revert, null if unknown.
+     */
+    private Instant deadline;
+    /**
+     * Deadline used to order commands, the on-chain deadline capped to a maximum waiting time in the queue.
+     */
+    private Instant schedulingDeadline;
+    private Step step;
+    private CommandArgs args;
+    /**
+     * Number of failed attempts to send the transaction of the command.
+     */
+    private int attempts;
+    /**
+     * Date before which the command cannot be claimed, set on retries after a failed attempt.
+     */
+    private Instant notBefore;
+
+    private String leaseOwner;
+    private String leaseId;
+    private Instant leaseExpiry;
+
+}
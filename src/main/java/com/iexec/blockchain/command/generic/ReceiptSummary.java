@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compact summary of a {@link TransactionReceipt} stored in a {@link Command}.
+ * <p>
+ * Logs bloom, cumulative gas and raw logs are dropped.
+ * Logs emitted by the iExec hub are kept as {@link HubEvent}s identified by their name, other logs are dropped.
+ *
+ * @param transactionHash   hash of the transaction
+ * @param blockNumber       number of the block including the transaction
+ * @param gasUsed           gas used by the transaction
+ * @param effectiveGasPrice gas price paid by the transaction, in wei
+ * @param status            raw status, {@literal 0x1} on success and {@literal 0x0} on revert
+ * @param revertReason      revert reason when available
+ * @param events            iExec hub events emitted by the transaction
+ */
+public record ReceiptSummary(String transactionHash,
+                             Long blockNumber,
+                             Long gasUsed,
+                             Long effectiveGasPrice,
+                             String status,
+                             String revertReason,
+                             List<HubEvent> events) {
+
+    /**
+     * Event emitted by the iExec hub.
+     *
+     * @param name   name of the event
+     * @param topics indexed arguments of the event, event signature excluded
+     */
+    public record HubEvent(String name, List<String> topics) {
+    }
+
+    private static final Map<String, String> HUB_EVENT_NAMES = Stream.of(
+                    "SchedulerNotice(address,bytes32)",
+                    "OrdersMatched(bytes32,bytes32,bytes32,bytes32,bytes32,uint256)",
+                    "TaskInitialize(bytes32,address)",
+                    "TaskContribute(bytes32,address,bytes32)",
+                    "TaskConsensus(bytes32,bytes32)",
+                    "TaskReveal(bytes32,address,bytes32)",
+                    "TaskReopen(bytes32)",
+                    "TaskFinalize(bytes32,bytes)",
+                    "TaskClaimed(bytes32)",
+                    "AccurateContribution(address,bytes32)",
+                    "FaultyContribution(address,bytes32)",
+                    "Transfer(address,address,uint256)",
+                    "Lock(address,uint256)",
+                    "Unlock(address,uint256)",
+                    "Reward(address,uint256,bytes32)",
+                    "Seize(address,uint256,bytes32)")
+            .collect(Collectors.toUnmodifiableMap(Hash::sha3String, signature -> signature.substring(0, signature.indexOf('('))));
+
+    /**
+     * Summarize a transaction receipt.
+     *
+     * @param receipt receipt to summarize, may be null
+     * @return the summary, null if the receipt is null
+     */
+    public static ReceiptSummary of(final TransactionReceipt receipt) {
+        if (receipt == null) {
+            return null;
+        }
+        final List<HubEvent> events = receipt.getLogs() == null ? List.of() : receipt.getLogs().stream()
+                .map(ReceiptSummary::toHubEvent)
+                .flatMap(Stream::ofNullable)
+                .toList();
+        return new ReceiptSummary(
+                receipt.getTransactionHash(),
+                decodeQuantity(receipt.getBlockNumberRaw()),
+                decodeQuantity(receipt.getGasUsedRaw()),
+                decodeQuantity(receipt.getEffectiveGasPrice()),
+                receipt.getStatus(),
+                receipt.getRevertReason(),
+                events);
+    }
+
+    private static HubEvent toHubEvent(final Log log) {
+        if (log.getTopics() == null || log.getTopics().isEmpty()) {
+            return null;
+        }
+        final String name = HUB_EVENT_NAMES.get(log.getTopics().get(0));
+        return name == null ? null : new HubEvent(name, List.copyOf(log.getTopics().subList(1, log.getTopics().size())));
+    }
+
+    private static Long decodeQuantity(final String quantity) {
+        return quantity == null ? null : Numeric.decodeQuantity(quantity).longValueExact();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.util.List;
+
+/**
+ * Replace full transaction receipts stored in commands by older versions with {@link ReceiptSummary}s.
+ * <p>
+ * Commands are migrated in batches at startup. Full receipts are moved to the {@link CommandReceipt} collection
+ * when {@code command.receipt.keep-full} is enabled, they are dropped otherwise.
+ */
+@Slf4j
+@Component
+public class ReceiptSummaryMigration {
+
+    static final String LEGACY_RECEIPT_FIELD_NAME = "transactionReceipt";
+    static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean keepFullReceipt;
+
+    public ReceiptSummaryMigration(final MongoTemplate mongoTemplate,
+                                   @Value("${command.receipt.keep-full}") final boolean keepFullReceipt) {
+        this.mongoTemplate = mongoTemplate;
+        this.keepFullReceipt = keepFullReceipt;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void migrate() {
+        final String collectionName = mongoTemplate.getCollectionName(Command.class);
+        final Query query = Query.query(Criteria.where(LEGACY_RECEIPT_FIELD_NAME).exists(true)).limit(BATCH_SIZE);
+        query.fields().include("chainObjectId", "commandName", LEGACY_RECEIPT_FIELD_NAME);
+        int migrated = 0;
+        List<Document> commands = mongoTemplate.find(query, Document.class, collectionName);
+        while (!commands.isEmpty()) {
+            migrateBatch(commands);
+            migrated += commands.size();
+            commands = mongoTemplate.find(query, Document.class, collectionName);
+        }
+        if (migrated > 0) {
+            log.info("Migrated transaction receipts to receipt summaries [count:{}, keepFullReceipt:{}]",
+                    migrated, keepFullReceipt);
+        }
+    }
+
+    private void migrateBatch(final List<Document> commands) {
+        final BulkOperations commandOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Command.class);
+        final BulkOperations receiptOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CommandReceipt.class);
+        int receiptCount = 0;
+        for (final Document command : commands) {
+            final Document rawReceipt = command.get(LEGACY_RECEIPT_FIELD_NAME, Document.class);
+            final TransactionReceipt receipt = rawReceipt == null
+                    ? null
+                    : mongoTemplate.getConverter().read(TransactionReceipt.class, rawReceipt);
+            final Update update = new Update()
+                    .set("receiptSummary", ReceiptSummary.of(receipt))
+                    .unset(LEGACY_RECEIPT_FIELD_NAME);
+            commandOperations.updateOne(Query.query(Criteria.where("_id").is(command.get("_id"))), update);
+            if (keepFullReceipt && receipt != null) {
+                // keys may not have been migrated by CommandKeyMigration yet
+                final Query receiptQuery = Query.query(Criteria.where("chainObjectId")
+                        .is(ChainObjectIdConverter.toHex(command.get("chainObjectId")))
+                        .and("commandName").is(CommandNameConverter.toCommandName(command.get("commandName"))));
+                receiptOperations.upsert(receiptQuery, new Update().set(LEGACY_RECEIPT_FIELD_NAME, receipt));
+                receiptCount++;
+            }
+        }
+        if (receiptCount > 0) {
+            receiptOperations.execute();
+        }
+        commandOperations.execute();
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,27 +17,88 @@
 package com.iexec.blockchain.command.task;
 
 import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.api.PollingHints;
+import com.iexec.blockchain.api.TaskContributeRequest;
+import com.iexec.blockchain.api.TaskRevealRequest;
+import com.iexec.blockchain.chain.ChainConfig;
 import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandRejectedException;
+import com.iexec.blockchain.command.task.claim.TaskClaimService;
+import com.iexec.blockchain.command.task.contribute.TaskContributeService;
 import com.iexec.blockchain.command.task.finalize.TaskFinalizeService;
 import com.iexec.blockchain.command.task.initialize.TaskInitializeService;
+import com.iexec.blockchain.command.task.reveal.TaskRevealService;
+import com.iexec.blockchain.webhook.WebhookService;
 import com.iexec.common.chain.adapter.args.TaskFinalizeArgs;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import static com.iexec.blockchain.swagger.OpenApiConfig.SWAGGER_BASIC_AUTH;
 
+@Slf4j
 @RestController
 @RequestMapping("/v1/tasks")
 public class TaskController {
 
+    static final int MAX_STATUS_BATCH_SIZE = 1000;
+    static final CacheControl FINAL_STATUS_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePrivate()
+            .immutable();
+    static final CacheControl STATUS_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final TaskInitializeService taskInitializeService;
+    private final TaskContributeService taskContributeService;
+    private final TaskRevealService taskRevealService;
     private final TaskFinalizeService taskFinalizeService;
+    private final TaskClaimService taskClaimService;
+    private final WebhookService webhookService;
+    private final ChainConfig chainConfig;
+    private final CommandQueue commandQueue;
 
-    public TaskController(final TaskInitializeService taskInitializeService, final TaskFinalizeService taskFinalizeService) {
+    public TaskController(final TaskInitializeService taskInitializeService,
+                          final TaskContributeService taskContributeService,
+                          final TaskRevealService taskRevealService,
+                          final TaskFinalizeService taskFinalizeService,
+                          final TaskClaimService taskClaimService,
+                          final WebhookService webhookService,
+                          final ChainConfig chainConfig,
+                          final CommandQueue commandQueue) {
         this.taskInitializeService = taskInitializeService;
+        this.taskContributeService = taskContributeService;
+        this.taskRevealService = taskRevealService;
         this.taskFinalizeService = taskFinalizeService;
+        this.taskClaimService = taskClaimService;
+        this.webhookService = webhookService;
+        this.chainConfig = chainConfig;
+        this.commandQueue = commandQueue;
+    }
+
+    /**
+     * Read hints allowing clients to adapt the polling frequency of command statuses.
+     *
+     * @return block time, total number of queued commands and max number of transactions sent per block
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @GetMapping("/polling-hints")
+    public ResponseEntity<PollingHints> getPollingHints() {
+        return ResponseEntity.ok(new PollingHints(
+                chainConfig.getBlockTime().toMillis(),
+                (int) commandQueue.size(),
+                chainConfig.getMaxAllowedTxPerBlock()));
     }
 
     /**
@@ -45,14 +106,21 @@ public class TaskController {
      *
      * @param chainDealId blockchain deal ID
      * @param taskIndex   index of the task int the bag
-     * @return blockchain task ID if successful
+     * @param callbackUrl optional URL notified when the command is completed
+     * @return lowercase blockchain task ID if successful, 429 with a {@code Retry-After} header if the queue is overloaded,
+     * 422 if the on-chain deadline of the command cannot be met
      */
     @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
     @PostMapping("/initialize")
     public ResponseEntity<String> requestInitializeTask(@RequestParam String chainDealId,
-                                                        @RequestParam int taskIndex) {
+                                                        @RequestParam int taskIndex,
+                                                        @RequestParam(required = false) String callbackUrl) {
+        if (callbackUrl != null && !webhookService.isValidUrl(callbackUrl)) {
+            return ResponseEntity.badRequest().build();
+        }
         final String chainTaskId = taskInitializeService.start(chainDealId, taskIndex);
         if (!chainTaskId.isEmpty()) {
+            subscribe(chainTaskId, CommandName.TASK_INITIALIZE, callbackUrl);
             return ResponseEntity.ok(chainTaskId);
         }
         return ResponseEntity.badRequest().build();
@@ -60,16 +128,157 @@ public class TaskController {
 
     /**
      * Read status for the asynchronous `initialize task` blockchain remote call.
+     * <p>
+     * The response carries the status as entity tag, final statuses are sent as immutable.
      *
      * @param chainTaskId blockchain ID of the task
-     * @return status
+     * @param ifNoneMatch optional entity tag of the status already known by the caller
+     * @return status, or 304 if the status matches the {@code If-None-Match} header
      */
     @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
     @GetMapping("/initialize/{chainTaskId}/status")
-    public ResponseEntity<CommandStatus> getStatusForInitializeTaskRequest(@PathVariable String chainTaskId) {
-        return taskInitializeService.getStatusForCommand(chainTaskId, CommandName.TASK_INITIALIZE)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CommandStatus> getStatusForInitializeTaskRequest(
+            @PathVariable String chainTaskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return toStatusResponse(
+                taskInitializeService.getStatusForCommand(chainTaskId, CommandName.TASK_INITIALIZE), ifNoneMatch);
+    }
+
+    /**
+     * Read statuses for several asynchronous `initialize task` blockchain remote calls.
+     *
+     * @param chainTaskIds blockchain IDs of the tasks, at most {@value #MAX_STATUS_BATCH_SIZE}
+     * @return statuses by blockchain task ID, unknown tasks are absent from the result
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/initialize/status/batch")
+    public ResponseEntity<Map<String, CommandStatus>> getStatusForInitializeTaskRequests(@RequestBody List<String> chainTaskIds) {
+        if (chainTaskIds.size() > MAX_STATUS_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskInitializeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_INITIALIZE));
+    }
+
+    /**
+     * Start the asynchronous `contribute` blockchain remote call with the adapter wallet.
+     * <p>
+     * The adapter wallet is the contributor on-chain, the workerpool signature must authorize its address as worker.
+     * Commands are identified by task, a single contribution can be sent per task:
+     * other requests for the same task are deduplicated, even with other arguments.
+     *
+     * @param chainTaskId blockchain task ID
+     * @param args        input arguments for `contribute`
+     * @param callbackUrl optional URL notified when the command is completed
+     * @return lowercase blockchain task ID if successful, 429 with a {@code Retry-After} header if the queue is overloaded,
+     * 422 if the on-chain deadline of the command cannot be met
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/contribute/{chainTaskId}")
+    public ResponseEntity<String> requestContributeTask(@PathVariable String chainTaskId,
+                                                        @RequestBody TaskContributeRequest args,
+                                                        @RequestParam(required = false) String callbackUrl) {
+        if (callbackUrl != null && !webhookService.isValidUrl(callbackUrl)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final String startedChainTaskId = taskContributeService.start(chainTaskId, args.resultDigest(),
+                args.workerpoolSignature(), args.enclaveChallenge(), args.enclaveSignature());
+        if (!startedChainTaskId.isEmpty()) {
+            subscribe(startedChainTaskId, CommandName.TASK_CONTRIBUTE, callbackUrl);
+            return ResponseEntity.ok(startedChainTaskId);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Read status for the asynchronous `contribute` blockchain remote call.
+     * <p>
+     * The response carries the status as entity tag, final statuses are sent as immutable.
+     *
+     * @param chainTaskId blockchain ID of the task
+     * @param ifNoneMatch optional entity tag of the status already known by the caller
+     * @return status, or 304 if the status matches the {@code If-None-Match} header
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @GetMapping("/contribute/{chainTaskId}/status")
+    public ResponseEntity<CommandStatus> getStatusForContributeTaskRequest(
+            @PathVariable String chainTaskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return toStatusResponse(
+                taskContributeService.getStatusForCommand(chainTaskId, CommandName.TASK_CONTRIBUTE), ifNoneMatch);
+    }
+
+    /**
+     * Read statuses for several asynchronous `contribute` blockchain remote calls.
+     *
+     * @param chainTaskIds blockchain IDs of the tasks, at most {@value #MAX_STATUS_BATCH_SIZE}
+     * @return statuses by blockchain task ID, unknown tasks are absent from the result
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/contribute/status/batch")
+    public ResponseEntity<Map<String, CommandStatus>> getStatusForContributeTaskRequests(@RequestBody List<String> chainTaskIds) {
+        if (chainTaskIds.size() > MAX_STATUS_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskContributeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_CONTRIBUTE));
+    }
+
+    /**
+     * Start the asynchronous `reveal` blockchain remote call with the adapter wallet.
+     * <p>
+     * Reveals the contribution of the adapter wallet, a single reveal can be sent per task.
+     *
+     * @param chainTaskId blockchain task ID
+     * @param args        input arguments for `reveal`
+     * @param callbackUrl optional URL notified when the command is completed
+     * @return lowercase blockchain task ID if successful
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/reveal/{chainTaskId}")
+    public ResponseEntity<String> requestRevealTask(@PathVariable String chainTaskId,
+                                                    @RequestBody TaskRevealRequest args,
+                                                    @RequestParam(required = false) String callbackUrl) {
+        if (callbackUrl != null && !webhookService.isValidUrl(callbackUrl)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final String startedChainTaskId = taskRevealService.start(chainTaskId, args.resultDigest());
+        if (!startedChainTaskId.isEmpty()) {
+            subscribe(startedChainTaskId, CommandName.TASK_REVEAL, callbackUrl);
+            return ResponseEntity.ok(startedChainTaskId);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Read status for the asynchronous `reveal` blockchain remote call.
+     * <p>
+     * The response carries the status as entity tag, final statuses are sent as immutable.
+     *
+     * @param chainTaskId blockchain ID of the task
+     * @param ifNoneMatch optional entity tag of the status already known by the caller
+     * @return status, or 304 if the status matches the {@code If-None-Match} header
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @GetMapping("/reveal/{chainTaskId}/status")
+    public ResponseEntity<CommandStatus> getStatusForRevealTaskRequest(
+            @PathVariable String chainTaskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return toStatusResponse(
+                taskRevealService.getStatusForCommand(chainTaskId, CommandName.TASK_REVEAL), ifNoneMatch);
+    }
+
+    /**
+     * Read statuses for several asynchronous `reveal` blockchain remote calls.
+     *
+     * @param chainTaskIds blockchain IDs of the tasks, at most {@value #MAX_STATUS_BATCH_SIZE}
+     * @return statuses by blockchain task ID, unknown tasks are absent from the result
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/reveal/status/batch")
+    public ResponseEntity<Map<String, CommandStatus>> getStatusForRevealTaskRequests(@RequestBody List<String> chainTaskIds) {
+        if (chainTaskIds.size() > MAX_STATUS_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskRevealService.getStatusesForCommands(chainTaskIds, CommandName.TASK_REVEAL));
     }
 
     /**
@@ -77,30 +286,154 @@ public class TaskController {
      *
      * @param chainTaskId blockchain task ID
      * @param args        input arguments for `finalize task`
-     * @return blockchain task ID if successful
+     * @param callbackUrl optional URL notified when the command is completed
+     * @return lowercase blockchain task ID if successful
      */
     @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
     @PostMapping("/finalize/{chainTaskId}")
     public ResponseEntity<String> requestFinalizeTask(@PathVariable String chainTaskId,
-                                                      @RequestBody TaskFinalizeArgs args) {
-        if (!taskFinalizeService.start(chainTaskId, args.getResultLink(), args.getCallbackData()).isEmpty()) {
-            return ResponseEntity.ok(chainTaskId);
+                                                      @RequestBody TaskFinalizeArgs args,
+                                                      @RequestParam(required = false) String callbackUrl) {
+        if (callbackUrl != null && !webhookService.isValidUrl(callbackUrl)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final String startedChainTaskId = taskFinalizeService.start(
+                chainTaskId, args.getResultLink(), args.getCallbackData());
+        if (!startedChainTaskId.isEmpty()) {
+            subscribe(startedChainTaskId, CommandName.TASK_FINALIZE, callbackUrl);
+            return ResponseEntity.ok(startedChainTaskId);
         }
         return ResponseEntity.badRequest().build();
     }
 
     /**
      * Read status for the asynchronous `finalize task` blockchain remote call.
+     * <p>
+     * The response carries the status as entity tag, final statuses are sent as immutable.
      *
      * @param chainTaskId blockchain ID of the task
-     * @return status
+     * @param ifNoneMatch optional entity tag of the status already known by the caller
+     * @return status, or 304 if the status matches the {@code If-None-Match} header
      */
     @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
     @GetMapping("/finalize/{chainTaskId}/status")
-    public ResponseEntity<CommandStatus> getStatusForFinalizeTaskRequest(@PathVariable String chainTaskId) {
-        return taskFinalizeService.getStatusForCommand(chainTaskId, CommandName.TASK_FINALIZE)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CommandStatus> getStatusForFinalizeTaskRequest(
+            @PathVariable String chainTaskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return toStatusResponse(
+                taskFinalizeService.getStatusForCommand(chainTaskId, CommandName.TASK_FINALIZE), ifNoneMatch);
+    }
+
+    /**
+     * Read statuses for several asynchronous `finalize task` blockchain remote calls.
+     *
+     * @param chainTaskIds blockchain IDs of the tasks, at most {@value #MAX_STATUS_BATCH_SIZE}
+     * @return statuses by blockchain task ID, unknown tasks are absent from the result
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/finalize/status/batch")
+    public ResponseEntity<Map<String, CommandStatus>> getStatusForFinalizeTaskRequests(@RequestBody List<String> chainTaskIds) {
+        if (chainTaskIds.size() > MAX_STATUS_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskFinalizeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_FINALIZE));
+    }
+
+    /**
+     * Start the asynchronous `claim` blockchain remote call, claims of several tasks are sent in a single transaction.
+     *
+     * @param chainTaskId blockchain task ID
+     * @param callbackUrl optional URL notified when the command is completed
+     * @return lowercase blockchain task ID if successful
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/claim/{chainTaskId}")
+    public ResponseEntity<String> requestClaimTask(@PathVariable String chainTaskId,
+                                                   @RequestParam(required = false) String callbackUrl) {
+        if (callbackUrl != null && !webhookService.isValidUrl(callbackUrl)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final String startedChainTaskId = taskClaimService.start(chainTaskId);
+        if (!startedChainTaskId.isEmpty()) {
+            subscribe(startedChainTaskId, CommandName.TASK_CLAIM, callbackUrl);
+            return ResponseEntity.ok(startedChainTaskId);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Read status for the asynchronous `claim` blockchain remote call.
+     * <p>
+     * The response carries the status as entity tag, final statuses are sent as immutable.
+     *
+     * @param chainTaskId blockchain ID of the task
+     * @param ifNoneMatch optional entity tag of the status already known by the caller
+     * @return status, or 304 if the status matches the {@code If-None-Match} header
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @GetMapping("/claim/{chainTaskId}/status")
+    public ResponseEntity<CommandStatus> getStatusForClaimTaskRequest(
+            @PathVariable String chainTaskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return toStatusResponse(
+                taskClaimService.getStatusForCommand(chainTaskId, CommandName.TASK_CLAIM), ifNoneMatch);
+    }
+
+    /**
+     * Read statuses for several asynchronous `claim` blockchain remote calls.
+     *
+     * @param chainTaskIds blockchain IDs of the tasks, at most {@value #MAX_STATUS_BATCH_SIZE}
+     * @return statuses by blockchain task ID, unknown tasks are absent from the result
+     */
+    @Operation(security = @SecurityRequirement(name = SWAGGER_BASIC_AUTH))
+    @PostMapping("/claim/status/batch")
+    public ResponseEntity<Map<String, CommandStatus>> getStatusForClaimTaskRequests(@RequestBody List<String> chainTaskIds) {
+        if (chainTaskIds.size() > MAX_STATUS_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskClaimService.getStatusesForCommands(chainTaskIds, CommandName.TASK_CLAIM));
+    }
+
+    /**
+     * Apply backpressure on clients when a command is not admitted in the queue.
+     *
+     * @param e rejection carrying the delay after which the client should retry
+     * @return 429 with a {@code Retry-After} header in seconds
+     */
+    @ExceptionHandler(CommandRejectedException.class)
+    public ResponseEntity<Void> handleCommandRejected(final CommandRejectedException e) {
+        log.warn("Command rejected [reason:{}, retryAfter:{}]", e.getMessage(), e.getRetryAfter());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                .build();
+    }
+
+    /**
+     * Build a conditional status response.
+     * <p>
+     * SUCCESS, FAILURE and EXPIRED statuses never change, they can be cached forever by the caller.
+     * Other statuses must be revalidated, the caller sends back the entity tag and gets a 304 while unchanged.
+     */
+    private ResponseEntity<CommandStatus> toStatusResponse(final Optional<CommandStatus> status, final String ifNoneMatch) {
+        if (status.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        final String eTag = "\"" + status.get().name() + "\"";
+        final CacheControl cacheControl = status.get().isFinal()
+                ? FINAL_STATUS_CACHE_CONTROL
+                : STATUS_CACHE_CONTROL;
+        if (ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(tag -> StringUtils.removeStart(tag.trim(), "W/"))
+                .anyMatch(tag -> "*".equals(tag) || eTag.equals(tag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(status.get());
+    }
+
+    private void subscribe(final String chainTaskId, final CommandName commandName, final String callbackUrl) {
+        if (StringUtils.isNotEmpty(callbackUrl)) {
+            webhookService.subscribe(chainTaskId, commandName, callbackUrl);
+        }
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.claim;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.blockchain.command.generic.CommandBlockchain;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class TaskClaimBlockchainService implements CommandBlockchain<TaskClaimArgs> {
+
+    private final IexecHubService iexecHubService;
+    private final BigInteger maxBatchGas;
+
+    public TaskClaimBlockchainService(final IexecHubService iexecHubService,
+                                      @Value("${command.claim.max-batch-gas}") final long maxBatchGas) {
+        this.iexecHubService = iexecHubService;
+        this.maxBatchGas = BigInteger.valueOf(maxBatchGas);
+    }
+
+    /**
+     * A task can be claimed once its final deadline is reached if it is neither completed nor already claimed.
+     * There is no deadline to claim a task.
+     */
+    @Override
+    public Optional<Instant> checkBlockchainCommand(final TaskClaimArgs args) {
+        final String chainTaskId = args.getChainTaskId();
+        if (!iexecHubService.hasEnoughGas()) {
+            logError(chainTaskId, args, "insufficient gas");
+            return Optional.empty();
+        }
+        final ChainTask chainTask = iexecHubService.getChainTask(chainTaskId).orElse(null);
+        if (chainTask == null) {
+            logError(chainTaskId, args, "blockchain read");
+            return Optional.empty();
+        }
+        if (chainTask.getStatus() != ChainTaskStatus.ACTIVE && chainTask.getStatus() != ChainTaskStatus.REVEALING) {
+            logError(chainTaskId, args, "task is not active or revealing");
+            return Optional.empty();
+        }
+        if (Instant.now().toEpochMilli() < chainTask.getFinalDeadline()) {
+            logError(chainTaskId, args, "before final deadline");
+            return Optional.empty();
+        }
+        return Optional.of(NO_DEADLINE);
+    }
+
+    private void logError(final String chainTaskId, final TaskClaimArgs args, final String error) {
+        log.error("Claim task blockchain call is likely to revert ({}) [chainTaskId:{}, args:{}]",
+                error, chainTaskId, args);
+    }
+
+    @Override
+    public TransactionReceipt sendBlockchainCommand(final TaskClaimArgs args,
+                                                    final Consumer<String> txHashListener) throws IOException, TransactionException {
+        return iexecHubService.claimTasks(List.of(args.getChainTaskId()), txHashListener);
+    }
+
+    /**
+     * Claim several tasks in a single transaction, which reverts if a single claim reverts.
+     *
+     * @param claims         claims of tasks, at most {@link #getClaimsPerTransaction(String)}
+     * @param txHashListener notified with the transaction hash as soon as the transaction is submitted
+     * @return the transaction receipt
+     */
+    public TransactionReceipt sendBlockchainCommands(final List<TaskClaimArgs> claims,
+                                                     final Consumer<String> txHashListener) throws IOException, TransactionException {
+        return iexecHubService.claimTasks(claims.stream().map(TaskClaimArgs::getChainTaskId).toList(), txHashListener);
+    }
+
+    /**
+     * Get the max number of claims sent in a single transaction, for their gas to fit in {@code maxBatchGas}.
+     * <p>
+     * The gas of a claim is estimated on a sample task, claims of all tasks use about the same gas.
+     *
+     * @param sampleChainTaskId blockchain ID of a claimable task
+     * @return the number of claims per transaction, 1 if claims cannot be batched or if the gas estimation failed
+     */
+    public int getClaimsPerTransaction(final String sampleChainTaskId) {
+        if (!iexecHubService.canClaimInBatch()) {
+            return 1;
+        }
+        try {
+            final BigInteger claimGas = iexecHubService.estimateClaimGas(sampleChainTaskId);
+            return Math.max(1, maxBatchGas.divide(claimGas.max(BigInteger.ONE)).intValue());
+        } catch (Exception e) {
+            log.warn("Cannot estimate claim gas, claims are sent one by one [chainTaskId:{}]", sampleChainTaskId, e);
+            return 1;
+        }
+    }
+
+    @Override
+    public boolean isCommandAppliedOnChain(final TaskClaimArgs args) {
+        return iexecHubService.getChainTask(args.getChainTaskId())
+                .map(chainTask -> chainTask.getStatus() == ChainTaskStatus.FAILED)
+                .orElse(false);
+    }
+
+}
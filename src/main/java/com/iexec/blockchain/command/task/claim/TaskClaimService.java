@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.claim;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.chain.TransactionErrorClass;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandEngine;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.QueuedCommand;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.iexec.blockchain.chain.IexecHubService.isByte32;
+import static com.iexec.blockchain.command.generic.CommandArgs.normalizeChainObjectId;
+
+/**
+ * Claim tasks whose final deadline is reached, several claims are sent in a single transaction.
+ * <p>
+ * A claim is stored and queued as a command per task, its status is tracked individually.
+ * Instead of sending a transaction when a claim is executed, claims are accumulated and flushed every
+ * {@code command.claim.batch-window} or as soon as {@code command.claim.max-batch-size} claims are pending.
+ * A flush submits the batch to the {@link QueueService} as a low priority execution,
+ * claims are sent in chunks fitting in {@code command.claim.max-batch-gas}.
+ * Claims of a successful chunk are only completed once their task is read as claimed on-chain.
+ * <p>
+ * A chunk reverts as a whole if a single claim reverts. Claims of a reverted chunk are then checked one by one,
+ * claims which cannot succeed anymore fail while the other ones are added again to the next batch,
+ * without counting an attempt.
+ * <p>
+ * The queued command of a claim is acknowledged once its claim has been sent, its lease is kept meanwhile.
+ * Pending claims are lost on shutdown, their queued commands are claimed again once their lease has expired.
+ */
+@Slf4j
+@Service
+public class TaskClaimService extends CommandEngine<TaskClaimArgs> {
+
+    static final String BATCH_SIZE_METRIC_NAME = "iexec.command.claim.batch.size";
+
+    private final TaskClaimBlockchainService blockchainService;
+    private final CommandStorage updaterService;
+    private final CommandQueue commandQueue;
+    private final QueueService queueService;
+    private final int maxBatchSize;
+    private final Queue<PendingClaim> pendingClaims = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingClaimCount = new AtomicInteger();
+    // completions of claims not sent yet, by chain task ID
+    private final Map<String, CompletableFuture<Void>> claimCompletions = new ConcurrentHashMap<>();
+    private final DistributionSummary batchSizeSummary;
+
+    public TaskClaimService(final TaskClaimBlockchainService blockchainService,
+                            final CommandStorage storageService,
+                            final CommandQueue commandQueue,
+                            final CommandAdmission commandAdmission,
+                            final CommandDeduplicator commandDeduplicator,
+                            final QueueService queueService,
+                            @Value("${chain.tx-backoff-delay}") final Duration backoffDelay,
+                            @Value("${command.claim.max-batch-size}") final int maxBatchSize) {
+        super(blockchainService, storageService, commandQueue, commandAdmission, commandDeduplicator, backoffDelay);
+        this.blockchainService = blockchainService;
+        this.updaterService = storageService;
+        this.commandQueue = commandQueue;
+        this.queueService = queueService;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeSummary = Metrics.summary(BATCH_SIZE_METRIC_NAME);
+    }
+
+    @Override
+    public CommandName getCommandName() {
+        return CommandName.TASK_CLAIM;
+    }
+
+    @Override
+    public boolean isPriority() {
+        return false;
+    }
+
+    public String start(final String chainTaskId) {
+        if (!isByte32(chainTaskId)) {
+            log.error("At least one bad args [chainTaskId:{}]", chainTaskId);
+            return "";
+        }
+        return startBlockchainCommand(new TaskClaimArgs(normalizeChainObjectId(chainTaskId)));
+    }
+
+    /**
+     * Add a claim to the next batch instead of sending its transaction at once.
+     *
+     * @param args     input arguments for the blockchain command
+     * @param attempts number of previously failed attempts
+     */
+    @Override
+    public void sendBlockchainCommand(final TaskClaimArgs args, final int attempts) {
+        final PendingClaim claim = new PendingClaim(args, attempts + 1);
+        claimCompletions.put(args.getChainTaskId(), claim.completion());
+        claim.completion().whenComplete((result, throwable) ->
+                claimCompletions.remove(args.getChainTaskId(), claim.completion()));
+        addPendingClaim(claim);
+    }
+
+    private void addPendingClaim(final PendingClaim claim) {
+        pendingClaims.add(claim);
+        if (pendingClaimCount.incrementAndGet() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Acknowledge the queued command of a claim once the claim has been sent, instead of when it is added to a batch.
+     * A retry scheduled meanwhile releases the lease of the queued command, which is then kept in the queue.
+     *
+     * @param queuedCommand queued command whose step has been executed
+     * @return {@literal true} if the claim of the command has not been sent yet
+     */
+    @Override
+    public boolean deferAcknowledgement(final QueuedCommand queuedCommand) {
+        final CompletableFuture<Void> completion = claimCompletions.get(queuedCommand.getChainObjectId());
+        if (completion == null) {
+            return false;
+        }
+        completion.whenComplete((result, throwable) -> commandQueue.acknowledge(queuedCommand));
+        return true;
+    }
+
+    /**
+     * Submit pending claims to the {@link QueueService}, by batches of at most {@code maxBatchSize} claims.
+     */
+    @Scheduled(fixedDelayString = "${command.claim.batch-window}")
+    public void flush() {
+        List<PendingClaim> batch = drain();
+        while (!batch.isEmpty()) {
+            final List<PendingClaim> claims = batch;
+            queueService.addExecutionToQueue(() -> sendBatch(claims), false);
+            batch = drain();
+        }
+    }
+
+    private List<PendingClaim> drain() {
+        final List<PendingClaim> batch = new ArrayList<>();
+        PendingClaim claim;
+        while (batch.size() < maxBatchSize && (claim = pendingClaims.poll()) != null) {
+            pendingClaimCount.decrementAndGet();
+            batch.add(claim);
+        }
+        return batch;
+    }
+
+    /**
+     * Send claims of a batch, tasks claimed in the meantime are completed without any transaction.
+     *
+     * @param batch claims to send
+     */
+    void sendBatch(final List<PendingClaim> batch) {
+        try {
+            sendClaims(batch);
+        } finally {
+            // acknowledge claims left behind by a failure, as before their commands stay in PROCESSING status
+            batch.stream()
+                    .filter(claim -> !claim.completion().isDone() && !pendingClaims.contains(claim))
+                    .forEach(claim -> claim.completion().complete(null));
+        }
+    }
+
+    private void sendClaims(final List<PendingClaim> batch) {
+        final List<PendingClaim> claims = new ArrayList<>();
+        for (final PendingClaim claim : batch) {
+            if (blockchainService.isCommandAppliedOnChain(claim.args())) {
+                log.info("Task already claimed [chainTaskId:{}]", claim.args().getChainTaskId());
+                updaterService.updateToFinal(claim.args(), CommandStatus.SUCCESS, null);
+                claim.completion().complete(null);
+            } else {
+                claims.add(claim);
+            }
+        }
+        if (claims.isEmpty()) {
+            return;
+        }
+        final int claimsPerTransaction = blockchainService.getClaimsPerTransaction(claims.get(0).args().getChainTaskId());
+        for (int i = 0; i < claims.size(); i += claimsPerTransaction) {
+            sendChunk(claims.subList(i, Math.min(i + claimsPerTransaction, claims.size())));
+        }
+    }
+
+    private void sendChunk(final List<PendingClaim> chunk) {
+        final List<TaskClaimArgs> claims = chunk.stream().map(PendingClaim::args).toList();
+        log.info("Processing claims [count:{}, chainTaskIds:{}]",
+                claims.size(), claims.stream().map(TaskClaimArgs::getChainTaskId).toList());
+        batchSizeSummary.record(claims.size());
+        TransactionReceipt receipt = null;
+        TransactionErrorClass errorClass = TransactionErrorClass.UNKNOWN;
+        try {
+            receipt = blockchainService.sendBlockchainCommands(claims,
+                    txHash -> claims.forEach(args -> updaterService.updateTxHashAsync(args, txHash)));
+        } catch (Exception e) {
+            errorClass = classifyError(e);
+            log.error("Something wrong happened while claiming tasks [count:{}, errorClass:{}]",
+                    claims.size(), errorClass, e);
+        }
+        if (receipt != null && receipt.isStatusOK() && chunk.size() > 1) {
+            completeMinedChunk(chunk, receipt);
+            return;
+        }
+        if (receipt == null || receipt.isStatusOK() || chunk.size() == 1) {
+            for (final PendingClaim claim : chunk) {
+                complete(claim, receipt, errorClass);
+            }
+            return;
+        }
+        // a single claim reverting reverts the whole chunk, find out which claims can still succeed
+        log.warn("Claims reverted, checking them one by one [count:{}, txHash:{}]",
+                claims.size(), receipt.getTransactionHash());
+        final List<PendingClaim> claimableClaims = new ArrayList<>();
+        for (final PendingClaim claim : chunk) {
+            if (blockchainService.isCommandAppliedOnChain(claim.args())) {
+                updaterService.updateToFinal(claim.args(), CommandStatus.SUCCESS, null);
+                claim.completion().complete(null);
+            } else if (blockchainService.canSendBlockchainCommand(claim.args())) {
+                claimableClaims.add(claim);
+            } else {
+                complete(claim, receipt, TransactionErrorClass.REVERTED);
+            }
+        }
+        if (claimableClaims.size() == chunk.size()) {
+            // no claim explains the revert, all of them failed an attempt
+            claimableClaims.forEach(claim -> complete(claim, null, TransactionErrorClass.UNKNOWN));
+            return;
+        }
+        // claims reverted because of other claims of the chunk, they did not fail themselves
+        log.info("Adding claimable claims of reverted chunk to the next batch [count:{}]", claimableClaims.size());
+        claimableClaims.forEach(this::addPendingClaim);
+    }
+
+    /**
+     * Complete claims of a successful chunk only if their task is claimed on-chain.
+     * <p>
+     * A chunk sent through a contract, for instance a multicall contract, may succeed without claiming any task.
+     * Claims whose task is not claimed are retried.
+     */
+    private void completeMinedChunk(final List<PendingClaim> chunk, final TransactionReceipt receipt) {
+        for (final PendingClaim claim : chunk) {
+            if (blockchainService.isCommandAppliedOnChain(claim.args())) {
+                complete(claim, receipt, TransactionErrorClass.UNKNOWN);
+            } else {
+                log.error("Task not claimed on-chain although claims transaction succeeded [chainTaskId:{}, txHash:{}]",
+                        claim.args().getChainTaskId(), receipt.getTransactionHash());
+                complete(claim, null, TransactionErrorClass.UNKNOWN);
+            }
+        }
+    }
+
+    private void complete(final PendingClaim claim, final TransactionReceipt receipt,
+                          final TransactionErrorClass errorClass) {
+        try {
+            completeAttempt(claim.args(), claim.attempt(), receipt, errorClass);
+        } finally {
+            claim.completion().complete(null);
+        }
+    }
+
+    /**
+     * Claim waiting to be sent.
+     *
+     * @param args       input arguments of the claim
+     * @param attempt    attempt of the claim, starting at 1
+     * @param completion completed once the claim has been sent, or once it is known it will not be
+     */
+    record PendingClaim(TaskClaimArgs args, int attempt, CompletableFuture<Void> completion) {
+        PendingClaim(final TaskClaimArgs args, final int attempt) {
+            this(args, attempt, new CompletableFuture<>());
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.contribute;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.blockchain.command.generic.CommandBlockchain;
+import com.iexec.commons.poco.chain.ChainContribution;
+import com.iexec.commons.poco.chain.ChainContributionStatus;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class TaskContributeBlockchainService implements CommandBlockchain<TaskContributeArgs> {
+
+    private final IexecHubService iexecHubService;
+
+    public TaskContributeBlockchainService(final IexecHubService iexecHubService) {
+        this.iexecHubService = iexecHubService;
+    }
+
+    @Override
+    public Optional<Instant> checkBlockchainCommand(final TaskContributeArgs args) {
+        final String chainTaskId = args.getChainTaskId();
+        if (!iexecHubService.hasEnoughGas()) {
+            logError(chainTaskId, args, "insufficient gas");
+            return Optional.empty();
+        }
+        final ChainTask chainTask = iexecHubService.getChainTask(chainTaskId).orElse(null);
+        if (chainTask == null) {
+            logError(chainTaskId, args, "blockchain read");
+            return Optional.empty();
+        }
+        if (chainTask.getStatus() != ChainTaskStatus.ACTIVE) {
+            logError(chainTaskId, args, "task is not active");
+            return Optional.empty();
+        }
+        if (Instant.now().toEpochMilli() >= chainTask.getContributionDeadline()) {
+            logError(chainTaskId, args, "after contribution deadline");
+            return Optional.empty();
+        }
+        final boolean hasNotContributed = iexecHubService.getWalletContribution(chainTaskId)
+                .map(contribution -> contribution.getStatus() == ChainContributionStatus.UNSET)
+                .orElse(false);
+        if (!hasNotContributed) {
+            logError(chainTaskId, args, "already contributed");
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(chainTask.getContributionDeadline()));
+    }
+
+    private void logError(final String chainTaskId, final TaskContributeArgs args, final String error) {
+        log.error("Contribute task blockchain call is likely to revert ({}) [chainTaskId:{}, args:{}]",
+                error, chainTaskId, args);
+    }
+
+    @Override
+    public TransactionReceipt sendBlockchainCommand(final TaskContributeArgs args,
+                                                    final Consumer<String> txHashListener) throws IOException, TransactionException {
+        return iexecHubService.contribute(args.getChainTaskId(),
+                args.getResultDigest(),
+                args.getWorkerpoolSignature(),
+                args.getEnclaveChallenge(),
+                args.getEnclaveSignature(),
+                txHashListener);
+    }
+
+    @Override
+    public boolean isCommandAppliedOnChain(final TaskContributeArgs args) {
+        return iexecHubService.getWalletContribution(args.getChainTaskId())
+                .map(ChainContribution::getStatus)
+                .filter(status -> status != ChainContributionStatus.UNSET)
+                .isPresent();
+    }
+
+}
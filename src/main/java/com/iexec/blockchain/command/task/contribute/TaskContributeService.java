@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.contribute;
+
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandEngine;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+import static com.iexec.blockchain.chain.IexecHubService.isByte32;
+import static com.iexec.blockchain.command.generic.CommandArgs.normalizeChainObjectId;
+
+/**
+ * Contribute to tasks with the adapter wallet.
+ * <p>
+ * The adapter wallet is the contributor on-chain, the workerpool authorization must be signed for its address.
+ * Commands are keyed by chain task ID, so a single contribution is sent per task.
+ * <p>
+ * Contributions go through admission control like task initializations,
+ * they are not urgent until the contribution deadline gets close.
+ */
+@Slf4j
+@Service
+public class TaskContributeService extends CommandEngine<TaskContributeArgs> {
+
+    public TaskContributeService(final TaskContributeBlockchainService blockchainService,
+                                 final CommandStorage storageService,
+                                 final CommandQueue commandQueue,
+                                 final CommandAdmission commandAdmission,
+                                 final CommandDeduplicator commandDeduplicator,
+                                 @Value("${chain.tx-backoff-delay}") final Duration backoffDelay) {
+        super(blockchainService, storageService, commandQueue, commandAdmission, commandDeduplicator, backoffDelay);
+    }
+
+    @Override
+    public CommandName getCommandName() {
+        return CommandName.TASK_CONTRIBUTE;
+    }
+
+    @Override
+    public boolean isPriority() {
+        return false;
+    }
+
+    public String start(final String chainTaskId,
+                        final String resultDigest,
+                        final String workerpoolSignature,
+                        final String enclaveChallenge,
+                        final String enclaveSignature) {
+        if (!isByte32(chainTaskId) || !isByte32(resultDigest)
+                || StringUtils.isAnyEmpty(workerpoolSignature, enclaveChallenge, enclaveSignature)) {
+            log.error("At least one bad args [chainTaskId:{}, resultDigest:{}, enclaveChallenge:{}]",
+                    chainTaskId, resultDigest, enclaveChallenge);
+            return "";
+        }
+        return startBlockchainCommand(new TaskContributeArgs(
+                normalizeChainObjectId(chainTaskId), resultDigest, workerpoolSignature, enclaveChallenge, enclaveSignature));
+    }
+
+}
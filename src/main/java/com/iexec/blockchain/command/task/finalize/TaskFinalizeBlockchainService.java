@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,8 @@ import org.web3j.protocol.exceptions.TransactionException;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -39,29 +41,29 @@ public class TaskFinalizeBlockchainService implements CommandBlockchain<TaskFina
     }
 
     @Override
-    public boolean canSendBlockchainCommand(final TaskFinalizeArgs args) {
+    public Optional<Instant> checkBlockchainCommand(final TaskFinalizeArgs args) {
         final String chainTaskId = args.getChainTaskId();
         final ChainTask chainTask = iexecHubService.getChainTask(chainTaskId).orElse(null);
         if (chainTask == null) {
             logError(chainTaskId, args, "blockchain read");
-            return false;
+            return Optional.empty();
         }
         if (chainTask.getStatus() != ChainTaskStatus.REVEALING) {
             logError(chainTaskId, args, "task is not revealing");
-            return false;
+            return Optional.empty();
         }
         final long now = Instant.now().toEpochMilli();
         if (now >= chainTask.getFinalDeadline()) {
             logError(chainTaskId, args, "after final deadline");
-            return false;
+            return Optional.empty();
         }
         final boolean hasEnoughRevealers = chainTask.getRevealCounter() == chainTask.getWinnerCounter()
                 || (chainTask.getRevealCounter() > 0 && chainTask.getRevealDeadline() <= now);
         if (!hasEnoughRevealers) {
             logError(chainTaskId, args, "not enough revealers");
-            return false;
+            return Optional.empty();
         }
-        return true;
+        return Optional.of(Instant.ofEpochMilli(chainTask.getFinalDeadline()));
     }
 
     private void logError(final String chainTaskId, final TaskFinalizeArgs args, final String error) {
@@ -70,10 +72,19 @@ public class TaskFinalizeBlockchainService implements CommandBlockchain<TaskFina
     }
 
     @Override
-    public TransactionReceipt sendBlockchainCommand(final TaskFinalizeArgs args) throws IOException, TransactionException {
+    public TransactionReceipt sendBlockchainCommand(final TaskFinalizeArgs args,
+                                                    final Consumer<String> txHashListener) throws IOException, TransactionException {
         return iexecHubService.finalizeTask(args.getChainTaskId(),
                 args.getResultLink(),
-                args.getCallbackData());
+                args.getCallbackData(),
+                txHashListener);
+    }
+
+    @Override
+    public boolean isCommandAppliedOnChain(final TaskFinalizeArgs args) {
+        return iexecHubService.getChainTask(args.getChainTaskId())
+                .map(chainTask -> chainTask.getStatus() == ChainTaskStatus.COMPLETED)
+                .orElse(false);
     }
 
 }
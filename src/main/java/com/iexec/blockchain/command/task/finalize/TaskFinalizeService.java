@@ -16,8 +16,11 @@
 
 package com.iexec.blockchain.command.task.finalize;
 
-import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
 import com.iexec.blockchain.command.generic.CommandEngine;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
 import com.iexec.blockchain.command.generic.CommandStorage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,6 +29,7 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 
 import static com.iexec.blockchain.chain.IexecHubService.isByte32;
+import static com.iexec.blockchain.command.generic.CommandArgs.normalizeChainObjectId;
 
 @Slf4j
 @Service
@@ -33,9 +37,21 @@ public class TaskFinalizeService extends CommandEngine<TaskFinalizeArgs> {
 
     public TaskFinalizeService(final TaskFinalizeBlockchainService blockchainService,
                                final CommandStorage storageService,
-                               final QueueService queueService,
+                               final CommandQueue commandQueue,
+                               final CommandAdmission commandAdmission,
+                               final CommandDeduplicator commandDeduplicator,
                                @Value("${chain.tx-backoff-delay}") final Duration backoffDelay) {
-        super(blockchainService, storageService, queueService, backoffDelay);
+        super(blockchainService, storageService, commandQueue, commandAdmission, commandDeduplicator, backoffDelay);
+    }
+
+    @Override
+    public CommandName getCommandName() {
+        return CommandName.TASK_FINALIZE;
+    }
+
+    @Override
+    public boolean isPriority() {
+        return true;
     }
 
     public String start(final String chainTaskId, final String resultLink, final String callbackData) {
@@ -45,8 +61,7 @@ public class TaskFinalizeService extends CommandEngine<TaskFinalizeArgs> {
             return "";
         }
         return startBlockchainCommand(
-                new TaskFinalizeArgs(chainTaskId, resultLink, callbackData),
-                true);
+                new TaskFinalizeArgs(normalizeChainObjectId(chainTaskId), resultLink, callbackData));
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,4 +37,9 @@ public class TaskInitializeArgs implements CommandArgs {
     public String getChainObjectId() {
         return chainTaskId;
     }
+
+    @Override
+    public String getTenantId() {
+        return chainDealId;
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2020-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,6 +24,9 @@ import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -36,21 +39,22 @@ public class TaskInitializeBlockchainService implements CommandBlockchain<TaskIn
     }
 
     @Override
-    public boolean canSendBlockchainCommand(final TaskInitializeArgs args) {
+    public Optional<Instant> checkBlockchainCommand(final TaskInitializeArgs args) {
         final String chainTaskId = args.getChainTaskId();
         if (!iexecHubService.hasEnoughGas()) {
             logError(chainTaskId, args, "insufficient gas");
-            return false;
+            return Optional.empty();
         }
         if (!iexecHubService.isTaskInUnsetStatusOnChain(args.getChainTaskId())) {
             logError(chainTaskId, args, "task already exist on-chain");
-            return false;
+            return Optional.empty();
         }
-        if (!iexecHubService.isBeforeContributionDeadline(args.getChainDealId())) {
+        final Optional<Instant> contributionDeadline = iexecHubService.getContributionDeadline(args.getChainDealId())
+                .filter(deadline -> deadline.isAfter(Instant.now()));
+        if (contributionDeadline.isEmpty()) {
             logError(chainTaskId, args, "after contribution deadline");
-            return false;
         }
-        return true;
+        return contributionDeadline;
     }
 
     private void logError(final String chainTaskId, final TaskInitializeArgs args, final String error) {
@@ -59,8 +63,14 @@ public class TaskInitializeBlockchainService implements CommandBlockchain<TaskIn
     }
 
     @Override
-    public TransactionReceipt sendBlockchainCommand(final TaskInitializeArgs args) throws IOException, TransactionException {
-        return iexecHubService.initializeTask(args.getChainDealId(), args.getTaskIndex());
+    public TransactionReceipt sendBlockchainCommand(final TaskInitializeArgs args,
+                                                    final Consumer<String> txHashListener) throws IOException, TransactionException {
+        return iexecHubService.initializeTask(args.getChainDealId(), args.getTaskIndex(), txHashListener);
+    }
+
+    @Override
+    public boolean isCommandAppliedOnChain(final TaskInitializeArgs args) {
+        return !iexecHubService.isTaskInUnsetStatusOnChain(args.getChainTaskId());
     }
 
 }
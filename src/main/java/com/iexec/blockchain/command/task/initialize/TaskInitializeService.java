@@ -16,8 +16,11 @@
 
 package com.iexec.blockchain.command.task.initialize;
 
-import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
 import com.iexec.blockchain.command.generic.CommandEngine;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
 import com.iexec.blockchain.command.generic.CommandStorage;
 import com.iexec.commons.poco.chain.ChainUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,25 +29,37 @@ import org.springframework.stereotype.Service;
 import java.time.Duration;
 
 import static com.iexec.blockchain.chain.IexecHubService.isByte32;
+import static com.iexec.blockchain.command.generic.CommandArgs.normalizeChainObjectId;
 
 @Service
 public class TaskInitializeService extends CommandEngine<TaskInitializeArgs> {
 
     public TaskInitializeService(final TaskInitializeBlockchainService blockchainService,
                                  final CommandStorage updaterService,
-                                 final QueueService queueService,
+                                 final CommandQueue commandQueue,
+                                 final CommandAdmission commandAdmission,
+                                 final CommandDeduplicator commandDeduplicator,
                                  @Value("${chain.tx-backoff-delay}") final Duration backoffDelay) {
-        super(blockchainService, updaterService, queueService, backoffDelay);
+        super(blockchainService, updaterService, commandQueue, commandAdmission, commandDeduplicator, backoffDelay);
+    }
+
+    @Override
+    public CommandName getCommandName() {
+        return CommandName.TASK_INITIALIZE;
+    }
+
+    @Override
+    public boolean isPriority() {
+        return false;
     }
 
     public String start(final String chainDealId, final int taskIndex) {
         if (!isByte32(chainDealId) || taskIndex < 0) {
             return "";
         }
-        final String chainTaskId = ChainUtils.generateChainTaskId(chainDealId, taskIndex);
+        final String chainTaskId = normalizeChainObjectId(ChainUtils.generateChainTaskId(chainDealId, taskIndex));
         return startBlockchainCommand(
-                new TaskInitializeArgs(chainTaskId, chainDealId, taskIndex),
-                false);
+                new TaskInitializeArgs(chainTaskId, normalizeChainObjectId(chainDealId), taskIndex));
     }
 
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.reveal;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.blockchain.command.generic.CommandBlockchain;
+import com.iexec.commons.poco.chain.ChainContribution;
+import com.iexec.commons.poco.chain.ChainContributionStatus;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import com.iexec.commons.poco.utils.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class TaskRevealBlockchainService implements CommandBlockchain<TaskRevealArgs> {
+
+    private final IexecHubService iexecHubService;
+
+    public TaskRevealBlockchainService(final IexecHubService iexecHubService) {
+        this.iexecHubService = iexecHubService;
+    }
+
+    @Override
+    public Optional<Instant> checkBlockchainCommand(final TaskRevealArgs args) {
+        final String chainTaskId = args.getChainTaskId();
+        final ChainTask chainTask = iexecHubService.getChainTask(chainTaskId).orElse(null);
+        if (chainTask == null) {
+            logError(chainTaskId, args, "blockchain read");
+            return Optional.empty();
+        }
+        if (chainTask.getStatus() != ChainTaskStatus.REVEALING) {
+            logError(chainTaskId, args, "task is not revealing");
+            return Optional.empty();
+        }
+        if (Instant.now().toEpochMilli() >= chainTask.getRevealDeadline()) {
+            logError(chainTaskId, args, "after reveal deadline");
+            return Optional.empty();
+        }
+        final ChainContribution contribution = iexecHubService.getWalletContribution(chainTaskId).orElse(null);
+        if (contribution == null || contribution.getStatus() != ChainContributionStatus.CONTRIBUTED) {
+            logError(chainTaskId, args, "contribution is not revealable");
+            return Optional.empty();
+        }
+        if (!contribution.getResultHash().equalsIgnoreCase(chainTask.getConsensusValue())) {
+            logError(chainTaskId, args, "contribution is not in consensus");
+            return Optional.empty();
+        }
+        final String resultHash = HashUtils.concatenateAndHash(chainTaskId, args.getResultDigest());
+        if (!resultHash.equalsIgnoreCase(contribution.getResultHash())) {
+            logError(chainTaskId, args, "result digest does not match contribution");
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(chainTask.getRevealDeadline()));
+    }
+
+    private void logError(final String chainTaskId, final TaskRevealArgs args, final String error) {
+        log.error("Reveal task blockchain call is likely to revert ({}) [chainTaskId:{}, args:{}]",
+                error, chainTaskId, args);
+    }
+
+    @Override
+    public TransactionReceipt sendBlockchainCommand(final TaskRevealArgs args,
+                                                    final Consumer<String> txHashListener) throws IOException, TransactionException {
+        return iexecHubService.reveal(args.getChainTaskId(), args.getResultDigest(), txHashListener);
+    }
+
+    @Override
+    public boolean isCommandAppliedOnChain(final TaskRevealArgs args) {
+        return iexecHubService.getWalletContribution(args.getChainTaskId())
+                .map(contribution -> contribution.getStatus() == ChainContributionStatus.REVEALED)
+                .orElse(false);
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.reveal;
+
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandEngine;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+import static com.iexec.blockchain.chain.IexecHubService.isByte32;
+import static com.iexec.blockchain.command.generic.CommandArgs.normalizeChainObjectId;
+
+/**
+ * Reveal contributions of the adapter wallet on behalf of workers.
+ * <p>
+ * Reveals are high priority commands, a missed reveal deadline loses the stake of the contribution.
+ */
+@Slf4j
+@Service
+public class TaskRevealService extends CommandEngine<TaskRevealArgs> {
+
+    public TaskRevealService(final TaskRevealBlockchainService blockchainService,
+                             final CommandStorage storageService,
+                             final CommandQueue commandQueue,
+                             final CommandAdmission commandAdmission,
+                             final CommandDeduplicator commandDeduplicator,
+                             @Value("${chain.tx-backoff-delay}") final Duration backoffDelay) {
+        super(blockchainService, storageService, commandQueue, commandAdmission, commandDeduplicator, backoffDelay);
+    }
+
+    @Override
+    public CommandName getCommandName() {
+        return CommandName.TASK_REVEAL;
+    }
+
+    @Override
+    public boolean isPriority() {
+        return true;
+    }
+
+    public String start(final String chainTaskId, final String resultDigest) {
+        if (!isByte32(chainTaskId) || !isByte32(resultDigest)) {
+            log.error("At least one bad args [chainTaskId:{}, resultDigest:{}]", chainTaskId, resultDigest);
+            return "";
+        }
+        return startBlockchainCommand(new TaskRevealArgs(normalizeChainObjectId(chainTaskId), resultDigest));
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.webhook;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+@Value
+@Builder
+@Validated
+@ConfigurationProperties(prefix = "webhook")
+public class WebhookConfig {
+
+    /**
+     * Callback URL notified for every command reaching a final status, leave empty to disable.
+     */
+    String url;
+
+    /**
+     * Callback URL hosts allowed even if they resolve to loopback, link-local or private addresses.
+     */
+    List<String> allowedHosts;
+
+    @DurationMin(millis = 100, message = "Webhook batch window must be greater than 100ms")
+    @NotNull(message = "Webhook batch window must not be null")
+    Duration batchWindow;
+
+    @Positive(message = "Webhook max batch size must be greater than 0")
+    int maxBatchSize;
+
+    @Positive(message = "Webhook max attempts must be greater than 0")
+    int maxAttempts;
+
+    @NotNull(message = "Webhook backoff delay must not be null")
+    Duration backoffDelay;
+
+    @NotNull(message = "Webhook connect timeout must not be null")
+    Duration connectTimeout;
+
+    @NotNull(message = "Webhook read timeout must not be null")
+    Duration readTimeout;
+
+    /**
+     * Number of threads delivering notifications, each of them posts to a single callback URL at a time.
+     */
+    @Positive(message = "Webhook max concurrent deliveries must be greater than 0")
+    int maxConcurrentDeliveries;
+
+}
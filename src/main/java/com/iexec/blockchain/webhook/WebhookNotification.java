@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.webhook;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.generic.CommandName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry of a completion notification waiting to be delivered to a callback URL.
+ * <p>
+ * Entries are removed once delivered, or once the maximum number of delivery attempts is reached.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookNotification {
+
+    @Id
+    private String id;
+
+    private String url;
+    private String chainObjectId;
+    private CommandName commandName;
+    private CommandStatus status;
+    private Instant creationDate;
+    private int attempt;
+    @Indexed
+    private Instant nextAttemptDate;
+
+}
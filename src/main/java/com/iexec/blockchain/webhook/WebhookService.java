@@ -0,0 +1,337 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.webhook;
+
+import com.iexec.blockchain.api.CommandNotification;
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.generic.CommandFinalEvent;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Deliver completion notifications to callback URLs.
+ * <p>
+ * When a command reaches a final status, a notification is stored in an outbox collection for every callback URL
+ * registered for the command and for the global callback URL if configured.
+ * A subscription is removed when its notification is stored, it is notified only once
+ * even if the command completes while it is registered.
+ * The outbox is periodically flushed, notifications targeting the same URL are aggregated in a single POST request.
+ * Failed deliveries are retried with an exponential backoff until the maximum number of attempts is reached.
+ * <p>
+ * POST requests are sent by a dedicated pool of {@code maxConcurrentDeliveries} threads with connect and read timeouts,
+ * a slow callback URL never delays the other scheduled tasks. A flush makes at most one attempt per URL,
+ * URLs whose previous delivery is still in progress are skipped until it completes.
+ * <p>
+ * Callback URLs whose host resolves to a private address are rejected, unless the host is allowed explicitly.
+ */
+@Slf4j
+@Service
+public class WebhookService {
+
+    private static final String NEXT_ATTEMPT_DATE_FIELD_NAME = "nextAttemptDate";
+
+    private final MongoTemplate mongoTemplate;
+    private final CommandStorage commandStorage;
+    private final WebhookConfig webhookConfig;
+    private final Set<String> allowedHosts;
+    private final RestClient restClient;
+    private final ThreadPoolExecutor deliveryExecutor;
+    private final Set<String> inFlightUrls = ConcurrentHashMap.newKeySet();
+
+    public WebhookService(final MongoTemplate mongoTemplate,
+                          final CommandStorage commandStorage,
+                          final WebhookConfig webhookConfig,
+                          final RestClient.Builder restClientBuilder) {
+        this.mongoTemplate = mongoTemplate;
+        this.commandStorage = commandStorage;
+        this.webhookConfig = webhookConfig;
+        this.allowedHosts = Objects.requireNonNullElse(webhookConfig.getAllowedHosts(), List.<String>of()).stream()
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(webhookConfig.getConnectTimeout());
+        requestFactory.setReadTimeout(webhookConfig.getReadTimeout());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        // dedicated threads, deliveries must not wait behind other scheduled tasks nor delay them
+        final int threadCount = webhookConfig.getMaxConcurrentDeliveries();
+        this.deliveryExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(webhookConfig.getMaxBatchSize()),
+                Thread.ofPlatform().name("webhook-delivery-", 0).daemon().factory());
+    }
+
+    /**
+     * Register a callback URL notified when the command reaches a final status.
+     * <p>
+     * The command may have completed before the registration, its status is read once the subscription is stored.
+     * If it is already final, the notification is stored at once.
+     *
+     * @param chainObjectId on-chain object ID
+     * @param commandName   command applied to the on-chain object
+     * @param url           callback URL
+     * @return true if the callback URL is valid and registered, false otherwise
+     */
+    public boolean subscribe(final String chainObjectId, final CommandName commandName, final String url) {
+        if (!isValidUrl(url)) {
+            log.error("Invalid callback URL [chainObjectId:{}, commandName:{}, url:{}]", chainObjectId, commandName, url);
+            return false;
+        }
+        final Criteria criteria = Criteria.where("chainObjectId").is(chainObjectId)
+                .and("commandName").is(commandName)
+                .and("url").is(url);
+        final Update update = new Update()
+                .setOnInsert("chainObjectId", chainObjectId)
+                .setOnInsert("commandName", commandName)
+                .setOnInsert("url", url);
+        mongoTemplate.upsert(Query.query(criteria), update, WebhookSubscription.class);
+        log.info("Registered callback URL [chainObjectId:{}, commandName:{}, url:{}]", chainObjectId, commandName, url);
+        commandStorage.getStatusForCommand(chainObjectId, commandName)
+                .filter(CommandStatus::isFinal)
+                .filter(status -> claimSubscription(Query.query(criteria)))
+                .ifPresent(status -> {
+                    log.info("Command already completed when registering callback URL " +
+                            "[chainObjectId:{}, commandName:{}, url:{}, status:{}]", chainObjectId, commandName, url, status);
+                    final Instant now = Instant.now();
+                    mongoTemplate.insert(new WebhookNotification(null, url, chainObjectId, commandName,
+                            status, now, 0, now));
+                });
+        return true;
+    }
+
+    /**
+     * Remove a subscription before storing its notification.
+     * <p>
+     * Only the caller which removes the subscription stores the notification,
+     * a completion event and a registration of the same subscription never both notify it.
+     *
+     * @param query query matching a single subscription
+     * @return true if the subscription has been removed by this call
+     */
+    private boolean claimSubscription(final Query query) {
+        return mongoTemplate.findAndRemove(query, WebhookSubscription.class) != null;
+    }
+
+    /**
+     * Check a callback URL is an HTTP(S) URL whose host can be notified.
+     * <p>
+     * Hosts resolving to loopback, link-local, site-local or other private addresses are rejected,
+     * callers must not make the adapter post to internal services. Such hosts can be allowed explicitly
+     * with {@code webhook.allowed-hosts}.
+     *
+     * @param url callback URL
+     * @return true if the callback URL can be notified, false otherwise
+     */
+    public boolean isValidUrl(final String url) {
+        if (StringUtils.isBlank(url)) {
+            return false;
+        }
+        final URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) || uri.getHost() == null) {
+            return false;
+        }
+        return isAllowedHost(uri.getHost());
+    }
+
+    private boolean isAllowedHost(final String host) {
+        if (allowedHosts.contains(host.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        try {
+            final InetAddress[] addresses = InetAddress.getAllByName(host);
+            final boolean allowed = Arrays.stream(addresses).noneMatch(WebhookService::isPrivateAddress);
+            if (!allowed) {
+                log.warn("Callback URL host resolves to a private address [host:{}, addresses:{}]",
+                        host, Arrays.toString(addresses));
+            }
+            return allowed;
+        } catch (UnknownHostException e) {
+            log.warn("Cannot resolve callback URL host [host:{}]", host);
+            return false;
+        }
+    }
+
+    static boolean isPrivateAddress(final InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        final byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            // IPv6 unique local addresses fc00::/7
+            return (bytes[0] & 0xfe) == 0xfc;
+        }
+        // IPv4 shared address space 100.64.0.0/10
+        return (bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64;
+    }
+
+    /**
+     * Store a notification in the outbox for every callback URL interested in the completed command.
+     *
+     * @param event command which has reached a final status
+     */
+    @EventListener
+    public void onCommandFinal(final CommandFinalEvent event) {
+        final List<String> urls = new ArrayList<>();
+        if (StringUtils.isNotBlank(webhookConfig.getUrl())) {
+            urls.add(webhookConfig.getUrl());
+        }
+        final Criteria criteria = Criteria.where("chainObjectId").is(event.chainObjectId())
+                .and("commandName").is(event.commandName());
+        mongoTemplate.find(Query.query(criteria), WebhookSubscription.class).stream()
+                .filter(subscription -> claimSubscription(
+                        Query.query(Criteria.where("id").is(subscription.getId()))))
+                .map(WebhookSubscription::getUrl)
+                .filter(url -> !urls.contains(url))
+                .forEach(urls::add);
+        final Instant now = Instant.now();
+        final List<WebhookNotification> notifications = urls.stream()
+                .map(url -> new WebhookNotification(null, url, event.chainObjectId(), event.commandName(),
+                        event.status(), now, 0, now))
+                .toList();
+        if (!notifications.isEmpty()) {
+            mongoTemplate.insertAll(notifications);
+        }
+    }
+
+    /**
+     * Submit due notifications to the delivery threads, aggregated per callback URL.
+     * Notifications of URLs whose delivery is still in progress are left for a next flush.
+     */
+    @Scheduled(fixedDelayString = "${webhook.batch-window}")
+    public void deliverPendingNotifications() {
+        final Criteria criteria = Criteria.where(NEXT_ATTEMPT_DATE_FIELD_NAME).lte(Instant.now());
+        if (!inFlightUrls.isEmpty()) {
+            criteria.and("url").nin(List.copyOf(inFlightUrls));
+        }
+        final Query query = Query.query(criteria)
+                .with(Sort.by(NEXT_ATTEMPT_DATE_FIELD_NAME))
+                .limit(webhookConfig.getMaxBatchSize());
+        final Map<String, List<WebhookNotification>> notificationsByUrl = new LinkedHashMap<>();
+        mongoTemplate.find(query, WebhookNotification.class)
+                .forEach(notification -> notificationsByUrl
+                        .computeIfAbsent(notification.getUrl(), url -> new ArrayList<>())
+                        .add(notification));
+        notificationsByUrl.forEach(this::submit);
+    }
+
+    private void submit(final String url, final List<WebhookNotification> notifications) {
+        if (!inFlightUrls.add(url)) {
+            return;
+        }
+        try {
+            deliveryExecutor.execute(() -> {
+                try {
+                    deliver(url, notifications);
+                } finally {
+                    inFlightUrls.remove(url);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightUrls.remove(url);
+            log.warn("Cannot submit notifications delivery [url:{}, count:{}]", url, notifications.size());
+        }
+    }
+
+    private void deliver(final String url, final List<WebhookNotification> notifications) {
+        final List<CommandNotification> body = notifications.stream()
+                .map(notification -> new CommandNotification(notification.getChainObjectId(),
+                        notification.getCommandName().name(), notification.getStatus()))
+                .toList();
+        final List<String> ids = notifications.stream().map(WebhookNotification::getId).toList();
+        // the host may resolve to another address since the subscription
+        if (!url.equals(webhookConfig.getUrl()) && !isValidUrl(url)) {
+            log.error("Dropping notifications of disallowed callback URL [url:{}, count:{}]", url, notifications.size());
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), WebhookNotification.class);
+            return;
+        }
+        try {
+            restClient.post()
+                    .uri(url)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body)
+                    .retrieve()
+                    .toBodilessEntity();
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), WebhookNotification.class);
+            log.info("Delivered notifications [url:{}, count:{}]", url, notifications.size());
+        } catch (Exception e) {
+            log.warn("Failed to deliver notifications [url:{}, count:{}]", url, notifications.size(), e);
+            notifications.forEach(this::scheduleRetry);
+        }
+    }
+
+    private void scheduleRetry(final WebhookNotification notification) {
+        final int attempt = notification.getAttempt() + 1;
+        final Query query = Query.query(Criteria.where("id").is(notification.getId()));
+        if (attempt >= webhookConfig.getMaxAttempts()) {
+            log.error("Dropping notification after max attempts [url:{}, chainObjectId:{}, commandName:{}, attempt:{}]",
+                    notification.getUrl(), notification.getChainObjectId(), notification.getCommandName(), attempt);
+            mongoTemplate.remove(query, WebhookNotification.class);
+            return;
+        }
+        final long backoffMillis = webhookConfig.getBackoffDelay().toMillis() << Math.min(attempt - 1, 16);
+        final Update update = new Update()
+                .set("attempt", attempt)
+                .set(NEXT_ATTEMPT_DATE_FIELD_NAME, Instant.now().plusMillis(backoffMillis));
+        mongoTemplate.updateFirst(query, update, WebhookNotification.class);
+    }
+
+    /**
+     * Stop delivering notifications, notifications not delivered yet stay in the outbox.
+     */
+    @PreDestroy
+    void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -195,4 +195,32 @@ class ChainConfigTest {
                 .containsExactly("Hub address must be a valid non zero Ethereum address");
     }
     // endregion
+
+    // region Invalid multicall address
+    static Stream<String> invalidMulticallAddresses() {
+        return Stream.of(
+                "0xcA11bde05977b3631167028862bE2a173976CA",     // Multicall address size should be exactly 40
+                "http://multicall.address"  // Multicall address should be an Ethereum address
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidMulticallAddresses")
+    void shouldNotValidateMulticallAddress(String multicallAddress) {
+        final ChainConfig chainConfig = ChainConfig.builder()
+                .id(DEFAULT_CHAIN_ID)
+                .sidechain(DEFAULT_IS_SIDECHAIN)
+                .nodeAddress(DEFAULT_NODE_ADDRESS)
+                .hubAddress(DEFAULT_HUB_ADDRESS)
+                .multicallAddress(multicallAddress)
+                .blockTime(DEFAULT_BLOCK_TIME)
+                .gasPriceMultiplier(DEFAULT_GAS_PRICE_MULTIPLIER)
+                .gasPriceCap(DEFAULT_GAS_PRICE_CAP)
+                .maxAllowedTxPerBlock(DEFAULT_MAX_ALLOWED_TX_PER_BLOCK)
+                .build();
+        assertThat(validate(chainConfig))
+                .extracting(ConstraintViolation::getMessage)
+                .containsExactly("Multicall address must be a valid Ethereum address");
+    }
+    // endregion
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClaimDataEncoderTests {
+
+    private static final String HUB_ADDRESS = "0xC129e7917b7c7DeDfAa5Fff1FB18d5D7050fE8ca";
+    private static final String CHAIN_TASK_ID_1 =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String CHAIN_TASK_ID_2 =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+
+    @Test
+    void shouldEncodeClaim() {
+        assertThat(ClaimDataEncoder.encodeClaim(CHAIN_TASK_ID_1))
+                .isEqualTo(FunctionEncoder.buildMethodId("claim(bytes32)") + CHAIN_TASK_ID_1.substring(2));
+    }
+
+    @Test
+    void shouldEncodeClaimArray() {
+        assertThat(ClaimDataEncoder.encodeClaimArray(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2)))
+                .isEqualTo(FunctionEncoder.buildMethodId("claimArray(bytes32[])")
+                        + "0000000000000000000000000000000000000000000000000000000000000020"
+                        + "0000000000000000000000000000000000000000000000000000000000000002"
+                        + CHAIN_TASK_ID_1.substring(2)
+                        + CHAIN_TASK_ID_2.substring(2));
+    }
+
+    @Test
+    void shouldEncodeMulticallClaims() {
+        final String multicallData = ClaimDataEncoder.encodeMulticallClaims(HUB_ADDRESS,
+                List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2));
+        assertThat(multicallData)
+                .startsWith("0x82ad56cb")
+                .contains(HUB_ADDRESS.substring(2).toLowerCase())
+                .contains(ClaimDataEncoder.encodeClaim(CHAIN_TASK_ID_1).substring(2))
+                .contains(ClaimDataEncoder.encodeClaim(CHAIN_TASK_ID_2).substring(2));
+    }
+
+}
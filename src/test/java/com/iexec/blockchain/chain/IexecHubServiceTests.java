@@ -27,6 +27,10 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Keys;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetCode;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 import org.web3j.tx.response.PollingTransactionReceiptProcessor;
@@ -35,16 +39,25 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class IexecHubServiceTests {
+    private static final String CHAIN_TASK_ID_1 =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String CHAIN_TASK_ID_2 =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+    private static final String MULTICALL_ADDRESS = "0xcA11bde05977b3631167028862bE2a173976CA11";
     private final String chainDealId = "0x1";
     private final String chainTaskId = "0x2";
     private final String resultDigest = "0x3";
@@ -152,6 +165,148 @@ class IexecHubServiceTests {
 
     // endregion
 
+    // region claimTasks
+
+    @Test
+    void shouldClaimSingleTask() throws IOException, TransactionException {
+        mockTransaction();
+        final List<String> txHashes = new ArrayList<>();
+        assertThat(iexecHubService.claimTasks(List.of(CHAIN_TASK_ID_1), txHashes::add))
+                .isEqualTo(receipt);
+        assertThat(txHashes).containsExactly("txHash");
+        verify(signerService).signAndSendTransaction(any(), any(), any(),
+                eq(chainConfig.getHubAddress()), eq(ClaimDataEncoder.encodeClaim(CHAIN_TASK_ID_1)));
+    }
+
+    @Test
+    void shouldClaimTasksWithClaimArray() throws IOException, TransactionException {
+        mockTransaction();
+        assertThat(iexecHubService.claimTasks(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2), txHash -> {
+        })).isEqualTo(receipt);
+        verify(signerService).signAndSendTransaction(any(), any(), any(), eq(chainConfig.getHubAddress()),
+                eq(ClaimDataEncoder.encodeClaimArray(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2))));
+    }
+
+    @Test
+    void shouldClaimTasksWithMulticallWhenClaimArrayNotSupported() throws IOException, TransactionException {
+        final IexecHubService multicallHubService = createMulticallHubService(MULTICALL_ADDRESS, "0x6080");
+        mockTransaction();
+        when(signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of())))
+                .thenThrow(new RuntimeException("execution reverted"));
+        assertThat(multicallHubService.canClaimInBatch()).isTrue();
+        assertThat(multicallHubService.claimTasks(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2), txHash -> {
+        })).isEqualTo(receipt);
+        verify(signerService).signAndSendTransaction(any(), any(), any(), eq(MULTICALL_ADDRESS),
+                eq(ClaimDataEncoder.encodeMulticallClaims(chainConfig.getHubAddress(),
+                        List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2))));
+        // support of claimArray is checked once
+        verify(signerService).estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of()));
+    }
+
+    @Test
+    void shouldNotClaimTasksInBatchWithoutClaimArrayNorMulticall() throws IOException {
+        final IexecHubService noMulticallHubService = createMulticallHubService(null, null);
+        when(signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of())))
+                .thenThrow(new RuntimeException("execution reverted"));
+        assertThat(noMulticallHubService.canClaimInBatch()).isFalse();
+        assertThatThrownBy(() -> noMulticallHubService.claimTasks(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2), txHash -> {
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldNotClaimTasksInBatchWhenMulticallNotDeployed() throws IOException {
+        final IexecHubService noMulticallHubService = createMulticallHubService(MULTICALL_ADDRESS, "0x");
+        when(signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of())))
+                .thenThrow(new RuntimeException("execution reverted"));
+        assertThat(noMulticallHubService.canClaimInBatch()).isFalse();
+        assertThatThrownBy(() -> noMulticallHubService.claimTasks(List.of(CHAIN_TASK_ID_1, CHAIN_TASK_ID_2), txHash -> {
+        })).isInstanceOf(IllegalStateException.class);
+        verify(signerService, never()).signAndSendTransaction(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldCheckClaimArraySupportAgainAfterInconclusiveError() throws IOException {
+        when(signerService.estimateGas(chainConfig.getHubAddress(), ClaimDataEncoder.encodeClaimArray(List.of())))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(BigInteger.valueOf(30_000L));
+        assertThat(iexecHubService.isClaimArraySupported()).isFalse();
+        assertThat(iexecHubService.isClaimArraySupported()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private IexecHubService createMulticallHubService(final String multicallAddress,
+                                                      final String multicallCode) throws IOException {
+        final ChainConfig multicallChainConfig = ChainConfig.builder()
+                .blockTime(Duration.ofSeconds(5))
+                .hubAddress(chainConfig.getHubAddress())
+                .multicallAddress(multicallAddress)
+                .build();
+        final IexecHubService multicallHubService = new IexecHubService(signerService, web3jService, multicallChainConfig);
+        ReflectionTestUtils.setField(multicallHubService, "txReceiptProcessor", txReceiptProcessor);
+        if (multicallAddress != null) {
+            final Web3j web3j = mock(Web3j.class);
+            final Request<?, EthGetCode> request = mock(Request.class);
+            final EthGetCode ethGetCode = new EthGetCode();
+            ethGetCode.setResult(multicallCode);
+            when(web3jService.getWeb3j()).thenReturn(web3j);
+            doReturn(request).when(web3j).ethGetCode(multicallAddress, DefaultBlockParameterName.LATEST);
+            when(request.send()).thenReturn(ethGetCode);
+        }
+        multicallHubService.checkMulticallContract();
+        return multicallHubService;
+    }
+
+    // endregion
+
+    // region getGasPrice
+
+    @Test
+    void shouldBumpGasPriceAfterUnderpricedTransaction() throws IOException, TransactionException {
+        when(signerService.getNonce()).thenReturn(BigInteger.ONE);
+        when(signerService.estimateGas(any(), any())).thenReturn(BigInteger.valueOf(100_000L));
+        when(web3jService.getUserGasPrice()).thenReturn(BigInteger.valueOf(8_000L));
+        when(signerService.signAndSendTransaction(any(), any(), any(), any(), any()))
+                .thenThrow(new IOException("replacement transaction underpriced"))
+                .thenReturn("txHash");
+        when(txReceiptProcessor.waitForTransactionReceipt("txHash")).thenReturn(receipt);
+
+        assertThatThrownBy(() -> iexecHubService.initializeTask(chainDealId, 0))
+                .isInstanceOf(IOException.class);
+        assertThat(iexecHubService.getGasPrice()).isEqualTo(BigInteger.valueOf(9_000L));
+        assertThat(iexecHubService.initializeTask(chainDealId, 0)).isEqualTo(receipt);
+
+        verify(signerService).signAndSendTransaction(any(), eq(BigInteger.valueOf(8_000L)), any(), any(), any());
+        verify(signerService).signAndSendTransaction(any(), eq(BigInteger.valueOf(9_000L)), any(), any(), any());
+        assertThat(iexecHubService.getGasPrice()).isEqualTo(BigInteger.valueOf(8_000L));
+    }
+
+    @Test
+    void shouldNotBumpGasPriceAfterOtherError() throws IOException {
+        when(signerService.estimateGas(any(), any())).thenReturn(BigInteger.valueOf(100_000L));
+        when(web3jService.getUserGasPrice()).thenReturn(BigInteger.valueOf(8_000L));
+        when(signerService.signAndSendTransaction(any(), any(), any(), any(), any()))
+                .thenThrow(new IOException("nonce too low"));
+
+        assertThatThrownBy(() -> iexecHubService.initializeTask(chainDealId, 0))
+                .isInstanceOf(IOException.class);
+        assertThat(iexecHubService.getGasPrice()).isEqualTo(BigInteger.valueOf(8_000L));
+    }
+
+    @Test
+    void shouldCapBumpedGasPrice() {
+        final ChainConfig cappedChainConfig = ChainConfig.builder()
+                .blockTime(Duration.ofSeconds(5))
+                .hubAddress("0xC129e7917b7c7DeDfAa5Fff1FB18d5D7050fE8ca")
+                .gasPriceCap(8_500L)
+                .build();
+        final IexecHubService cappedHubService = new IexecHubService(signerService, web3jService, cappedChainConfig);
+        ((AtomicInteger) ReflectionTestUtils.getField(cappedHubService, "feeBumps")).set(2);
+        when(web3jService.getUserGasPrice()).thenReturn(BigInteger.valueOf(8_000L));
+        assertThat(cappedHubService.getGasPrice()).isEqualTo(BigInteger.valueOf(8_500L));
+    }
+
+    // endregion
+
     // region isTaskInUnsetStatusOnChain
 
     @Test
@@ -190,4 +345,25 @@ class IexecHubServiceTests {
     }
 
     // endregion
+
+    // region getContributionDeadline
+
+    @Test
+    void shouldNotGetContributionDeadlineWhenDealNotFound() {
+        assertThat(iexecHubService.getContributionDeadline("dealId"))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldGetContributionDeadline() {
+        final BigInteger startTime = BigInteger.valueOf(Instant.now().getEpochSecond());
+        final ChainCategory category = ChainCategory.builder().maxExecutionTime(1000L).build();
+        ReflectionTestUtils.setField(iexecHubService, "categories", Map.of(0L, category));
+        when(iexecHubService.getChainDeal("dealId"))
+                .thenReturn(Optional.of(ChainDeal.builder().chainCategory(category).startTime(startTime).build()));
+        assertThat(iexecHubService.getContributionDeadline("dealId"))
+                .hasValueSatisfying(deadline -> assertThat(deadline).isAfter(Instant.ofEpochSecond(startTime.longValue())));
+    }
+
+    // endregion
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,12 +22,16 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -108,6 +112,24 @@ class QueueServiceTests {
         assertThat(highPriorityTimestamps.get(0)).isLessThan(lowPriorityTimestamps.get(0));
     }
 
+    @Test
+    void shouldCountQueuedRunnables() throws Exception {
+        AtomicBoolean queueReady = new AtomicBoolean(false);
+        Future<Void> future = queueService.addExecutionToQueue(() -> waitQueueReady(queueReady), false);
+        Awaitility.await()
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> queueService.getQueueSize() == 0);
+        queueService.addExecutionToQueue(() -> {}, false);
+        queueService.addExecutionToQueue(() -> {}, true);
+        // the blocking runnable is running, only the 2 other ones are queued
+        assertThat(queueService.getQueueSize()).isEqualTo(2);
+        queueReady.set(true);
+        future.get(TIMEOUT_DURATION, TimeUnit.SECONDS);
+        Awaitility.await()
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> queueService.getQueueSize() == 0);
+    }
+
     @Test
     void shouldExecuteInOrder() throws NoSuchFieldException {
         final int taskNumberPerPriority = 3;
@@ -179,6 +201,90 @@ class QueueServiceTests {
     }
     // endregion
 
+    // region virtual threads
+    @Test
+    void shouldRunOnVirtualThreads() throws Exception {
+        final QueueService virtualQueueService = new QueueService(1, true, 2);
+        virtualQueueService.start();
+        final AtomicBoolean virtual = new AtomicBoolean(false);
+        virtualQueueService.addExecutionToQueue(() -> virtual.set(Thread.currentThread().isVirtual()), false)
+                .get(TIMEOUT_DURATION, TimeUnit.SECONDS);
+        assertThat(virtual).isTrue();
+        virtualQueueService.shutdown();
+    }
+
+    @Test
+    void shouldLimitConcurrencyWithPermits() throws Exception {
+        final int maxConcurrency = 2;
+        final int taskCount = 6;
+        final QueueService virtualQueueService = new QueueService(1, true, maxConcurrency);
+        virtualQueueService.start();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<Void>> futures = IntStream.range(0, taskCount)
+                .mapToObj(i -> virtualQueueService.addExecutionToQueue(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(TIMEOUT_DURATION, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }, false))
+                .toList();
+
+        Awaitility.await()
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> running.get() == maxConcurrency);
+        // tasks without permit wait in the priority queue
+        assertThat(virtualQueueService.getQueueSize()).isEqualTo(taskCount - maxConcurrency);
+        release.countDown();
+        for (final Future<Void> future : futures) {
+            future.get(TIMEOUT_DURATION, TimeUnit.SECONDS);
+        }
+        assertThat(maxRunning.get()).isEqualTo(maxConcurrency);
+        assertThat(virtualQueueService.getQueueSize()).isZero();
+        virtualQueueService.shutdown();
+    }
+
+    @Test
+    void shouldRunHighPriorityBeforeLowPriorityOnVirtualThreads() throws Exception {
+        final QueueService virtualQueueService = new QueueService(1, true, 1);
+        virtualQueueService.start();
+        final List<Boolean> executionOrder = new CopyOnWriteArrayList<>();
+        final AtomicBoolean queueReady = new AtomicBoolean(false);
+        final Future<Void> future = virtualQueueService.addExecutionToQueue(() -> waitQueueReady(queueReady), false);
+        Awaitility.await()
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> virtualQueueService.getQueueSize() == 0);
+        virtualQueueService.addExecutionToQueue(() -> executionOrder.add(false), false);
+        virtualQueueService.addExecutionToQueue(() -> executionOrder.add(true), true);
+        queueReady.set(true);
+        future.get(TIMEOUT_DURATION, TimeUnit.SECONDS);
+
+        Awaitility.await()
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> executionOrder.size() == 2);
+        assertThat(executionOrder).containsExactly(true, false);
+        virtualQueueService.shutdown();
+    }
+
+    @Test
+    void shouldNotStartQueuedTasksAfterShutdown() {
+        final QueueService virtualQueueService = new QueueService(1, true, 1);
+        virtualQueueService.start();
+        virtualQueueService.shutdown();
+
+        final Future<Void> future = virtualQueueService.addExecutionToQueue(() -> { }, false);
+
+        Awaitility.await()
+                .during(200, TimeUnit.MILLISECONDS)
+                .atMost(TIMEOUT_DURATION, TimeUnit.SECONDS)
+                .until(() -> !future.isDone() && virtualQueueService.getQueueSize() == 1);
+    }
+    // endregion
+
     //region BlockchainAction
     private void blockchainAction() {
         // a blockchain action
@@ -223,6 +329,25 @@ class QueueServiceTests {
         assertThat(action4.compareTo(action2)).isEqualTo(hasHigherPriority);
         assertThat(action4.compareTo(action3)).isEqualTo(hasLowerPriority);
     }
+
+    @Test
+    void validateBlockchainActionDeadlineComparisons() {
+        final int hasHigherPriority = -1;
+        final int hasLowerPriority = 1;
+        final Instant now = Instant.now();
+        QueueService.BlockchainAction noDeadline = new QueueService.BlockchainAction(this::blockchainAction, false);
+        QueueService.BlockchainAction lateDeadline = new QueueService.BlockchainAction(this::blockchainAction, false, now.plusSeconds(60));
+        QueueService.BlockchainAction earlyDeadline = new QueueService.BlockchainAction(this::blockchainAction, false, now.plusSeconds(10));
+        QueueService.BlockchainAction highPriority = new QueueService.BlockchainAction(this::blockchainAction, true, now.plusSeconds(120));
+        // earliest deadline first, even for actions created later
+        assertThat(earlyDeadline.compareTo(lateDeadline)).isEqualTo(hasHigherPriority);
+        assertThat(lateDeadline.compareTo(earlyDeadline)).isEqualTo(hasLowerPriority);
+        // actions without deadline come last
+        assertThat(lateDeadline.compareTo(noDeadline)).isEqualTo(hasHigherPriority);
+        assertThat(noDeadline.compareTo(earlyDeadline)).isEqualTo(hasLowerPriority);
+        // priority comes before deadline
+        assertThat(highPriority.compareTo(earlyDeadline)).isEqualTo(hasHigherPriority);
+    }
     //endregion
 
     //region TaskWithPriority
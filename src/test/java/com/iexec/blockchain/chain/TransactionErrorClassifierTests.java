@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iexec.blockchain.chain.TransactionErrorClass.RecoveryAction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.JsonRpcError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionErrorClassifierTests {
+
+    private static final String RECORDED_ERRORS_RESOURCE = "/chain/transaction-errors.json";
+
+    /**
+     * Errors recorded from nodes and HTTP transport, with their expected class.
+     */
+    static Stream<Arguments> recordedErrors() throws Exception {
+        try (InputStream inputStream = TransactionErrorClassifierTests.class
+                .getResourceAsStream(RECORDED_ERRORS_RESOURCE)) {
+            final JsonNode records = new ObjectMapper().readTree(inputStream);
+            return StreamSupport.stream(records.spliterator(), false)
+                    .map(record -> Arguments.of(
+                            record.get("node").asText(),
+                            toThrowable(record),
+                            TransactionErrorClass.valueOf(record.get("expected").asText())))
+                    .toList()
+                    .stream();
+        }
+    }
+
+    private static Throwable toThrowable(final JsonNode record) {
+        if (record.has("response")) {
+            final JsonNode error = record.get("response").get("error");
+            final Response.Error responseError = new Response.Error(
+                    error.get("code").asInt(), error.get("message").asText());
+            if (error.has("data")) {
+                responseError.setData(error.get("data").asText());
+            }
+            return new JsonRpcError(responseError);
+        }
+        try {
+            return (Throwable) Class.forName(record.get("exception").asText())
+                    .getConstructor(String.class)
+                    .newInstance(record.get("message").asText());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create recorded exception " + record, e);
+        }
+    }
+
+    @ParameterizedTest(name = "[{index}] {0}: {1}")
+    @MethodSource("recordedErrors")
+    void shouldClassifyRecordedError(String node, Throwable error, TransactionErrorClass expected) {
+        assertThat(TransactionErrorClassifier.classify(error)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldClassifyWrappedError() {
+        final IOException error = new IOException("Error processing transaction request",
+                new JsonRpcError(new Response.Error(-32000, "nonce too low")));
+        assertThat(TransactionErrorClassifier.classify(error)).isEqualTo(TransactionErrorClass.NONCE_TOO_LOW);
+    }
+
+    @Test
+    void shouldClassifyWrappedTransportError() {
+        final IOException error = new IOException("Cannot send request", new SocketTimeoutException());
+        assertThat(TransactionErrorClassifier.classify(error)).isEqualTo(TransactionErrorClass.NODE_UNAVAILABLE);
+    }
+
+    @Test
+    void shouldClassifyErrorWithoutMessageAsUnknown() {
+        assertThat(TransactionErrorClassifier.classify(new IOException())).isEqualTo(TransactionErrorClass.UNKNOWN);
+    }
+
+    @Test
+    void shouldMapClassesToActions() {
+        assertThat(TransactionErrorClass.NONCE_TOO_LOW.getAction()).isEqualTo(RecoveryAction.RESYNC_NONCE);
+        assertThat(TransactionErrorClass.ALREADY_KNOWN.getAction()).isEqualTo(RecoveryAction.AWAIT_SUBMITTED);
+        assertThat(TransactionErrorClass.UNDERPRICED.getAction()).isEqualTo(RecoveryAction.BUMP_FEE);
+        assertThat(TransactionErrorClass.INSUFFICIENT_FUNDS.getAction()).isEqualTo(RecoveryAction.FAIL_FAST);
+        assertThat(TransactionErrorClass.REVERTED.getAction()).isEqualTo(RecoveryAction.FAIL_FAST);
+        assertThat(TransactionErrorClass.NODE_UNAVAILABLE.getAction()).isEqualTo(RecoveryAction.RETRY_WITH_BACKOFF);
+        assertThat(TransactionErrorClass.UNKNOWN.getAction()).isEqualTo(RecoveryAction.RETRY_WITH_BACKOFF);
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.chain;
+
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Check with JFR {@code jdk.VirtualThreadPinned} events that blocking RPC calls through web3j and OkHttp,
+ * run by the {@link QueueService} on virtual threads, do not pin carrier threads.
+ */
+@Slf4j
+class VirtualThreadPinningTests {
+
+    private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final List<String> CHECKED_PACKAGES = List.of("org.web3j.", "okhttp3.", "okio.", "com.iexec.");
+    private static final int CALL_COUNT = 50;
+    private static final Duration NODE_LATENCY = Duration.ofMillis(20);
+
+    private HttpServer node;
+    private Web3j web3j;
+
+    @BeforeEach
+    void init() throws IOException {
+        node = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        node.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        node.createContext("/", exchange -> {
+            try {
+                Thread.sleep(NODE_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final byte[] response = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x10\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        node.start();
+        web3j = Web3j.build(new HttpService("http://localhost:" + node.getAddress().getPort()));
+    }
+
+    @AfterEach
+    void close() {
+        web3j.shutdown();
+        node.stop(0);
+    }
+
+    @Test
+    void shouldNotPinCarrierThreadsDuringRpcCalls() throws Exception {
+        // load classes and open a first connection outside of virtual threads
+        assertThat(web3j.ethBlockNumber().send().getBlockNumber()).isEqualTo(BigInteger.valueOf(16));
+
+        final QueueService queueService = new QueueService(1, true, 16);
+        queueService.start();
+        final ReentrantLock submitLock = new ReentrantLock();
+        final List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT_NAME).withStackTrace().withThreshold(Duration.ZERO);
+            recording.onEvent(PINNED_EVENT_NAME, pinnedEvents::add);
+            recording.startAsync();
+
+            // serialized calls reproduce transaction submissions, others reproduce reads and receipt polling
+            final List<Future<Void>> futures = IntStream.range(0, CALL_COUNT)
+                    .mapToObj(i -> queueService.addExecutionToQueue(() -> {
+                        if (i % 2 == 0) {
+                            submitLock.lock();
+                            try {
+                                callNode();
+                            } finally {
+                                submitLock.unlock();
+                            }
+                        } else {
+                            callNode();
+                        }
+                    }, i % 5 == 0))
+                    .toList();
+            for (final Future<Void> future : futures) {
+                future.get(CALL_COUNT * NODE_LATENCY.toMillis() * 2, TimeUnit.MILLISECONDS);
+            }
+            recording.stop();
+        }
+        queueService.shutdown();
+
+        final List<RecordedEvent> checkedPinnedEvents = pinnedEvents.stream()
+                .filter(this::isInCheckedPackages)
+                .toList();
+        checkedPinnedEvents.forEach(event -> log.error("Virtual thread pinned [duration:{}, stackTrace:{}]",
+                event.getDuration(), event.getStackTrace()));
+        assertThat(checkedPinnedEvents).isEmpty();
+    }
+
+    private void callNode() {
+        try {
+            web3j.ethBlockNumber().send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isInCheckedPackages(final RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName())
+                .anyMatch(typeName -> CHECKED_PACKAGES.stream().anyMatch(typeName::startsWith));
+    }
+
+}
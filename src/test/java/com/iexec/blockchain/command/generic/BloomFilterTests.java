@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final String OTHER_CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea2";
+    private static final int EXPECTED_INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    void shouldSizeFilter() {
+        final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        // about 9.6 bits and 7 hash functions per value for a 1% false positive probability
+        assertThat(filter.getBitCount()).isBetween(95_851L, 95_851L + Long.SIZE);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldNotBuildFilterWithInvalidParameters() {
+        assertThatThrownBy(() -> new BloomFilter(0, FALSE_POSITIVE_PROBABILITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(EXPECTED_INSERTIONS, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldContainAddedValues() {
+        final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        final List<String> values = getTaskIds(CHAIN_DEAL_ID);
+        values.forEach(filter::put);
+        assertThat(values).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void shouldNotContainMostOtherValues() {
+        final BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        getTaskIds(CHAIN_DEAL_ID).forEach(filter::put);
+        final long falsePositives = getTaskIds(OTHER_CHAIN_DEAL_ID).stream()
+                .filter(filter::mightContain)
+                .count();
+        assertThat(falsePositives).isLessThan(2L * EXPECTED_INSERTIONS / 100);
+    }
+
+    private List<String> getTaskIds(final String chainDealId) {
+        return IntStream.range(0, EXPECTED_INSERTIONS)
+                .mapToObj(i -> ChainUtils.generateChainTaskId(chainDealId, i))
+                .toList();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChainObjectIdConverterTests {
+
+    private static final String CHAIN_TASK_ID = ChainUtils.generateChainTaskId(
+            "0x000000000000000000000000000000000000000000000000000000000000dea1", 0);
+
+    private final ChainObjectIdConverter converter = new ChainObjectIdConverter();
+
+    @Test
+    void shouldWriteIdAs32Bytes() {
+        final Object stored = converter.write(CHAIN_TASK_ID, null);
+        assertThat(stored).isInstanceOf(Binary.class);
+        assertThat(((Binary) stored).getData()).hasSize(32);
+        assertThat(converter.read(stored, null)).isEqualTo(CHAIN_TASK_ID);
+    }
+
+    @Test
+    void shouldReadLegacyHexId() {
+        assertThat(converter.read(CHAIN_TASK_ID, null)).isEqualTo(CHAIN_TASK_ID);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"0x1", "0xdea1", "dea1000000000000000000000000000000000000000000000000000000000000",
+            "0xzz00000000000000000000000000000000000000000000000000000000000000"})
+    void shouldNotWriteInvalidId(String chainObjectId) {
+        assertThat(ChainObjectIdConverter.isValid(chainObjectId)).isFalse();
+        assertThatThrownBy(() -> ChainObjectIdConverter.toBinary(chainObjectId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
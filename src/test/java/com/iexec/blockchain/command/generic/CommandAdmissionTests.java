@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.chain.ChainConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CommandAdmissionTests {
+
+    private static final long MAX_QUEUE_SIZE = 10;
+    private static final Duration SAMPLING_INTERVAL = Duration.ofSeconds(30);
+    // 1 transaction every 5 seconds
+    private static final double NOMINAL_THROUGHPUT = 0.2;
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandStore commandStore;
+    @Mock
+    private CommandArgs args;
+
+    private CommandAdmission commandAdmission;
+
+    @BeforeAll
+    static void initRegistry() {
+        Metrics.globalRegistry.add(meterRegistry);
+    }
+
+    @AfterAll
+    static void clearRegistry() {
+        Metrics.globalRegistry.remove(meterRegistry);
+    }
+
+    @BeforeEach
+    void init() {
+        final ChainConfig chainConfig = ChainConfig.builder()
+                .blockTime(Duration.ofSeconds(5))
+                .maxAllowedTxPerBlock(1)
+                .build();
+        commandAdmission = new CommandAdmission(commandQueue, commandStore, chainConfig, MAX_QUEUE_SIZE, SAMPLING_INTERVAL);
+    }
+
+    // region checkCapacity
+    @Test
+    void shouldAdmitWhenQueueNotFull() {
+        when(commandQueue.size()).thenReturn(MAX_QUEUE_SIZE - 1);
+        final double rejected = getRejectedCount("queue-full");
+        assertThat(commandAdmission.checkCapacity()).isEmpty();
+        assertThat(getRejectedCount("queue-full")).isEqualTo(rejected);
+    }
+
+    @Test
+    void shouldRejectWhenQueueFull() {
+        when(commandQueue.size()).thenReturn(MAX_QUEUE_SIZE + 2);
+        final double rejected = getRejectedCount("queue-full");
+        // 3 commands to drain at 0.2 command per second
+        assertThat(commandAdmission.checkCapacity()).contains(Duration.ofSeconds(15));
+        assertThat(getRejectedCount("queue-full")).isEqualTo(rejected + 1);
+    }
+    // endregion
+
+    // region checkDeadline
+    @Test
+    void shouldAdmitWhenDeadlineAfterProjectedWait() {
+        final Instant deadline = Instant.now().plusSeconds(60);
+        when(commandQueue.getBacklogAhead(args, deadline)).thenReturn(new CommandQueue.BacklogAhead(0, 5, 1.0));
+        // 5 commands of the tenant to drain at 0.2 command per second
+        assertThat(commandAdmission.checkDeadline(args, deadline)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectWhenDeadlineBeforeProjectedWait() {
+        final Instant deadline = Instant.now().plusSeconds(30);
+        when(commandQueue.getBacklogAhead(args, deadline)).thenReturn(new CommandQueue.BacklogAhead(2, 4, 0.5));
+        final double rejected = getRejectedCount("deadline");
+        // 2 priority commands at 0.2 command per second, then 4 commands of the tenant at half of the throughput,
+        // the projected wait of 50 seconds overruns the deadline by 20 seconds
+        assertThat(commandAdmission.checkDeadline(args, deadline)).hasValueSatisfying(retryAfter ->
+                assertThat(retryAfter).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(21)));
+        assertThat(getRejectedCount("deadline")).isEqualTo(rejected + 1);
+    }
+
+    @Test
+    void shouldAdmitWithEmptyQueue() {
+        final Instant deadline = Instant.now().plusMillis(100);
+        when(commandQueue.getBacklogAhead(args, deadline)).thenReturn(new CommandQueue.BacklogAhead(0, 0, 1.0));
+        assertThat(commandAdmission.checkDeadline(args, deadline)).isEmpty();
+    }
+    // endregion
+
+    // region sampleThroughput
+    @Test
+    void shouldStartWithNominalThroughput() {
+        assertThat(commandAdmission.getThroughput()).isEqualTo(NOMINAL_THROUGHPUT);
+    }
+
+    @Test
+    void shouldNotUpdateThroughputWhenIdle() {
+        when(commandQueue.size()).thenReturn(0L);
+        commandAdmission.sampleThroughput();
+        assertThat(commandAdmission.getThroughput()).isEqualTo(NOMINAL_THROUGHPUT);
+    }
+
+    @Test
+    void shouldDecreaseThroughputWhenBusyWithoutCompletion() {
+        when(commandQueue.size()).thenReturn(MAX_QUEUE_SIZE);
+        commandAdmission.sampleThroughput();
+        assertThat(commandAdmission.getThroughput())
+                .isCloseTo((1 - CommandAdmission.SMOOTHING_FACTOR) * NOMINAL_THROUGHPUT, within(1e-9));
+    }
+
+    @Test
+    void shouldNotDecreaseThroughputBelowOneCommandPerSamplingInterval() {
+        when(commandQueue.size()).thenReturn(MAX_QUEUE_SIZE);
+        IntStream.range(0, 100).forEach(i -> commandAdmission.sampleThroughput());
+        assertThat(commandAdmission.getThroughput()).isEqualTo(1.0 / SAMPLING_INTERVAL.toSeconds());
+    }
+
+    @Test
+    void shouldIncreaseThroughputWithCompletions() {
+        when(commandStore.countFinal(any(), any())).thenReturn(100L);
+        commandAdmission.sampleThroughput();
+        assertThat(commandAdmission.getThroughput()).isGreaterThan(NOMINAL_THROUGHPUT);
+    }
+    // endregion
+
+    private double getRejectedCount(final String reason) {
+        final Counter counter = meterRegistry.find(CommandAdmission.REJECTED_METRIC_NAME).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
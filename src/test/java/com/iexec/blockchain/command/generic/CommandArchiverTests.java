@@ -0,0 +1,242 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+@Testcontainers
+class CommandArchiverTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final Duration MIN_AGE = Duration.ofDays(30);
+    private static final int BATCH_SIZE = 10;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private MongoCommandStore commandStore;
+    private CommandArchiver commandArchiver;
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        mongoTemplate.getCollectionNames().stream()
+                .filter(name -> name.contains("_archive"))
+                .forEach(mongoTemplate::dropCollection);
+        commandStore = new MongoCommandStore(mongoTemplate, mock(CommandWriteBatcher.class));
+        commandArchiver = new CommandArchiver(mongoTemplate, commandStore, MIN_AGE, BATCH_SIZE);
+    }
+
+    // region archiveBatch
+    @Test
+    void shouldArchiveOldCompletedCommandsOnly() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate));
+        mongoTemplate.insert(createCommand(1, CommandStatus.FAILURE, oldFinalDate));
+        mongoTemplate.insert(createCommand(2, CommandStatus.SUCCESS, Instant.now()));
+        mongoTemplate.insert(createCommand(3, CommandStatus.PROCESSING, null));
+
+        assertThat(commandArchiver.archiveBatch()).isEqualTo(2);
+
+        assertThat(mongoTemplate.findAll(Command.class))
+                .extracting(Command::getChainObjectId)
+                .containsExactlyInAnyOrder(getChainTaskId(2), getChainTaskId(3));
+        final String partitionName = commandArchiver.getPartitionName(oldFinalDate);
+        assertThat(mongoTemplate.findAll(Command.class, partitionName))
+                .extracting(Command::getChainObjectId)
+                .containsExactlyInAnyOrder(getChainTaskId(0), getChainTaskId(1));
+        assertThat(commandArchiver.archiveBatch()).isZero();
+    }
+
+    @Test
+    void shouldArchiveInBoundedBatches() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        IntStream.range(0, BATCH_SIZE + 1)
+                .forEach(i -> mongoTemplate.insert(createCommand(i, CommandStatus.SUCCESS, oldFinalDate)));
+
+        assertThat(commandArchiver.archiveBatch()).isEqualTo(BATCH_SIZE);
+        assertThat(mongoTemplate.count(new Query(), Command.class)).isOne();
+        assertThat(commandArchiver.archiveBatch()).isOne();
+        assertThat(mongoTemplate.count(new Query(), Command.class)).isZero();
+    }
+
+    @Test
+    void shouldArchiveAgainAfterInterruptedBatch() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        final Command command = createCommand(0, CommandStatus.SUCCESS, oldFinalDate);
+        mongoTemplate.insert(command);
+        // command inserted in the archive but not removed from the live collection
+        mongoTemplate.insert(command, commandArchiver.getPartitionName(oldFinalDate));
+
+        assertThat(commandArchiver.archiveBatch()).isOne();
+        assertThat(mongoTemplate.count(new Query(), Command.class)).isZero();
+        assertThat(mongoTemplate.count(new Query(), commandArchiver.getPartitionName(oldFinalDate))).isOne();
+    }
+
+    @Test
+    void shouldKeepLiveCommandWithKeyOfDistinctArchivedCommand() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate));
+        assertThat(commandArchiver.archiveBatch()).isOne();
+        assertThat(commandArchiver.isArchived(getChainTaskId(0), CommandName.TASK_INITIALIZE)).isTrue();
+        // distinct command with the same key, inserted without checking the archive
+        final Command distinctCommand = createCommand(0, CommandStatus.SUCCESS, oldFinalDate);
+        mongoTemplate.insert(distinctCommand);
+
+        assertThat(commandArchiver.archiveBatch()).isZero();
+        assertThat(mongoTemplate.findAll(Command.class))
+                .extracting(Command::getId)
+                .containsExactly(distinctCommand.getId());
+        assertThat(mongoTemplate.findAll(Command.class, commandArchiver.getPartitionName(oldFinalDate)))
+                .extracting(Command::getId)
+                .doesNotContain(distinctCommand.getId())
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldKeepLiveCommandWithKeyOfDistinctCommandInPartition() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        // command archived before its key was recorded
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate),
+                commandArchiver.getPartitionName(oldFinalDate));
+        final Command distinctCommand = createCommand(0, CommandStatus.SUCCESS, oldFinalDate);
+        mongoTemplate.insert(distinctCommand);
+
+        assertThat(commandArchiver.archiveBatch()).isZero();
+        assertThat(mongoTemplate.findAll(Command.class))
+                .extracting(Command::getId)
+                .containsExactly(distinctCommand.getId());
+    }
+
+    @Test
+    void shouldPartitionOnFinalMonth() {
+        assertThat(commandArchiver.getPartitionName(Instant.parse("2026-01-31T23:59:59Z")))
+                .isEqualTo(mongoTemplate.getCollectionName(Command.class) + "_archive_2026_01");
+        assertThat(commandArchiver.getPartitionName(Instant.parse("2026-02-01T00:00:00Z")))
+                .isEqualTo(mongoTemplate.getCollectionName(Command.class) + "_archive_2026_02");
+    }
+    // endregion
+
+    // region getStatusesForCommands
+    @Test
+    void shouldGetStatusesFromAllPartitions() {
+        final Instant now = Instant.now();
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, now.minus(60, ChronoUnit.DAYS)));
+        mongoTemplate.insert(createCommand(1, CommandStatus.FAILURE, now.minus(100, ChronoUnit.DAYS)));
+        assertThat(commandArchiver.archiveBatch()).isEqualTo(2);
+        // partitions are discovered from the database by a new instance
+        commandArchiver = new CommandArchiver(mongoTemplate, commandStore, MIN_AGE, BATCH_SIZE);
+
+        final Map<String, CommandStatus> statuses = commandArchiver.getStatusesForCommands(
+                List.of(getChainTaskId(0), getChainTaskId(1), getChainTaskId(2)), CommandName.TASK_INITIALIZE);
+
+        assertThat(statuses).isEqualTo(Map.of(
+                getChainTaskId(0), CommandStatus.SUCCESS,
+                getChainTaskId(1), CommandStatus.FAILURE));
+        assertThat(commandArchiver.getStatusForCommand(getChainTaskId(0), CommandName.TASK_FINALIZE)).isEmpty();
+        assertThat(commandArchiver.getStatusForCommand(getChainTaskId(1), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Optional.of(CommandStatus.FAILURE));
+    }
+
+    @Test
+    void shouldGetStatusOfKeyWithoutPartitionFromAllPartitions() {
+        final Instant oldFinalDate = Instant.now().minus(60, ChronoUnit.DAYS);
+        // command archived by an older version, which did not record partitions
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate),
+                commandArchiver.getPartitionName(oldFinalDate));
+        mongoTemplate.insert(new Document("_id", CommandName.TASK_INITIALIZE + ":" + getChainTaskId(0)),
+                mongoTemplate.getCollectionName(Command.class) + "_archived_keys");
+
+        assertThat(commandArchiver.getStatusForCommand(getChainTaskId(0), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Optional.of(CommandStatus.SUCCESS));
+    }
+
+    @Test
+    void shouldNotGetStatusOfCommandWithoutArchivedKey() {
+        final Instant oldFinalDate = Instant.now().minus(60, ChronoUnit.DAYS);
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate),
+                commandArchiver.getPartitionName(oldFinalDate));
+
+        assertThat(commandArchiver.getStatusForCommand(getChainTaskId(0), CommandName.TASK_INITIALIZE)).isEmpty();
+    }
+    // endregion
+
+    // region forEachArchivedKey
+    @Test
+    void shouldListArchivedKeys() {
+        final Instant oldFinalDate = Instant.now().minus(MIN_AGE).minus(1, ChronoUnit.DAYS);
+        mongoTemplate.insert(createCommand(0, CommandStatus.SUCCESS, oldFinalDate));
+        mongoTemplate.insert(createCommand(1, CommandStatus.FAILURE, oldFinalDate));
+        assertThat(commandArchiver.archiveBatch()).isEqualTo(2);
+
+        final Map<String, CommandName> keys = new HashMap<>();
+        commandArchiver.forEachArchivedKey(keys::put);
+
+        assertThat(keys).isEqualTo(Map.of(
+                getChainTaskId(0), CommandName.TASK_INITIALIZE,
+                getChainTaskId(1), CommandName.TASK_INITIALIZE));
+    }
+    // endregion
+
+    private Command createCommand(final int taskIndex, final CommandStatus status, final Instant finalDate) {
+        final Command command = new Command();
+        command.setChainObjectId(getChainTaskId(taskIndex));
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(status);
+        command.setFinalDate(finalDate);
+        return command;
+    }
+
+    private String getChainTaskId(final int taskIndex) {
+        return ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex);
+    }
+}
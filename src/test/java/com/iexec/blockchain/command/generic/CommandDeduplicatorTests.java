@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import com.iexec.commons.poco.chain.ChainUtils;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommandDeduplicatorTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final String CHAIN_TASK_ID = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 0);
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
+    @Mock
+    private CommandStorage commandStorage;
+
+    private CommandDeduplicator commandDeduplicator;
+    private final TaskInitializeArgs args = new TaskInitializeArgs(CHAIN_TASK_ID, CHAIN_DEAL_ID, 0);
+    private final AtomicInteger starts = new AtomicInteger();
+
+    @BeforeAll
+    static void initRegistry() {
+        Metrics.globalRegistry.add(meterRegistry);
+    }
+
+    @AfterAll
+    static void clearRegistry() {
+        Metrics.globalRegistry.remove(meterRegistry);
+    }
+
+    @BeforeEach
+    void init() {
+        commandDeduplicator = new CommandDeduplicator(mongoTemplate, commandStorage, commandArchiver, 1000, 0.01);
+        starts.set(0);
+    }
+
+    // region load
+    @Test
+    void shouldAnswerDuplicateOfLoadedCommand() {
+        final Command command = new Command();
+        command.setChainObjectId(CHAIN_TASK_ID);
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        when(mongoTemplate.stream(any(Query.class), eq(Command.class))).thenReturn(Stream.of(command));
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.SUCCESS));
+
+        commandDeduplicator.load();
+
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(0);
+    }
+
+    @Test
+    void shouldAnswerDuplicateOfArchivedCommand() {
+        when(mongoTemplate.stream(any(Query.class), eq(Command.class))).thenReturn(Stream.empty());
+        doAnswer(invocation -> {
+            invocation.<BiConsumer<String, CommandName>>getArgument(0).accept(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE);
+            return null;
+        }).when(commandArchiver).forEachArchivedKey(any());
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.SUCCESS));
+
+        commandDeduplicator.load();
+
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(0);
+    }
+    // endregion
+
+    // region start
+    @Test
+    void shouldStartNewCommandWithoutLookup() {
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(1);
+        verifyNoInteractions(commandStorage);
+    }
+
+    @Test
+    void shouldAnswerDuplicateOfStartedCommand() {
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.RECEIVED));
+
+        commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID));
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(1);
+    }
+
+    @Test
+    void shouldStartAgainAfterFailedStart() {
+        commandDeduplicator.start(args, countingStart(""));
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(2);
+        verifyNoInteractions(commandStorage);
+    }
+
+    @Test
+    void shouldStartWhenPossiblyKnownCommandIsNotFound() {
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.empty());
+
+        commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID));
+        assertThat(commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID))).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(2);
+    }
+
+    @Test
+    void shouldShareOutcomeOfInFlightStart() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final double inFlightDuplicates = getInFlightDuplicates();
+        final CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                commandDeduplicator.start(args, blockingStart(started, release, () -> CHAIN_TASK_ID)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+                commandDeduplicator.start(args, countingStart("")));
+        await().atMost(Duration.ofSeconds(5)).until(() -> getInFlightDuplicates() > inFlightDuplicates);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(CHAIN_TASK_ID);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(CHAIN_TASK_ID);
+        assertThat(starts).hasValue(0);
+    }
+
+    @Test
+    void shouldShareRejectionOfInFlightStart() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final double inFlightDuplicates = getInFlightDuplicates();
+        final CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                commandDeduplicator.start(args, blockingStart(started, release, () -> {
+                    throw new CommandRejectedException("full", Duration.ofSeconds(1));
+                })));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+                commandDeduplicator.start(args, countingStart(CHAIN_TASK_ID)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> getInFlightDuplicates() > inFlightDuplicates);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(CommandRejectedException.class);
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(CommandRejectedException.class);
+        assertThat(starts).hasValue(0);
+    }
+    // endregion
+
+    private double getInFlightDuplicates() {
+        return meterRegistry.get(CommandDeduplicator.DUPLICATE_METRIC_NAME).tag("source", "in-flight").counter().count();
+    }
+
+    private Supplier<String> countingStart(final String result) {
+        return () -> {
+            starts.incrementAndGet();
+            return result;
+        };
+    }
+
+    private Supplier<String> blockingStart(final CountDownLatch started, final CountDownLatch release,
+                                           final Supplier<String> result) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+}
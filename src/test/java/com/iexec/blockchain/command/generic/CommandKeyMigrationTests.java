@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+class CommandKeyMigrationTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        mongoTemplate.findAllAndRemove(new Query(), CommandReceipt.class);
+    }
+
+    @Test
+    void shouldMigrateLegacyKeys() {
+        final int count = CommandKeyMigration.BATCH_SIZE + 1;
+        final String collectionName = mongoTemplate.getCollectionName(Command.class);
+        IntStream.range(0, count).forEach(i -> mongoTemplate.insert(new Document()
+                .append("chainObjectId", ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, i))
+                .append("commandName", CommandName.TASK_FINALIZE.name())
+                .append("status", CommandStatus.SUCCESS.name()), collectionName));
+        mongoTemplate.insert(new Document()
+                .append("chainObjectId", ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 0))
+                .append("commandName", CommandName.TASK_FINALIZE.name()),
+                mongoTemplate.getCollectionName(CommandReceipt.class));
+
+        new CommandKeyMigration(mongoTemplate).migrate();
+
+        final List<Document> documents = mongoTemplate.findAll(Document.class, collectionName);
+        assertThat(documents).hasSize(count)
+                .allMatch(document -> document.get("chainObjectId") instanceof Binary)
+                .allMatch(document -> document.get("commandName").equals(CommandName.TASK_FINALIZE.getCode()));
+        final String chainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, count - 1);
+        final Command command = mongoTemplate.findOne(Query.query(Criteria.where("chainObjectId").is(chainTaskId)
+                .and("commandName").is(CommandName.TASK_FINALIZE)), Command.class);
+        assertThat(command).isNotNull();
+        assertThat(command.getChainObjectId()).isEqualTo(chainTaskId);
+        final CommandReceipt receipt = mongoTemplate.findOne(new Query(), CommandReceipt.class);
+        assertThat(receipt.getChainObjectId()).isEqualTo(ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 0));
+        assertThat(receipt.getCommandName()).isEqualTo(CommandName.TASK_FINALIZE);
+    }
+
+    @Test
+    void shouldDeleteLegacyDuplicateOfCompactCommand() {
+        final String chainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 0);
+        final String collectionName = mongoTemplate.getCollectionName(Command.class);
+        mongoTemplate.insert(new Document()
+                .append("chainObjectId", chainTaskId)
+                .append("commandName", CommandName.TASK_FINALIZE.name())
+                .append("status", CommandStatus.RECEIVED.name()), collectionName);
+        final Command command = new Command();
+        command.setChainObjectId(chainTaskId);
+        command.setCommandName(CommandName.TASK_FINALIZE);
+        command.setStatus(CommandStatus.SUCCESS);
+        mongoTemplate.insert(command);
+
+        new CommandKeyMigration(mongoTemplate).migrate();
+
+        final List<Document> documents = mongoTemplate.findAll(Document.class, collectionName);
+        assertThat(documents).hasSize(1)
+                .allMatch(document -> document.get("chainObjectId") instanceof Binary)
+                .allMatch(document -> document.get("status").equals(CommandStatus.SUCCESS.name()));
+    }
+
+    @Test
+    void shouldLeaveInvalidIdsUntouched() {
+        final String collectionName = mongoTemplate.getCollectionName(Command.class);
+        mongoTemplate.insert(new Document()
+                .append("chainObjectId", "0x1")
+                .append("commandName", CommandName.TASK_INITIALIZE.name()), collectionName);
+
+        new CommandKeyMigration(mongoTemplate).migrate();
+
+        final Document document = mongoTemplate.findOne(new Query(), Document.class, collectionName);
+        assertThat(document.get("chainObjectId")).isEqualTo("0x1");
+    }
+
+    @Test
+    void shouldDropLegacyStatusIndex() {
+        mongoTemplate.indexOps(Command.class).ensureIndex(new Index()
+                .on("chainObjectId", Sort.Direction.ASC)
+                .on("commandName", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named(CommandKeyMigration.LEGACY_STATUS_INDEX_NAME));
+
+        new CommandKeyMigration(mongoTemplate).migrate();
+
+        assertThat(mongoTemplate.indexOps(Command.class).getIndexInfo())
+                .extracting(IndexInfo::getName)
+                .contains(Command.KEY_INDEX_NAME)
+                .doesNotContain(CommandKeyMigration.LEGACY_STATUS_INDEX_NAME);
+    }
+}
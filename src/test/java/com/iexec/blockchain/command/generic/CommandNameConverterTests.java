@@ -0,0 +1,55 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandNameConverterTests {
+
+    private final CommandNameConverter converter = new CommandNameConverter();
+
+    @ParameterizedTest
+    @EnumSource(CommandName.class)
+    void shouldWriteCode(CommandName commandName) {
+        final Object stored = converter.write(commandName, null);
+        assertThat(stored).isEqualTo(commandName.getCode());
+        assertThat(converter.read(stored, null)).isEqualTo(commandName);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CommandName.class)
+    void shouldReadLegacyName(CommandName commandName) {
+        assertThat(converter.read(commandName.name(), null)).isEqualTo(commandName);
+    }
+
+    @Test
+    void shouldHaveUniqueCodes() {
+        assertThat(Arrays.stream(CommandName.values()).map(CommandName::getCode)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldNotReadUnknownCode() {
+        assertThatThrownBy(() -> converter.read(0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
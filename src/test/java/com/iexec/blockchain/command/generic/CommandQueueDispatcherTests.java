@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.ChainConfig;
+import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommandQueueDispatcherTests {
+
+    private static final int PREFETCH = 10;
+    private static final Duration BLOCK_TIME = Duration.ofSeconds(5);
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private CommandQueue commandQueue;
+    @Mock
+    private QueueService queueService;
+    @Mock
+    private CommandEngine<CommandArgs> engine;
+
+    private CommandQueueDispatcher dispatcher;
+    private final TaskInitializeArgs args = new TaskInitializeArgs("0x1", "0x2", 0);
+
+    @BeforeAll
+    static void initRegistry() {
+        Metrics.globalRegistry.add(meterRegistry);
+    }
+
+    @AfterAll
+    static void clearRegistry() {
+        Metrics.globalRegistry.remove(meterRegistry);
+    }
+
+    @BeforeEach
+    void init() {
+        when(engine.getCommandName()).thenReturn(CommandName.TASK_INITIALIZE);
+        dispatcher = new CommandQueueDispatcher(commandQueue, queueService, List.of(engine),
+                ChainConfig.builder().blockTime(BLOCK_TIME).build(), PREFETCH);
+    }
+
+    // region dispatch
+    @Test
+    void shouldClaimUpToPrefetchAndSubmitWithPriority() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        queuedCommand.setPriority(true);
+        when(queueService.getQueueSize()).thenReturn(4);
+        when(commandQueue.claim(anyString(), eq(PREFETCH - 4))).thenReturn(List.of(queuedCommand));
+
+        assertThat(dispatcher.dispatch()).isOne();
+        verify(queueService).addExecutionToQueue(any(Runnable.class), eq(true), eq(queuedCommand.getSchedulingDeadline()));
+    }
+
+    @Test
+    void shouldNotClaimWhenLocalBufferIsFull() {
+        when(queueService.getQueueSize()).thenReturn(PREFETCH);
+        assertThat(dispatcher.dispatch()).isZero();
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldReleasePendingLeasesOnShutdown() {
+        final QueuedCommand pending = createQueuedCommand(QueuedCommand.Step.TRIGGER, "pendingLeaseId");
+        final QueuedCommand started = createQueuedCommand(QueuedCommand.Step.TRIGGER, "startedLeaseId");
+        when(queueService.getQueueSize()).thenReturn(0);
+        when(commandQueue.claim(anyString(), eq(PREFETCH))).thenReturn(List.of(pending, started));
+        dispatcher.dispatch();
+        dispatcher.execute(started);
+
+        dispatcher.releasePendingLeases();
+        verify(commandQueue).release(Set.of("pendingLeaseId"));
+    }
+    // endregion
+
+    // region execute
+    @Test
+    void shouldTriggerCommandThenAcknowledge() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        dispatcher.execute(queuedCommand);
+        verify(engine).triggerBlockchainCommand(args);
+        verify(commandQueue).acknowledge(queuedCommand);
+    }
+
+    @Test
+    void shouldSendCommandThenAcknowledge() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.SEND, "leaseId");
+        queuedCommand.setAttempts(2);
+        dispatcher.execute(queuedCommand);
+        verify(engine).sendBlockchainCommand(args, 2);
+        verify(commandQueue).acknowledge(queuedCommand);
+    }
+
+    @Test
+    void shouldConfirmCommandThenAcknowledge() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.CONFIRM, "leaseId");
+        queuedCommand.setAttempts(1);
+        dispatcher.execute(queuedCommand);
+        verify(engine).confirmBlockchainCommand(args, 1);
+        verify(engine, never()).sendBlockchainCommand(any(), anyInt());
+        verify(commandQueue).acknowledge(queuedCommand);
+    }
+
+    @Test
+    void shouldNotAcknowledgeCommandWhenEngineDefersAcknowledgement() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.SEND, "leaseId");
+        when(engine.deferAcknowledgement(queuedCommand)).thenReturn(true);
+        dispatcher.execute(queuedCommand);
+        verify(engine).sendBlockchainCommand(args, 0);
+        verify(commandQueue, never()).acknowledge(any());
+    }
+
+    @Test
+    void shouldAcknowledgeCommandWithoutEngine() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        queuedCommand.setCommandName(CommandName.TASK_FINALIZE);
+        dispatcher.execute(queuedCommand);
+        verify(engine, never()).triggerBlockchainCommand(any());
+        verify(commandQueue).acknowledge(queuedCommand);
+    }
+
+    @Test
+    void shouldAcknowledgeFailedCommand() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        doThrow(new IllegalStateException("failure")).when(engine).triggerBlockchainCommand(args);
+        assertThatThrownBy(() -> dispatcher.execute(queuedCommand)).isInstanceOf(IllegalStateException.class);
+        verify(commandQueue).acknowledge(queuedCommand);
+    }
+    // endregion
+
+    // region metrics
+    @Test
+    void shouldRecordWaitAndSlack() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        queuedCommand.setEnqueueDate(Instant.now().minusSeconds(5));
+        queuedCommand.setDeadline(Instant.now().plusSeconds(60));
+        final long initialWaitCount = getTimerCount(CommandQueueDispatcher.WAIT_METRIC_NAME);
+        final long initialSlackCount = getTimerCount(CommandQueueDispatcher.SLACK_METRIC_NAME);
+
+        dispatcher.execute(queuedCommand);
+
+        assertThat(getTimerCount(CommandQueueDispatcher.WAIT_METRIC_NAME)).isEqualTo(initialWaitCount + 1);
+        assertThat(getTimerCount(CommandQueueDispatcher.SLACK_METRIC_NAME)).isEqualTo(initialSlackCount + 1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueuedCommand.Step.class)
+    void shouldExpireCommandWhenDeadlineIsWithinBlockTime(QueuedCommand.Step step) {
+        final QueuedCommand queuedCommand = createQueuedCommand(step, "leaseId");
+        queuedCommand.setEnqueueDate(Instant.now().minusSeconds(5));
+        queuedCommand.setDeadline(Instant.now().plus(BLOCK_TIME).minusSeconds(1));
+        final double initialExpiredCount = getExpiredCount();
+
+        dispatcher.execute(queuedCommand);
+
+        verify(engine).expireBlockchainCommand(args,
+                step == QueuedCommand.Step.TRIGGER ? CommandStatus.RECEIVED : CommandStatus.PROCESSING);
+        verify(engine, never()).triggerBlockchainCommand(any());
+        verify(engine, never()).sendBlockchainCommand(any(), anyInt());
+        verify(commandQueue).acknowledge(queuedCommand);
+        assertThat(getExpiredCount()).isEqualTo(initialExpiredCount + 1);
+    }
+
+    @Test
+    void shouldNotExpireCommandWithoutDeadline() {
+        final QueuedCommand queuedCommand = createQueuedCommand(QueuedCommand.Step.TRIGGER, "leaseId");
+        dispatcher.execute(queuedCommand);
+        verify(engine).triggerBlockchainCommand(args);
+        verify(engine, never()).expireBlockchainCommand(any(), any());
+    }
+    // endregion
+
+    private double getExpiredCount() {
+        return meterRegistry.counter(CommandQueueDispatcher.EXPIRED_METRIC_NAME,
+                "command", CommandName.TASK_INITIALIZE.name()).count();
+    }
+
+    private long getTimerCount(String metricName) {
+        return meterRegistry.timer(metricName, "command", CommandName.TASK_INITIALIZE.name()).count();
+    }
+
+    private QueuedCommand createQueuedCommand(QueuedCommand.Step step, String leaseId) {
+        final QueuedCommand queuedCommand = new QueuedCommand();
+        queuedCommand.setChainObjectId(args.getChainObjectId());
+        queuedCommand.setCommandName(CommandName.TASK_INITIALIZE);
+        queuedCommand.setStep(step);
+        queuedCommand.setArgs(args);
+        queuedCommand.setLeaseId(leaseId);
+        return queuedCommand;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import com.iexec.commons.poco.chain.ChainUtils;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+class CommandQueueTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final String OWNER = "owner";
+    private static final String OTHER_OWNER = "otherOwner";
+    private static final String OTHER_CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea2";
+    private static final Duration MAX_WAIT = Duration.ofMinutes(5);
+    private static final FairQueuingConfig FAIR_QUEUING_CONFIG = FairQueuingConfig.builder()
+            .quantum(1)
+            .weights(Map.of(OTHER_CHAIN_DEAL_ID, 2))
+            .build();
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private CommandQueue commandQueue;
+
+    @BeforeAll
+    static void initRegistry() {
+        Metrics.globalRegistry.add(meterRegistry);
+    }
+
+    @AfterAll
+    static void clearRegistry() {
+        Metrics.globalRegistry.remove(meterRegistry);
+    }
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), QueuedCommand.class);
+        commandQueue = new CommandQueue(mongoTemplate, FAIR_QUEUING_CONFIG, Duration.ofMinutes(5), MAX_WAIT, Duration.ZERO);
+    }
+
+    // region enqueue
+    @Test
+    void shouldEnqueueCommandOnce() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.SEND);
+
+        final List<QueuedCommand> queuedCommands = mongoTemplate.findAll(QueuedCommand.class);
+        assertThat(queuedCommands).hasSize(1);
+        assertThat(queuedCommands.get(0).getStep()).isEqualTo(QueuedCommand.Step.SEND);
+        assertThat(queuedCommands.get(0).getArgs()).isEqualTo(createArgs(0));
+    }
+
+    @Test
+    void shouldReleaseLeaseWhenEnqueuedAgain() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand claimed = commandQueue.claim(OWNER, 1).get(0);
+
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.SEND);
+
+        assertThat(commandQueue.acknowledge(claimed)).isFalse();
+        assertThat(commandQueue.claim(OTHER_OWNER, 1))
+                .singleElement()
+                .extracting(QueuedCommand::getStep)
+                .isEqualTo(QueuedCommand.Step.SEND);
+    }
+
+    @Test
+    void shouldNotTouchLeasedCommandWhenEnqueuedIfAbsent() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand claimed = commandQueue.claim(OWNER, 1).get(0);
+
+        assertThat(commandQueue.enqueueIfAbsent(createArgs(0), false, null, QueuedCommand.Step.SEND)).isFalse();
+
+        assertThat(commandQueue.contains(createArgs(0))).isTrue();
+        assertThat(commandQueue.claim(OTHER_OWNER, 1)).isEmpty();
+        assertThat(commandQueue.acknowledge(claimed)).isTrue();
+        assertThat(commandQueue.contains(createArgs(0))).isFalse();
+    }
+
+    @Test
+    void shouldEnqueueMissingCommandIfAbsent() {
+        assertThat(commandQueue.enqueueIfAbsent(createArgs(0), false, null, QueuedCommand.Step.SEND)).isTrue();
+        assertThat(commandQueue.claim(OWNER, 1))
+                .singleElement()
+                .extracting(QueuedCommand::getStep)
+                .isEqualTo(QueuedCommand.Step.SEND);
+    }
+    // endregion
+
+    // region scheduleRetry
+    @Test
+    void shouldNotClaimRetriedCommandBeforeNextAttempt() {
+        final Instant deadline = Instant.now().plusSeconds(60);
+        commandQueue.enqueue(createArgs(0), false, deadline, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand claimed = commandQueue.claim(OWNER, 1).get(0);
+
+        commandQueue.scheduleRetry(createArgs(0), false, 1, Instant.now().plusSeconds(60));
+
+        assertThat(commandQueue.acknowledge(claimed)).isFalse();
+        assertThat(commandQueue.claim(OTHER_OWNER, 1)).isEmpty();
+        assertThat(mongoTemplate.findAll(QueuedCommand.class))
+                .singleElement()
+                .satisfies(queuedCommand -> {
+                    assertThat(queuedCommand.getStep()).isEqualTo(QueuedCommand.Step.SEND);
+                    assertThat(queuedCommand.getAttempts()).isOne();
+                    assertThat(queuedCommand.getDeadline()).isEqualTo(deadline.truncatedTo(ChronoUnit.MILLIS));
+                    assertThat(queuedCommand.getLeaseId()).isNull();
+                });
+    }
+
+    @Test
+    void shouldClaimRetriedCommandAfterNextAttempt() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.claim(OWNER, 1);
+
+        commandQueue.scheduleRetry(createArgs(0), false, 2, Instant.now().minusMillis(1));
+
+        assertThat(commandQueue.claim(OTHER_OWNER, 1))
+                .singleElement()
+                .satisfies(queuedCommand -> {
+                    assertThat(queuedCommand.getStep()).isEqualTo(QueuedCommand.Step.SEND);
+                    assertThat(queuedCommand.getAttempts()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void shouldQueueRetriedCommandWhenNotFound() {
+        commandQueue.scheduleRetry(createArgs(0), true, 1, Instant.now().minusMillis(1));
+
+        assertThat(commandQueue.claim(OWNER, 1))
+                .singleElement()
+                .satisfies(queuedCommand -> {
+                    assertThat(queuedCommand.getArgs()).isEqualTo(createArgs(0));
+                    assertThat(queuedCommand.isPriority()).isTrue();
+                    assertThat(queuedCommand.getStep()).isEqualTo(QueuedCommand.Step.SEND);
+                    assertThat(queuedCommand.getAttempts()).isOne();
+                });
+    }
+    // endregion
+
+    // region claim
+    @Test
+    void shouldClaimWithPriorityThenFifoOrder() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(1), true, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(2), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(3), true, null, QueuedCommand.Step.TRIGGER);
+
+        assertThat(commandQueue.claim(OWNER, 10))
+                .extracting(QueuedCommand::getArgs)
+                .containsExactly(createArgs(1), createArgs(3), createArgs(0), createArgs(2));
+    }
+
+    @Test
+    void shouldClaimWithPriorityThenEarliestDeadlineFirst() {
+        final Instant now = Instant.now();
+        commandQueue.enqueue(createArgs(0), false, now.plusSeconds(60), QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(1), false, now.plusSeconds(10), QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(2), true, now.plusSeconds(120), QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(3), true, now.plusSeconds(30), QueuedCommand.Step.TRIGGER);
+
+        assertThat(commandQueue.claim(OWNER, 10))
+                .extracting(QueuedCommand::getArgs)
+                .containsExactly(createArgs(3), createArgs(2), createArgs(1), createArgs(0));
+    }
+
+    @Test
+    void shouldCapSchedulingDeadlineToMaxWait() {
+        final Instant farDeadline = Instant.now().plus(MAX_WAIT).plus(MAX_WAIT);
+        commandQueue.enqueue(createArgs(0), false, farDeadline, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(1), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(2), false, Instant.now().plus(MAX_WAIT).plusSeconds(60), QueuedCommand.Step.TRIGGER);
+
+        final List<QueuedCommand> claimed = commandQueue.claim(OWNER, 10);
+        // commands with a deadline after max wait, or without deadline, are served in FIFO order
+        assertThat(claimed)
+                .extracting(QueuedCommand::getArgs)
+                .containsExactly(createArgs(0), createArgs(1), createArgs(2));
+        assertThat(claimed.get(0).getDeadline()).isEqualTo(farDeadline);
+        assertThat(claimed.get(0).getSchedulingDeadline()).isBefore(farDeadline);
+    }
+
+    @Test
+    void shouldServeDealsInRoundRobin() {
+        for (int i = 0; i < 4; i++) {
+            commandQueue.enqueue(createArgs(i), false, null, QueuedCommand.Step.TRIGGER);
+        }
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 1), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 2), false, null, QueuedCommand.Step.TRIGGER);
+
+        // the other deal has a weight of 2
+        assertThat(commandQueue.claim(OWNER, 6))
+                .extracting(QueuedCommand::getArgs)
+                .containsExactly(createArgs(0), createArgs(OTHER_CHAIN_DEAL_ID, 0), createArgs(OTHER_CHAIN_DEAL_ID, 1),
+                        createArgs(1), createArgs(OTHER_CHAIN_DEAL_ID, 2), createArgs(2));
+    }
+
+    @Test
+    void shouldServePriorityClassBeforeDeals() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 0), true, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 1), false, null, QueuedCommand.Step.TRIGGER);
+
+        assertThat(commandQueue.claim(OWNER, 3))
+                .extracting(QueuedCommand::getArgs)
+                .containsExactly(createArgs(OTHER_CHAIN_DEAL_ID, 0), createArgs(0), createArgs(OTHER_CHAIN_DEAL_ID, 1));
+    }
+
+    @Test
+    void shouldCountBacklogAheadOfNewCommand() {
+        final Instant deadline = Instant.now().plusSeconds(60);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 0), true, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(0), false, deadline.minusSeconds(10), QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(1), false, deadline.plusSeconds(10), QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 1), false, null, QueuedCommand.Step.TRIGGER);
+
+        // the other deal has a weight of 2, the deal of the new command gets 1 claim out of 3
+        assertThat(commandQueue.getBacklogAhead(createArgs(2), deadline))
+                .isEqualTo(new CommandQueue.BacklogAhead(1, 1, 1.0 / 3));
+    }
+
+    @Test
+    void shouldReuseBacklogsDuringDispatchTick() {
+        final CommandQueue cachingQueue = new CommandQueue(mongoTemplate, FAIR_QUEUING_CONFIG, Duration.ofMinutes(5), MAX_WAIT,
+                Duration.ofMinutes(1));
+        final Instant deadline = Instant.now().plusSeconds(60);
+        cachingQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 0), true, null, QueuedCommand.Step.TRIGGER);
+        assertThat(cachingQueue.getBacklogAhead(createArgs(2), deadline).priorityCommands()).isOne();
+
+        cachingQueue.enqueue(createArgs(OTHER_CHAIN_DEAL_ID, 1), true, null, QueuedCommand.Step.TRIGGER);
+        cachingQueue.enqueue(createArgs(0), false, deadline.minusSeconds(10), QueuedCommand.Step.TRIGGER);
+
+        // priority commands are read from the cached backlogs, commands of the tenant are always counted
+        assertThat(cachingQueue.getBacklogAhead(createArgs(2), deadline))
+                .isEqualTo(new CommandQueue.BacklogAhead(1, 1, 1.0));
+    }
+
+    @Test
+    void shouldPublishDepthByDeal() {
+        // deals not used by other tests, gauges are shared by all queue instances of the global registry
+        final String firstChainDealId = "0x000000000000000000000000000000000000000000000000000000000000dea3";
+        final String secondChainDealId = "0x000000000000000000000000000000000000000000000000000000000000dea4";
+        for (int i = 0; i < 3; i++) {
+            commandQueue.enqueue(createArgs(firstChainDealId, i), false, null, QueuedCommand.Step.TRIGGER);
+        }
+        commandQueue.enqueue(createArgs(secondChainDealId, 0), false, null, QueuedCommand.Step.TRIGGER);
+
+        commandQueue.claim(OWNER, 0);
+
+        assertThat(meterRegistry.get(CommandQueue.DEPTH_METRIC_NAME).tag("tenant", firstChainDealId).gauge().value())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get(CommandQueue.DEPTH_METRIC_NAME).tag("tenant", secondChainDealId).gauge().value())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(CommandQueue.OLDEST_WAIT_METRIC_NAME).tag("tenant", firstChainDealId).gauge().value())
+                .isNotNegative();
+    }
+
+    @Test
+    void shouldClaimInBatches() {
+        for (int i = 0; i < 5; i++) {
+            commandQueue.enqueue(createArgs(i), false, null, QueuedCommand.Step.TRIGGER);
+        }
+        assertThat(commandQueue.claim(OWNER, 3)).hasSize(3);
+        assertThat(commandQueue.claim(OTHER_OWNER, 3)).hasSize(2);
+        assertThat(commandQueue.claim(OTHER_OWNER, 3)).isEmpty();
+    }
+
+    @Test
+    void shouldClaimAgainAfterLeaseExpiry() {
+        final CommandQueue expiredLeaseQueue = new CommandQueue(mongoTemplate, FAIR_QUEUING_CONFIG, Duration.ofSeconds(-1), MAX_WAIT,
+                Duration.ZERO);
+        expiredLeaseQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand firstClaim = expiredLeaseQueue.claim(OWNER, 1).get(0);
+
+        final QueuedCommand secondClaim = expiredLeaseQueue.claim(OTHER_OWNER, 1).get(0);
+
+        assertThat(secondClaim.getLeaseOwner()).isEqualTo(OTHER_OWNER);
+        assertThat(secondClaim.getLeaseId()).isNotEqualTo(firstClaim.getLeaseId());
+        assertThat(expiredLeaseQueue.acknowledge(firstClaim)).isFalse();
+        assertThat(expiredLeaseQueue.acknowledge(secondClaim)).isTrue();
+    }
+    // endregion
+
+    // region leases
+    @Test
+    void shouldRenewLeasesOfOwner() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.enqueue(createArgs(1), false, null, QueuedCommand.Step.TRIGGER);
+        commandQueue.claim(OWNER, 1);
+        commandQueue.claim(OTHER_OWNER, 1);
+
+        assertThat(commandQueue.renewLeases(OWNER)).isOne();
+    }
+
+    @Test
+    void shouldReleaseLeases() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand claimed = commandQueue.claim(OWNER, 1).get(0);
+
+        assertThat(commandQueue.release(Set.of(claimed.getLeaseId()))).isOne();
+        assertThat(commandQueue.claim(OTHER_OWNER, 1)).hasSize(1);
+    }
+    // endregion
+
+    // region acknowledge
+    @Test
+    void shouldRemoveAcknowledgedCommand() {
+        commandQueue.enqueue(createArgs(0), false, null, QueuedCommand.Step.TRIGGER);
+        final QueuedCommand claimed = commandQueue.claim(OWNER, 1).get(0);
+
+        assertThat(commandQueue.acknowledge(claimed)).isTrue();
+        assertThat(mongoTemplate.count(new Query(), QueuedCommand.class)).isZero();
+    }
+    // endregion
+
+    private TaskInitializeArgs createArgs(int taskIndex) {
+        return createArgs(CHAIN_DEAL_ID, taskIndex);
+    }
+
+    private TaskInitializeArgs createArgs(String chainDealId, int taskIndex) {
+        return new TaskInitializeArgs(ChainUtils.generateChainTaskId(chainDealId, taskIndex), chainDealId, taskIndex);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataMongoTest
+@Testcontainers
+class CommandRecoveryTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final String TX_HASH = "0x" + "ab".repeat(32);
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private IexecHubService iexecHubService;
+    private CommandQueue commandQueue;
+    private CommandEngine<TaskInitializeArgs> engine;
+    private CommandRecovery commandRecovery;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        iexecHubService = mock(IexecHubService.class);
+        commandQueue = mock(CommandQueue.class);
+        engine = mock(CommandEngine.class);
+        when(engine.getCommandName()).thenReturn(CommandName.TASK_INITIALIZE);
+        commandRecovery = new CommandRecovery(new MongoCommandStore(mongoTemplate, mock(CommandWriteBatcher.class)),
+                commandQueue, iexecHubService, List.of(engine), 4);
+    }
+
+    // region requeueReceivedCommands
+    @Test
+    void shouldRequeueReceivedCommandsInCreationOrder() {
+        final Instant now = Instant.now();
+        mongoTemplate.insert(createCommand(0, CommandStatus.RECEIVED, now));
+        mongoTemplate.insert(createCommand(1, CommandStatus.RECEIVED, now.minus(1, ChronoUnit.MINUTES)));
+        mongoTemplate.insert(createCommand(2, CommandStatus.SUCCESS, now.minus(2, ChronoUnit.MINUTES)));
+
+        assertThat(commandRecovery.requeueReceivedCommands()).isEqualTo(2);
+
+        final InOrder inOrder = inOrder(engine);
+        inOrder.verify(engine).requeueBlockchainCommand(createArgs(1));
+        inOrder.verify(engine).requeueBlockchainCommand(createArgs(0));
+        verify(engine, never()).requeueBlockchainCommand(createArgs(2));
+    }
+
+    @Test
+    void shouldNotRequeueCommandWithoutEngine() {
+        final Command command = createCommand(0, CommandStatus.RECEIVED, Instant.now());
+        command.setCommandName(CommandName.TASK_FINALIZE);
+        mongoTemplate.insert(command);
+
+        assertThat(commandRecovery.requeueReceivedCommands()).isZero();
+        verify(engine, never()).requeueBlockchainCommand(any());
+    }
+
+    @Test
+    void shouldNotRequeueQueuedCommand() {
+        mongoTemplate.insert(createCommand(0, CommandStatus.RECEIVED, Instant.now()));
+        when(commandQueue.contains(createArgs(0))).thenReturn(true);
+
+        assertThat(commandRecovery.requeueReceivedCommands()).isZero();
+        verify(engine, never()).requeueBlockchainCommand(any());
+    }
+    // endregion
+
+    // region reconcileProcessingCommands
+    @Test
+    void shouldReconcileWithMinedTransaction() {
+        final Command command = createCommand(0, CommandStatus.PROCESSING, Instant.now());
+        command.setTxHash(TX_HASH);
+        mongoTemplate.insert(command);
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(TX_HASH);
+        when(iexecHubService.findTransactionReceipt(TX_HASH)).thenReturn(Optional.of(receipt));
+
+        assertThat(commandRecovery.reconcileProcessingCommands()).isOne();
+        verify(engine).reconcileBlockchainCommand(createArgs(0), receipt);
+    }
+
+    @Test
+    void shouldNotSendAgainSubmittedTransactionWithoutReceipt() {
+        final Command command = createCommand(0, CommandStatus.PROCESSING, Instant.now());
+        command.setTxHash(TX_HASH);
+        mongoTemplate.insert(command);
+        when(iexecHubService.findTransactionReceipt(TX_HASH)).thenReturn(Optional.empty());
+
+        assertThat(commandRecovery.reconcileProcessingCommands()).isOne();
+        verify(engine).reconcileSubmittedBlockchainCommand(createArgs(0), 1);
+        verify(engine, never()).reconcileBlockchainCommand(any(), any());
+    }
+
+    @Test
+    void shouldReconcileWithoutReceiptWhenNoTransaction() {
+        mongoTemplate.insert(createCommand(0, CommandStatus.PROCESSING, Instant.now()));
+
+        assertThat(commandRecovery.reconcileProcessingCommands()).isOne();
+        verify(engine).reconcileBlockchainCommand(createArgs(0), null);
+        verifyNoInteractions(iexecHubService);
+    }
+
+    @Test
+    void shouldReconcileAllProcessingCommandsInBatches() {
+        final int count = CommandRecovery.BATCH_SIZE * 2 + 1;
+        mongoTemplate.insertAll(IntStream.range(0, count)
+                .mapToObj(i -> createCommand(i, CommandStatus.PROCESSING, Instant.now()))
+                .toList());
+
+        assertThat(commandRecovery.reconcileProcessingCommands()).isEqualTo(count);
+        verify(engine, times(count)).reconcileBlockchainCommand(any(), isNull());
+    }
+
+    @Test
+    void shouldNotReconcileQueuedProcessingCommand() {
+        final Command command = createCommand(0, CommandStatus.PROCESSING, Instant.now());
+        command.setTxHash(TX_HASH);
+        mongoTemplate.insert(command);
+        when(commandQueue.contains(createArgs(0))).thenReturn(true);
+
+        assertThat(commandRecovery.reconcileProcessingCommands()).isZero();
+        verify(engine, never()).reconcileBlockchainCommand(any(), any());
+        verifyNoInteractions(iexecHubService);
+    }
+    // endregion
+
+    private Command createCommand(int taskIndex, CommandStatus status, Instant creationDate) {
+        final TaskInitializeArgs args = createArgs(taskIndex);
+        final Command command = new Command();
+        command.setChainObjectId(args.getChainObjectId());
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(status);
+        command.setCreationDate(creationDate);
+        command.setArgs(args);
+        return command;
+    }
+
+    private TaskInitializeArgs createArgs(int taskIndex) {
+        return new TaskInitializeArgs(ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex), CHAIN_DEAL_ID, taskIndex);
+    }
+}
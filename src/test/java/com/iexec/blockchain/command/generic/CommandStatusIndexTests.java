@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DataMongoTest
+@Testcontainers
+class CommandStatusIndexTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final int MAX_FINAL_ENTRIES = 2;
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private CommandStatusIndex commandStatusIndex;
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        commandStatusIndex = new CommandStatusIndex(mongoTemplate,
+                new MongoCommandStore(mongoTemplate, mock(CommandWriteBatcher.class)), MAX_FINAL_ENTRIES);
+    }
+
+    // region update
+    @Test
+    void shouldOnlyIndexFinalStatuses() {
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.RECEIVED);
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.PROCESSING);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE)).isEmpty();
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE))
+                .contains(CommandStatus.SUCCESS);
+    }
+
+    @Test
+    void shouldKeepFinalStatus() {
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.FAILURE);
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.PROCESSING);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE))
+                .contains(CommandStatus.FAILURE);
+    }
+
+    @Test
+    void shouldIndexCommandNamesSeparately() {
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_FINALIZE)).isEmpty();
+    }
+
+    @Test
+    void shouldEvictOldestFinalEntries() {
+        for (int i = 1; i <= MAX_FINAL_ENTRIES + 1; i++) {
+            commandStatusIndex.update(getChainTaskId(i), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        }
+        assertThat(commandStatusIndex.get(getChainTaskId(1), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(2), CommandName.TASK_INITIALIZE))
+                .contains(CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.get(getChainTaskId(3), CommandName.TASK_INITIALIZE))
+                .contains(CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.size()).isEqualTo(MAX_FINAL_ENTRIES);
+    }
+    // endregion
+
+    // region load
+    @Test
+    void shouldLoadMostRecentFinalCommands() {
+        mongoTemplate.insert(createCommand(0, CommandStatus.RECEIVED, null));
+        mongoTemplate.insert(createCommand(1, CommandStatus.PROCESSING, null));
+        mongoTemplate.insert(createCommand(2, CommandStatus.SUCCESS, Instant.now().minusSeconds(30)));
+        mongoTemplate.insert(createCommand(3, CommandStatus.FAILURE, Instant.now().minusSeconds(20)));
+        mongoTemplate.insert(createCommand(4, CommandStatus.SUCCESS, Instant.now().minusSeconds(10)));
+        commandStatusIndex.load();
+        assertThat(commandStatusIndex.size()).isEqualTo(MAX_FINAL_ENTRIES);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(1), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(2), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(3), CommandName.TASK_INITIALIZE)).contains(CommandStatus.FAILURE);
+        assertThat(commandStatusIndex.get(getChainTaskId(4), CommandName.TASK_INITIALIZE)).contains(CommandStatus.SUCCESS);
+        // the oldest loaded final command is evicted first
+        commandStatusIndex.update(getChainTaskId(5), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.get(getChainTaskId(3), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(4), CommandName.TASK_INITIALIZE)).contains(CommandStatus.SUCCESS);
+    }
+    // endregion
+
+    // region checkConsistency
+    @Test
+    void shouldRepairMismatchedStatuses() {
+        mongoTemplate.insert(createCommand(0, CommandStatus.FAILURE, Instant.now()));
+        mongoTemplate.insert(createCommand(1, CommandStatus.PROCESSING, null));
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        commandStatusIndex.update(getChainTaskId(1), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        commandStatusIndex.checkConsistency();
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE)).contains(CommandStatus.FAILURE);
+        assertThat(commandStatusIndex.get(getChainTaskId(1), CommandName.TASK_INITIALIZE)).isEmpty();
+    }
+
+    @Test
+    void shouldNotAccountRepairedFinalStatusesTwice() {
+        for (int i = 0; i < MAX_FINAL_ENTRIES; i++) {
+            mongoTemplate.insert(createCommand(i, CommandStatus.SUCCESS, Instant.now()));
+            commandStatusIndex.update(getChainTaskId(i), CommandName.TASK_INITIALIZE, CommandStatus.FAILURE);
+        }
+        commandStatusIndex.checkConsistency();
+        commandStatusIndex.update(getChainTaskId(MAX_FINAL_ENTRIES), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        assertThat(commandStatusIndex.size()).isEqualTo(MAX_FINAL_ENTRIES);
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE)).isEmpty();
+        assertThat(commandStatusIndex.get(getChainTaskId(1), CommandName.TASK_INITIALIZE)).contains(CommandStatus.SUCCESS);
+    }
+
+    @Test
+    void shouldCheckWholeIndexOverSuccessiveChecks() {
+        final int count = CommandStatusIndex.CONSISTENCY_CHECK_SAMPLE_SIZE + 1;
+        commandStatusIndex = new CommandStatusIndex(mongoTemplate,
+                new MongoCommandStore(mongoTemplate, mock(CommandWriteBatcher.class)), count);
+        mongoTemplate.insertAll(IntStream.range(0, count)
+                .mapToObj(i -> createCommand(i, CommandStatus.SUCCESS, Instant.now()))
+                .toList());
+        // more mismatches than a single check samples
+        IntStream.range(0, count).forEach(i ->
+                commandStatusIndex.update(getChainTaskId(i), CommandName.TASK_INITIALIZE, CommandStatus.FAILURE));
+        commandStatusIndex.checkConsistency();
+        commandStatusIndex.checkConsistency();
+        IntStream.range(0, count).forEach(i ->
+                assertThat(commandStatusIndex.get(getChainTaskId(i), CommandName.TASK_INITIALIZE))
+                        .contains(CommandStatus.SUCCESS));
+    }
+
+    @Test
+    void shouldKeepArchivedFinalStatuses() {
+        // completed command missing in the live collection
+        commandStatusIndex.update(getChainTaskId(0), CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS);
+        commandStatusIndex.checkConsistency();
+        assertThat(commandStatusIndex.get(getChainTaskId(0), CommandName.TASK_INITIALIZE)).contains(CommandStatus.SUCCESS);
+    }
+    // endregion
+
+    private Command createCommand(final int taskIndex, final CommandStatus status, final Instant finalDate) {
+        final Command command = new Command();
+        command.setChainObjectId(getChainTaskId(taskIndex));
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(status);
+        command.setFinalDate(finalDate);
+        return command;
+    }
+
+    private String getChainTaskId(final int taskIndex) {
+        return ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex);
+    }
+}
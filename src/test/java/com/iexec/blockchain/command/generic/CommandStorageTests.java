@@ -1,5 +1,5 @@
 /*
- * Copyright 2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2025-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,13 +19,19 @@ package com.iexec.blockchain.command.generic;
 import com.iexec.blockchain.api.CommandStatus;
 import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
 import com.iexec.commons.poco.chain.ChainUtils;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -35,6 +41,19 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @DataMongoTest
 @Testcontainers
@@ -55,14 +74,35 @@ class CommandStorageTests {
         registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
     }
 
+    private CommandStatusIndex commandStatusIndex;
+    private CommandWriteBatcher commandWriteBatcher;
+    private CommandStore commandStore;
+    private CommandArchiver commandArchiver;
     private CommandStorage updaterService;
     @Autowired
     private MongoTemplate mongoTemplate;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @BeforeEach
     void init() {
+        MockitoAnnotations.openMocks(this);
         mongoTemplate.findAllAndRemove(new Query(), Command.class);
-        updaterService = new CommandStorage(mongoTemplate);
+        mongoTemplate.findAllAndRemove(new Query(), CommandReceipt.class);
+        mongoTemplate.getCollectionNames().stream()
+                .filter(name -> name.contains("_archive"))
+                .forEach(mongoTemplate::dropCollection);
+        commandWriteBatcher = new CommandWriteBatcher(mongoTemplate, Duration.ofMillis(5), 100);
+        commandStore = new MongoCommandStore(mongoTemplate, commandWriteBatcher);
+        commandStatusIndex = new CommandStatusIndex(mongoTemplate, commandStore, 1000);
+        commandArchiver = new CommandArchiver(mongoTemplate, commandStore, Duration.ofDays(30), 500);
+        updaterService = new CommandStorage(mongoTemplate, applicationEventPublisher, commandStatusIndex,
+                commandStore, commandArchiver, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commandWriteBatcher.shutdown();
     }
 
     @Test
@@ -73,6 +113,22 @@ class CommandStorageTests {
         Assertions.assertEquals(CommandStatus.RECEIVED, status);
     }
 
+    @Test
+    void shouldStoreCompactKeys() {
+        Assertions.assertTrue(updaterService.updateToReceived(getArgs()));
+        final Document document = mongoTemplate.findOne(new Query(), Document.class,
+                mongoTemplate.getCollectionName(Command.class));
+        Assertions.assertEquals(new Binary(Numeric.hexStringToByteArray(CHAIN_TASK_ID)), document.get("chainObjectId"));
+        Assertions.assertEquals(CommandName.TASK_INITIALIZE.getCode(), document.get("commandName"));
+    }
+
+    @Test
+    void shouldNotSetReceivedSinceInvalidChainObjectId() {
+        Assertions.assertFalse(updaterService.updateToReceived(new TaskInitializeArgs("0x1", CHAIN_DEAL_ID, TASK_INDEX)));
+        Assertions.assertEquals(Optional.empty(), updaterService.getStatusForCommand("0x1", CommandName.TASK_INITIALIZE));
+        Assertions.assertEquals(Map.of(), updaterService.getStatusesForCommands(List.of("0x1"), CommandName.TASK_INITIALIZE));
+    }
+
     @Test
     void shouldNotSetReceivedSinceAlreadyPresent() {
         final TaskInitializeArgs args = getArgs();
@@ -89,6 +145,38 @@ class CommandStorageTests {
         Assertions.assertEquals(CommandStatus.PROCESSING, status);
     }
 
+    @Test
+    void shouldStoreTxHashOfProcessingCommand() {
+        final TaskInitializeArgs args = getArgs();
+        Assertions.assertTrue(updaterService.updateToReceived(args));
+        Assertions.assertTrue(updaterService.updateToProcessing(args));
+        Assertions.assertTrue(updaterService.updateTxHashAsync(args, "0xabc").join());
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        Assertions.assertNotNull(command);
+        Assertions.assertEquals("0xabc", command.getTxHash());
+        Assertions.assertNotNull(command.getTxDate());
+    }
+
+    @Test
+    void shouldStoreNextAttemptOfProcessingCommand() {
+        final TaskInitializeArgs args = getArgs();
+        final Instant nextAttemptDate = Instant.now().plusSeconds(1).truncatedTo(ChronoUnit.MILLIS);
+        mongoTemplate.insert(createCommand(CommandStatus.PROCESSING));
+        Assertions.assertTrue(updaterService.updateNextAttempt(args, 2, nextAttemptDate));
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        Assertions.assertNotNull(command);
+        Assertions.assertEquals(2, command.getAttempts());
+        Assertions.assertEquals(nextAttemptDate, command.getNextAttemptDate());
+        Assertions.assertEquals(CommandStatus.PROCESSING, command.getStatus());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = "PROCESSING", mode = EnumSource.Mode.EXCLUDE)
+    void shouldNotStoreNextAttemptSinceBadStatus(final CommandStatus status) {
+        mongoTemplate.insert(createCommand(status));
+        Assertions.assertFalse(updaterService.updateNextAttempt(getArgs(), 1, Instant.now()));
+    }
+
     @ParameterizedTest
     @EnumSource(value = CommandStatus.class, names = "RECEIVED", mode = EnumSource.Mode.EXCLUDE)
     void shouldNotSetProcessingSinceBadStatus(final CommandStatus status) {
@@ -109,6 +197,8 @@ class CommandStorageTests {
         Assertions.assertTrue(updaterService.updateToFinal(args, receipt));
         final CommandStatus status = updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).orElseThrow();
         Assertions.assertEquals(CommandStatus.SUCCESS, status);
+        verify(applicationEventPublisher).publishEvent(
+                new CommandFinalEvent(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
     }
 
     @Test
@@ -122,6 +212,56 @@ class CommandStorageTests {
         Assertions.assertTrue(updaterService.updateToFinal(args, receipt));
         final CommandStatus status = updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).orElseThrow();
         Assertions.assertEquals(CommandStatus.FAILURE, status);
+        verify(applicationEventPublisher).publishEvent(
+                new CommandFinalEvent(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE, CommandStatus.FAILURE));
+    }
+
+    @Test
+    void shouldSetExplicitFinalStatusWithoutReceipt() {
+        updaterService = new CommandStorage(mongoTemplate, applicationEventPublisher, commandStatusIndex,
+                commandStore, commandArchiver, true);
+        mongoTemplate.insert(createCommand(CommandStatus.PROCESSING));
+
+        Assertions.assertTrue(updaterService.updateToFinal(getArgs(), CommandStatus.SUCCESS, null));
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        Assertions.assertEquals(CommandStatus.SUCCESS, command.getStatus());
+        Assertions.assertNull(command.getReceiptSummary());
+        Assertions.assertEquals(0L, mongoTemplate.count(new Query(), CommandReceipt.class));
+        verify(applicationEventPublisher).publishEvent(
+                new CommandFinalEvent(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+    }
+
+    @Test
+    void shouldStoreReceiptSummaryOnly() {
+        final TaskInitializeArgs args = getArgs();
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        receipt.setTransactionHash("0xabc");
+        receipt.setBlockNumber("0x10");
+        receipt.setLogsBloom("0x" + "0".repeat(512));
+        mongoTemplate.insert(createCommand(CommandStatus.PROCESSING));
+
+        Assertions.assertTrue(updaterService.updateToFinal(args, receipt));
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        Assertions.assertEquals(ReceiptSummary.of(receipt), command.getReceiptSummary());
+        Assertions.assertEquals(0L, mongoTemplate.count(new Query(), CommandReceipt.class));
+    }
+
+    @Test
+    void shouldKeepFullReceiptWhenEnabled() {
+        updaterService = new CommandStorage(mongoTemplate, applicationEventPublisher, commandStatusIndex,
+                commandStore, commandArchiver, true);
+        final TaskInitializeArgs args = getArgs();
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        receipt.setTransactionHash("0xabc");
+        mongoTemplate.insert(createCommand(CommandStatus.PROCESSING));
+
+        Assertions.assertTrue(updaterService.updateToFinal(args, receipt));
+        final CommandReceipt commandReceipt = mongoTemplate.findOne(new Query(), CommandReceipt.class);
+        Assertions.assertEquals(CHAIN_TASK_ID, commandReceipt.getChainObjectId());
+        Assertions.assertEquals(CommandName.TASK_INITIALIZE, commandReceipt.getCommandName());
+        Assertions.assertEquals(receipt, commandReceipt.getTransactionReceipt());
     }
 
     @ParameterizedTest
@@ -134,6 +274,111 @@ class CommandStorageTests {
         mongoTemplate.insert(taskInitialize);
 
         Assertions.assertFalse(updaterService.updateToFinal(args, receipt));
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = {"RECEIVED", "PROCESSING"})
+    void shouldSetExpired(final CommandStatus currentStatus) {
+        final TaskInitializeArgs args = getArgs();
+        mongoTemplate.insert(createCommand(currentStatus));
+
+        Assertions.assertTrue(updaterService.updateToExpired(args, currentStatus));
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        Assertions.assertEquals(CommandStatus.EXPIRED, command.getStatus());
+        Assertions.assertNotNull(command.getFinalDate());
+        Assertions.assertEquals(Optional.of(CommandStatus.EXPIRED),
+                updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE));
+        verify(applicationEventPublisher).publishEvent(
+                new CommandFinalEvent(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE, CommandStatus.EXPIRED));
+    }
+
+    @Test
+    void shouldNotSetExpiredSinceBadStatus() {
+        final TaskInitializeArgs args = getArgs();
+        mongoTemplate.insert(createCommand(CommandStatus.PROCESSING));
+
+        Assertions.assertFalse(updaterService.updateToExpired(args, CommandStatus.RECEIVED));
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void shouldGetStatusesForCommands() {
+        final String otherChainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 1);
+        final String unknownChainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 2);
+        mongoTemplate.insert(createCommand(CommandStatus.SUCCESS));
+        Assertions.assertTrue(updaterService.updateToReceived(new TaskInitializeArgs(otherChainTaskId, CHAIN_DEAL_ID, 1)));
+
+        final Map<String, CommandStatus> statuses = updaterService.getStatusesForCommands(
+                List.of(CHAIN_TASK_ID, otherChainTaskId, unknownChainTaskId), CommandName.TASK_INITIALIZE);
+        Assertions.assertEquals(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS, otherChainTaskId, CommandStatus.RECEIVED), statuses);
+        Assertions.assertEquals(Map.of(),
+                updaterService.getStatusesForCommands(List.of(CHAIN_TASK_ID), CommandName.TASK_FINALIZE));
+    }
+
+    @Test
+    void shouldReadPendingStatusFromDatabase() {
+        final TaskInitializeArgs args = getArgs();
+        Assertions.assertTrue(updaterService.updateToReceived(args));
+        Assertions.assertTrue(updaterService.updateToProcessing(args));
+        Assertions.assertTrue(commandStatusIndex.get(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).isEmpty());
+        // another instance completes the command
+        final Command command = mongoTemplate.findAll(Command.class).get(0);
+        command.setStatus(CommandStatus.SUCCESS);
+        mongoTemplate.save(command);
+        Assertions.assertEquals(CommandStatus.SUCCESS,
+                updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).orElseThrow());
+        // the database is not queried anymore once the final status is indexed
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        Assertions.assertEquals(CommandStatus.SUCCESS,
+                updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).orElseThrow());
+    }
+
+    @Test
+    void shouldIndexStatusReadFromDatabase() {
+        mongoTemplate.insert(createCommand(CommandStatus.SUCCESS));
+        Assertions.assertTrue(commandStatusIndex.get(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).isEmpty());
+        Assertions.assertEquals(CommandStatus.SUCCESS,
+                updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE).orElseThrow());
+        Assertions.assertEquals(Optional.of(CommandStatus.SUCCESS),
+                commandStatusIndex.get(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE));
+    }
+
+    @Test
+    void shouldReadStatusFromArchive() {
+        final String otherChainTaskId = ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, 1);
+        final Command command = createCommand(CommandStatus.SUCCESS);
+        command.setFinalDate(Instant.now().minus(Duration.ofDays(31)));
+        mongoTemplate.insert(command);
+        Assertions.assertTrue(updaterService.updateToReceived(new TaskInitializeArgs(otherChainTaskId, CHAIN_DEAL_ID, 1)));
+        Assertions.assertEquals(1, commandArchiver.archiveBatch());
+
+        Assertions.assertEquals(Optional.of(CommandStatus.SUCCESS),
+                updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE));
+        commandStatusIndex = new CommandStatusIndex(mongoTemplate, commandStore, 1000);
+        updaterService = new CommandStorage(mongoTemplate, applicationEventPublisher, commandStatusIndex,
+                commandStore, commandArchiver, false);
+        Assertions.assertEquals(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS, otherChainTaskId, CommandStatus.RECEIVED),
+                updaterService.getStatusesForCommands(List.of(CHAIN_TASK_ID, otherChainTaskId), CommandName.TASK_INITIALIZE));
+    }
+
+    @Test
+    void shouldRunLifecyclesOfSeveralCommandsAsynchronously() {
+        final List<TaskInitializeArgs> argsList = IntStream.range(0, 10)
+                .mapToObj(i -> new TaskInitializeArgs(ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, i), CHAIN_DEAL_ID, i))
+                .toList();
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        final List<CompletableFuture<Boolean>> lifecycles = argsList.stream()
+                .map(args -> updaterService.updateToReceivedAsync(args)
+                        .thenCompose(received -> updaterService.updateToProcessingAsync(args))
+                        .thenCompose(processing -> updaterService.updateToFinalAsync(args, receipt)))
+                .toList();
+        lifecycles.forEach(lifecycle -> Assertions.assertTrue(lifecycle.join()));
+        final Map<String, CommandStatus> statuses = updaterService.getStatusesForCommands(
+                argsList.stream().map(TaskInitializeArgs::getChainObjectId).toList(), CommandName.TASK_INITIALIZE);
+        Assertions.assertEquals(10, statuses.size());
+        Assertions.assertTrue(statuses.values().stream().allMatch(CommandStatus.SUCCESS::equals));
     }
 
     private Command createCommand(final CommandStatus status) {
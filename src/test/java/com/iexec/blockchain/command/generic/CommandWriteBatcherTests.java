@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@DataMongoTest
+@Testcontainers
+class CommandWriteBatcherTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private CommandWriteBatcher commandWriteBatcher;
+    private long initialBatchCount;
+    private double initialBatchTotalSize;
+    private long initialFlushCount;
+
+    @BeforeAll
+    static void initRegistry() {
+        Metrics.globalRegistry.add(meterRegistry);
+    }
+
+    @AfterAll
+    static void clearRegistry() {
+        Metrics.globalRegistry.remove(meterRegistry);
+    }
+
+    @BeforeEach
+    void init() {
+        initialBatchCount = getBatchSizeSummary().count();
+        initialBatchTotalSize = getBatchSizeSummary().totalAmount();
+        initialFlushCount = meterRegistry.timer(CommandWriteBatcher.FLUSH_METRIC_NAME).count();
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        // flushes are triggered manually or when the max batch size is reached
+        commandWriteBatcher = new CommandWriteBatcher(mongoTemplate, Duration.ofHours(1), 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commandWriteBatcher.shutdown();
+    }
+
+    // region insert
+    @Test
+    void shouldInsertCommandsInSingleBatch() {
+        final List<CompletableFuture<Boolean>> results = IntStream.range(0, 5)
+                .mapToObj(i -> commandWriteBatcher.insert(createCommand(getChainTaskId(i), CommandStatus.RECEIVED)))
+                .toList();
+        assertThat(results).noneMatch(CompletableFuture::isDone);
+
+        commandWriteBatcher.flush();
+
+        assertThat(results).allMatch(result -> result.join());
+        assertThat(mongoTemplate.count(new Query(), Command.class)).isEqualTo(5);
+        assertThat(getBatchSizeSummary().count() - initialBatchCount).isOne();
+        assertThat(getBatchSizeSummary().totalAmount() - initialBatchTotalSize).isEqualTo(5);
+        assertThat(meterRegistry.timer(CommandWriteBatcher.FLUSH_METRIC_NAME).count() - initialFlushCount).isOne();
+    }
+
+    @Test
+    void shouldNotInsertAlreadyPresentCommand() {
+        mongoTemplate.insert(createCommand(getChainTaskId(0), CommandStatus.RECEIVED));
+        final CompletableFuture<Boolean> duplicate =
+                commandWriteBatcher.insert(createCommand(getChainTaskId(0), CommandStatus.RECEIVED));
+        final CompletableFuture<Boolean> other =
+                commandWriteBatcher.insert(createCommand(getChainTaskId(1), CommandStatus.RECEIVED));
+
+        commandWriteBatcher.flush();
+
+        assertThat(duplicate.join()).isFalse();
+        assertThat(other.join()).isTrue();
+    }
+
+    @Test
+    void shouldFlushWhenMaxBatchSizeIsReached() {
+        final List<CompletableFuture<Boolean>> results = IntStream.range(0, 10)
+                .mapToObj(i -> commandWriteBatcher.insert(createCommand(getChainTaskId(i), CommandStatus.RECEIVED)))
+                .toList();
+        // no manual flush, the batcher flushes on its own
+        assertThat(results).allMatch(result -> result.join());
+    }
+    // endregion
+
+    // region update
+    @Test
+    void shouldCompleteEachUpdateWithItsOwnResult() {
+        mongoTemplate.insert(createCommand(getChainTaskId(0), CommandStatus.RECEIVED));
+        mongoTemplate.insert(createCommand(getChainTaskId(1), CommandStatus.PROCESSING));
+        mongoTemplate.insert(createCommand(getChainTaskId(2), CommandStatus.RECEIVED));
+        final CompletableFuture<Boolean> first = updateToProcessing(getChainTaskId(0));
+        final CompletableFuture<Boolean> second = updateToProcessing(getChainTaskId(1));
+        final CompletableFuture<Boolean> third = updateToProcessing(getChainTaskId(2));
+
+        commandWriteBatcher.flush();
+
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isFalse();
+        assertThat(third.join()).isTrue();
+        assertThat(mongoTemplate.count(Query.query(Criteria.where("status").is(CommandStatus.PROCESSING)), Command.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldDeferWriteOnSameCommandToNextBatch() {
+        final CompletableFuture<Boolean> inserted =
+                commandWriteBatcher.insert(createCommand(getChainTaskId(0), CommandStatus.RECEIVED));
+        final CompletableFuture<Boolean> updated = updateToProcessing(getChainTaskId(0));
+
+        commandWriteBatcher.flush();
+
+        assertThat(inserted.join()).isTrue();
+        assertThat(updated.join()).isTrue();
+        assertThat(getBatchSizeSummary().count() - initialBatchCount).isEqualTo(2);
+        final Command command = mongoTemplate.findOne(new Query(), Command.class);
+        assertThat(command.getStatus()).isEqualTo(CommandStatus.PROCESSING);
+    }
+
+    @Test
+    void shouldCompleteUpdatesExceptionallyWhenAppliedUpdatesCannotBeRead() {
+        final MongoTemplate failingMongoTemplate = spy(mongoTemplate);
+        doThrow(new IllegalStateException("read failure"))
+                .when(failingMongoTemplate).find(any(Query.class), eq(Command.class));
+        commandWriteBatcher.shutdown();
+        commandWriteBatcher = new CommandWriteBatcher(failingMongoTemplate, Duration.ofHours(1), 10);
+        mongoTemplate.insert(createCommand(getChainTaskId(0), CommandStatus.RECEIVED));
+        mongoTemplate.insert(createCommand(getChainTaskId(1), CommandStatus.PROCESSING));
+        final CompletableFuture<Boolean> first = updateToProcessing(getChainTaskId(0));
+        final CompletableFuture<Boolean> second = updateToProcessing(getChainTaskId(1));
+
+        commandWriteBatcher.flush();
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+    }
+    // endregion
+
+    private DistributionSummary getBatchSizeSummary() {
+        return meterRegistry.summary(CommandWriteBatcher.BATCH_SIZE_METRIC_NAME);
+    }
+
+    private CompletableFuture<Boolean> updateToProcessing(final String chainTaskId) {
+        final Instant processingDate = Instant.now();
+        final Update update = new Update()
+                .set("status", CommandStatus.PROCESSING)
+                .set("processingDate", processingDate);
+        return commandWriteBatcher.update(chainTaskId, CommandName.TASK_INITIALIZE, CommandStatus.RECEIVED,
+                update, "processingDate", processingDate);
+    }
+
+    private Command createCommand(final String chainTaskId, final CommandStatus status) {
+        final Command command = new Command();
+        command.setChainObjectId(chainTaskId);
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(status);
+        return command;
+    }
+
+    private String getChainTaskId(final int taskIndex) {
+        return ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex);
+    }
+}
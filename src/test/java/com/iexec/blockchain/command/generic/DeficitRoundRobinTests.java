@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeficitRoundRobinTests {
+
+    private static final String BIG_DEAL = "bigDeal";
+    private static final String SMALL_DEAL = "smallDeal";
+    private static final String OTHER_DEAL = "otherDeal";
+
+    @Test
+    void shouldAlternateTenantsWithSameWeight() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 1);
+        assertThat(round.schedule(backlogs(BIG_DEAL, 1000L, SMALL_DEAL, 2L), 6))
+                .containsExactly(BIG_DEAL, SMALL_DEAL, BIG_DEAL, SMALL_DEAL, BIG_DEAL, BIG_DEAL);
+    }
+
+    @Test
+    void shouldServeTenantsProportionallyToTheirQuantum() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> BIG_DEAL.equals(tenantId) ? 3 : 1);
+        assertThat(round.schedule(backlogs(BIG_DEAL, 1000L, SMALL_DEAL, 1000L), 8))
+                .containsExactly(BIG_DEAL, BIG_DEAL, BIG_DEAL, SMALL_DEAL, BIG_DEAL, BIG_DEAL, BIG_DEAL, SMALL_DEAL);
+    }
+
+    @Test
+    void shouldResumeInterruptedTurnWithoutNewCredit() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 3);
+        final Map<String, Long> backlogs = backlogs(BIG_DEAL, 1000L, SMALL_DEAL, 1000L);
+        assertThat(round.schedule(backlogs, 2)).containsExactly(BIG_DEAL, BIG_DEAL);
+        assertThat(round.schedule(backlogs, 2)).containsExactly(BIG_DEAL, SMALL_DEAL);
+        assertThat(round.schedule(backlogs, 3)).containsExactly(SMALL_DEAL, SMALL_DEAL, BIG_DEAL);
+    }
+
+    @Test
+    void shouldServeNewTenantAfterActiveTenants() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 1);
+        assertThat(round.schedule(backlogs(BIG_DEAL, 1000L, SMALL_DEAL, 1000L), 1)).containsExactly(BIG_DEAL);
+        assertThat(round.schedule(backlogs(OTHER_DEAL, 1L, BIG_DEAL, 1000L, SMALL_DEAL, 1000L), 3))
+                .containsExactly(SMALL_DEAL, BIG_DEAL, OTHER_DEAL);
+    }
+
+    @Test
+    void shouldDropTenantsWithoutBacklog() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 2);
+        assertThat(round.schedule(backlogs(BIG_DEAL, 1000L, SMALL_DEAL, 1000L), 1)).containsExactly(BIG_DEAL);
+        assertThat(round.schedule(backlogs(SMALL_DEAL, 1000L), 3)).containsExactly(SMALL_DEAL, SMALL_DEAL, SMALL_DEAL);
+    }
+
+    @Test
+    void shouldServeCommandsQueuedWithoutTenant() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 1);
+        assertThat(round.schedule(backlogs(null, 2L, SMALL_DEAL, 1L), 5)).containsExactly(null, SMALL_DEAL, null);
+    }
+
+    @Test
+    void shouldNotScheduleWithoutBacklog() {
+        final DeficitRoundRobin round = new DeficitRoundRobin(tenantId -> 1);
+        assertThat(round.schedule(Map.of(), 5)).isEmpty();
+    }
+
+    private Map<String, Long> backlogs(Object... tenantsAndDepths) {
+        final Map<String, Long> backlogs = new LinkedHashMap<>();
+        for (int i = 0; i < tenantsAndDepths.length; i += 2) {
+            backlogs.put((String) tenantsAndDepths[i], (Long) tenantsAndDepths[i + 1]);
+        }
+        return backlogs;
+    }
+}
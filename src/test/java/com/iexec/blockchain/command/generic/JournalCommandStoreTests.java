@@ -0,0 +1,295 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.task.initialize.TaskInitializeArgs;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataMongoTest
+@Testcontainers
+class JournalCommandStoreTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+    private static final DataSize SEGMENT_SIZE = DataSize.ofKilobytes(64);
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoConverter mongoConverter;
+    @TempDir
+    private Path directory;
+    private JournalCommandStore commandStore;
+
+    @AfterEach
+    void tearDown() {
+        if (commandStore != null) {
+            commandStore.shutdown();
+        }
+    }
+
+    // region writes
+    @Test
+    void shouldInsertCommandOnce() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        assertThat(commandStore.insert(createCommand(0)).join()).isTrue();
+        assertThat(commandStore.insert(createCommand(0)).join()).isFalse();
+        assertThat(commandStore.findStatuses(List.of(getChainTaskId(0), getChainTaskId(1)), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Map.of(getChainTaskId(0), CommandStatus.RECEIVED));
+    }
+
+    @Test
+    void shouldApplyTransitionFromExpectedStatusOnly() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        commandStore.insert(createCommand(0)).join();
+
+        assertThat(updateToProcessing(0).join()).isTrue();
+        assertThat(updateToProcessing(0).join()).isFalse();
+        assertThat(commandStore.findStatuses(List.of(getChainTaskId(0)), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Map.of(getChainTaskId(0), CommandStatus.PROCESSING));
+    }
+
+    @Test
+    void shouldRejectUnsupportedUpdate() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        commandStore.insert(createCommand(0)).join();
+        final Update update = new Update().inc("version", 1).set("processingDate", Instant.now());
+
+        assertThatThrownBy(() -> commandStore.update(getChainTaskId(0), CommandName.TASK_INITIALIZE,
+                CommandStatus.RECEIVED, update, "processingDate", Instant.now()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+    // endregion
+
+    // region replay
+    @Test
+    void shouldReplayJournalOnRestart() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        IntStream.range(0, 3).forEach(i -> commandStore.insert(createCommand(i)).join());
+        updateToProcessing(1).join();
+        commandStore.shutdown();
+
+        commandStore = open(SEGMENT_SIZE);
+        try (Stream<Command> commands = commandStore.streamByStatus(CommandStatus.RECEIVED)) {
+            assertThat(commands)
+                    .extracting(Command::getArgs)
+                    .containsExactly(createArgs(0), createArgs(2));
+        }
+        try (Stream<Command> commands = commandStore.streamByStatus(CommandStatus.PROCESSING)) {
+            assertThat(commands)
+                    .singleElement()
+                    .satisfies(command -> assertThat(command.getProcessingDate()).isNotNull());
+        }
+    }
+
+    @Test
+    void shouldDiscardTornRecordOnRestart() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        commandStore.insert(createCommand(0)).join();
+        commandStore.shutdown();
+        final Path segment;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segment = paths.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            final int firstRecordLength = file.readInt();
+            // header of a second record whose payload has not been fully written
+            file.seek(2L * Integer.BYTES + firstRecordLength);
+            file.writeInt(100);
+            file.writeInt(42);
+        }
+
+        commandStore = open(SEGMENT_SIZE);
+        assertThat(commandStore.insert(createCommand(1)).join()).isTrue();
+        commandStore.shutdown();
+
+        commandStore = open(SEGMENT_SIZE);
+        assertThat(commandStore.findStatuses(List.of(getChainTaskId(0), getChainTaskId(1)), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Map.of(getChainTaskId(0), CommandStatus.RECEIVED, getChainTaskId(1), CommandStatus.RECEIVED));
+    }
+    // endregion
+
+    // region countFinal
+    @Test
+    void shouldCountCommandsCompletedDuringRange() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        IntStream.range(0, 3).forEach(i -> commandStore.insert(createCommand(i)).join());
+        final Instant finalDate = Instant.now();
+        updateToSuccess(0, finalDate.minusSeconds(1)).join();
+        updateToSuccess(1, finalDate).join();
+
+        assertThat(commandStore.countFinal(finalDate, finalDate.plusSeconds(1))).isOne();
+        assertThat(commandStore.countFinal(finalDate.minusSeconds(1), finalDate.plusSeconds(1))).isEqualTo(2);
+        assertThat(commandStore.countFinal(finalDate.minusSeconds(1), finalDate)).isOne();
+    }
+    // endregion
+
+    // region removeFinal
+    @Test
+    void shouldRemoveArchivedCommandsAcrossRestarts() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        IntStream.range(0, 3).forEach(i -> commandStore.insert(createCommand(i)).join());
+        final Instant finalDate = Instant.now();
+        updateToSuccess(1, finalDate).join();
+        updateToSuccess(0, finalDate.plusMillis(1)).join();
+
+        assertThat(commandStore.findFinal(finalDate, 10)).isEmpty();
+        assertThat(commandStore.findFinal(finalDate.plusSeconds(1), 1))
+                .extracting(Command::getChainObjectId)
+                .containsExactly(getChainTaskId(1));
+        final List<Command> commands = commandStore.findFinal(finalDate.plusSeconds(1), 10);
+        assertThat(commands)
+                .extracting(Command::getChainObjectId)
+                .containsExactly(getChainTaskId(1), getChainTaskId(0));
+        commandStore.removeFinal(commands).join();
+        commandStore.shutdown();
+
+        commandStore = open(SEGMENT_SIZE);
+        assertThat(commandStore.findStatuses(List.of(getChainTaskId(0), getChainTaskId(1), getChainTaskId(2)),
+                CommandName.TASK_INITIALIZE))
+                .isEqualTo(Map.of(getChainTaskId(2), CommandStatus.RECEIVED));
+        assertThat(commandStore.insert(createCommand(0)).join()).isTrue();
+    }
+
+    @Test
+    void shouldNotRemoveCommandWithoutFinalStatus() throws IOException {
+        commandStore = open(SEGMENT_SIZE);
+        commandStore.insert(createCommand(0)).join();
+
+        commandStore.removeFinal(List.of(createCommand(0))).join();
+
+        assertThat(commandStore.findStatuses(List.of(getChainTaskId(0)), CommandName.TASK_INITIALIZE))
+                .isEqualTo(Map.of(getChainTaskId(0), CommandStatus.RECEIVED));
+    }
+
+    @Test
+    void shouldNotRestoreRemovedCommandsAfterCompaction() throws IOException {
+        final DataSize smallSegmentSize = DataSize.ofKilobytes(4);
+        commandStore = open(smallSegmentSize);
+        final int count = 20;
+        IntStream.range(0, count).forEach(i -> commandStore.insert(createCommand(i)).join());
+        IntStream.range(0, count).forEach(i -> updateToSuccess(i, Instant.now()).join());
+        commandStore.removeFinal(commandStore.findFinal(Instant.now().plusSeconds(1), count)).join();
+
+        assertThat(commandStore.compact()).isPositive();
+        commandStore.shutdown();
+
+        commandStore = open(smallSegmentSize);
+        final List<String> chainTaskIds = IntStream.range(0, count).mapToObj(this::getChainTaskId).toList();
+        assertThat(commandStore.findStatuses(chainTaskIds, CommandName.TASK_INITIALIZE)).isEmpty();
+    }
+    // endregion
+
+    // region compact
+    @Test
+    void shouldCompactSegmentsOfSupersededRecords() throws IOException {
+        final DataSize smallSegmentSize = DataSize.ofKilobytes(4);
+        commandStore = open(smallSegmentSize);
+        final int count = 20;
+        IntStream.range(0, count).forEach(i -> commandStore.insert(createCommand(i)).join());
+        IntStream.range(0, count).forEach(i -> updateToProcessing(i).join());
+        final int segmentCount = commandStore.getSegmentCount();
+
+        assertThat(commandStore.compact()).isPositive();
+        assertThat(commandStore.getSegmentCount()).isLessThan(segmentCount);
+        commandStore.shutdown();
+
+        commandStore = open(smallSegmentSize);
+        try (Stream<Command> commands = commandStore.streamByStatus(CommandStatus.PROCESSING)) {
+            assertThat(commands).hasSize(count);
+        }
+    }
+    // endregion
+
+    private JournalCommandStore open(DataSize segmentSize) throws IOException {
+        return new JournalCommandStore(mongoConverter, directory, segmentSize, Duration.ofMillis(1));
+    }
+
+    private CompletableFuture<Boolean> updateToProcessing(int taskIndex) {
+        final Instant processingDate = Instant.now();
+        final Update update = new Update()
+                .set("status", CommandStatus.PROCESSING)
+                .set("processingDate", processingDate);
+        return commandStore.update(getChainTaskId(taskIndex), CommandName.TASK_INITIALIZE, CommandStatus.RECEIVED,
+                update, "processingDate", processingDate);
+    }
+
+    private CompletableFuture<Boolean> updateToSuccess(int taskIndex, Instant finalDate) {
+        final Update update = new Update()
+                .set("status", CommandStatus.SUCCESS)
+                .set("finalDate", finalDate);
+        return commandStore.update(getChainTaskId(taskIndex), CommandName.TASK_INITIALIZE, CommandStatus.RECEIVED,
+                update, "finalDate", finalDate);
+    }
+
+    private Command createCommand(int taskIndex) {
+        final Command command = new Command();
+        command.setChainObjectId(getChainTaskId(taskIndex));
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(CommandStatus.RECEIVED);
+        command.setCreationDate(Instant.now().plusMillis(taskIndex));
+        command.setArgs(createArgs(taskIndex));
+        return command;
+    }
+
+    private TaskInitializeArgs createArgs(int taskIndex) {
+        return new TaskInitializeArgs(getChainTaskId(taskIndex), CHAIN_DEAL_ID, taskIndex);
+    }
+
+    private String getChainTaskId(int taskIndex) {
+        return ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, taskIndex);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.commons.poco.chain.ChainUtils;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+class ReceiptSummaryMigrationTests {
+
+    private static final String CHAIN_DEAL_ID =
+            "0x000000000000000000000000000000000000000000000000000000000000dea1";
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void init() {
+        mongoTemplate.findAllAndRemove(new Query(), Command.class);
+        mongoTemplate.findAllAndRemove(new Query(), CommandReceipt.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldMigrateLegacyReceipts(boolean keepFullReceipt) {
+        final int count = ReceiptSummaryMigration.BATCH_SIZE + 1;
+        final String collectionName = mongoTemplate.getCollectionName(Command.class);
+        IntStream.range(0, count).forEach(i -> {
+            final Document legacyCommand = new Document()
+                    .append("chainObjectId", ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, i))
+                    .append("commandName", CommandName.TASK_INITIALIZE.name())
+                    .append("status", CommandStatus.SUCCESS.name())
+                    .append(ReceiptSummaryMigration.LEGACY_RECEIPT_FIELD_NAME,
+                            mongoTemplate.getConverter().convertToMongoType(createReceipt()));
+            mongoTemplate.insert(legacyCommand, collectionName);
+        });
+        mongoTemplate.insert(createCommand());
+
+        new ReceiptSummaryMigration(mongoTemplate, keepFullReceipt).migrate();
+
+        assertThat(mongoTemplate.count(Query.query(Criteria.where(ReceiptSummaryMigration.LEGACY_RECEIPT_FIELD_NAME)
+                .exists(true)), collectionName)).isZero();
+        assertThat(mongoTemplate.findAll(Command.class))
+                .hasSize(count + 1)
+                .allMatch(command -> ReceiptSummary.of(createReceipt()).equals(command.getReceiptSummary()));
+        assertThat(mongoTemplate.count(new Query(), CommandReceipt.class)).isEqualTo(keepFullReceipt ? count : 0);
+    }
+
+    private Command createCommand() {
+        final Command command = new Command();
+        command.setChainObjectId(CHAIN_DEAL_ID);
+        command.setCommandName(CommandName.TASK_INITIALIZE);
+        command.setStatus(CommandStatus.SUCCESS);
+        command.setReceiptSummary(ReceiptSummary.of(createReceipt()));
+        return command;
+    }
+
+    private TransactionReceipt createReceipt() {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash("0xabc");
+        receipt.setBlockNumber("0x10");
+        receipt.setGasUsed("0x5208");
+        receipt.setStatus("0x1");
+        receipt.setLogsBloom("0x" + "f".repeat(512));
+        return receipt;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.generic;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptSummaryTests {
+
+    private static final String CHAIN_TASK_ID = "0x0000000000000000000000000000000000000000000000000000000000000001";
+    private static final String WORKERPOOL_TOPIC = "0x0000000000000000000000000000000000000000000000000000000000000002";
+
+    @Test
+    void shouldReturnNullWhenNoReceipt() {
+        assertThat(ReceiptSummary.of(null)).isNull();
+    }
+
+    @Test
+    void shouldSummarizeEmptyReceipt() {
+        assertThat(ReceiptSummary.of(new TransactionReceipt()))
+                .isEqualTo(new ReceiptSummary(null, null, null, null, null, null, List.of()));
+    }
+
+    @Test
+    void shouldSummarizeReceipt() {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash("0xabc");
+        receipt.setBlockNumber("0x10");
+        receipt.setGasUsed("0x5208");
+        receipt.setCumulativeGasUsed("0x10000");
+        receipt.setEffectiveGasPrice("0x3b9aca00");
+        receipt.setStatus("0x0");
+        receipt.setRevertReason("task already initialized");
+        receipt.setLogsBloom("0x" + "f".repeat(512));
+        receipt.setLogs(List.of(
+                createLog(Hash.sha3String("TaskInitialize(bytes32,address)"), CHAIN_TASK_ID, WORKERPOOL_TOPIC),
+                createLog(Hash.sha3String("Unknown(bytes32)"), CHAIN_TASK_ID),
+                createLog()));
+
+        assertThat(ReceiptSummary.of(receipt)).isEqualTo(new ReceiptSummary(
+                "0xabc", 16L, 21000L, 1_000_000_000L, "0x0", "task already initialized",
+                List.of(new ReceiptSummary.HubEvent("TaskInitialize", List.of(CHAIN_TASK_ID, WORKERPOOL_TOPIC)))));
+    }
+
+    private Log createLog(String... topics) {
+        final Log log = new Log();
+        log.setTopics(List.of(topics));
+        log.setData("0x");
+        return log;
+    }
+}
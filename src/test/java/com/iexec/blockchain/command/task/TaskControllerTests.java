@@ -1,5 +1,5 @@
 /*
- * Copyright 2024-2025 IEXEC BLOCKCHAIN TECH
+ * Copyright 2024-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,19 @@
 package com.iexec.blockchain.command.task;
 
 import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.api.PollingHints;
+import com.iexec.blockchain.api.TaskContributeRequest;
+import com.iexec.blockchain.api.TaskRevealRequest;
+import com.iexec.blockchain.chain.ChainConfig;
 import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandRejectedException;
+import com.iexec.blockchain.command.task.claim.TaskClaimService;
+import com.iexec.blockchain.command.task.contribute.TaskContributeService;
 import com.iexec.blockchain.command.task.finalize.TaskFinalizeService;
 import com.iexec.blockchain.command.task.initialize.TaskInitializeService;
+import com.iexec.blockchain.command.task.reveal.TaskRevealService;
+import com.iexec.blockchain.webhook.WebhookService;
 import com.iexec.common.chain.adapter.args.TaskFinalizeArgs;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,12 +38,18 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaskControllerTests {
@@ -41,27 +57,88 @@ class TaskControllerTests {
     private static final String CHAIN_DEAL_ID = "0x1";
     private static final int TASK_INDEX = 0;
     private static final String CHAIN_TASK_ID = "0x2";
+    private static final String CALLBACK_URL = "http://localhost:8080/notifications";
+    private static final String RESULT_DIGEST = "0x3";
+    private static final TaskContributeRequest CONTRIBUTE_REQUEST =
+            new TaskContributeRequest(RESULT_DIGEST, "0x4", "0x5", "0x6");
 
     @Mock
     private TaskInitializeService taskInitializeService;
     @Mock
+    private TaskContributeService taskContributeService;
+    @Mock
+    private TaskRevealService taskRevealService;
+    @Mock
     private TaskFinalizeService taskFinalizeService;
+    @Mock
+    private TaskClaimService taskClaimService;
+    @Mock
+    private WebhookService webhookService;
+    @Mock
+    private ChainConfig chainConfig;
+    @Mock
+    private CommandQueue commandQueue;
     @InjectMocks
     private TaskController taskController;
 
+    // region getPollingHints
+    @Test
+    void shouldGetPollingHints() {
+        when(chainConfig.getBlockTime()).thenReturn(Duration.ofSeconds(5));
+        when(chainConfig.getMaxAllowedTxPerBlock()).thenReturn(2);
+        when(commandQueue.size()).thenReturn(10L);
+        assertThat(taskController.getPollingHints())
+                .isEqualTo(ResponseEntity.ok(new PollingHints(5000L, 10, 2)));
+    }
+    // endregion
+
     // region requestInitializeTask
     @Test
     void shouldNotifyInitializeCommandSubmissionFailure() {
         when(taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX)).thenReturn("");
-        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX))
+        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX, null))
                 .isEqualTo(ResponseEntity.badRequest().build());
     }
 
     @Test
     void shouldNotifyInitializeCommandSubmissionSuccess() {
         when(taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX)).thenReturn(CHAIN_TASK_ID);
-        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX))
+        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX, null))
+                .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verifyNoInteractions(webhookService);
+    }
+
+    @Test
+    void shouldRegisterCallbackUrlOnInitializeCommandSubmissionSuccess() {
+        when(webhookService.isValidUrl(CALLBACK_URL)).thenReturn(true);
+        when(taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX)).thenReturn(CHAIN_TASK_ID);
+        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX, CALLBACK_URL))
                 .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verify(webhookService).subscribe(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE, CALLBACK_URL);
+    }
+
+    @Test
+    void shouldRejectInitializeCommandWhenQueueIsOverloaded() {
+        final CommandRejectedException rejection = new CommandRejectedException("full", Duration.ofSeconds(15));
+        final ResponseEntity<Void> response = taskController.handleCommandRejected(rejection);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("15");
+    }
+
+    @Test
+    void shouldRejectInitializeCommandWithRetryWhenDeadlineCannotBeMet() {
+        final CommandRejectedException rejection = new CommandRejectedException("deadline", Duration.ofSeconds(4));
+        final ResponseEntity<Void> response = taskController.handleCommandRejected(rejection);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("4");
+    }
+
+    @Test
+    void shouldRejectInitializeCommandWithInvalidCallbackUrl() {
+        assertThat(taskController.requestInitializeTask(CHAIN_DEAL_ID, TASK_INDEX, "not-a-url"))
+                .isEqualTo(ResponseEntity.badRequest().build());
+        verifyNoInteractions(taskInitializeService);
+        verify(webhookService, never()).subscribe(any(), any(), any());
     }
     // endregion
 
@@ -70,31 +147,187 @@ class TaskControllerTests {
     @EnumSource(value = CommandStatus.class)
     void shouldReturnInitializeCommandStatusWhenAvailable(CommandStatus status) {
         when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.of(status));
-        assertThat(taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID))
-                .isEqualTo(ResponseEntity.ok(status));
+        final ResponseEntity<CommandStatus> response = taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, null);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(status);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + status.name() + "\"");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = {"SUCCESS", "FAILURE"})
+    void shouldReturnImmutableInitializeCommandStatusWhenFinal(CommandStatus status) {
+        when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.of(status));
+        assertThat(taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("immutable");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = {"RECEIVED", "PROCESSING"})
+    void shouldReturnRevalidatedInitializeCommandStatusWhenNotFinal(CommandStatus status) {
+        when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.of(status));
+        assertThat(taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("no-cache")
+                .doesNotContain("immutable");
+    }
+
+    @Test
+    void shouldReturnNotModifiedInitializeCommandStatusWhenETagMatches() {
+        when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.of(CommandStatus.PROCESSING));
+        final ResponseEntity<CommandStatus> response =
+                taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, "\"RECEIVED\", W/\"PROCESSING\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void shouldReturnInitializeCommandStatusWhenETagDoesNotMatch() {
+        when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.of(CommandStatus.SUCCESS));
+        final ResponseEntity<CommandStatus> response =
+                taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, "\"PROCESSING\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(CommandStatus.SUCCESS);
     }
 
     @Test
     void shouldNotReturnInitializeCommandStatusWhenEmpty() {
         when(taskInitializeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE)).thenReturn(Optional.empty());
-        assertThat(taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID))
+        assertThat(taskController.getStatusForInitializeTaskRequest(CHAIN_TASK_ID, null))
                 .isEqualTo(ResponseEntity.notFound().build());
     }
     // endregion
 
+    // region getStatusForInitializeTaskRequests
+    @Test
+    void shouldReturnInitializeCommandStatuses() {
+        final List<String> chainTaskIds = List.of(CHAIN_TASK_ID);
+        when(taskInitializeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_INITIALIZE))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertThat(taskController.getStatusForInitializeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.ok(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS)));
+    }
+
+    @Test
+    void shouldNotReturnInitializeCommandStatusesWhenTooManyIds() {
+        final List<String> chainTaskIds = Collections.nCopies(TaskController.MAX_STATUS_BATCH_SIZE + 1, CHAIN_TASK_ID);
+        assertThat(taskController.getStatusForInitializeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.badRequest().build());
+        verifyNoInteractions(taskInitializeService);
+    }
+    // endregion
+
+    // region requestContributeTask
+    @Test
+    void shouldNotifyContributeCommandSubmissionFailure() {
+        when(taskContributeService.start(CHAIN_TASK_ID, RESULT_DIGEST, "0x4", "0x5", "0x6")).thenReturn("");
+        assertThat(taskController.requestContributeTask(CHAIN_TASK_ID, CONTRIBUTE_REQUEST, null))
+                .isEqualTo(ResponseEntity.badRequest().build());
+    }
+
+    @Test
+    void shouldRegisterCallbackUrlOnContributeCommandSubmissionSuccess() {
+        when(webhookService.isValidUrl(CALLBACK_URL)).thenReturn(true);
+        when(taskContributeService.start(CHAIN_TASK_ID, RESULT_DIGEST, "0x4", "0x5", "0x6")).thenReturn(CHAIN_TASK_ID);
+        assertThat(taskController.requestContributeTask(CHAIN_TASK_ID, CONTRIBUTE_REQUEST, CALLBACK_URL))
+                .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verify(webhookService).subscribe(CHAIN_TASK_ID, CommandName.TASK_CONTRIBUTE, CALLBACK_URL);
+    }
+
+    @Test
+    void shouldRejectContributeCommandWithInvalidCallbackUrl() {
+        assertThat(taskController.requestContributeTask(CHAIN_TASK_ID, CONTRIBUTE_REQUEST, "not-a-url"))
+                .isEqualTo(ResponseEntity.badRequest().build());
+        verifyNoInteractions(taskContributeService);
+        verify(webhookService, never()).subscribe(any(), any(), any());
+    }
+    // endregion
+
+    // region getStatusForContributeTaskRequest(s)
+    @Test
+    void shouldReturnContributeCommandStatus() {
+        when(taskContributeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_CONTRIBUTE))
+                .thenReturn(Optional.of(CommandStatus.PROCESSING));
+        final ResponseEntity<CommandStatus> response = taskController.getStatusForContributeTaskRequest(CHAIN_TASK_ID, null);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(CommandStatus.PROCESSING);
+    }
+
+    @Test
+    void shouldReturnContributeCommandStatuses() {
+        final List<String> chainTaskIds = List.of(CHAIN_TASK_ID);
+        when(taskContributeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_CONTRIBUTE))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertThat(taskController.getStatusForContributeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.ok(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS)));
+    }
+
+    @Test
+    void shouldNotReturnContributeCommandStatusesWhenTooManyIds() {
+        final List<String> chainTaskIds = Collections.nCopies(TaskController.MAX_STATUS_BATCH_SIZE + 1, CHAIN_TASK_ID);
+        assertThat(taskController.getStatusForContributeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.badRequest().build());
+        verifyNoInteractions(taskContributeService);
+    }
+    // endregion
+
+    // region requestRevealTask
+    @Test
+    void shouldNotifyRevealCommandSubmissionFailure() {
+        when(taskRevealService.start(CHAIN_TASK_ID, RESULT_DIGEST)).thenReturn("");
+        assertThat(taskController.requestRevealTask(CHAIN_TASK_ID, new TaskRevealRequest(RESULT_DIGEST), null))
+                .isEqualTo(ResponseEntity.badRequest().build());
+    }
+
+    @Test
+    void shouldRegisterCallbackUrlOnRevealCommandSubmissionSuccess() {
+        when(webhookService.isValidUrl(CALLBACK_URL)).thenReturn(true);
+        when(taskRevealService.start(CHAIN_TASK_ID, RESULT_DIGEST)).thenReturn(CHAIN_TASK_ID);
+        assertThat(taskController.requestRevealTask(CHAIN_TASK_ID, new TaskRevealRequest(RESULT_DIGEST), CALLBACK_URL))
+                .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verify(webhookService).subscribe(CHAIN_TASK_ID, CommandName.TASK_REVEAL, CALLBACK_URL);
+    }
+    // endregion
+
+    // region getStatusForRevealTaskRequest(s)
+    @Test
+    void shouldReturnImmutableRevealCommandStatusWhenFinal() {
+        when(taskRevealService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_REVEAL))
+                .thenReturn(Optional.of(CommandStatus.SUCCESS));
+        assertThat(taskController.getStatusForRevealTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("immutable");
+    }
+
+    @Test
+    void shouldReturnRevealCommandStatuses() {
+        final List<String> chainTaskIds = List.of(CHAIN_TASK_ID);
+        when(taskRevealService.getStatusesForCommands(chainTaskIds, CommandName.TASK_REVEAL))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.RECEIVED));
+        assertThat(taskController.getStatusForRevealTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.ok(Map.of(CHAIN_TASK_ID, CommandStatus.RECEIVED)));
+    }
+    // endregion
+
     // region requestFinalizeTask
     @Test
     void shouldNotifyFinalizeCommandSubmissionFailure() {
         when(taskFinalizeService.start(CHAIN_TASK_ID, null, null)).thenReturn("");
-        assertThat(taskController.requestFinalizeTask(CHAIN_TASK_ID, TaskFinalizeArgs.builder().build()))
+        assertThat(taskController.requestFinalizeTask(CHAIN_TASK_ID, TaskFinalizeArgs.builder().build(), null))
                 .isEqualTo(ResponseEntity.badRequest().build());
     }
 
     @Test
     void shouldNotifyFinalizeCommandSubmissionSuccess() {
         when(taskFinalizeService.start(CHAIN_TASK_ID, null, null)).thenReturn(CHAIN_TASK_ID);
-        assertThat(taskController.requestFinalizeTask(CHAIN_TASK_ID, TaskFinalizeArgs.builder().build()))
+        assertThat(taskController.requestFinalizeTask(CHAIN_TASK_ID, TaskFinalizeArgs.builder().build(), null))
+                .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+    }
+
+    @Test
+    void shouldRegisterCallbackUrlOnFinalizeCommandSubmissionSuccess() {
+        when(webhookService.isValidUrl(CALLBACK_URL)).thenReturn(true);
+        when(taskFinalizeService.start(CHAIN_TASK_ID, null, null)).thenReturn(CHAIN_TASK_ID);
+        assertThat(taskController.requestFinalizeTask(CHAIN_TASK_ID, TaskFinalizeArgs.builder().build(), CALLBACK_URL))
                 .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verify(webhookService).subscribe(CHAIN_TASK_ID, CommandName.TASK_FINALIZE, CALLBACK_URL);
     }
     // endregion
 
@@ -103,15 +336,108 @@ class TaskControllerTests {
     @EnumSource(value = CommandStatus.class)
     void shouldReturnFinalizeCommandStatusWhenAvailable(CommandStatus status) {
         when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(status));
-        assertThat(taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID))
-                .isEqualTo(ResponseEntity.ok(status));
+        final ResponseEntity<CommandStatus> response = taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, null);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(status);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + status.name() + "\"");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = {"SUCCESS", "FAILURE"})
+    void shouldReturnImmutableFinalizeCommandStatusWhenFinal(CommandStatus status) {
+        when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(status));
+        assertThat(taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("immutable");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CommandStatus.class, names = {"RECEIVED", "PROCESSING"})
+    void shouldReturnRevalidatedFinalizeCommandStatusWhenNotFinal(CommandStatus status) {
+        when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(status));
+        assertThat(taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("no-cache")
+                .doesNotContain("immutable");
+    }
+
+    @Test
+    void shouldReturnNotModifiedFinalizeCommandStatusWhenETagMatches() {
+        when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(CommandStatus.PROCESSING));
+        final ResponseEntity<CommandStatus> response =
+                taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, "\"RECEIVED\", W/\"PROCESSING\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void shouldReturnFinalizeCommandStatusWhenETagDoesNotMatch() {
+        when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(CommandStatus.SUCCESS));
+        final ResponseEntity<CommandStatus> response =
+                taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, "\"PROCESSING\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(CommandStatus.SUCCESS);
     }
 
     @Test
     void shouldNotReturnFinalizeCommandStatusWhenEmpty() {
         when(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.empty());
-        assertThat(taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID))
+        assertThat(taskController.getStatusForFinalizeTaskRequest(CHAIN_TASK_ID, null))
                 .isEqualTo(ResponseEntity.notFound().build());
     }
     // endregion
+
+    // region getStatusForFinalizeTaskRequests
+    @Test
+    void shouldReturnFinalizeCommandStatuses() {
+        final List<String> chainTaskIds = List.of(CHAIN_TASK_ID);
+        when(taskFinalizeService.getStatusesForCommands(chainTaskIds, CommandName.TASK_FINALIZE))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING));
+        assertThat(taskController.getStatusForFinalizeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.ok(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING)));
+    }
+
+    @Test
+    void shouldNotReturnFinalizeCommandStatusesWhenTooManyIds() {
+        final List<String> chainTaskIds = Collections.nCopies(TaskController.MAX_STATUS_BATCH_SIZE + 1, CHAIN_TASK_ID);
+        assertThat(taskController.getStatusForFinalizeTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.badRequest().build());
+        verifyNoInteractions(taskFinalizeService);
+    }
+    // endregion
+
+    // region requestClaimTask
+    @Test
+    void shouldNotifyClaimCommandSubmissionFailure() {
+        when(taskClaimService.start(CHAIN_TASK_ID)).thenReturn("");
+        assertThat(taskController.requestClaimTask(CHAIN_TASK_ID, null))
+                .isEqualTo(ResponseEntity.badRequest().build());
+    }
+
+    @Test
+    void shouldRegisterCallbackUrlOnClaimCommandSubmissionSuccess() {
+        when(webhookService.isValidUrl(CALLBACK_URL)).thenReturn(true);
+        when(taskClaimService.start(CHAIN_TASK_ID)).thenReturn(CHAIN_TASK_ID);
+        assertThat(taskController.requestClaimTask(CHAIN_TASK_ID, CALLBACK_URL))
+                .isEqualTo(ResponseEntity.ok(CHAIN_TASK_ID));
+        verify(webhookService).subscribe(CHAIN_TASK_ID, CommandName.TASK_CLAIM, CALLBACK_URL);
+    }
+    // endregion
+
+    // region getStatusForClaimTaskRequest(s)
+    @Test
+    void shouldReturnImmutableClaimCommandStatusWhenFinal() {
+        when(taskClaimService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_CLAIM))
+                .thenReturn(Optional.of(CommandStatus.FAILURE));
+        assertThat(taskController.getStatusForClaimTaskRequest(CHAIN_TASK_ID, null).getHeaders().getCacheControl())
+                .contains("immutable");
+    }
+
+    @Test
+    void shouldReturnClaimCommandStatuses() {
+        final List<String> chainTaskIds = List.of(CHAIN_TASK_ID);
+        when(taskClaimService.getStatusesForCommands(chainTaskIds, CommandName.TASK_CLAIM))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING));
+        assertThat(taskController.getStatusForClaimTaskRequests(chainTaskIds))
+                .isEqualTo(ResponseEntity.ok(Map.of(CHAIN_TASK_ID, CommandStatus.PROCESSING)));
+    }
+    // endregion
 }
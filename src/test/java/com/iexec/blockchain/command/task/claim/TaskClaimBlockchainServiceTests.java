@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.claim;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static com.iexec.blockchain.command.generic.CommandBlockchain.NO_DEADLINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(OutputCaptureExtension.class)
+class TaskClaimBlockchainServiceTests {
+
+    private static final String CHAIN_TASK_ID =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final long TIME_INTERVAL_IN_MS = 100L;
+    private static final long MAX_BATCH_GAS = 1_000_000L;
+    private static final TaskClaimArgs ARGS = new TaskClaimArgs(CHAIN_TASK_ID);
+
+    @Mock
+    private IexecHubService iexecHubService;
+
+    private TaskClaimBlockchainService taskClaimBlockchainService;
+
+    @BeforeEach
+    void init() {
+        taskClaimBlockchainService = new TaskClaimBlockchainService(iexecHubService, MAX_BATCH_GAS);
+    }
+
+    // region checkBlockchainCommand
+    @Test
+    void canNotSendCommandWhenInsufficientGas(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(false);
+        assertThat(taskClaimBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("insufficient gas");
+    }
+
+    @Test
+    void canNotSendCommandWhenNoTask(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.empty());
+        assertThat(taskClaimBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("blockchain read");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ChainTaskStatus.class, names = {"UNSET", "COMPLETED", "FAILED"})
+    void canNotSendCommandWhenTaskNotClaimable(ChainTaskStatus status, CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(status).build()));
+        assertThat(taskClaimBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("task is not active or revealing");
+    }
+
+    @Test
+    void canNotSendCommandBeforeFinalDeadline(CapturedOutput output) {
+        mockTask(ChainTaskStatus.ACTIVE, Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        assertThat(taskClaimBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("before final deadline");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ChainTaskStatus.class, names = {"ACTIVE", "REVEALING"})
+    void shouldReturnNoDeadlineWhenCommandCanBeSent(ChainTaskStatus status) {
+        mockTask(status, Instant.now().minus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        assertThat(taskClaimBlockchainService.checkBlockchainCommand(ARGS)).contains(NO_DEADLINE);
+    }
+    // endregion
+
+    // region getClaimsPerTransaction
+    @Test
+    void shouldSendClaimsOneByOneWhenBatchNotSupported() throws IOException {
+        when(iexecHubService.canClaimInBatch()).thenReturn(false);
+        assertThat(taskClaimBlockchainService.getClaimsPerTransaction(CHAIN_TASK_ID)).isOne();
+        verify(iexecHubService, never()).estimateClaimGas(CHAIN_TASK_ID);
+    }
+
+    @Test
+    void shouldFitClaimsInMaxBatchGas() throws IOException {
+        when(iexecHubService.canClaimInBatch()).thenReturn(true);
+        when(iexecHubService.estimateClaimGas(CHAIN_TASK_ID)).thenReturn(BigInteger.valueOf(60_000L));
+        assertThat(taskClaimBlockchainService.getClaimsPerTransaction(CHAIN_TASK_ID)).isEqualTo(16);
+    }
+
+    @Test
+    void shouldSendAtLeastOneClaimPerTransaction() throws IOException {
+        when(iexecHubService.canClaimInBatch()).thenReturn(true);
+        when(iexecHubService.estimateClaimGas(CHAIN_TASK_ID)).thenReturn(BigInteger.valueOf(2 * MAX_BATCH_GAS));
+        assertThat(taskClaimBlockchainService.getClaimsPerTransaction(CHAIN_TASK_ID)).isOne();
+    }
+
+    @Test
+    void shouldSendClaimsOneByOneWhenGasEstimationFails(CapturedOutput output) throws IOException {
+        when(iexecHubService.canClaimInBatch()).thenReturn(true);
+        when(iexecHubService.estimateClaimGas(CHAIN_TASK_ID)).thenThrow(IOException.class);
+        assertThat(taskClaimBlockchainService.getClaimsPerTransaction(CHAIN_TASK_ID)).isOne();
+        assertThat(output.getOut()).contains("Cannot estimate claim gas");
+    }
+    // endregion
+
+    // region isCommandAppliedOnChain
+    @Test
+    void shouldDetectClaimOnChain() {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.FAILED).build()));
+        assertThat(taskClaimBlockchainService.isCommandAppliedOnChain(ARGS)).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectActiveTaskAsClaimedOnChain() {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.ACTIVE).build()));
+        assertThat(taskClaimBlockchainService.isCommandAppliedOnChain(ARGS)).isFalse();
+    }
+    // endregion
+
+    private void mockTask(final ChainTaskStatus status, final Instant finalDeadline) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainTask.builder()
+                .status(status)
+                .finalDeadline(finalDeadline.toEpochMilli())
+                .build()));
+    }
+
+}
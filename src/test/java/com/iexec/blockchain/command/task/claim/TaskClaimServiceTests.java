@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.claim;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandArchiver;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.QueuedCommand;
+import com.iexec.blockchain.command.task.claim.TaskClaimService.PendingClaim;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.iexec.blockchain.command.generic.CommandBlockchain.NO_DEADLINE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskClaimServiceTests {
+
+    private static final String CHAIN_TASK_ID_1 =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String CHAIN_TASK_ID_2 =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+    private static final String CHAIN_TASK_ID_3 =
+            "0x5125c4ca7176e40d8c5386072a6f262029609a5d3a896fbf592cd965e65098d9";
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Mock
+    private TaskClaimBlockchainService blockchainService;
+    @Mock
+    private CommandStorage updaterService;
+    @Mock
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandAdmission commandAdmission;
+    @Mock
+    private QueueService queueService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
+
+    private TaskClaimService taskClaimService;
+    private final TaskClaimArgs args1 = new TaskClaimArgs(CHAIN_TASK_ID_1);
+    private final TaskClaimArgs args2 = new TaskClaimArgs(CHAIN_TASK_ID_2);
+    private final TaskClaimArgs args3 = new TaskClaimArgs(CHAIN_TASK_ID_3);
+
+    @BeforeEach
+    void init() {
+        taskClaimService = createService(MAX_BATCH_SIZE);
+    }
+
+    private TaskClaimService createService(final int maxBatchSize) {
+        return new TaskClaimService(blockchainService, updaterService, commandQueue, commandAdmission,
+                new CommandDeduplicator(mongoTemplate, updaterService, commandArchiver, 1000, 0.01), queueService,
+                Duration.ofMillis(100L), maxBatchSize);
+    }
+
+    // region start
+    @Test
+    void shouldClaimWithoutDeadline() {
+        when(blockchainService.checkBlockchainCommand(args1)).thenReturn(Optional.of(NO_DEADLINE));
+        when(updaterService.updateToReceived(args1)).thenReturn(true);
+
+        assertThat(taskClaimService.start(CHAIN_TASK_ID_1)).isEqualTo(CHAIN_TASK_ID_1);
+        verify(commandQueue).enqueue(args1, false, null, QueuedCommand.Step.TRIGGER);
+        verify(commandAdmission, never()).checkDeadline(any(), any());
+    }
+
+    @Test
+    void shouldNotClaimWithBadParameters() {
+        assertThat(taskClaimService.start("not-a-task")).isEmpty();
+        verifyNoInteractions(blockchainService, updaterService, commandQueue);
+    }
+    // endregion
+
+    // region sendBlockchainCommand
+    @Test
+    void shouldWaitForFlushBeforeSendingClaims() {
+        taskClaimService.sendBlockchainCommand(args1, 0);
+        taskClaimService.sendBlockchainCommand(args2, 0);
+        verifyNoInteractions(blockchainService, queueService);
+
+        taskClaimService.flush();
+        verify(queueService).addExecutionToQueue(any(), eq(false));
+    }
+
+    @Test
+    void shouldFlushOnceMaxBatchSizeIsReached() {
+        taskClaimService = createService(2);
+        taskClaimService.sendBlockchainCommand(args1, 0);
+        verifyNoInteractions(queueService);
+        taskClaimService.sendBlockchainCommand(args2, 0);
+        verify(queueService).addExecutionToQueue(any(), eq(false));
+    }
+
+    @Test
+    void shouldSendFlushedClaimsInSingleTransaction() throws Exception {
+        final TransactionReceipt receipt = createReceipt("0x1");
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(MAX_BATCH_SIZE);
+        when(blockchainService.sendBlockchainCommands(eq(List.of(args1, args2)), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept("0xabc");
+            return receipt;
+        });
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenReturn(false, true);
+        when(blockchainService.isCommandAppliedOnChain(args2)).thenReturn(false, true);
+        taskClaimService.sendBlockchainCommand(args1, 0);
+        taskClaimService.sendBlockchainCommand(args2, 0);
+        taskClaimService.flush();
+
+        final ArgumentCaptor<Runnable> batchCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(queueService).addExecutionToQueue(batchCaptor.capture(), eq(false));
+        batchCaptor.getValue().run();
+
+        verify(updaterService).updateTxHashAsync(args1, "0xabc");
+        verify(updaterService).updateTxHashAsync(args2, "0xabc");
+        verify(updaterService).updateToFinal(args1, receipt);
+        verify(updaterService).updateToFinal(args2, receipt);
+    }
+    // endregion
+
+    // region sendBatch
+    @Test
+    void shouldCompleteAlreadyClaimedTasksWithoutTransaction() throws Exception {
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenReturn(true);
+
+        taskClaimService.sendBatch(List.of(new PendingClaim(args1, 1)));
+
+        verify(updaterService).updateToFinal(args1, CommandStatus.SUCCESS, null);
+        verify(blockchainService, never()).sendBlockchainCommands(any(), any());
+    }
+
+    @Test
+    void shouldSplitClaimsInChunks() throws Exception {
+        final TransactionReceipt receipt = createReceipt("0x1");
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(2);
+        when(blockchainService.sendBlockchainCommands(any(), any())).thenReturn(receipt);
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenReturn(false, true);
+        when(blockchainService.isCommandAppliedOnChain(args2)).thenReturn(false, true);
+
+        taskClaimService.sendBatch(List.of(
+                new PendingClaim(args1, 1), new PendingClaim(args2, 1), new PendingClaim(args3, 1)));
+
+        verify(blockchainService).sendBlockchainCommands(eq(List.of(args1, args2)), any());
+        verify(blockchainService).sendBlockchainCommands(eq(List.of(args3)), any());
+        verify(updaterService, times(3)).updateToFinal(any(), eq(receipt));
+    }
+
+    @Test
+    void shouldRetryClaimsNotAppliedOnChainAfterSuccessfulChunk() throws Exception {
+        final TransactionReceipt receipt = createReceipt("0x1");
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(MAX_BATCH_SIZE);
+        when(blockchainService.sendBlockchainCommands(any(), any())).thenReturn(receipt);
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenReturn(false, true);
+        when(blockchainService.isCommandAppliedOnChain(args2)).thenReturn(false);
+        when(updaterService.updateNextAttempt(eq(args2), eq(1), any())).thenReturn(true);
+
+        taskClaimService.sendBatch(List.of(new PendingClaim(args1, 1), new PendingClaim(args2, 1)));
+
+        verify(updaterService).updateToFinal(args1, receipt);
+        verify(updaterService, never()).updateToFinal(eq(args2), any());
+        verify(updaterService, never()).updateToFinal(eq(args2), any(), any());
+        verify(commandQueue).scheduleRetry(eq(args2), eq(false), eq(1), any());
+    }
+
+    @Test
+    void shouldAddClaimableTasksOfRevertedChunkToNextBatchWithoutAttempt() throws Exception {
+        final TransactionReceipt receipt = createReceipt("0x0");
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(MAX_BATCH_SIZE);
+        when(blockchainService.sendBlockchainCommands(any(), any())).thenReturn(receipt);
+        when(blockchainService.canSendBlockchainCommand(args1)).thenReturn(true);
+        when(blockchainService.canSendBlockchainCommand(args2)).thenReturn(false);
+        final PendingClaim claim1 = new PendingClaim(args1, 1);
+        final PendingClaim claim2 = new PendingClaim(args2, 1);
+
+        taskClaimService.sendBatch(List.of(claim1, claim2));
+
+        verify(updaterService, never()).updateNextAttempt(eq(args1), anyInt(), any());
+        verify(commandQueue, never()).scheduleRetry(eq(args1), anyBoolean(), anyInt(), any());
+        verify(updaterService, never()).updateToFinal(eq(args1), any());
+        verify(updaterService, never()).updateToFinal(eq(args1), any(), any());
+        verify(updaterService).updateToFinal(args2, receipt);
+        assertThat(claim1.completion()).isNotDone();
+        assertThat(claim2.completion()).isDone();
+
+        final ArgumentCaptor<Runnable> batchCaptor = ArgumentCaptor.forClass(Runnable.class);
+        taskClaimService.flush();
+        verify(queueService).addExecutionToQueue(batchCaptor.capture(), eq(false));
+        when(blockchainService.sendBlockchainCommands(eq(List.of(args1)), any())).thenReturn(createReceipt("0x1"));
+        batchCaptor.getValue().run();
+        verify(updaterService).updateToFinal(eq(args1), any());
+        assertThat(claim1.completion()).isDone();
+    }
+
+    @Test
+    void shouldScheduleRetryOfRevertedChunkSinceNoClaimExplainsRevert() throws Exception {
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(MAX_BATCH_SIZE);
+        when(blockchainService.sendBlockchainCommands(any(), any())).thenReturn(createReceipt("0x0"));
+        when(blockchainService.canSendBlockchainCommand(any())).thenReturn(true);
+        when(updaterService.updateNextAttempt(any(), eq(1), any())).thenReturn(true);
+
+        taskClaimService.sendBatch(List.of(new PendingClaim(args1, 1), new PendingClaim(args2, 1)));
+
+        verify(commandQueue).scheduleRetry(eq(args1), eq(false), eq(1), any());
+        verify(commandQueue).scheduleRetry(eq(args2), eq(false), eq(1), any());
+    }
+
+    @Test
+    void shouldScheduleRetryOfChunkSinceSendFailed() throws Exception {
+        when(blockchainService.getClaimsPerTransaction(CHAIN_TASK_ID_1)).thenReturn(MAX_BATCH_SIZE);
+        when(blockchainService.sendBlockchainCommands(any(), any())).thenThrow(new IOException("failure"));
+        when(updaterService.updateNextAttempt(any(), eq(2), any())).thenReturn(true);
+
+        taskClaimService.sendBatch(List.of(new PendingClaim(args1, 2), new PendingClaim(args2, 2)));
+
+        verify(commandQueue).scheduleRetry(eq(args1), eq(false), eq(2), any());
+        verify(commandQueue).scheduleRetry(eq(args2), eq(false), eq(2), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+    // endregion
+
+    // region deferAcknowledgement
+    @Test
+    void shouldAcknowledgeQueuedCommandOnceClaimIsSent() {
+        final QueuedCommand queuedCommand = new QueuedCommand();
+        queuedCommand.setChainObjectId(CHAIN_TASK_ID_1);
+        taskClaimService.sendBlockchainCommand(args1, 0);
+
+        assertThat(taskClaimService.deferAcknowledgement(queuedCommand)).isTrue();
+        verify(commandQueue, never()).acknowledge(any());
+
+        final ArgumentCaptor<Runnable> batchCaptor = ArgumentCaptor.forClass(Runnable.class);
+        taskClaimService.flush();
+        verify(queueService).addExecutionToQueue(batchCaptor.capture(), eq(false));
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenReturn(true);
+        batchCaptor.getValue().run();
+
+        verify(commandQueue).acknowledge(queuedCommand);
+        assertThat(taskClaimService.deferAcknowledgement(queuedCommand)).isFalse();
+    }
+
+    @Test
+    void shouldNotDeferAcknowledgementWithoutPendingClaim() {
+        final QueuedCommand queuedCommand = new QueuedCommand();
+        queuedCommand.setChainObjectId(CHAIN_TASK_ID_1);
+        assertThat(taskClaimService.deferAcknowledgement(queuedCommand)).isFalse();
+    }
+
+    @Test
+    void shouldAcknowledgeQueuedCommandWhenBatchFails() {
+        final PendingClaim claim = new PendingClaim(args1, 1);
+        when(blockchainService.isCommandAppliedOnChain(args1)).thenThrow(new IllegalStateException("failure"));
+        assertThatThrownBy(() -> taskClaimService.sendBatch(List.of(claim))).isInstanceOf(IllegalStateException.class);
+        assertThat(claim.completion()).isDone();
+    }
+    // endregion
+
+    private TransactionReceipt createReceipt(final String status) {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash("0xabc");
+        receipt.setStatus(status);
+        return receipt;
+    }
+
+}
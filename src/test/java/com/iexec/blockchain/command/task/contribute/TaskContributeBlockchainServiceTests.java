@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.contribute;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.commons.poco.chain.ChainContribution;
+import com.iexec.commons.poco.chain.ChainContributionStatus;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(OutputCaptureExtension.class)
+class TaskContributeBlockchainServiceTests {
+
+    private static final String CHAIN_TASK_ID = "chainTaskId";
+    private static final long TIME_INTERVAL_IN_MS = 100L;
+    private static final TaskContributeArgs ARGS = new TaskContributeArgs(
+            CHAIN_TASK_ID, "resultDigest", "workerpoolSignature", "enclaveChallenge", "enclaveSignature");
+
+    @Mock
+    private IexecHubService iexecHubService;
+    @InjectMocks
+    private TaskContributeBlockchainService taskContributeBlockchainService;
+
+    @Test
+    void canNotSendCommandWhenInsufficientGas(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(false);
+        assertThat(taskContributeBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("insufficient gas");
+    }
+
+    @Test
+    void canNotSendCommandWhenNoTask(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.empty());
+        assertThat(taskContributeBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("blockchain read");
+    }
+
+    @Test
+    void canNotSendCommandWhenTaskNotActive(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.REVEALING).build()));
+        assertThat(taskContributeBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("task is not active");
+    }
+
+    @Test
+    void canNotSendCommandWhenContributionDeadlineReached(CapturedOutput output) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainTask.builder()
+                .status(ChainTaskStatus.ACTIVE)
+                .contributionDeadline(Instant.now().toEpochMilli())
+                .build()));
+        assertThat(taskContributeBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("after contribution deadline");
+    }
+
+    @Test
+    void canNotSendCommandWhenAlreadyContributed(CapturedOutput output) {
+        mockActiveTask(Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.CONTRIBUTED).build()));
+        assertThat(taskContributeBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("already contributed");
+    }
+
+    @Test
+    void shouldReturnContributionDeadlineWhenCommandCanBeSent() {
+        final Instant contributionDeadline = Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS);
+        mockActiveTask(contributionDeadline);
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.UNSET).build()));
+        assertThat(taskContributeBlockchainService.checkBlockchainCommand(ARGS))
+                .contains(Instant.ofEpochMilli(contributionDeadline.toEpochMilli()));
+    }
+
+    @Test
+    void shouldDetectContributionOnChain() {
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.CONTRIBUTED).build()));
+        assertThat(taskContributeBlockchainService.isCommandAppliedOnChain(ARGS)).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectUnsetContributionOnChain() {
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.UNSET).build()));
+        assertThat(taskContributeBlockchainService.isCommandAppliedOnChain(ARGS)).isFalse();
+    }
+
+    private void mockActiveTask(final Instant contributionDeadline) {
+        when(iexecHubService.hasEnoughGas()).thenReturn(true);
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainTask.builder()
+                .status(ChainTaskStatus.ACTIVE)
+                .contributionDeadline(contributionDeadline.toEpochMilli())
+                .build()));
+    }
+
+}
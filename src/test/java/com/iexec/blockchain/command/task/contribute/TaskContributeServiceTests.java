@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.contribute;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandArchiver;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandRejectedException;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.QueuedCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.iexec.commons.poco.utils.BytesUtils.EMPTY_ADDRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskContributeServiceTests {
+
+    private static final String CHAIN_TASK_ID =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String RESULT_DIGEST =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+    private static final String WORKERPOOL_SIGNATURE = "0x" + "a".repeat(130);
+    private static final String ENCLAVE_SIGNATURE = "0x" + "0".repeat(130);
+    private static final Instant DEADLINE = Instant.now().plusSeconds(60);
+
+    @Mock
+    private TaskContributeBlockchainService blockchainService;
+    @Mock
+    private CommandStorage updaterService;
+    @Mock
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandAdmission commandAdmission;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
+
+    private TaskContributeService taskContributeService;
+    private final TaskContributeArgs args = new TaskContributeArgs(
+            CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, EMPTY_ADDRESS, ENCLAVE_SIGNATURE);
+
+    @BeforeEach
+    void init() {
+        taskContributeService = new TaskContributeService(
+                blockchainService, updaterService, commandQueue, commandAdmission,
+                new CommandDeduplicator(mongoTemplate, updaterService, commandArchiver, 1000, 0.01), Duration.ofMillis(100L));
+    }
+
+    // region start
+    @Test
+    void shouldContribute() {
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(commandAdmission.checkDeadline(args, DEADLINE)).thenReturn(Optional.empty());
+        when(updaterService.updateToReceived(args)).thenReturn(true);
+
+        final String chainTaskId = taskContributeService.start(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, EMPTY_ADDRESS, ENCLAVE_SIGNATURE);
+
+        assertThat(chainTaskId).isEqualTo(CHAIN_TASK_ID);
+        verify(commandAdmission).checkCapacity();
+        verify(commandAdmission).checkDeadline(args, DEADLINE);
+        verify(commandQueue).enqueue(args, false, DEADLINE, QueuedCommand.Step.TRIGGER);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideContributeBadParameters")
+    void shouldNotContributeWithBadParameters(final String chainTaskId,
+                                              final String resultDigest,
+                                              final String workerpoolSignature) {
+        assertThat(taskContributeService.start(
+                chainTaskId, resultDigest, workerpoolSignature, EMPTY_ADDRESS, ENCLAVE_SIGNATURE)).isEmpty();
+        verifyNoInteractions(blockchainService, updaterService, commandQueue);
+    }
+
+    private static Stream<Arguments> provideContributeBadParameters() {
+        return Stream.of(
+                Arguments.of("not-a-task", RESULT_DIGEST, WORKERPOOL_SIGNATURE),
+                Arguments.of(CHAIN_TASK_ID, "not-a-digest", WORKERPOOL_SIGNATURE),
+                Arguments.of(CHAIN_TASK_ID, RESULT_DIGEST, null),
+                Arguments.of(CHAIN_TASK_ID, RESULT_DIGEST, "")
+        );
+    }
+
+    @Test
+    void shouldNotContributeSinceQueueIsFull() {
+        when(commandAdmission.checkCapacity()).thenReturn(Optional.of(Duration.ofSeconds(15)));
+
+        assertThatThrownBy(() -> taskContributeService.start(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, EMPTY_ADDRESS, ENCLAVE_SIGNATURE))
+                .isInstanceOf(CommandRejectedException.class);
+        verifyNoInteractions(blockchainService, commandQueue);
+    }
+
+    @Test
+    void shouldNotContributeSinceCannotOnChain() {
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.empty());
+
+        assertThat(taskContributeService.start(
+                CHAIN_TASK_ID, RESULT_DIGEST, WORKERPOOL_SIGNATURE, EMPTY_ADDRESS, ENCLAVE_SIGNATURE)).isEmpty();
+        verifyNoInteractions(commandQueue);
+    }
+    // endregion
+
+    // region triggerBlockchainCommand
+    @Test
+    void triggerContribute() throws Exception {
+        final TransactionReceipt receipt = mock(TransactionReceipt.class);
+        when(updaterService.updateToProcessing(args)).thenReturn(true);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(receipt);
+
+        taskContributeService.triggerBlockchainCommand(args);
+        verify(updaterService).updateToFinal(args, receipt);
+    }
+
+    @Test
+    void shouldScheduleRetrySinceSendFailed() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenThrow(new IOException("failure"));
+        when(updaterService.updateNextAttempt(eq(args), eq(2), any())).thenReturn(true);
+
+        taskContributeService.sendBlockchainCommand(args, 1);
+
+        verify(commandQueue).scheduleRetry(eq(args), eq(false), eq(2), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+    // endregion
+
+    // region recovery
+    @Test
+    void shouldReconcileWithOnChainState() {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskContributeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldSendAgainWhenNotAppliedOnChain() {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(false);
+        taskContributeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+        verify(commandQueue).enqueueIfAbsent(args, false, null, QueuedCommand.Step.SEND);
+    }
+    // endregion
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022-2024 IEXEC BLOCKCHAIN TECH
+ * Copyright 2022-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -104,6 +104,21 @@ class TaskFinalizeBlockchainServiceTests {
         assertThat(taskFinalizeBlockchainService.canSendBlockchainCommand(args)).isTrue();
     }
 
+    @Test
+    void shouldReturnFinalDeadlineWhenCommandCanBeSent() {
+        TaskFinalizeArgs args = new TaskFinalizeArgs(CHAIN_TASK_ID, "resultLink", "callbackData");
+        Instant finalDeadline = Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS);
+        ChainTask chainTask = ChainTask.builder()
+                .status(ChainTaskStatus.REVEALING)
+                .revealCounter(1)
+                .winnerCounter(1)
+                .finalDeadline(finalDeadline.toEpochMilli())
+                .build();
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(chainTask));
+        assertThat(taskFinalizeBlockchainService.checkBlockchainCommand(args))
+                .contains(Instant.ofEpochMilli(finalDeadline.toEpochMilli()));
+    }
+
     @Test
     void canSendBlockchainCommandWhenAllWinnersRevealed() {
         TaskFinalizeArgs args = new TaskFinalizeArgs(CHAIN_TASK_ID, "resultLink", "callbackData");
@@ -118,4 +133,20 @@ class TaskFinalizeBlockchainServiceTests {
         assertThat(taskFinalizeBlockchainService.canSendBlockchainCommand(args)).isTrue();
     }
 
+    @Test
+    void shouldDetectCompletedTaskOnChain() {
+        TaskFinalizeArgs args = new TaskFinalizeArgs(CHAIN_TASK_ID, "resultLink", "callbackData");
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.COMPLETED).build()));
+        assertThat(taskFinalizeBlockchainService.isCommandAppliedOnChain(args)).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectRevealingTaskAsCompletedOnChain() {
+        TaskFinalizeArgs args = new TaskFinalizeArgs(CHAIN_TASK_ID, "resultLink", "callbackData");
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.REVEALING).build()));
+        assertThat(taskFinalizeBlockchainService.isCommandAppliedOnChain(args)).isFalse();
+    }
+
 }
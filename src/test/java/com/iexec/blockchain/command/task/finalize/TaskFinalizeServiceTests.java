@@ -17,21 +17,35 @@
 package com.iexec.blockchain.command.task.finalize;
 
 import com.iexec.blockchain.api.CommandStatus;
-import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandArchiver;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandEngine;
 import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
 import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.QueuedCommand;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.iexec.commons.poco.utils.BytesUtils.EMPTY_ADDRESS;
@@ -45,6 +59,7 @@ class TaskFinalizeServiceTests {
 
     private static final String CHAIN_TASK_ID =
             "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final Instant DEADLINE = Instant.now().plusSeconds(60);
     private static final String RESULT_LINK = "/ipfs/QmeQHGKFAkEkA5tm3kuXqBM9zz9JorkvCsAJ2bzAAh6NX4";
 
     @Mock
@@ -52,7 +67,13 @@ class TaskFinalizeServiceTests {
     @Mock
     private CommandStorage updaterService;
     @Mock
-    private QueueService queueService;
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandAdmission commandAdmission;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
 
     private TaskFinalizeService taskFinalizeService;
     private final TaskFinalizeArgs args = new TaskFinalizeArgs(CHAIN_TASK_ID, RESULT_LINK, EMPTY_ADDRESS);
@@ -60,17 +81,19 @@ class TaskFinalizeServiceTests {
     @BeforeEach
     void init() {
         taskFinalizeService = new TaskFinalizeService(
-                blockchainService, updaterService, queueService, Duration.ofMillis(100L));
+                blockchainService, updaterService, commandQueue, commandAdmission,
+                new CommandDeduplicator(mongoTemplate, updaterService, commandArchiver, 1000, 0.01), Duration.ofMillis(100L));
     }
 
     // region start
     @Test
     void shouldFinalizeTask() {
-        when(blockchainService.canSendBlockchainCommand(args)).thenReturn(true);
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
         when(updaterService.updateToReceived(args)).thenReturn(true);
         final String chainTaskId = taskFinalizeService.start(CHAIN_TASK_ID, RESULT_LINK, EMPTY_ADDRESS);
         assertThat(chainTaskId).isEqualTo(CHAIN_TASK_ID);
-        verify(queueService).addExecutionToQueue(any(Runnable.class), eq(true));
+        verify(commandQueue).enqueue(args, true, DEADLINE, QueuedCommand.Step.TRIGGER);
+        verifyNoInteractions(commandAdmission);
     }
 
     @ParameterizedTest
@@ -88,23 +111,23 @@ class TaskFinalizeServiceTests {
 
     @Test
     void shouldNotFinalizeTaskSinceCannotOnChain() {
-        when(blockchainService.canSendBlockchainCommand(args)).thenReturn(false);
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.empty());
 
         final String chainTaskId = taskFinalizeService.start(CHAIN_TASK_ID, RESULT_LINK, EMPTY_ADDRESS);
 
         assertThat(chainTaskId).isEmpty();
-        verifyNoInteractions(queueService);
+        verifyNoInteractions(commandQueue);
     }
 
     @Test
     void shouldNotFinalizeTaskSinceCannotUpdate() {
-        when(blockchainService.canSendBlockchainCommand(args)).thenReturn(true);
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
         when(updaterService.updateToReceived(args)).thenReturn(false);
 
         final String chainTaskId = taskFinalizeService.start(CHAIN_TASK_ID, RESULT_LINK, EMPTY_ADDRESS);
 
         assertThat(chainTaskId).isEmpty();
-        verifyNoInteractions(queueService);
+        verifyNoInteractions(commandQueue);
     }
     // endregion
 
@@ -113,7 +136,7 @@ class TaskFinalizeServiceTests {
     void triggerFinalizeTask() throws Exception {
         final TransactionReceipt receipt = mock(TransactionReceipt.class);
         when(updaterService.updateToProcessing(args)).thenReturn(true);
-        when(blockchainService.sendBlockchainCommand(args)).thenReturn(receipt);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(receipt);
 
         taskFinalizeService.triggerBlockchainCommand(args);
         verify(updaterService).updateToFinal(args, receipt);
@@ -130,12 +153,102 @@ class TaskFinalizeServiceTests {
     }
 
     @Test
-    void shouldNotTriggerFinalizeTaskSinceReceiptIsNull() throws Exception {
+    void shouldScheduleRetrySinceReceiptIsNull() throws Exception {
         when(updaterService.updateToProcessing(args)).thenReturn(true);
-        when(blockchainService.sendBlockchainCommand(args)).thenReturn(null);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+        final Instant start = Instant.now();
 
         taskFinalizeService.triggerBlockchainCommand(args);
+
+        final ArgumentCaptor<Instant> nextAttemptDate = ArgumentCaptor.forClass(Instant.class);
+        verify(commandQueue).scheduleRetry(eq(args), eq(true), eq(1), nextAttemptDate.capture());
+        // first retry after half to whole backoff delay
+        assertThat(nextAttemptDate.getValue()).isBetween(start.plusMillis(50), Instant.now().plusMillis(100));
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldScheduleRetrySinceSendFailed() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenThrow(new IOException("failure"));
+        when(updaterService.updateNextAttempt(eq(args), eq(2), any())).thenReturn(true);
+
+        taskFinalizeService.sendBlockchainCommand(args, 1);
+
+        verify(commandQueue).scheduleRetry(eq(args), eq(true), eq(2), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotScheduleRetrySinceCannotUpdate() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(false);
+
+        taskFinalizeService.sendBlockchainCommand(args, 0);
+
+        verifyNoInteractions(commandQueue);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotTriggerFinalizeTaskSinceLastAttemptFailed() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+
+        taskFinalizeService.sendBlockchainCommand(args, CommandEngine.MAX_ATTEMPTS - 1);
+
         verify(updaterService).updateToFinal(args, null);
+        verify(updaterService, never()).updateNextAttempt(any(), anyInt(), any());
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldStoreTxHashOnceSubmitted() throws Exception {
+        final TransactionReceipt receipt = mock(TransactionReceipt.class);
+        when(updaterService.updateToProcessing(args)).thenReturn(true);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept("0xabc");
+            return receipt;
+        });
+
+        taskFinalizeService.triggerBlockchainCommand(args);
+        verify(updaterService).updateTxHashAsync(args, "0xabc");
+        verify(updaterService).updateToFinal(args, receipt);
+    }
+    // endregion
+
+    // region recovery
+    @Test
+    void shouldRequeueReceivedCommand() {
+        taskFinalizeService.requeueBlockchainCommand(args);
+        verify(commandQueue).enqueueIfAbsent(args, true, null, QueuedCommand.Step.TRIGGER);
+    }
+
+    @Test
+    void shouldReconcileWithReceipt() {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        taskFinalizeService.reconcileBlockchainCommand(args, receipt);
+        verify(updaterService).updateToFinal(args, receipt);
+        verifyNoInteractions(blockchainService, commandQueue);
+    }
+
+    @Test
+    void shouldReconcileWithOnChainState() {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskFinalizeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldSendAgainWhenNotAppliedOnChain() {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(false);
+        taskFinalizeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+        verify(commandQueue).enqueueIfAbsent(args, true, null, QueuedCommand.Step.SEND);
     }
     // endregion
 
@@ -151,6 +264,22 @@ class TaskFinalizeServiceTests {
         when(updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.empty());
         assertThat(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).isEmpty();
     }
+
+    @Test
+    void shouldGetStatusForMixedCaseChainTaskId() {
+        when(updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_FINALIZE)).thenReturn(Optional.of(CommandStatus.SUCCESS));
+        assertThat(taskFinalizeService.getStatusForCommand(CHAIN_TASK_ID.toUpperCase(Locale.ROOT).replace("0X", "0x"), CommandName.TASK_FINALIZE))
+                .contains(CommandStatus.SUCCESS);
+    }
+
+    @Test
+    void shouldKeyStatusesByRequestedChainTaskIds() {
+        final String mixedCaseChainTaskId = CHAIN_TASK_ID.toUpperCase(Locale.ROOT).replace("0X", "0x");
+        when(updaterService.getStatusesForCommands(Set.of(CHAIN_TASK_ID), CommandName.TASK_FINALIZE))
+                .thenReturn(Map.of(CHAIN_TASK_ID, CommandStatus.SUCCESS));
+        assertThat(taskFinalizeService.getStatusesForCommands(List.of(mixedCaseChainTaskId), CommandName.TASK_FINALIZE))
+                .containsExactly(Map.entry(mixedCaseChainTaskId, CommandStatus.SUCCESS));
+    }
     // endregion
 
 }
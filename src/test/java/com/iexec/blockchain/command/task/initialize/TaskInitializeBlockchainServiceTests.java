@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2024 IEXEC BLOCKCHAIN TECH
+ * Copyright 2021-2026 IEXEC BLOCKCHAIN TECH
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +38,7 @@ class TaskInitializeBlockchainServiceTests {
     public static final int TASK_INDEX = 0;
     public static final String CHAIN_TASK_ID =
             ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, TASK_INDEX);
+    private static final Instant DEADLINE = Instant.now().plusSeconds(60);
 
     @InjectMocks
     private TaskInitializeBlockchainService checkerService;
@@ -48,10 +52,11 @@ class TaskInitializeBlockchainServiceTests {
                 .thenReturn(true);
         when(iexecHubService.isTaskInUnsetStatusOnChain(CHAIN_TASK_ID))
                 .thenReturn(true);
-        when(iexecHubService.isBeforeContributionDeadline(CHAIN_DEAL_ID))
-                .thenReturn(true);
+        when(iexecHubService.getContributionDeadline(CHAIN_DEAL_ID))
+                .thenReturn(Optional.of(DEADLINE));
 
         Assertions.assertTrue(checkerService.canSendBlockchainCommand(args));
+        Assertions.assertEquals(Optional.of(DEADLINE), checkerService.checkBlockchainCommand(args));
     }
 
     @Test
@@ -81,12 +86,41 @@ class TaskInitializeBlockchainServiceTests {
                 .thenReturn(true);
         when(iexecHubService.isTaskInUnsetStatusOnChain(CHAIN_TASK_ID))
                 .thenReturn(true);
-        when(iexecHubService.isBeforeContributionDeadline(CHAIN_DEAL_ID))
-                .thenReturn(false);
+        when(iexecHubService.getContributionDeadline(CHAIN_DEAL_ID))
+                .thenReturn(Optional.of(Instant.now().minusSeconds(1)));
+
+        Assertions.assertFalse(checkerService.canSendBlockchainCommand(args));
+    }
+
+    @Test
+    void cannotInitializeTaskSinceDealNotRead() {
+        TaskInitializeArgs args = getArgs();
+        when(iexecHubService.hasEnoughGas())
+                .thenReturn(true);
+        when(iexecHubService.isTaskInUnsetStatusOnChain(CHAIN_TASK_ID))
+                .thenReturn(true);
+        when(iexecHubService.getContributionDeadline(CHAIN_DEAL_ID))
+                .thenReturn(Optional.empty());
 
         Assertions.assertFalse(checkerService.canSendBlockchainCommand(args));
     }
 
+    @Test
+    void shouldDetectInitializedTaskOnChain() {
+        when(iexecHubService.isTaskInUnsetStatusOnChain(CHAIN_TASK_ID))
+                .thenReturn(false);
+
+        Assertions.assertTrue(checkerService.isCommandAppliedOnChain(getArgs()));
+    }
+
+    @Test
+    void shouldNotDetectUnsetTaskAsInitializedOnChain() {
+        when(iexecHubService.isTaskInUnsetStatusOnChain(CHAIN_TASK_ID))
+                .thenReturn(true);
+
+        Assertions.assertFalse(checkerService.isCommandAppliedOnChain(getArgs()));
+    }
+
     private TaskInitializeArgs getArgs() {
         return new TaskInitializeArgs(CHAIN_TASK_ID, CHAIN_DEAL_ID, TASK_INDEX);
     }
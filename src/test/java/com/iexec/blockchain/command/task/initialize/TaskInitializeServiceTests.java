@@ -17,9 +17,15 @@
 package com.iexec.blockchain.command.task.initialize;
 
 import com.iexec.blockchain.api.CommandStatus;
-import com.iexec.blockchain.chain.QueueService;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandArchiver;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandEngine;
 import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.CommandRejectedException;
 import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.QueuedCommand;
 import com.iexec.commons.poco.chain.ChainUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,15 +33,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,13 +58,20 @@ class TaskInitializeServiceTests {
     public static final int TASK_INDEX = 0;
     public static final String CHAIN_TASK_ID =
             ChainUtils.generateChainTaskId(CHAIN_DEAL_ID, TASK_INDEX);
+    private static final Instant DEADLINE = Instant.now().plusSeconds(60);
 
     @Mock
     private TaskInitializeBlockchainService blockchainCheckerService;
     @Mock
     private CommandStorage updaterService;
     @Mock
-    private QueueService queueService;
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandAdmission commandAdmission;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
 
     private TaskInitializeService taskInitializeService;
     private final TaskInitializeArgs args = new TaskInitializeArgs(CHAIN_TASK_ID, CHAIN_DEAL_ID, TASK_INDEX);
@@ -60,19 +79,62 @@ class TaskInitializeServiceTests {
     @BeforeEach
     void init() {
         taskInitializeService = new TaskInitializeService(
-                blockchainCheckerService, updaterService, queueService, Duration.ofMillis(100L));
+                blockchainCheckerService, updaterService, commandQueue, commandAdmission,
+                new CommandDeduplicator(mongoTemplate, updaterService, commandArchiver, 1000, 0.01), Duration.ofMillis(100L));
     }
 
     // region start
     @Test
     void shouldInitializeTask() {
-        when(blockchainCheckerService.canSendBlockchainCommand(args)).thenReturn(true);
+        when(blockchainCheckerService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(commandAdmission.checkDeadline(args, DEADLINE)).thenReturn(Optional.empty());
         when(updaterService.updateToReceived(args)).thenReturn(true);
 
         final String chainTaskId = taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX);
 
         assertThat(chainTaskId).isEqualTo(CHAIN_TASK_ID);
-        verify(queueService).addExecutionToQueue(any(Runnable.class), eq(false));
+        verify(commandAdmission).checkCapacity();
+        verify(commandAdmission).checkDeadline(args, DEADLINE);
+        verify(commandQueue).enqueue(args, false, DEADLINE, QueuedCommand.Step.TRIGGER);
+    }
+
+    @Test
+    void shouldAnswerDuplicateWithoutOnChainChecks() {
+        when(blockchainCheckerService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(commandAdmission.checkDeadline(args, DEADLINE)).thenReturn(Optional.empty());
+        when(updaterService.updateToReceived(args)).thenReturn(true);
+        when(updaterService.getStatusForCommand(CHAIN_TASK_ID, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.RECEIVED));
+
+        assertThat(taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX)).isEqualTo(CHAIN_TASK_ID);
+        assertThat(taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX)).isEqualTo(CHAIN_TASK_ID);
+
+        verify(blockchainCheckerService).checkBlockchainCommand(args);
+        verify(updaterService).updateToReceived(args);
+        verify(commandQueue).enqueue(args, false, DEADLINE, QueuedCommand.Step.TRIGGER);
+    }
+
+    @Test
+    void shouldNotInitializeTaskSinceQueueIsFull() {
+        when(commandAdmission.checkCapacity()).thenReturn(Optional.of(Duration.ofSeconds(15)));
+
+        assertThatThrownBy(() -> taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX))
+                .isInstanceOf(CommandRejectedException.class)
+                .extracting("retryAfter")
+                .isEqualTo(Duration.ofSeconds(15));
+        verifyNoInteractions(blockchainCheckerService, updaterService, commandQueue);
+    }
+
+    @Test
+    void shouldNotInitializeTaskSinceDeadlineBeforeProjectedWait() {
+        when(blockchainCheckerService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(commandAdmission.checkDeadline(args, DEADLINE)).thenReturn(Optional.of(Duration.ofSeconds(4)));
+
+        assertThatThrownBy(() -> taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX))
+                .isInstanceOf(CommandRejectedException.class)
+                .extracting("retryAfter")
+                .isEqualTo(Duration.ofSeconds(4));
+        verifyNoInteractions(updaterService, commandQueue);
     }
 
     @ParameterizedTest
@@ -90,23 +152,24 @@ class TaskInitializeServiceTests {
 
     @Test
     void shouldNotInitializeTaskSinceCannotOnChain() {
-        when(blockchainCheckerService.canSendBlockchainCommand(args)).thenReturn(false);
+        when(blockchainCheckerService.checkBlockchainCommand(args)).thenReturn(Optional.empty());
 
         final String chainTaskId = taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX);
 
         assertThat(chainTaskId).isEmpty();
-        verifyNoInteractions(queueService);
+        verifyNoInteractions(commandQueue);
     }
 
     @Test
     void shouldNotInitializeTaskSinceCannotUpdate() {
-        when(blockchainCheckerService.canSendBlockchainCommand(args)).thenReturn(true);
+        when(blockchainCheckerService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(commandAdmission.checkDeadline(args, DEADLINE)).thenReturn(Optional.empty());
         when(updaterService.updateToReceived(args)).thenReturn(false);
 
         final String chainTaskId = taskInitializeService.start(CHAIN_DEAL_ID, TASK_INDEX);
 
         assertThat(chainTaskId).isEmpty();
-        verifyNoInteractions(queueService);
+        verifyNoInteractions(commandQueue);
     }
     // endregion
 
@@ -115,7 +178,7 @@ class TaskInitializeServiceTests {
     void triggerInitializeTask() throws Exception {
         final TransactionReceipt receipt = mock(TransactionReceipt.class);
         when(updaterService.updateToProcessing(args)).thenReturn(true);
-        when(blockchainCheckerService.sendBlockchainCommand(args)).thenReturn(receipt);
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenReturn(receipt);
 
         taskInitializeService.triggerBlockchainCommand(args);
         verify(updaterService).updateToFinal(args, receipt);
@@ -132,12 +195,174 @@ class TaskInitializeServiceTests {
     }
 
     @Test
-    void shouldNotTriggerInitializeTaskSinceReceiptIsNull() throws Exception {
+    void shouldScheduleRetrySinceReceiptIsNull() throws Exception {
         when(updaterService.updateToProcessing(args)).thenReturn(true);
-        when(blockchainCheckerService.sendBlockchainCommand(args)).thenReturn(null);
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+        final Instant start = Instant.now();
 
         taskInitializeService.triggerBlockchainCommand(args);
+
+        final ArgumentCaptor<Instant> nextAttemptDate = ArgumentCaptor.forClass(Instant.class);
+        verify(commandQueue).scheduleRetry(eq(args), eq(false), eq(1), nextAttemptDate.capture());
+        // first retry after half to whole backoff delay
+        assertThat(nextAttemptDate.getValue()).isBetween(start.plusMillis(50), Instant.now().plusMillis(100));
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldScheduleRetrySinceSendFailed() throws Exception {
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenThrow(new IOException("failure"));
+        when(updaterService.updateNextAttempt(eq(args), eq(2), any())).thenReturn(true);
+
+        taskInitializeService.sendBlockchainCommand(args, 1);
+
+        verify(commandQueue).scheduleRetry(eq(args), eq(false), eq(2), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldScheduleRetryAtOnceSinceNonceTooLow() throws Exception {
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any()))
+                .thenThrow(new IOException("nonce too low: next nonce 42, tx nonce 41"));
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+
+        taskInitializeService.sendBlockchainCommand(args, 0);
+
+        final ArgumentCaptor<Instant> nextAttemptDate = ArgumentCaptor.forClass(Instant.class);
+        verify(commandQueue).scheduleRetry(eq(args), eq(false), eq(1), nextAttemptDate.capture());
+        assertThat(nextAttemptDate.getValue()).isBeforeOrEqualTo(Instant.now());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotScheduleRetrySinceTransactionReverted() throws Exception {
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any()))
+                .thenThrow(new IOException("execution reverted: PocoBoost: Unknown task"));
+
+        taskInitializeService.sendBlockchainCommand(args, 0);
+
         verify(updaterService).updateToFinal(args, null);
+        verify(updaterService, never()).updateNextAttempt(any(), anyInt(), any());
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldNotScheduleRetrySinceCannotUpdate() throws Exception {
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(false);
+
+        taskInitializeService.sendBlockchainCommand(args, 0);
+
+        verifyNoInteractions(commandQueue);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldNotTriggerInitializeTaskSinceLastAttemptFailed() throws Exception {
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenReturn(null);
+
+        taskInitializeService.sendBlockchainCommand(args, CommandEngine.MAX_ATTEMPTS - 1);
+
+        verify(updaterService).updateToFinal(args, null);
+        verify(updaterService, never()).updateNextAttempt(any(), anyInt(), any());
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldStoreTxHashOnceSubmitted() throws Exception {
+        final TransactionReceipt receipt = mock(TransactionReceipt.class);
+        when(updaterService.updateToProcessing(args)).thenReturn(true);
+        when(blockchainCheckerService.sendBlockchainCommand(eq(args), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept("0xabc");
+            return receipt;
+        });
+
+        taskInitializeService.triggerBlockchainCommand(args);
+        verify(updaterService).updateTxHashAsync(args, "0xabc");
+        verify(updaterService).updateToFinal(args, receipt);
+    }
+    // endregion
+
+    // region recovery
+    @Test
+    void shouldRequeueReceivedCommand() {
+        taskInitializeService.requeueBlockchainCommand(args);
+        verify(commandQueue).enqueueIfAbsent(args, false, null, QueuedCommand.Step.TRIGGER);
+    }
+
+    @Test
+    void shouldReconcileWithReceipt() {
+        final TransactionReceipt receipt = new TransactionReceipt();
+        taskInitializeService.reconcileBlockchainCommand(args, receipt);
+        verify(updaterService).updateToFinal(args, receipt);
+        verifyNoInteractions(blockchainCheckerService, commandQueue);
+    }
+
+    @Test
+    void shouldReconcileWithOnChainState() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskInitializeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldSendAgainWhenNotAppliedOnChain() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(false);
+        taskInitializeService.reconcileBlockchainCommand(args, null);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+        verify(commandQueue).enqueueIfAbsent(args, false, null, QueuedCommand.Step.SEND);
+    }
+
+    @Test
+    void shouldReconcileSubmittedCommandWithOnChainState() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskInitializeService.reconcileSubmittedBlockchainCommand(args, 1);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verifyNoInteractions(commandQueue);
+    }
+
+    @Test
+    void shouldScheduleConfirmationOfSubmittedCommandNotAppliedOnChain() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(false);
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+        taskInitializeService.reconcileSubmittedBlockchainCommand(args, 1);
+        verify(commandQueue).scheduleConfirmation(eq(args), eq(false), eq(1), any());
+        verify(commandQueue, never()).enqueueIfAbsent(any(), anyBoolean(), any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldExpireCommand() {
+        when(updaterService.updateToExpired(args, CommandStatus.RECEIVED)).thenReturn(true);
+        taskInitializeService.expireBlockchainCommand(args, CommandStatus.RECEIVED);
+        verify(updaterService).updateToExpired(args, CommandStatus.RECEIVED);
+        verifyNoInteractions(blockchainCheckerService, commandQueue);
+    }
+
+    @Test
+    void shouldExpireProcessingCommandNotAppliedOnChain() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(false);
+        when(updaterService.updateToExpired(args, CommandStatus.PROCESSING)).thenReturn(true);
+        taskInitializeService.expireBlockchainCommand(args, CommandStatus.PROCESSING);
+        verify(updaterService).updateToExpired(args, CommandStatus.PROCESSING);
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldCompleteProcessingCommandAppliedOnChainInsteadOfExpiring() {
+        when(blockchainCheckerService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskInitializeService.expireBlockchainCommand(args, CommandStatus.PROCESSING);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verify(updaterService, never()).updateToExpired(any(), any());
     }
     // endregion
 
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.reveal;
+
+import com.iexec.blockchain.chain.IexecHubService;
+import com.iexec.commons.poco.chain.ChainContribution;
+import com.iexec.commons.poco.chain.ChainContributionStatus;
+import com.iexec.commons.poco.chain.ChainTask;
+import com.iexec.commons.poco.chain.ChainTaskStatus;
+import com.iexec.commons.poco.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@ExtendWith(OutputCaptureExtension.class)
+class TaskRevealBlockchainServiceTests {
+
+    private static final String CHAIN_TASK_ID =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String RESULT_DIGEST =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+    private static final String RESULT_HASH = HashUtils.concatenateAndHash(CHAIN_TASK_ID, RESULT_DIGEST);
+    private static final long TIME_INTERVAL_IN_MS = 100L;
+    private static final TaskRevealArgs ARGS = new TaskRevealArgs(CHAIN_TASK_ID, RESULT_DIGEST);
+
+    @Mock
+    private IexecHubService iexecHubService;
+    @InjectMocks
+    private TaskRevealBlockchainService taskRevealBlockchainService;
+
+    @Test
+    void canNotSendCommandWhenNoTask(CapturedOutput output) {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.empty());
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("blockchain read");
+    }
+
+    @Test
+    void canNotSendCommandWhenTaskNotRevealing(CapturedOutput output) {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID))
+                .thenReturn(Optional.of(ChainTask.builder().status(ChainTaskStatus.ACTIVE).build()));
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("task is not revealing");
+    }
+
+    @Test
+    void canNotSendCommandWhenRevealDeadlineReached(CapturedOutput output) {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainTask.builder()
+                .status(ChainTaskStatus.REVEALING)
+                .revealDeadline(Instant.now().toEpochMilli())
+                .build()));
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("after reveal deadline");
+    }
+
+    @Test
+    void canNotSendCommandWhenNotContributed(CapturedOutput output) {
+        mockRevealingTask(RESULT_HASH, Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.UNSET).build()));
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("contribution is not revealable");
+    }
+
+    @Test
+    void canNotSendCommandWhenContributionNotInConsensus(CapturedOutput output) {
+        mockRevealingTask("0xconsensus", Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        mockContribution(RESULT_HASH);
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(ARGS)).isFalse();
+        assertThat(output.getOut()).contains("contribution is not in consensus");
+    }
+
+    @Test
+    void canNotSendCommandWhenResultDigestDoesNotMatch(CapturedOutput output) {
+        mockRevealingTask(RESULT_HASH, Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS));
+        mockContribution(RESULT_HASH);
+        final TaskRevealArgs otherArgs = new TaskRevealArgs(CHAIN_TASK_ID, CHAIN_TASK_ID);
+        assertThat(taskRevealBlockchainService.canSendBlockchainCommand(otherArgs)).isFalse();
+        assertThat(output.getOut()).contains("result digest does not match contribution");
+    }
+
+    @Test
+    void shouldReturnRevealDeadlineWhenCommandCanBeSent() {
+        final Instant revealDeadline = Instant.now().plus(TIME_INTERVAL_IN_MS, ChronoUnit.MILLIS);
+        mockRevealingTask(RESULT_HASH, revealDeadline);
+        mockContribution(RESULT_HASH);
+        assertThat(taskRevealBlockchainService.checkBlockchainCommand(ARGS))
+                .contains(Instant.ofEpochMilli(revealDeadline.toEpochMilli()));
+    }
+
+    @Test
+    void shouldDetectRevealOnChain() {
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.REVEALED).build()));
+        assertThat(taskRevealBlockchainService.isCommandAppliedOnChain(ARGS)).isTrue();
+    }
+
+    @Test
+    void shouldNotDetectContributionAsRevealedOnChain() {
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(
+                ChainContribution.builder().status(ChainContributionStatus.CONTRIBUTED).build()));
+        assertThat(taskRevealBlockchainService.isCommandAppliedOnChain(ARGS)).isFalse();
+    }
+
+    private void mockRevealingTask(final String consensusValue, final Instant revealDeadline) {
+        when(iexecHubService.getChainTask(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainTask.builder()
+                .status(ChainTaskStatus.REVEALING)
+                .consensusValue(consensusValue)
+                .revealDeadline(revealDeadline.toEpochMilli())
+                .build()));
+    }
+
+    private void mockContribution(final String resultHash) {
+        when(iexecHubService.getWalletContribution(CHAIN_TASK_ID)).thenReturn(Optional.of(ChainContribution.builder()
+                .status(ChainContributionStatus.CONTRIBUTED)
+                .resultHash(resultHash)
+                .build()));
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.command.task.reveal;
+
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.generic.CommandAdmission;
+import com.iexec.blockchain.command.generic.CommandArchiver;
+import com.iexec.blockchain.command.generic.CommandDeduplicator;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import com.iexec.blockchain.command.generic.CommandQueue;
+import com.iexec.blockchain.command.generic.QueuedCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskRevealServiceTests {
+
+    private static final String CHAIN_TASK_ID =
+            "0xe90fc4654b5ea32ad8689091e7610cad7ee5c8b9b1a6e39401b57d90343bfcaa";
+    private static final String RESULT_DIGEST =
+            "0x1f8b7dc1d9e3dc6b28b1b0c7e3a9f18e5b1c2a3e4d5f60718293a4b5c6d7e8f9";
+    private static final Instant DEADLINE = Instant.now().plusSeconds(60);
+
+    @Mock
+    private TaskRevealBlockchainService blockchainService;
+    @Mock
+    private CommandStorage updaterService;
+    @Mock
+    private CommandQueue commandQueue;
+    @Mock
+    private CommandAdmission commandAdmission;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CommandArchiver commandArchiver;
+
+    private TaskRevealService taskRevealService;
+    private final TaskRevealArgs args = new TaskRevealArgs(CHAIN_TASK_ID, RESULT_DIGEST);
+
+    @BeforeEach
+    void init() {
+        taskRevealService = new TaskRevealService(
+                blockchainService, updaterService, commandQueue, commandAdmission,
+                new CommandDeduplicator(mongoTemplate, updaterService, commandArchiver, 1000, 0.01), Duration.ofMillis(100L));
+    }
+
+    // region start
+    @Test
+    void shouldReveal() {
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(updaterService.updateToReceived(args)).thenReturn(true);
+
+        assertThat(taskRevealService.start(CHAIN_TASK_ID, RESULT_DIGEST)).isEqualTo(CHAIN_TASK_ID);
+        verify(commandQueue).enqueue(args, true, DEADLINE, QueuedCommand.Step.TRIGGER);
+        verifyNoInteractions(commandAdmission);
+    }
+
+    @Test
+    void shouldRevealWithLowercaseChainTaskId() {
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(updaterService.updateToReceived(args)).thenReturn(true);
+
+        final String mixedCaseChainTaskId = CHAIN_TASK_ID.toUpperCase(Locale.ROOT).replace("0X", "0x");
+        assertThat(taskRevealService.start(mixedCaseChainTaskId, RESULT_DIGEST)).isEqualTo(CHAIN_TASK_ID);
+        verify(commandQueue).enqueue(args, true, DEADLINE, QueuedCommand.Step.TRIGGER);
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideRevealBadParameters")
+    void shouldNotRevealWithBadParameters(final String chainTaskId, final String resultDigest) {
+        assertThat(taskRevealService.start(chainTaskId, resultDigest)).isEmpty();
+        verifyNoInteractions(blockchainService, updaterService, commandQueue);
+    }
+
+    private static Stream<Arguments> provideRevealBadParameters() {
+        return Stream.of(
+                Arguments.of("not-a-task", RESULT_DIGEST),
+                Arguments.of(CHAIN_TASK_ID, null)
+        );
+    }
+
+    @Test
+    void shouldNotRevealSinceCannotUpdate() {
+        when(blockchainService.checkBlockchainCommand(args)).thenReturn(Optional.of(DEADLINE));
+        when(updaterService.updateToReceived(args)).thenReturn(false);
+
+        assertThat(taskRevealService.start(CHAIN_TASK_ID, RESULT_DIGEST)).isEmpty();
+        verifyNoInteractions(commandQueue);
+    }
+    // endregion
+
+    // region triggerBlockchainCommand
+    @Test
+    void shouldStoreTxHashOnceSubmitted() throws Exception {
+        final TransactionReceipt receipt = mock(TransactionReceipt.class);
+        when(updaterService.updateToProcessing(args)).thenReturn(true);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept("0xabc");
+            return receipt;
+        });
+
+        taskRevealService.triggerBlockchainCommand(args);
+        verify(updaterService).updateTxHashAsync(args, "0xabc");
+        verify(updaterService).updateToFinal(args, receipt);
+    }
+
+    @Test
+    void shouldScheduleRetrySinceSendFailed() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenThrow(new IOException("failure"));
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+
+        taskRevealService.sendBlockchainCommand(args, 0);
+
+        verify(commandQueue).scheduleRetry(eq(args), eq(true), eq(1), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldScheduleConfirmationSinceTransactionAlreadyKnown() throws Exception {
+        when(blockchainService.sendBlockchainCommand(eq(args), any()))
+                .thenThrow(new IOException("Error processing transaction request: already known"));
+        when(updaterService.updateNextAttempt(eq(args), eq(1), any())).thenReturn(true);
+
+        taskRevealService.sendBlockchainCommand(args, 0);
+
+        verify(commandQueue).scheduleConfirmation(eq(args), eq(true), eq(1), any());
+        verify(commandQueue, never()).scheduleRetry(any(), anyBoolean(), anyInt(), any());
+        verify(updaterService, never()).updateToFinal(any(), any());
+        verify(updaterService, never()).updateToFinal(any(), any(), any());
+    }
+
+    @Test
+    void shouldCompleteConfirmedCommandWithoutSendingAgain() throws Exception {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(true);
+
+        taskRevealService.confirmBlockchainCommand(args, 1);
+
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verify(blockchainService, never()).sendBlockchainCommand(any(), any());
+    }
+
+    @Test
+    void shouldSendAgainCommandNotConfirmedOnChain() throws Exception {
+        final TransactionReceipt receipt = mock(TransactionReceipt.class);
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(false);
+        when(blockchainService.sendBlockchainCommand(eq(args), any())).thenReturn(receipt);
+
+        taskRevealService.confirmBlockchainCommand(args, 1);
+
+        verify(updaterService).updateToFinal(args, receipt);
+    }
+    // endregion
+
+    // region recovery
+    @Test
+    void shouldRequeueReceivedCommand() {
+        taskRevealService.requeueBlockchainCommand(args);
+        verify(commandQueue).enqueueIfAbsent(args, true, null, QueuedCommand.Step.TRIGGER);
+    }
+
+    @Test
+    void shouldReconcileWithOnChainState() {
+        when(blockchainService.isCommandAppliedOnChain(args)).thenReturn(true);
+        taskRevealService.reconcileBlockchainCommand(args, null);
+        verify(updaterService).updateToFinal(args, CommandStatus.SUCCESS, null);
+        verifyNoInteractions(commandQueue);
+    }
+    // endregion
+
+}
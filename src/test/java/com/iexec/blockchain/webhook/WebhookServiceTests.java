@@ -0,0 +1,320 @@
+/*
+ * Copyright 2026 IEXEC BLOCKCHAIN TECH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iexec.blockchain.webhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iexec.blockchain.api.CommandNotification;
+import com.iexec.blockchain.api.CommandStatus;
+import com.iexec.blockchain.command.generic.CommandFinalEvent;
+import com.iexec.blockchain.command.generic.CommandName;
+import com.iexec.blockchain.command.generic.CommandStorage;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestClient;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataMongoTest
+@Testcontainers
+class WebhookServiceTests {
+
+    private static final String CHAIN_TASK_ID_1 = "0x0000000000000000000000000000000000000000000000000000000000000001";
+    private static final String CHAIN_TASK_ID_2 = "0x0000000000000000000000000000000000000000000000000000000000000002";
+
+    @Container
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer(DockerImageName.parse(System.getProperty("mongo.image")));
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.host", mongoDBContainer::getHost);
+        registry.add("spring.data.mongodb.port", () -> mongoDBContainer.getMappedPort(27017));
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final CommandStorage commandStorage = mock(CommandStorage.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<List<CommandNotification>> receivedBatches = new CopyOnWriteArrayList<>();
+    private HttpServer receiver;
+    private int receiverStatusCode;
+
+    @BeforeEach
+    void init() throws IOException {
+        mongoTemplate.findAllAndRemove(new Query(), WebhookSubscription.class);
+        mongoTemplate.findAllAndRemove(new Query(), WebhookNotification.class);
+        receiverStatusCode = 200;
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.setExecutor(Executors.newCachedThreadPool());
+        receiver.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        receiver.createContext("/", exchange -> {
+            receivedBatches.add(objectMapper.readValue(exchange.getRequestBody(),
+                    new TypeReference<List<CommandNotification>>() {
+                    }));
+            exchange.sendResponseHeaders(receiverStatusCode, -1);
+            exchange.close();
+        });
+        receiver.start();
+    }
+
+    @AfterEach
+    void stop() {
+        receiver.stop(0);
+    }
+
+    private String receiverUrl(final String path) {
+        return "http://localhost:" + receiver.getAddress().getPort() + path;
+    }
+
+    private WebhookService createWebhookService(final String globalUrl, final int maxAttempts) {
+        final WebhookConfig webhookConfig = WebhookConfig.builder()
+                .url(globalUrl)
+                .allowedHosts(List.of("localhost"))
+                .batchWindow(Duration.ofMillis(100))
+                .maxBatchSize(100)
+                .maxAttempts(maxAttempts)
+                .backoffDelay(Duration.ZERO)
+                .connectTimeout(Duration.ofMillis(500))
+                .readTimeout(Duration.ofMillis(500))
+                .maxConcurrentDeliveries(2)
+                .build();
+        return new WebhookService(mongoTemplate, commandStorage, webhookConfig, RestClient.builder());
+    }
+
+    // region subscribe
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not-a-url", "ftp://localhost/notifications", "http://"})
+    void shouldNotSubscribeWithInvalidUrl(final String url) {
+        final WebhookService webhookService = createWebhookService("", 1);
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, url)).isFalse();
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "http://127.0.0.1/notifications",
+            "http://0.0.0.0/notifications",
+            "http://169.254.169.254/latest/meta-data",
+            "http://10.0.0.1/notifications",
+            "http://172.16.0.1/notifications",
+            "http://192.168.1.1/notifications",
+            "http://100.64.0.1/notifications",
+            "http://[::1]/notifications",
+            "http://[fd00::1]/notifications",
+            "http://[fe80::1]/notifications",
+            "http://unknown-host.invalid/notifications"
+    })
+    void shouldNotSubscribeWithPrivateHost(final String url) {
+        final WebhookService webhookService = createWebhookService("", 1);
+        assertThat(webhookService.isValidUrl(url)).isFalse();
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, url)).isFalse();
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isZero();
+    }
+
+    @Test
+    void shouldAcceptPublicAddress() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        assertThat(webhookService.isValidUrl("https://8.8.8.8/notifications")).isTrue();
+    }
+
+    @Test
+    void shouldDropNotificationsOfDisallowedUrl() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        final Instant now = Instant.now();
+        mongoTemplate.insert(new WebhookNotification(null, "http://127.0.0.1:1/notifications", CHAIN_TASK_ID_1,
+                CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS, now, 0, now));
+
+        webhookService.deliverPendingNotifications();
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> mongoTemplate.count(new Query(), WebhookNotification.class) == 0);
+        assertThat(receivedBatches).isEmpty();
+    }
+
+    @Test
+    void shouldSubscribeOnlyOnceForSameUrl() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, receiverUrl("/task"))).isTrue();
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, receiverUrl("/task"))).isTrue();
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isOne();
+    }
+
+    @Test
+    void shouldNotifyAtOnceWhenCommandAlreadyCompleted() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.SUCCESS));
+
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, receiverUrl("/task"))).isTrue();
+
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isZero();
+        final List<WebhookNotification> notifications = mongoTemplate.findAll(WebhookNotification.class);
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications.get(0).getStatus()).isEqualTo(CommandStatus.SUCCESS);
+
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+        assertThat(mongoTemplate.count(new Query(), WebhookNotification.class)).isOne();
+    }
+
+    @Test
+    void shouldKeepSubscriptionWhileCommandNotCompleted() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        when(commandStorage.getStatusForCommand(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE))
+                .thenReturn(Optional.of(CommandStatus.PROCESSING));
+
+        assertThat(webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, receiverUrl("/task"))).isTrue();
+
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isOne();
+        assertThat(mongoTemplate.count(new Query(), WebhookNotification.class)).isZero();
+    }
+    // endregion
+
+    // region onCommandFinal
+    @Test
+    void shouldNotStoreNotificationWhenNoUrl() {
+        final WebhookService webhookService = createWebhookService("", 1);
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+        assertThat(mongoTemplate.count(new Query(), WebhookNotification.class)).isZero();
+    }
+
+    @Test
+    void shouldStoreNotificationForGlobalAndCommandUrls() {
+        final WebhookService webhookService = createWebhookService(receiverUrl("/global"), 1);
+        webhookService.subscribe(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, receiverUrl("/task"));
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+        assertThat(mongoTemplate.findAll(WebhookNotification.class))
+                .extracting(WebhookNotification::getUrl)
+                .containsExactlyInAnyOrder(receiverUrl("/global"), receiverUrl("/task"));
+        assertThat(mongoTemplate.count(new Query(), WebhookSubscription.class)).isZero();
+    }
+    // endregion
+
+    // region deliverPendingNotifications
+    @Test
+    void shouldDeliverNotificationsInSingleBatch() {
+        final WebhookService webhookService = createWebhookService(receiverUrl("/global"), 1);
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_2, CommandName.TASK_FINALIZE, CommandStatus.FAILURE));
+
+        webhookService.deliverPendingNotifications();
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> mongoTemplate.count(new Query(), WebhookNotification.class) == 0);
+        assertThat(receivedBatches).hasSize(1);
+        assertThat(receivedBatches.get(0)).containsExactlyInAnyOrder(
+                new CommandNotification(CHAIN_TASK_ID_1, "TASK_INITIALIZE", CommandStatus.SUCCESS),
+                new CommandNotification(CHAIN_TASK_ID_2, "TASK_FINALIZE", CommandStatus.FAILURE));
+    }
+
+    @Test
+    void shouldRetryNotificationDeliveryOnFailure() {
+        receiverStatusCode = 500;
+        final WebhookService webhookService = createWebhookService(receiverUrl("/global"), 2);
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+
+        webhookService.deliverPendingNotifications();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(mongoTemplate.findAll(WebhookNotification.class))
+                        .extracting(WebhookNotification::getAttempt)
+                        .containsExactly(1));
+
+        receiverStatusCode = 200;
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            webhookService.deliverPendingNotifications();
+            return mongoTemplate.count(new Query(), WebhookNotification.class) == 0;
+        });
+        assertThat(receivedBatches).hasSize(2);
+    }
+
+    @Test
+    void shouldDropNotificationAfterMaxAttempts() {
+        receiverStatusCode = 500;
+        final WebhookService webhookService = createWebhookService(receiverUrl("/global"), 1);
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+
+        webhookService.deliverPendingNotifications();
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> mongoTemplate.count(new Query(), WebhookNotification.class) == 0);
+        assertThat(receivedBatches).hasSize(1);
+    }
+
+    @Test
+    void shouldRetryNotificationDeliveryOnReadTimeout() {
+        final WebhookService webhookService = createWebhookService(receiverUrl("/slow"), 2);
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+
+        webhookService.deliverPendingNotifications();
+
+        await().atMost(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(mongoTemplate.findAll(WebhookNotification.class))
+                        .extracting(WebhookNotification::getAttempt)
+                        .containsExactly(1));
+    }
+
+    @Test
+    void shouldDeliverOtherUrlsWhileCallbackUrlIsSlow() {
+        final WebhookService webhookService = createWebhookService(receiverUrl("/slow"), 2);
+        webhookService.subscribe(CHAIN_TASK_ID_2, CommandName.TASK_INITIALIZE, receiverUrl("/task"));
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_1, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+        webhookService.onCommandFinal(new CommandFinalEvent(CHAIN_TASK_ID_2, CommandName.TASK_INITIALIZE, CommandStatus.SUCCESS));
+
+        webhookService.deliverPendingNotifications();
+        webhookService.deliverPendingNotifications();
+
+        await().atMost(Duration.ofMillis(400)).until(() -> receivedBatches.size() == 1);
+        assertThat(mongoTemplate.findAll(WebhookNotification.class))
+                .extracting(WebhookNotification::getUrl)
+                .containsOnly(receiverUrl("/slow"));
+    }
+    // endregion
+}